@@ -0,0 +1,840 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.util.HashMap;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import invisibleinktoolkit.stego.*;
+import invisibleinktoolkit.filters.Filter;
+import invisibleinktoolkit.filters.Filterable;
+import invisibleinktoolkit.algorithms.BattleSteg;
+import invisibleinktoolkit.algorithms.FilterFirst;
+import invisibleinktoolkit.algorithms.HideSeek;
+import invisibleinktoolkit.benchmark.Benchmarker;
+import invisibleinktoolkit.benchmark.StegAnalyser;
+import invisibleinktoolkit.benchmark.FeatureFileWriter;
+import invisibleinktoolkit.benchmark.FeatureCache;
+import invisibleinktoolkit.util.PasswordSeed;
+import invisibleinktoolkit.util.PRandom;
+
+/**
+ * Runs the toolkit from the command line, without any windows.
+ * <P>
+ * Unlike the graphical interface and the bulk benchmarker, nothing is
+ * ever asked of the user - everything is passed in as arguments, so it
+ * can be run on a server or as part of a batch job.  It always runs
+ * with java.awt.headless set, unless it has been set to something else.
+ * <P>
+ * The first argument is the command to run, which is one of:
+ * <PRE>
+ *  encode    -cover image -message file -output image
+ *  decode    -stego image -output file
+ *  simulate  -cover image -message file -output image
+ *  benchmark -original image -stego image [-tests aad,mse,lpnorm,lmse,
+ *            snr,psnr,ncc,cq] [-output file]
+ *  analyse   -stego image [-tests rs,samplepairs,laplace] [-output file]
+ *  analyse   -stego folder -output file [-arff relation] [-laplacelimit n]
+ *            [-resume] [-cache folder]
+ * </PRE>
+ * Steganalysing a folder writes each image's row out as soon as it is
+ * done.  With -resume, a results file left by a run that was stopped
+ * part way is carried on from, skipping the images already in it.
+ * With -cache, the features of each image are kept in a folder, so 
+ * running again (with any format or number of Laplace values) only
+ * steganalyses images that are new.
+ * The hiding commands also take these options:
+ * <PRE>
+ *  -algorithm name  BlindHide (default), HideSeek, FilterFirst,
+ *                   DynamicFilterFirst, BattleSteg or DynamicBattleSteg.
+ *  -filter name     Laplace (default), Sobel, Prewitt or
+ *                   TraditionalLaplace, for the filtering algorithms.
+ *  -start bit       The first bit position to hide in (0-6, default 0).
+ *  -end bit         The last bit position to hide in (0-6, default 0).
+ *  -match           Use LSB matching (this only ever uses bit 0).
+ *  -selection mode  How HideSeek, BattleSteg and DynamicBattleSteg pick
+ *                   the bits to hide in, random (default) or permuted.
+ *  -seed number     The seed for the algorithm, or...
+ *  -password text   A password to turn into the seed, the same way the
+ *                   graphical interface does.
+ *  -format name     The image format to write, png (default) or bmp.
+ * </PRE>
+ * -threads sets how many images the steganalysis works on at once, and
+ * how many ways the benchmarks and each image's steganalysis split 
+ * their work.  The split work runs on one shared pool with a thread 
+ * for each processor, so no more than that of it ever runs at once.
+ * When hiding, only FilterFirst takes it.
+ * <P>
+ * When it finishes, the program exits with one of the EXIT codes 
+ * below, so scripts can tell what went wrong.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class CommandLineRunner{
+	
+	/**
+	 * A main method to run a single command.
+	 *
+	 * @param args The command, then its options.
+	 */
+	public static void main(String[] args){
+		
+		//there are no windows to show, ever
+		if(System.getProperty("java.awt.headless") == null)
+			System.setProperty("java.awt.headless", "true");
+		
+		System.exit(run(args));
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Runs a single command.
+	 *
+	 * @param args The command, then its options.
+	 * @return The exit code for the command.
+	 */
+	public static int run(String[] args){
+		if(args.length == 0){
+			printUsage();
+			return EXIT_USAGE;
+		}
+		
+		try{
+			HashMap<String,String> options = parseOptions(args);
+			String command = args[0];
+			if(command.equals("encode"))
+				return encode(options);
+			if(command.equals("decode"))
+				return decode(options);
+			if(command.equals("simulate"))
+				return simulate(options);
+			if(command.equals("benchmark"))
+				return benchmark(options);
+			if(command.equals("analyse") || command.equals("analyze"))
+				return analyse(options);
+			if(command.equals("help") || command.equals("-help")){
+				printUsage();
+				return EXIT_SUCCESS;
+			}
+			throw new IllegalArgumentException
+			("Unknown command: " + command);
+			
+		}catch(IllegalArgumentException iae){
+			//the commands only let these out for bad options
+			System.err.println("ERROR: " + iae.getMessage());
+			System.err.println("Run with no arguments to see the usage.");
+			return EXIT_USAGE;
+		}catch(Exception e){
+			System.err.println("ERROR: " + e);
+			return EXIT_ERROR;
+		}
+	}
+	
+	
+	/**
+	 * Hides a message in a cover image.
+	 *
+	 * @param options The options for the command.
+	 * @return The exit code for the command.
+	 * @throws IllegalArgumentException If an option is wrong or missing.
+	 */
+	private static int encode(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		
+		StegoAlgorithm algorithm = getAlgorithm(options);
+		String coverpath = getRequired(options, "cover");
+		String messagepath = getRequired(options, "message");
+		File output = new File(getRequired(options, "output"));
+		String format = getFormat(options);
+		long seed = getSeed(options);
+		
+		CoverImage cimage;
+		InsertableMessage message;
+		try{
+			cimage = new CoverImage(coverpath);
+		}catch(Exception e){
+			System.err.println("ERROR: Could not read cover image file "
+					+ coverpath + " (" + e.getMessage() + ")");
+			return EXIT_INPUT;
+		}
+		try{
+			message = new InsertableMessage(messagepath);
+		}catch(Exception e){
+			System.err.println("ERROR: Could not read message file "
+					+ messagepath + " (" + e.getMessage() + ")");
+			return EXIT_INPUT;
+		}
+		
+		StegoImage stego;
+		try{
+			if(!algorithm.willMessageFit(message, cimage)){
+				System.err.println("ERROR: Message does not fit on image!");
+				return EXIT_TOO_BIG;
+			}
+			stego = algorithm.encode(message, cimage, seed);
+		}catch(IOException ioe){
+			System.err.println("ERROR: Could not read message file "
+					+ messagepath + " (" + ioe.getMessage() + ")");
+			return EXIT_INPUT;
+		}catch(Exception e){
+			System.err.println("ERROR: Could not hide message (" + e + ")");
+			return EXIT_ERROR;
+		}
+		
+		return writeImage(stego.getImage(), format, output);
+	}
+	
+	
+	/**
+	 * Retrieves a message from a stego image.
+	 *
+	 * @param options The options for the command.
+	 * @return The exit code for the command.
+	 * @throws IllegalArgumentException If an option is wrong or missing.
+	 */
+	private static int decode(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		
+		StegoAlgorithm algorithm = getAlgorithm(options);
+		String stegopath = getRequired(options, "stego");
+		String output = getRequired(options, "output");
+		long seed = getSeed(options);
+		
+		StegoImage stego;
+		try{
+			stego = new StegoImage(ImageIO.read(new File(stegopath)));
+		}catch(Exception e){
+			System.err.println("ERROR: Could not read stego image file "
+					+ stegopath);
+			return EXIT_INPUT;
+		}
+		
+		try{
+			algorithm.decode(stego, seed, output);
+		}catch(NoMessageException nme){
+			System.err.println("ERROR: Could not find a message on image "
+					+ "with given settings!");
+			return EXIT_NO_MESSAGE;
+		}catch(IOException ioe){
+			System.err.println("ERROR: Could not write message file "
+					+ output + " (" + ioe.getMessage() + ")");
+			return EXIT_OUTPUT;
+		}catch(Exception e){
+			System.err.println("ERROR: Could not retrieve message (" 
+					+ e + ")");
+			return EXIT_ERROR;
+		}
+		
+		System.out.println("Message retrieved to " + output);
+		return EXIT_SUCCESS;
+	}
+	
+	
+	/**
+	 * Outputs a map of where a message would be hidden in a cover image.
+	 *
+	 * @param options The options for the command.
+	 * @return The exit code for the command.
+	 * @throws IllegalArgumentException If an option is wrong or missing.
+	 */
+	private static int simulate(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		
+		StegoAlgorithm algorithm = getAlgorithm(options);
+		String coverpath = getRequired(options, "cover");
+		String messagepath = getRequired(options, "message");
+		File output = new File(getRequired(options, "output"));
+		String format = getFormat(options);
+		long seed = getSeed(options);
+		
+		CoverImage cimage;
+		InsertableMessage message;
+		try{
+			cimage = new CoverImage(coverpath);
+			message = new InsertableMessage(messagepath);
+		}catch(Exception e){
+			System.err.println("ERROR: Could not read cover image or message "
+					+ "file (" + e.getMessage() + ")");
+			return EXIT_INPUT;
+		}
+		
+		BufferedImage simulation;
+		try{
+			if(!algorithm.willMessageFit(message, cimage)){
+				System.err.println("ERROR: Message does not fit on image!");
+				return EXIT_TOO_BIG;
+			}
+			simulation = algorithm.outputSimulation(message, cimage, seed);
+		}catch(IOException ioe){
+			System.err.println("ERROR: Could not read message file "
+					+ messagepath + " (" + ioe.getMessage() + ")");
+			return EXIT_INPUT;
+		}catch(Exception e){
+			System.err.println("ERROR: Could not simulate hiding (" 
+					+ e + ")");
+			return EXIT_ERROR;
+		}
+		
+		return writeImage(simulation, format, output);
+	}
+	
+	
+	/**
+	 * Benchmarks a stego image against its original.
+	 *
+	 * @param options The options for the command.
+	 * @return The exit code for the command.
+	 * @throws IllegalArgumentException If an option is wrong or missing.
+	 */
+	private static int benchmark(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		
+		String tests = getOption(options, "tests",
+				"aad,mse,lpnorm,lmse,snr,psnr,ncc,cq");
+		checkTests(tests, "aad,mse,lpnorm,lmse,snr,psnr,ncc,cq");
+		Benchmarker benchmarker = new Benchmarker(hasTest(tests, "aad"),
+				hasTest(tests, "mse"), hasTest(tests, "lpnorm"),
+				hasTest(tests, "lmse"), hasTest(tests, "snr"),
+				hasTest(tests, "psnr"), hasTest(tests, "ncc"),
+				hasTest(tests, "cq"));
+		if(options.containsKey("threads"))
+			benchmarker.setThreads(getNumber(options, "threads", 1));
+		
+		BufferedImage original = readImage(getRequired(options, "original"));
+		BufferedImage stego = readImage(getRequired(options, "stego"));
+		if(original == null || stego == null)
+			return EXIT_INPUT;
+		if(original.getWidth() != stego.getWidth()
+				|| original.getHeight() != stego.getHeight()){
+			System.err.println("ERROR: The original and stego images are "
+					+ "not the same size!");
+			return EXIT_INPUT;
+		}
+		
+		String results;
+		try{
+			results = benchmarker.run(original, stego);
+		}catch(IllegalArgumentException iae){
+			System.err.println("ERROR: Could not benchmark the images ("
+					+ iae.getMessage() + ")");
+			return EXIT_INPUT;
+		}catch(Exception e){
+			System.err.println("ERROR: Could not benchmark the images ("
+					+ e + ")");
+			return EXIT_ERROR;
+		}
+		return writeResults(results, options.get("output"));
+	}
+	
+	
+	/**
+	 * Steganalyses an image, or a folder of images.
+	 *
+	 * @param options The options for the command.
+	 * @return The exit code for the command.
+	 * @throws IllegalArgumentException If an option is wrong or missing.
+	 */
+	private static int analyse(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		
+		String tests = getOption(options, "tests", "rs,samplepairs,laplace");
+		checkTests(tests, "rs,samplepairs,laplace");
+		StegAnalyser analyser = new StegAnalyser(hasTest(tests, "rs"),
+				hasTest(tests, "samplepairs"), hasTest(tests, "laplace"));
+		if(options.containsKey("threads"))
+			analyser.setThreads(getNumber(options, "threads", 1));
+		
+		File stegofile = new File(getRequired(options, "stego"));
+		if(!stegofile.isDirectory()){
+			BufferedImage stego = readImage(stegofile.getPath());
+			if(stego == null)
+				return EXIT_INPUT;
+			String results;
+			try{
+				results = analyser.run(stego);
+			}catch(IllegalArgumentException iae){
+				//some tests can't be run on some images
+				System.err.println("ERROR: Could not steganalyse image "
+						+ stegofile.getPath() + " (" + iae.getMessage() + ")");
+				return EXIT_INPUT;
+			}catch(Exception e){
+				System.err.println("ERROR: Could not steganalyse image "
+						+ stegofile.getPath() + " (" + e + ")");
+				return EXIT_ERROR;
+			}
+			return writeResults(results, options.get("output"));
+		}
+		
+		//a whole folder goes to a file, as progress goes to the console
+		String output = getRequired(options, "output");
+		int laplacelimit = getNumber(options, "laplacelimit", 0);
+		if(options.containsKey("cache")){
+			try{
+				analyser.setCache(new FeatureCache
+						(new File(options.get("cache"))));
+			}catch(IOException ioe){
+				System.err.println("ERROR: " + ioe.getMessage());
+				return EXIT_OUTPUT;
+			}
+		}
+		try{
+			FeatureFileWriter writer = new FeatureFileWriter
+			(new File(output), options.containsKey("resume"));
+			if(options.containsKey("arff"))
+				analyser.writeARFF(stegofile, laplacelimit,
+						options.get("arff"), writer);
+			else
+				analyser.writeCSV(stegofile, laplacelimit, writer);
+		}catch(IOException ioe){
+			System.err.println("\nERROR: Could not write results file "
+					+ output + ": " + ioe.getMessage());
+			return EXIT_OUTPUT;
+		}
+		System.out.println();
+		return EXIT_SUCCESS;
+	}
+	
+	
+	/**
+	 * Sets up the algorithm given in the options.
+	 *
+	 * @param options The options for the command.
+	 * @return The algorithm, ready to use.
+	 * @throws IllegalArgumentException If the algorithm, filter or bits
+	 * are not valid.
+	 */
+	private static StegoAlgorithm getAlgorithm(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		
+		String name = getOption(options, "algorithm", "BlindHide");
+		StegoAlgorithm algorithm;
+		try{
+			algorithm = (StegoAlgorithm)Class.forName
+			("invisibleinktoolkit.algorithms." + name).newInstance();
+		}catch(Exception e){
+			throw new IllegalArgumentException
+			("Unknown algorithm: " + name);
+		}
+		
+		//the filter is only used by some algorithms
+		String filtername = getOption(options, "filter", "Laplace");
+		if(algorithm instanceof Filterable){
+			try{
+				((Filterable)algorithm).setFilter((Filter)Class.forName
+						("invisibleinktoolkit.filters." + filtername)
+						.newInstance());
+			}catch(Exception e){
+				throw new IllegalArgumentException
+				("Unknown filter: " + filtername);
+			}
+		}else if(options.containsKey("filter")){
+			throw new IllegalArgumentException
+			(name + " does not use a filter!");
+		}
+		
+		//LSB matching only ever changes the lowest bit
+		int startbits = getNumber(options, "start", 0);
+		int endbits = getNumber(options, "end", startbits);
+		boolean match = options.containsKey("match");
+		if(match && (startbits != 0 || endbits != 0))
+			throw new IllegalArgumentException
+			("LSB matching can only use bit 0!");
+		if(startbits > 6 || startbits < 0)
+			throw new IllegalArgumentException
+			("Start bit range not in range 0-6!");
+		if(endbits > 6 || endbits < 0)
+			throw new IllegalArgumentException
+			("End bit range not in range 0-6!");
+		if(startbits > endbits)
+			throw new IllegalArgumentException
+			("End bit range must be higher than start range!");
+		algorithm.setStartBits(startbits);
+		algorithm.setEndBits(endbits);
+		algorithm.setMatch(match);
+		
+		//only some algorithms have a choice of how to pick the bits
+		if(options.containsKey("selection")){
+			String selection = options.get("selection");
+			int mode;
+			if(selection.equals("random"))
+				mode = PRandom.RANDOM_SELECTION;
+			else if(selection.equals("permuted"))
+				mode = PRandom.PERMUTED_SELECTION;
+			else
+				throw new IllegalArgumentException
+				("The selection must be random or permuted!");
+			if(algorithm instanceof HideSeek)
+				((HideSeek)algorithm).setSelection(mode);
+			else if(algorithm instanceof BattleSteg)
+				((BattleSteg)algorithm).setSelection(mode);
+			else
+				throw new IllegalArgumentException
+				(name + " does not have a selection mode!");
+		}
+		
+		//and only FilterFirst hides on more than one thread
+		if(options.containsKey("threads")){
+			if(!(algorithm instanceof FilterFirst))
+				throw new IllegalArgumentException
+				(name + " does not use -threads!");
+			((FilterFirst)algorithm).setThreads
+			(getNumber(options, "threads", 0));
+		}
+		return algorithm;
+	}
+	
+	
+	/**
+	 * Gets the seed given in the options, either as a number or a
+	 * password.
+	 *
+	 * @param options The options for the command.
+	 * @return The seed, or 0 if none was given.
+	 * @throws IllegalArgumentException If both a seed and password are
+	 * given, or the seed is not a number.
+	 */
+	private static long getSeed(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		if(options.containsKey("seed") && options.containsKey("password"))
+			throw new IllegalArgumentException
+			("Only one of -seed and -password can be given!");
+		if(options.containsKey("password"))
+			return PasswordSeed.getSeed(options.get("password"));
+		try{
+			return Long.parseLong(getOption(options, "seed", "0"));
+		}catch(NumberFormatException nfe){
+			throw new IllegalArgumentException
+			("The seed must be a number!");
+		}
+	}
+	
+	
+	/**
+	 * Gets the image format given in the options.
+	 *
+	 * @param options The options for the command.
+	 * @return The image format, png or bmp.
+	 * @throws IllegalArgumentException If the format is not png or bmp.
+	 */
+	private static String getFormat(HashMap<String,String> options)
+	throws IllegalArgumentException{
+		String format = getOption(options, "format", "png").toLowerCase();
+		if(!format.equals("png") && !format.equals("bmp"))
+			throw new IllegalArgumentException
+			("The format must be png or bmp!");
+		return format;
+	}
+	
+	
+	/**
+	 * Reads in an image.
+	 *
+	 * @param path The path to the image.
+	 * @return The image, or null if it could not be read.
+	 */
+	private static BufferedImage readImage(String path){
+		try{
+			BufferedImage image = ImageIO.read(new File(path));
+			if(image != null)
+				return image;
+		}catch(Exception e){}
+		System.err.println("ERROR: Could not read image file " + path);
+		return null;
+	}
+	
+	
+	/**
+	 * Writes an image out to disk.
+	 *
+	 * @param image The image to write.
+	 * @param format The image format to write.
+	 * @param output The file to write to.
+	 * @return The exit code for the command.
+	 */
+	private static int writeImage(BufferedImage image, String format,
+			File output){
+		try{
+			if(!ImageIO.write(image, format, output)){
+				System.err.println("ERROR: No image writer for " + format
+						+ " images!");
+				return EXIT_OUTPUT;
+			}
+		}catch(Exception e){
+			System.err.println("ERROR: Could not output image file "
+					+ output.getPath());
+			return EXIT_OUTPUT;
+		}
+		System.out.println("Image written to " + output.getPath());
+		return EXIT_SUCCESS;
+	}
+	
+	
+	/**
+	 * Writes some results out to a file, or the console if no file is
+	 * given.
+	 *
+	 * @param results The results to write.
+	 * @param output The path of the file, or null for the console.
+	 * @return The exit code for the command.
+	 */
+	private static int writeResults(String results, String output){
+		if(output == null){
+			System.out.print(results);
+			return EXIT_SUCCESS;
+		}
+		try{
+			BufferedWriter bw = new BufferedWriter(new FileWriter(output));
+			bw.write(results, 0, results.length());
+			bw.close();
+		}catch(IOException ioe){
+			System.err.println("ERROR: Could not write results file "
+					+ output);
+			return EXIT_OUTPUT;
+		}
+		return EXIT_SUCCESS;
+	}
+	
+	
+	/**
+	 * Reads the options after the command.  Every option starts with
+	 * a "-" and, other than -match and -resume, is followed by its value.
+	 *
+	 * @param args The command, then its options.
+	 * @return The value of each option, by name (without the "-").
+	 * @throws IllegalArgumentException If an option is unknown, or is
+	 * missing its value.
+	 */
+	private static HashMap<String,String> parseOptions(String[] args)
+	throws IllegalArgumentException{
+		HashMap<String,String> options = new HashMap<String,String>();
+		for(int i = 1; i < args.length; i++){
+			String name = args[i].startsWith("-") ? args[i].substring(1) : "";
+			if(name.equals("match") || name.equals("resume")){
+				options.put(name, "true");
+				continue;
+			}
+			boolean known = false;
+			for(int j = 0; j < OPTIONS.length; j++){
+				if(OPTIONS[j].equals(name))
+					known = true;
+			}
+			if(!known)
+				throw new IllegalArgumentException
+				("Unknown option: " + args[i]);
+			if(i + 1 >= args.length)
+				throw new IllegalArgumentException
+				("Option " + args[i] + " needs a value!");
+			options.put(name, args[++i]);
+		}
+		return options;
+	}
+	
+	
+	/**
+	 * Gets an option that must be given.
+	 *
+	 * @param options The options for the command.
+	 * @param name The name of the option.
+	 * @return The value of the option.
+	 * @throws IllegalArgumentException If the option was not given.
+	 */
+	private static String getRequired(HashMap<String,String> options, String name)
+	throws IllegalArgumentException{
+		if(!options.containsKey(name))
+			throw new IllegalArgumentException
+			("Option -" + name + " must be given!");
+		return options.get(name);
+	}
+	
+	
+	/**
+	 * Gets an option, or a default value if it was not given.
+	 *
+	 * @param options The options for the command.
+	 * @param name The name of the option.
+	 * @param value The default value.
+	 * @return The value of the option.
+	 */
+	private static String getOption(HashMap<String,String> options, String name,
+			String value){
+		if(options.containsKey(name))
+			return options.get(name);
+		return value;
+	}
+	
+	
+	/**
+	 * Gets an option that is a whole number.
+	 *
+	 * @param options The options for the command.
+	 * @param name The name of the option.
+	 * @param value The default value.
+	 * @return The value of the option.
+	 * @throws IllegalArgumentException If the option is not a number.
+	 */
+	private static int getNumber(HashMap<String,String> options, String name, int value)
+	throws IllegalArgumentException{
+		if(!options.containsKey(name))
+			return value;
+		try{
+			return Integer.parseInt(options.get(name));
+		}catch(NumberFormatException nfe){
+			throw new IllegalArgumentException
+			("Option -" + name + " must be a number!");
+		}
+	}
+	
+	
+	/**
+	 * Checks a comma separated list of tests only has known tests in it.
+	 *
+	 * @param tests The list of tests.
+	 * @param known The list of known tests.
+	 * @throws IllegalArgumentException If a test is unknown.
+	 */
+	private static void checkTests(String tests, String known)
+	throws IllegalArgumentException{
+		String[] names = tests.split(",");
+		for(int i = 0; i < names.length; i++){
+			if(!hasTest(known, names[i]))
+				throw new IllegalArgumentException
+				("Unknown test: " + names[i]);
+		}
+	}
+	
+	
+	/**
+	 * Checks whether a comma separated list of tests has a test in it.
+	 *
+	 * @param tests The list of tests.
+	 * @param test The test to look for.
+	 * @return True if the test is in the list.
+	 */
+	private static boolean hasTest(String tests, String test){
+		return ("," + tests + ",").indexOf("," + test + ",") >= 0;
+	}
+	
+	
+	/**
+	 * Prints out how to use the program.
+	 */
+	private static void printUsage(){
+		System.err.println("Usage: java invisibleinktoolkit.CommandLineRunner "
+				+ "<command> [options]\n");
+		System.err.println("Commands:");
+		System.err.println("  encode    -cover <image> -message <file> "
+				+ "-output <image>");
+		System.err.println("  decode    -stego <image> -output <file>");
+		System.err.println("  simulate  -cover <image> -message <file> "
+				+ "-output <image>");
+		System.err.println("  benchmark -original <image> -stego <image> "
+				+ "[-tests aad,mse,lpnorm,lmse,snr,psnr,ncc,cq]");
+		System.err.println("  analyse   -stego <image> "
+				+ "[-tests rs,samplepairs,laplace]");
+		System.err.println("  analyse   -stego <folder> -output <file> "
+				+ "[-arff <relation>] [-laplacelimit <n>]");
+		System.err.println("            [-resume] [-cache <folder>]\n");
+		System.err.println("Options:");
+		System.err.println("  -algorithm <name>  BlindHide, HideSeek, "
+				+ "FilterFirst, DynamicFilterFirst,");
+		System.err.println("                     BattleSteg or "
+				+ "DynamicBattleSteg (default BlindHide)");
+		System.err.println("  -filter <name>     Laplace, Sobel, Prewitt or "
+				+ "TraditionalLaplace");
+		System.err.println("  -start <bit>       First bit to hide in, 0-6");
+		System.err.println("  -end <bit>         Last bit to hide in, 0-6");
+		System.err.println("  -match             Use LSB matching");
+		System.err.println("  -selection <mode>  random (default) or permuted, "
+				+ "for HideSeek,");
+		System.err.println("                     BattleSteg and "
+				+ "DynamicBattleSteg");
+		System.err.println("  -seed <number>     Seed for the algorithm");
+		System.err.println("  -password <text>   Password for the algorithm");
+		System.err.println("  -format <name>     png (default) or bmp");
+		System.err.println("  -output <file>     Where to write the results");
+		System.err.println("  -resume            Carry on from a results file "
+				+ "left part way");
+		System.err.println("  -cache <folder>    Keep image features in a "
+				+ "folder for next time");
+		System.err.println("  -threads <n>       Threads to split benchmark, "
+				+ "analyse and FilterFirst");
+		System.err.println("                     work for (at most one runs "
+				+ "per processor)\n");
+		System.err.println("Exit codes: 0 success, 1 error, 2 bad arguments, "
+				+ "3 bad input, 4 bad output,");
+		System.err.println("            5 message too big, "
+				+ "6 no message found");
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The command finished successfully.
+	 */
+	public static final int EXIT_SUCCESS = 0;
+	
+	/**
+	 * Something unexpected went wrong.
+	 */
+	public static final int EXIT_ERROR = 1;
+	
+	/**
+	 * The command or its options were not valid.
+	 */
+	public static final int EXIT_USAGE = 2;
+	
+	/**
+	 * An input image or message could not be read.
+	 */
+	public static final int EXIT_INPUT = 3;
+	
+	/**
+	 * An output file could not be written.
+	 */
+	public static final int EXIT_OUTPUT = 4;
+	
+	/**
+	 * The message was too big for the cover image.
+	 */
+	public static final int EXIT_TOO_BIG = 5;
+	
+	/**
+	 * No message could be found in the stego image.
+	 */
+	public static final int EXIT_NO_MESSAGE = 6;
+	
+	/**
+	 * The options that take a value.
+	 */
+	private static final String[] OPTIONS = {"cover", "message", "stego",
+		"original", "output", "algorithm", "filter", "start", "end", "seed",
+		"password", "format", "tests", "threads", "arff", "laplacelimit",
+		"cache", "selection"};
+	
+}
+//end of class.
@@ -0,0 +1,210 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Checks each way a command can finish gives its own exit code.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class CommandLineRunnerTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Makes a cover image and a message that fits in it.
+	 */
+	@Before
+	public void setUp() throws Exception{
+		Random random = new Random(WIDTH);
+		BufferedImage cover = new BufferedImage(WIDTH, WIDTH,
+				BufferedImage.TYPE_INT_RGB);
+		for(int y = 0; y < WIDTH; y++)
+			for(int x = 0; x < WIDTH; x++)
+				cover.setRGB(x, y, random.nextInt(0x1000000));
+		mCover = mFolder.newFile("cover.png");
+		ImageIO.write(cover, "png", mCover);
+		
+		mMessage = new byte[MESSAGE_SIZE];
+		random.nextBytes(mMessage);
+		mMessageFile = mFolder.newFile("message.bin");
+		Files.write(mMessageFile.toPath(), mMessage);
+	}
+	
+	
+	/**
+	 * Hiding and retrieving a message both succeed, and the message
+	 * comes back the same.
+	 */
+	@Test
+	public void testSuccess() throws Exception{
+		File stego = new File(mFolder.getRoot(), "stego.png");
+		File output = new File(mFolder.getRoot(), "output.bin");
+		assertEquals(CommandLineRunner.EXIT_SUCCESS, CommandLineRunner.run(
+				new String[]{"encode", "-algorithm", "HideSeek",
+						"-password", "test", "-cover", mCover.getPath(),
+						"-message", mMessageFile.getPath(),
+						"-output", stego.getPath()}));
+		assertEquals(CommandLineRunner.EXIT_SUCCESS, CommandLineRunner.run(
+				new String[]{"decode", "-algorithm", "HideSeek",
+						"-password", "test", "-stego", stego.getPath(),
+						"-output", output.getPath()}));
+		assertArrayEquals(mMessage, Files.readAllBytes(output.toPath()));
+	}
+	
+	
+	/**
+	 * Bad or missing arguments are a usage error.
+	 */
+	@Test
+	public void testUsage() throws Exception{
+		assertEquals(CommandLineRunner.EXIT_USAGE,
+				CommandLineRunner.run(new String[0]));
+		assertEquals(CommandLineRunner.EXIT_USAGE,
+				CommandLineRunner.run(new String[]{"hide"}));
+		assertEquals(CommandLineRunner.EXIT_USAGE, CommandLineRunner.run(
+				new String[]{"encode", "-cover", mCover.getPath()}));
+		assertEquals(CommandLineRunner.EXIT_USAGE, CommandLineRunner.run(
+				new String[]{"encode", "-algorithm", "NoSuchAlgorithm",
+						"-cover", mCover.getPath(),
+						"-message", mMessageFile.getPath(),
+						"-output", this.newPath("stego.png")}));
+	}
+	
+	
+	/**
+	 * Files that can't be read are an input error, and files that
+	 * can't be written are an output error.
+	 */
+	@Test
+	public void testInputOutput() throws Exception{
+		assertEquals(CommandLineRunner.EXIT_INPUT, CommandLineRunner.run(
+				new String[]{"encode", "-cover", this.newPath("none.png"),
+						"-message", mMessageFile.getPath(),
+						"-output", this.newPath("stego.png")}));
+		assertEquals(CommandLineRunner.EXIT_INPUT, CommandLineRunner.run(
+				new String[]{"encode", "-cover", mCover.getPath(),
+						"-message", this.newPath("none.bin"),
+						"-output", this.newPath("stego.png")}));
+		assertEquals(CommandLineRunner.EXIT_INPUT, CommandLineRunner.run(
+				new String[]{"decode", "-stego", mMessageFile.getPath(),
+						"-output", this.newPath("output.bin")}));
+		assertEquals(CommandLineRunner.EXIT_OUTPUT, CommandLineRunner.run(
+				new String[]{"encode", "-cover", mCover.getPath(),
+						"-message", mMessageFile.getPath(),
+						"-output", this.newPath("none/stego.png")}));
+	}
+	
+	
+	/**
+	 * A message that is too big for the cover says so, for both
+	 * hiding and simulating.
+	 */
+	@Test
+	public void testTooBig() throws Exception{
+		File big = mFolder.newFile("big.bin");
+		Files.write(big.toPath(), new byte[WIDTH * WIDTH]);
+		for(String command : new String[]{"encode", "simulate"}){
+			assertEquals(command, CommandLineRunner.EXIT_TOO_BIG,
+					CommandLineRunner.run(new String[]{command,
+							"-algorithm", "HideSeek",
+							"-cover", mCover.getPath(),
+							"-message", big.getPath(),
+							"-output", this.newPath(command + ".png")}));
+		}
+	}
+	
+	
+	/**
+	 * An image without a message says there is no message.
+	 */
+	@Test
+	public void testNoMessage() throws Exception{
+		for(String algorithm : new String[]{"BlindHide", "HideSeek"}){
+			assertEquals(algorithm, CommandLineRunner.EXIT_NO_MESSAGE,
+					CommandLineRunner.run(new String[]{"decode",
+							"-algorithm", algorithm, "-seed", "1",
+							"-stego", mCover.getPath(),
+							"-output", this.newPath("output.bin")}));
+		}
+	}
+	
+	
+	/**
+	 * Gets the path of a file in the test folder, without making it.
+	 *
+	 * @param name The name of the file.
+	 * @return The path.
+	 */
+	private String newPath(String name){
+		return new File(mFolder.getRoot(), name).getPath();
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The width and height of the cover image.
+	 */
+	private static final int WIDTH = 40;
+	
+	/**
+	 * The size of the message that fits.
+	 */
+	private static final int MESSAGE_SIZE = 50;
+	
+	/**
+	 * Somewhere to put the test files.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+	/**
+	 * The cover image file.
+	 */
+	private File mCover;
+	
+	/**
+	 * The message that fits in the cover.
+	 */
+	private byte[] mMessage;
+	
+	/**
+	 * The file the message is in.
+	 */
+	private File mMessageFile;
+	
+}
+//end of class.
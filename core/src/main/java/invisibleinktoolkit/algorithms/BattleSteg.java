@@ -22,16 +22,17 @@ package invisibleinktoolkit.algorithms;
 
 import invisibleinktoolkit.stego.*;
 import invisibleinktoolkit.util.Shot;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.ShotBuffer;
 import invisibleinktoolkit.util.PRandom;
+import invisibleinktoolkit.util.ShotSet;
+import invisibleinktoolkit.util.ShotPermutation;
 import java.awt.image.BufferedImage;
 import invisibleinktoolkit.filters.*;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Random;
-import java.awt.Frame;
 
-import invisibleinktoolkit.algorithms.gui.BattleStegWindow;
 
 /**
  * A battlesteg way of hiding data.
@@ -82,6 +83,8 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		 * @param initshots The number of shots to make after an initial hit.
 		 * @param shotsincrease The number of shots to increase by after a hit.
 		 * @param shotrange The range for the shots.
+		 * @param filter The filter to find the ships with.
+		 * @param selection The selection mode for normal shots.
 		 * @throws IllegalArgumentException if something bad was passed.
 		 */
 		public BPRandom(long seed, 
@@ -91,7 +94,8 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 				int initshots,
 				int shotsincrease, 
 				int shotrange,
-				Filter filter) throws IllegalArgumentException{
+				Filter filter,
+				int selection) throws IllegalArgumentException{
 			
 			//call the super constructor
 			super(seed, image.getWidth(), image.getHeight(), 
@@ -108,24 +112,17 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 			filter.setEndRange(8);
 			
 			//set up the matrix of "shots"
-			beenShot = new boolean[image.getWidth()][image.getHeight()][3][8];
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					for(int k = 0; k < 8; k++){
-						beenShot[i][j][0][k] = false;
-						beenShot[i][j][1][k] = false;
-						beenShot[i][j][2][k] = false;
-					}
-				}
-			}
+			beenShot = new ShotSet(image.getWidth(), image.getHeight());
+			
+			//normal shots can come from a permutation that never repeats
+			if(PRandom.canRepeat(selection))
+				mPermutation = null;
+			else
+				mPermutation = new ShotPermutation(seed, image.getWidth(),
+						image.getHeight(), numlayers, startrange, endrange);
 			
 			//all the ships
-			mShips = new boolean[image.getWidth()][image.getHeight()];
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					mShips[i][j] = false;
-				}
-			}
+			mShips = new boolean[image.getWidth() * image.getHeight()];
 			
 			try{
 				this.generateShips(image, filter);
@@ -145,32 +142,22 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		private void generateShips(BufferedImage image, 
 				Filter filter) throws Exception{
 			
-			//set up the image for the filter
-			filter.setImage(image);
-			
 			//filter the image
-			FilteredPixel[] fparray = 
-				new FilteredPixel[image.getWidth() * image.getHeight()];
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					fparray[(i * image.getHeight()) + j] = 
-						new FilteredPixel(i, j, 
-								Math.abs(filter.getValue(i, j)));
-				}
-			} 
-			
+			int[] values = FilterMap.filterImage(filter, image);
+			int width = image.getWidth();
 			
-			//sort the filter results
+			//rank the filter results
 			//is in ascending order - low at start, high at end
-			Arrays.sort(fparray, new FPComparator());
+			long[] fparray = PixelRanking.rank(values, width, 
+					image.getHeight());
 			
 			
 			//shuffle parts of the array that are the same value
 			int topten = (int)fparray.length / 10;
 			
 			int count = fparray.length - topten, countend = count + 1;
-			while(fparray[countend].getFilterValue() == 
-				fparray[count].getFilterValue()
+			while(PixelRanking.getFilterValue(fparray[countend]) == 
+				PixelRanking.getFilterValue(fparray[count])
 				&& countend < fparray.length){
 				countend++;
 				
@@ -179,8 +166,8 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 					break;
 			}
 			
-			while(fparray[countend - 1].getFilterValue()
-					== fparray[count].getFilterValue()
+			while(PixelRanking.getFilterValue(fparray[countend - 1])
+					== PixelRanking.getFilterValue(fparray[count])
 			     &&	count > 0)
 				count--;
 			
@@ -190,47 +177,48 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 			shufflePixels(fparray, count, countend);
 			
 			//time to pick our ships...
-			FilteredPixel engines[] = new FilteredPixel[topten];
+			long engines[] = new long[topten];
 			for(int i = 1; i <= topten; i++){
 				engines[i - 1] = fparray[fparray.length - i];				
 			}
 			
-			int median = fparray[fparray.length / 2].getFilterValue();
+			int median = PixelRanking.getFilterValue(
+					fparray[fparray.length / 2]);
 			
 			//now do a quick search to check if any of the engines are
 			//ships
 			int x, y, acount;
 			
 			for(int i = 0; i < engines.length; i++){
-				x = engines[i].getX();
-				y = engines[i].getY();
+				x = PixelRanking.getX(engines[i]);
+				y = PixelRanking.getY(engines[i]);
 				acount = 0;
 				if(x > 0){
-					if(Math.abs(filter.getValue(x - 1, y)) >= median){
-						mShips[x - 1][y] = true;
+					if(Math.abs(values[(y * width) + x - 1]) >= median){
+						mShips[(y * width) + x - 1] = true;
 						acount++;
 					}
 				}
 				if(x < (image.getWidth() - 1)){
-					if(Math.abs(filter.getValue(x + 1, y)) >= median){
-						mShips[x + 1][y] = true;
+					if(Math.abs(values[(y * width) + x + 1]) >= median){
+						mShips[(y * width) + x + 1] = true;
 						acount++;
 					}
 				}
 				if(y < (image.getHeight() - 1)){
-					if(Math.abs(filter.getValue(x, y + 1)) >= median){
-						mShips[x][y + 1] = true;
+					if(Math.abs(values[((y + 1) * width) + x]) >= median){
+						mShips[((y + 1) * width) + x] = true;
 						acount++;
 					}
 				}
 				if(y > 0){
-					if(Math.abs(filter.getValue(x, y - 1)) >= median){
-						mShips[x][y - 1] = true;
+					if(Math.abs(values[((y - 1) * width) + x]) >= median){
+						mShips[((y - 1) * width) + x] = true;
 						acount++;
 					}
 				}
 				if(acount > 0)
-					mShips[x][y] = true;
+					mShips[(y * width) + x] = true;
 				
 			} 
 			//now all the ships are picked and set
@@ -244,11 +232,11 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		 * @param start The start position to begin shuffling (will be shuffled).
 		 * @param end The end position for shuffling (will not be shuffled).
 		 */
-		private void shufflePixels(FilteredPixel []array,int start,int end){
+		private void shufflePixels(long []array,int start,int end){
 			Random rgenerator = new Random(0);
 			int numshuffles = (end - start);
 			int a, b;
-			FilteredPixel temp;
+			long temp;
 			for(int i = 0; i < numshuffles; i++){
 				a = rgenerator.nextInt( (end - start) );
 				b = rgenerator.nextInt( (end - start) );
@@ -260,14 +248,14 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		
 		
 		/**
-		 * Generates a new shot.
+		 * Generates a new shot, packed (see Shot.pack()).
 		 *
 		 * A shot contains all the information needed to
 		 * place where the bit should be encoded.
 		 *
 		 * @return A shot on the board.
 		 */
-		public Shot getShot(){
+		public long nextPosition(){
 			//first check if we should make a ranged shot (hit previous)
 			if(mNumShots <= 0 || mMoveAway <= 0){
 				//normal shot
@@ -275,16 +263,14 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 				mMoveAway = mMoveAwayFixed;
 				mNumShots = 0;
 				//get a shot (until a non-hit square is found)
-				Shot sh = super.getShot();
-				while(beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-					sh = super.getShot();
+				//(and save it)
+				long sh = this.nextNormalPosition();
+				while(!beenShot.add(sh)){
+					sh = this.nextNormalPosition();
 				}
 				
-				//save it
-				beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
-				
 				//check if it is a ship (next hit will be ranged)
-				if (mShips[sh.getX()][sh.getY()]){
+				if (mShips[Shot.getIndex(sh)]){
 					mNumShots = mInitShots;
 				}
 				return sh;
@@ -294,20 +280,19 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 				//subtract variables to make sure it does moveaway
 				mNumShots--;
 				mMoveAway--;
-				Shot sh = super.getRangedShot(mShotRange);
+				long sh = super.nextRangedPosition(mShotRange);
 				//get ranged shots till we run out, then just make normal shots
-				while(beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
+				//(and save it)
+				while(!beenShot.add(sh)){
 					if(mNumShots <= 0 || mMoveAway <= 0)
-						sh = super.getShot();
+						sh = this.nextNormalPosition();
 					else
-						sh = super.getRangedShot(mShotRange);
+						sh = super.nextRangedPosition(mShotRange);
 					mNumShots--;
 					mMoveAway--;
 				}
-				//save it
-				beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
 				//if it was a hit, recenter shots on newest hit
-				if(mShips[sh.getX()][sh.getY()]){
+				if(mShips[Shot.getIndex(sh)]){
 					mNumShots = mNumShots + mShotsIncrease;
 					super.setLast(sh);
 				}
@@ -315,17 +300,38 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 			}
 		}
 		
+		/**
+		 * Makes a normal (not ranged) shot.
+		 *
+		 * @return The next normal shot, packed.
+		 */
+		private long nextNormalPosition(){
+			if(mPermutation == null)
+				return super.nextPosition();
+			
+			//ranged shots still go around the last normal shot
+			long sh = mPermutation.nextPosition();
+			super.setLast(sh);
+			return sh;
+		}
+		
 		//VARIABLES
 		
 		/**
 		 * Contains a list of all the positions already used.
 		 */
-		private boolean beenShot[][][][];
+		private ShotSet beenShot;
 		
 		/**
-		 * Contains a map of all the ships.
+		 * The permutation to make normal shots from, or null if they
+		 * are made at random.
 		 */
-		private boolean mShips[][];
+		private ShotPermutation mPermutation;
+		
+		/**
+		 * Contains a map of all the ships, in scan lines.
+		 */
+		private boolean mShips[];
 		
 		/**
 		 * Contains the count of the number of ranged shots.
@@ -417,6 +423,7 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		mShotsIncrease = shotsincrease;
 		mShotsRange = shotrange;
 		mFilter = filter;
+		mSelection = PRandom.RANDOM_SELECTION;
 	}
 	
 	/**
@@ -462,60 +469,38 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 				mEndBits,
 				cimage.getImage(),
 				mMoveAway, mInitShots, mShotsIncrease, mShotsRange,
-				mFilter);		
-		Shot sh;
+				mFilter, mSelection);		
+		long sh;
 		int messagesize = (int) message.getSize();
 		
 		Random aran = new Random(seed);
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			//put in the next size bit...
 			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						sh.getBitPosition(),
-						bit);
-			}else{
-				//match!
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						mFilter.getStartRange(),
-						bit,
-						aran.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
 		}
 		
 		//now we can start embedding the message into the cover
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			boolean bit = message.nextBit();
 			
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						sh.getBitPosition(),
-						bit);
-			}else{
-				//match!
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						mFilter.getStartRange(),
-						bit,
-						aran.nextBoolean());
-			}						
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
+			if(buffer.isFull())
+				buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
 		}		
 		
+		//hide whatever is left in the buffer
+		buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
+		
 		//now the message is hidden inside the image.
 		return new StegoImage(cimage.getImage());
 		
@@ -542,22 +527,19 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 				mEndBits,
 				simage.getImage(),
 				mMoveAway, mInitShots, mShotsIncrease, mShotsRange,
-				mFilter);
+				mFilter, mSelection);
 		
 		
 		
-		Shot sh;
+		long sh;
 		int size = 0;
 		
 		//get the size - in the first 32 hidden bits
 		for(int i = 0; i < 32; i++){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			int bit =  simage.getPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition());
+			int bit =  simage.getPixelBit(sh);
 			
 			size = size << 1 | bit;
 			
@@ -573,28 +555,32 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		size2 = size2 * 8;
 		
 		//make sure that the message isn't bigger than it's supposed to be
-		long imagespace = (((simage.getImage().getWidth()
-				* simage.getImage().getHeight())
+		long imagespace = (((simage.getWidth()
+				* simage.getHeight())
 				* simage.getLayerCount())
 				* ((mEndBits - mStartBits) + 1));
 		
-		if(size2 >= imagespace || size2 < 0)
+		//(the size itself takes up the first 32 shots)
+		if(size2 < 0 || (long)size2 + 32 > imagespace)
 			throw new NoMessageException();
 		
-		RetrievedMessage rmess = new RetrievedMessage(path);
-		
-		//start retrieving and writing out the message
-		for(int k = 0; k < size2; k++){
-			sh = rgen.getShot();
-			
-			rmess.setNext( (simage.getPixelBit(sh.getX(), 
-					sh.getY(), 
-					sh.getLayer(),
-					sh.getBitPosition())
-			) == 0x1);
-						
+		RetrievedMessage rmess = new RetrievedMessage(path, size2 / 8);
+		try{
+			ShotBuffer buffer = new ShotBuffer(simage.getWidth());
+			
+			//start retrieving and writing out the message
+			int left = size2;
+			while(left > 0){
+				left = left - buffer.fill(rgen, left);
+				buffer.retrieve(simage);
+				rmess.setNext(buffer.getBits(), buffer.getCount());
+				buffer.clear();
+			}
+			rmess.close();
+		}finally{
+			//don't leave half a message behind if it couldn't be read
+			rmess.discard();
 		}
-		rmess.close();
 		return rmess;
 	}
 	
@@ -611,8 +597,8 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 			CoverImage image) throws IOException{
 		
 		//get the size of the image
-		int imgX = image.getImage().getWidth(); 
-		int imgY = image.getImage().getHeight();
+		int imgX = image.getWidth(); 
+		int imgY = image.getHeight();
 		
 		//check the size of the image on disk
 		long imagespace = (((imgX * imgY) * image.getLayerCount())
@@ -650,42 +636,40 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 				mEndBits,
 				simage.getImage(),
 				mMoveAway, mInitShots, mShotsIncrease, mShotsRange,
-				mFilter);
+				mFilter, mSelection);
 		
-		Shot sh;
+		long sh;
 		
 		//make the whole image black...
 		BufferedImage image = simage.getImage();
 		int black = 0x0;
-		for(int i = 0; i < image.getHeight(); i++){
-			for(int j = 0; j < image.getWidth(); j++){
-				image.setRGB(j, i, black);
-			}
-		}
+		ImageRaster raster = new ImageRaster(image);
+		raster.fill(black);
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			//put in the next size bit...
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 		}
 		
 		//now we can start embedding the message into the cover
 		
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			
 			message.nextBit();			
 		}
 		
 		//now the message is hidden inside the image.
+		raster.flush();
 		return image;
 	}
 	
@@ -755,16 +739,6 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 		mStartBits = newstart;
 	}
 	
-	/**
-	 * Pops up a window to alter the configuration.
-	 *
-	 * @param parent The parent frame to display this within.
-	 */
-	public void openConfigurationWindow(Frame parent){
-		new BattleStegWindow(parent, this);
-		parent.repaint();
-	}
-	
 	/**
 	 * Sets the move away value.
 	 *
@@ -867,7 +841,51 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 	public boolean getMatch(){
 		return mLSBMatch;
 	}
+	
+	/**
+	 * Sets how normal (not ranged) shots are selected.
+	 * <P>
+	 * PRandom.RANDOM_SELECTION is the original selection, which shoots
+	 * again if a square has already been hit.
+	 * PRandom.PERMUTED_SELECTION takes each square from a keyed
+	 * permutation, so only ranged shots ever have to shoot again.  A
+	 * message can only be retrieved with the same mode it was hidden with.
+	 *
+	 * @param selection The selection mode to use.
+	 * @throws IllegalArgumentException If the selection mode is unknown.
+	 */
+	public void setSelection(int selection) throws IllegalArgumentException{
+		if(selection != PRandom.RANDOM_SELECTION
+				&& selection != PRandom.PERMUTED_SELECTION)
+			throw new IllegalArgumentException
+			("Unknown shot selection mode!");
+		mSelection = selection;
+	}
+	
+	/**
+	 * Gets how normal shots are selected.
+	 *
+	 * @return The current selection mode.
+	 */
+	public int getSelection(){
+		return mSelection;
+	}
 		
+	/**
+	 * Makes a new BattleSteg with the same settings as this one.
+	 * The filter is copied too, so the copy can be used at the same
+	 * time as this algorithm.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy(){
+		BattleSteg copy = new BattleSteg(mStartBits, mEndBits, mMoveAway,
+				mInitShots, mShotsIncrease, mShotsRange, mFilter.copy());
+		copy.setMatch(mLSBMatch);
+		copy.setSelection(mSelection);
+		return copy;
+	}
+	
 	//VARIABLES
 	
 	/**
@@ -875,6 +893,11 @@ public class BattleSteg implements StegoAlgorithm, Filterable{
 	 */
 	private boolean mLSBMatch;
 	
+	/**
+	 * How normal shots are selected.
+	 */
+	private int mSelection;
+	
 	/**
 	 * The start range for writable bits.
 	 */
@@ -22,13 +22,11 @@ package invisibleinktoolkit.algorithms;
 
 import invisibleinktoolkit.stego.*;
 import invisibleinktoolkit.util.Shot;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.ShotBuffer;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Random;
-import java.awt.Frame;
-
-
-import invisibleinktoolkit.algorithms.gui.StartEndWindow;
 
 
 /**
@@ -121,64 +119,40 @@ public class BlindHide implements StegoAlgorithm{
 		}
 		
 		
-		Shot sh;
+		long sh;
 		mCountBits = 0;
 		int messagesize = (int) message.getSize();
 		
 		Random rgen = new Random(seed);
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = getShot(cimage.getImage().getHeight(), 
-					cimage.getImage().getWidth());
+			sh = getPosition(cimage.getHeight(), 
+					cimage.getWidth());
 			
 			//put in the next size bit...
 			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
 			
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition(),
-					bit);
-			}else{
-				//need to get the value of the colour
-				//subtract 1, and update pixel.
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						8,
-						bit,
-						rgen.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && rgen.nextBoolean());
 		}
 		
 		//now we can start embedding the message into the cover
 		while(message.notFinished()){
 			
-			sh = getShot(cimage.getImage().getHeight(), 
-					cimage.getImage().getWidth());
+			sh = getPosition(cimage.getHeight(), 
+					cimage.getWidth());
 			
 			boolean bit = message.nextBit();
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition(),
-					bit);
-			}else{
-				//need to get the value of the colour
-				//subtract 1, and update pixel.
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						8,
-						bit,
-						rgen.nextBoolean());
-			}			
+			buffer.add(sh, bit, mLSBMatch && rgen.nextBoolean());
+			if(buffer.isFull())
+				buffer.hide(cimage, mLSBMatch, 8);
 		}
 		
+		//hide whatever is left in the buffer
+		buffer.hide(cimage, mLSBMatch, 8);
+		
 		//now the message is hidden inside the image.
 		return new StegoImage(cimage.getImage());
 		
@@ -197,20 +171,17 @@ public class BlindHide implements StegoAlgorithm{
 	public RetrievedMessage decode(StegoImage simage, long seed, String path)
 	throws IOException, NoMessageException{
 		
-		Shot sh;
+		long sh;
 		int size = 0;
 		mCountBits = 0;
 		
 		//get the size - in the first 32 hidden bits
 		for(int i = 0; i < 32; i++){
 			
-			sh = getShot(simage.getImage().getHeight(), 
-					simage.getImage().getWidth());
+			sh = getPosition(simage.getHeight(), 
+					simage.getWidth());
 			
-			int bit =  simage.getPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition());
+			int bit =  simage.getPixelBit(sh);
 			size = size << 1 | bit;
 			
 		}
@@ -225,29 +196,37 @@ public class BlindHide implements StegoAlgorithm{
 		size2 = size2 * 8;
 		
 		//make sure that the message isn't bigger than it's supposed to be
-		long imagespace = (((simage.getImage().getWidth()
-				* simage.getImage().getHeight()) * simage.getLayerCount())
+		long imagespace = (((simage.getWidth()
+				* simage.getHeight()) * simage.getLayerCount())
 				* ((mEndBits - mStartBits) + 1));
-		if(size2 >= imagespace || size2 < 0)
+		//(the size itself takes up the first 32 shots)
+		if(size2 < 0 || (long)size2 + 32 > imagespace)
 			throw new NoMessageException();
 		
-		RetrievedMessage rmess = new RetrievedMessage(path);
-		
-		//start retrieving and writing out the message
-		for(int k = 0; k < size2; k++){
+		RetrievedMessage rmess = new RetrievedMessage(path, size2 / 8);
+		try{
+			ShotBuffer buffer = new ShotBuffer(simage.getWidth());
 			
-			sh = getShot(simage.getImage().getHeight(), 
-					simage.getImage().getWidth());
-			
-			rmess.setNext( (simage.getPixelBit(sh.getX(), 
-					sh.getY(), 
-					sh.getLayer(),
-					sh.getBitPosition())
-			) == 0x1);			
+			//start retrieving and writing out the message
+			for(int k = 0; k < size2; k++){
+				
+				sh = getPosition(simage.getHeight(), 
+						simage.getWidth());
+				
+				buffer.add(sh);
+				if(buffer.isFull() || k == size2 - 1){
+					buffer.retrieve(simage);
+					rmess.setNext(buffer.getBits(), buffer.getCount());
+					buffer.clear();
+				}			
+				
+			}
 			
+			rmess.close();
+		}finally{
+			//don't leave half a message behind if it couldn't be read
+			rmess.discard();
 		}
-		
-		rmess.close();
 		return rmess;
 	}
 	
@@ -257,19 +236,21 @@ public class BlindHide implements StegoAlgorithm{
 	 *
 	 * @param height The height of the image.
 	 * @param width The width of the image.
-	 * @return The next shot to make.
+	 * @return The next shot to make, packed (see Shot.pack()), or -1
+	 * if the image is full.
 	 */
-	private Shot getShot(int height, int width){
+	private long getPosition(int height, int width){
 		//get the number of rows written so far...
 		int bitsperpixel = (mEndBits - mStartBits) + 1;
 		if(height * width * bitsperpixel * 3 < mCountBits)
-			return null;
+			return -1;
 		int rangeupto = (int)(mCountBits % (bitsperpixel * 3));
 		int xrow = (int)(((mCountBits - rangeupto)/(bitsperpixel * 3)) % width);
 		int yrow = (int)((((mCountBits - rangeupto)/(bitsperpixel * 3)) - xrow)
 				/ width);			 
-		Shot sh = new Shot(xrow, yrow, rangeupto % bitsperpixel, 
-				((rangeupto - (rangeupto % bitsperpixel)) / bitsperpixel));
+		long sh = Shot.pack(xrow, yrow, width,
+				((rangeupto - (rangeupto % bitsperpixel)) / bitsperpixel),
+				rangeupto % bitsperpixel);
 		mCountBits++;
 		return sh;
 	}
@@ -287,8 +268,8 @@ public class BlindHide implements StegoAlgorithm{
 			CoverImage image) throws IOException{
 		
 		//get the size of the image
-		int imgX = image.getImage().getWidth(); 
-		int imgY = image.getImage().getHeight();
+		int imgX = image.getWidth(); 
+		int imgY = image.getHeight();
 		
 		//check the size of the image on disk
 		long imagespace = (((imgX * imgY) * image.getLayerCount())
@@ -321,7 +302,7 @@ public class BlindHide implements StegoAlgorithm{
 		}
 		
 		
-		Shot sh;
+		long sh;
 		mCountBits = 0;
 		
 		BufferedImage image = simage.getImage();
@@ -329,32 +310,30 @@ public class BlindHide implements StegoAlgorithm{
 		int height = image.getHeight();
 		int width = image.getWidth();
 		int black = 0x0;
-		for(int i = 0; i < height; i++){
-			for(int j = 0; j < width; j++){
-				image.setRGB(j, i, black);
-			}
-		}
+		ImageRaster raster = new ImageRaster(image);
+		raster.fill(black);
 		
 		//"put" the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = getShot(height, width);
+			sh = getPosition(height, width);
 			
 			//put in the next size bit...
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 		}
 		
 		//now we can start "embedding" the message into the cover
 		while(message.notFinished()){
-			sh = getShot(height, width); 
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			sh = getPosition(height, width); 
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			message.nextBit();			
 			
 		}
 		
 		//now the message is "hidden" inside the image.
+		raster.flush();
 		return image;
 	}
 	
@@ -405,16 +384,6 @@ public class BlindHide implements StegoAlgorithm{
 		mStartBits = newstart;
 	}
 	
-	/**
-	 * Pops up a window to alter the configuration.
-	 *
-	 * @param parent The parent frame to display this within.
-	 */
-	public void openConfigurationWindow(Frame parent){
-		new StartEndWindow(parent, this);
-		parent.repaint();
-	}
-	
 	/**
 	 * Returns text explaining what this algorithm does.
 	 * 
@@ -443,6 +412,18 @@ public class BlindHide implements StegoAlgorithm{
 		return mLSBMatch;
 	}
 		
+	/**
+	 * Makes a new BlindHide with the same settings as this one.
+	 * The copy can be used at the same time as this algorithm.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy(){
+		BlindHide copy = new BlindHide(mStartBits, mEndBits);
+		copy.setMatch(mLSBMatch);
+		return copy;
+	}
+	
 	//VARIABLES
 	
 	/**
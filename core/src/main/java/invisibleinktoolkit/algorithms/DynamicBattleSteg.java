@@ -22,13 +22,16 @@ package invisibleinktoolkit.algorithms;
 
 import invisibleinktoolkit.stego.*;
 import invisibleinktoolkit.util.Shot;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.ShotBuffer;
 import invisibleinktoolkit.util.PRandom;
+import invisibleinktoolkit.util.ShotSet;
+import invisibleinktoolkit.util.ShotPermutation;
 import java.awt.image.BufferedImage;
 import invisibleinktoolkit.filters.*;
 
 import java.io.IOException;
 import java.util.Random;
-import java.util.TreeSet;
 
 
 /**
@@ -85,6 +88,8 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 		 * @param initshots The number of shots to make after an initial hit.
 		 * @param shotsincrease The number of shots to increase by after a hit.
 		 * @param shotrange The range for the shots.
+		 * @param filter The filter to find the ships with.
+		 * @param selection The selection mode for normal shots.
 		 * @throws IllegalArgumentException if something bad was passed.
 		 */
 		public BPRandom(long seed, 
@@ -94,7 +99,8 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				int initshots,
 				int shotsincrease, 
 				int shotrange,
-				Filter filter) throws IllegalArgumentException{
+				Filter filter,
+				int selection) throws IllegalArgumentException{
 			
 			//call the super constructor
 			super(seed, image.getWidth(), image.getHeight(), 
@@ -111,24 +117,17 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 			filter.setEndRange(8);
 			
 			//set up the matrix of "shots"
-			beenShot = new boolean[image.getWidth()][image.getHeight()][3][8];
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					for(int k = 0; k < 8; k++){
-						beenShot[i][j][0][k] = false;
-						beenShot[i][j][1][k] = false;
-						beenShot[i][j][2][k] = false;
-					}
-				}
-			}
+			beenShot = new ShotSet(image.getWidth(), image.getHeight());
+			
+			//normal shots can come from a permutation that never repeats
+			if(PRandom.canRepeat(selection))
+				mPermutation = null;
+			else
+				mPermutation = new ShotPermutation(seed, image.getWidth(),
+						image.getHeight(), numlayers, startrange, endrange);
 			
 			//all the ships
-			mShips = new boolean[image.getWidth()][image.getHeight()];
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					mShips[i][j] = false;
-				}
-			}
+			mShips = new boolean[image.getWidth() * image.getHeight()];
 			
 			try{
 				this.generateShips(image, filter);
@@ -148,30 +147,17 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 		private void generateShips(BufferedImage image, 
 				Filter filter) throws Exception{
 			
-			//set up the image for the filter
-			filter.setImage(image);			
+			//filter the image
+			int[] values = FilterMap.filterImage(filter, image);
+			int width = image.getWidth();
 			int size = (image.getWidth() * image.getHeight()) / 10;
-			System.gc();
 			
-			//filter the image
-			TreeSet sortedlist = new TreeSet(new FPComparator());
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					if((i * image.getHeight()) + j < size)
-						sortedlist.add(new FilteredPixel(i, j, 
-								Math.abs(filter.getValue(i, j))));
-					else if (Math.abs(filter.getValue(i, j)) 
-						> ((FilteredPixel)sortedlist.first()).getFilterValue()){
-						sortedlist.remove(sortedlist.first());
-						sortedlist.add(new FilteredPixel(i, j, 
-								Math.abs(filter.getValue(i, j))));
-					}
-				}				
-			} 
-				
-			//turn into an array
-			Object[] engines = sortedlist.toArray();
-			int halfway = ((FilteredPixel)sortedlist.last()).getFilterValue() / 2;
+			//pick out the engines
+			//is in ascending order - low at start, high at end
+			long[] engines = PixelRanking.top(values, width, 
+					image.getHeight(), size);
+			int halfway = PixelRanking.getFilterValue(
+					engines[engines.length - 1]) / 2;
 			
 	
 			//now do a quick search to check if any of the engines are
@@ -179,35 +165,35 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 			int x, y, acount;
 			
 			for(int i = 0; i < engines.length; i++){
-				x = ((FilteredPixel)(engines[i])).getX();
-				y = ((FilteredPixel)(engines[i])).getY();
+				x = PixelRanking.getX(engines[i]);
+				y = PixelRanking.getY(engines[i]);
 				acount = 0;
 				if(x > 0){
-					if(Math.abs(filter.getValue(x - 1, y)) >= halfway){
-						mShips[x - 1][y] = true;
+					if(Math.abs(values[(y * width) + x - 1]) >= halfway){
+						mShips[(y * width) + x - 1] = true;
 						acount++;
 					}
 				}
 				if(x < (image.getWidth() - 1)){
-					if(Math.abs(filter.getValue(x + 1, y)) >= halfway){
-						mShips[x + 1][y] = true;
+					if(Math.abs(values[(y * width) + x + 1]) >= halfway){
+						mShips[(y * width) + x + 1] = true;
 						acount++;
 					}
 				}
 				if(y < (image.getHeight() - 1)){
-					if(Math.abs(filter.getValue(x, y + 1)) >= halfway){
-						mShips[x][y + 1] = true;
+					if(Math.abs(values[((y + 1) * width) + x]) >= halfway){
+						mShips[((y + 1) * width) + x] = true;
 						acount++;
 					}
 				}
 				if(y > 0){
-					if(Math.abs(filter.getValue(x, y - 1)) >= halfway){
-						mShips[x][y - 1] = true;
+					if(Math.abs(values[((y - 1) * width) + x]) >= halfway){
+						mShips[((y - 1) * width) + x] = true;
 						acount++;
 					}
 				}
 
-				mShips[x][y] = true;
+				mShips[(y * width) + x] = true;
 				
 			} 
 			//now all the ships are picked and set
@@ -216,14 +202,14 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				
 		
 		/**
-		 * Generates a new shot.
+		 * Generates a new shot, packed (see Shot.pack()).
 		 *
 		 * A shot contains all the information needed to
 		 * place where the bit should be encoded.
 		 *
 		 * @return A shot on the board.
 		 */
-		public Shot getShot(){
+		public long nextPosition(){
 			//first check if we should make a ranged shot (hit previous)
 			if(mNumShots <= 0 || mMoveAway <= 0){
 				//normal shot
@@ -231,16 +217,14 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				mMoveAway = mMoveAwayFixed;
 				mNumShots = 0;
 				//get a shot (until a non-hit square is found)
-				Shot sh = super.getShot();
-				while(beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-					sh = super.getShot();
+				//(and save it)
+				long sh = this.nextNormalPosition();
+				while(!beenShot.add(sh)){
+					sh = this.nextNormalPosition();
 				}
 				
-				//save it
-				beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
-				
 				//check if it is a ship (next hit will be ranged)
-				if (mShips[sh.getX()][sh.getY()]){
+				if (mShips[Shot.getIndex(sh)]){
 					mNumShots = mInitShots;
 				}
 				return sh;
@@ -250,20 +234,19 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				//subtract variables to make sure it does moveaway
 				mNumShots--;
 				mMoveAway--;
-				Shot sh = super.getRangedShot(mShotRange);
+				long sh = super.nextRangedPosition(mShotRange);
 				//get ranged shots till we run out, then just make normal shots
-				while(beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
+				//(and save it)
+				while(!beenShot.add(sh)){
 					if(mNumShots <= 0 || mMoveAway <= 0)
-						sh = super.getShot();
+						sh = this.nextNormalPosition();
 					else
-						sh = super.getRangedShot(mShotRange);
+						sh = super.nextRangedPosition(mShotRange);
 					mNumShots--;
 					mMoveAway--;
 				}
-				//save it
-				beenShot[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
 				//if it was a hit, recenter shots on newest hit
-				if(mShips[sh.getX()][sh.getY()]){
+				if(mShips[Shot.getIndex(sh)]){
 					mNumShots = mNumShots + mShotsIncrease;
 					super.setLast(sh);
 				}
@@ -271,17 +254,38 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 			}
 		}
 		
+		/**
+		 * Makes a normal (not ranged) shot.
+		 *
+		 * @return The next normal shot, packed.
+		 */
+		private long nextNormalPosition(){
+			if(mPermutation == null)
+				return super.nextPosition();
+			
+			//ranged shots still go around the last normal shot
+			long sh = mPermutation.nextPosition();
+			super.setLast(sh);
+			return sh;
+		}
+		
 		//VARIABLES
 		
 		/**
 		 * Contains a list of all the positions already used.
 		 */
-		private boolean beenShot[][][][];
+		private ShotSet beenShot;
+		
+		/**
+		 * The permutation to make normal shots from, or null if they
+		 * are made at random.
+		 */
+		private ShotPermutation mPermutation;
 		
 		/**
-		 * Contains a map of all the ships.
+		 * Contains a map of all the ships, in scan lines.
 		 */
-		private boolean mShips[][];
+		private boolean mShips[];
 		
 		/**
 		 * Contains the count of the number of ranged shots.
@@ -373,6 +377,7 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 		mShotsIncrease = shotsincrease;
 		mShotsRange = shotrange;
 		mFilter = filter;
+		mSelection = PRandom.RANDOM_SELECTION;
 	}
 	
 	/**
@@ -418,61 +423,39 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				mEndBits,
 				cimage.getImage(),
 				mMoveAway, mInitShots, mShotsIncrease, mShotsRange,
-				mFilter);
+				mFilter, mSelection);
 		
-		Shot sh;
+		long sh;
 		int messagesize = (int) message.getSize();
 		
 		Random aran = new Random(seed);
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			//put in the next size bit...
 			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						sh.getBitPosition(),
-						bit);
-			}else{
-				//match!
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						mFilter.getStartRange(),
-						bit,
-						aran.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
 		}
 		
 		//now we can start embedding the message into the cover
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			boolean bit = message.nextBit();
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						sh.getBitPosition(),
-						bit);
-			}else{
-				//match!
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						mFilter.getStartRange(),
-						bit,
-						aran.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
+			if(buffer.isFull())
+				buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
 			
 		}
 		
+		//hide whatever is left in the buffer
+		buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
+		
 		//now the message is hidden inside the image.
 		return new StegoImage(cimage.getImage());
 		
@@ -498,22 +481,19 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				mEndBits,
 				simage.getImage(),
 				mMoveAway, mInitShots, mShotsIncrease, mShotsRange,
-				mFilter);
+				mFilter, mSelection);
 		
 		
 		
-		Shot sh;
+		long sh;
 		int size = 0;
 		
 		//get the size - in the first 32 hidden bits
 		for(int i = 0; i < 32; i++){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			int bit =  simage.getPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition());
+			int bit =  simage.getPixelBit(sh);
 			
 			size = size << 1 | bit;
 			
@@ -529,29 +509,33 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 		size2 = size2 * 8;
 		
 		//make sure that the message isn't bigger than it's supposed to be
-		long imagespace = (((simage.getImage().getWidth()
-				* simage.getImage().getHeight())
+		long imagespace = (((simage.getWidth()
+				* simage.getHeight())
 				* simage.getLayerCount())
 				* ((mEndBits - mStartBits) + 1));
 		
-		if(size2 >= imagespace || size2 < 0)
+		//(the size itself takes up the first 32 shots)
+		if(size2 < 0 || (long)size2 + 32 > imagespace)
 			throw new NoMessageException();
 		
-		RetrievedMessage rmess = new RetrievedMessage(path);
-		
-		//start retrieving and writing out the message
-		for(int k = 0; k < size2; k++){
-			sh = rgen.getShot();
+		RetrievedMessage rmess = new RetrievedMessage(path, size2 / 8);
+		try{
+			ShotBuffer buffer = new ShotBuffer(simage.getWidth());
 			
-			rmess.setNext( (simage.getPixelBit(sh.getX(), 
-					sh.getY(), 
-					sh.getLayer(),
-					sh.getBitPosition())
-			) == 0x1);					
+			//start retrieving and writing out the message
+			int left = size2;
+			while(left > 0){
+				left = left - buffer.fill(rgen, left);
+				buffer.retrieve(simage);
+				rmess.setNext(buffer.getBits(), buffer.getCount());
+				buffer.clear();
+			}
 			
+			rmess.close();
+		}finally{
+			//don't leave half a message behind if it couldn't be read
+			rmess.discard();
 		}
-		
-		rmess.close();
 		return rmess;
 	}
 	
@@ -568,8 +552,8 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 			CoverImage image) throws IOException{
 		
 		//get the size of the image
-		int imgX = image.getImage().getWidth(); 
-		int imgY = image.getImage().getHeight();
+		int imgX = image.getWidth(); 
+		int imgY = image.getHeight();
 		
 		//check the size of the image on disk
 		long imagespace = (((imgX * imgY) * image.getLayerCount())
@@ -607,43 +591,41 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 				mEndBits,
 				simage.getImage(),
 				mMoveAway, mInitShots, mShotsIncrease, mShotsRange,
-				mFilter);
+				mFilter, mSelection);
 		
-		Shot sh;
+		long sh;
 		
 		//make the whole image black...
 		BufferedImage image = simage.getImage();
 		int black = 0x0;
-		for(int i = 0; i < image.getHeight(); i++){
-			for(int j = 0; j < image.getWidth(); j++){
-				image.setRGB(j, i, black);
-			}
-		}
+		ImageRaster raster = new ImageRaster(image);
+		raster.fill(black);
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			//put in the next size bit...
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			
 		}
 		
 		//now we can start embedding the message into the cover
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			
 			message.nextBit();
 						
 		}
 		
 		//now the message is hidden inside the image.
+		raster.flush();
 		return image;
 	}
 	
@@ -686,13 +668,62 @@ public class DynamicBattleSteg extends BattleSteg implements StegoAlgorithm, Fil
 	public boolean getMatch(){
 		return mLSBMatch;
 	}
+	
+	/**
+	 * Sets how normal (not ranged) shots are selected.
+	 * <P>
+	 * PRandom.RANDOM_SELECTION is the original selection, which shoots
+	 * again if a square has already been hit.
+	 * PRandom.PERMUTED_SELECTION takes each square from a keyed
+	 * permutation, so only ranged shots ever have to shoot again.  A
+	 * message can only be retrieved with the same mode it was hidden with.
+	 *
+	 * @param selection The selection mode to use.
+	 * @throws IllegalArgumentException If the selection mode is unknown.
+	 */
+	public void setSelection(int selection) throws IllegalArgumentException{
+		if(selection != PRandom.RANDOM_SELECTION
+				&& selection != PRandom.PERMUTED_SELECTION)
+			throw new IllegalArgumentException
+			("Unknown shot selection mode!");
+		mSelection = selection;
+	}
+	
+	/**
+	 * Gets how normal shots are selected.
+	 *
+	 * @return The current selection mode.
+	 */
+	public int getSelection(){
+		return mSelection;
+	}
 		
+	/**
+	 * Makes a new DynamicBattleSteg with the same settings as this one.
+	 * The filter is copied too, so the copy can be used at the same
+	 * time as this algorithm.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy(){
+		DynamicBattleSteg copy = new DynamicBattleSteg(mStartBits, mEndBits, mMoveAway,
+				mInitShots, mShotsIncrease, mShotsRange, mFilter.copy());
+		copy.setMatch(mLSBMatch);
+		copy.setSelection(mSelection);
+		return copy;
+	}
+	
 	//VARIABLES
 	
 	/**
 	 * Whether to use LSB Matching or not.
 	 */
 	private boolean mLSBMatch;
+	
+	/**
+	 * How normal shots are selected.
+	 */
+	private int mSelection;
 	/**
 	 * The start range for writable bits.
 	 */
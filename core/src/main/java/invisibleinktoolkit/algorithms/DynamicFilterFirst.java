@@ -22,15 +22,15 @@ package invisibleinktoolkit.algorithms;
 
 import invisibleinktoolkit.stego.*;
 import invisibleinktoolkit.util.Shot;
+import invisibleinktoolkit.util.ShotSource;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.ShotBuffer;
 import java.awt.image.BufferedImage;
 import invisibleinktoolkit.filters.*;
 
 import java.io.IOException;
-import java.awt.Frame;
-import invisibleinktoolkit.algorithms.gui.StartEndFilterWindow;
 
 import java.util.Random;
-import java.util.TreeSet;
 
 
 /**
@@ -57,7 +57,7 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 	 *
 	 * @author Kathryn Hempstalk.
 	 */
-	private class ShotPicker{
+	private class ShotPicker implements ShotSource{
 		
 		//CONSTRUCTORS
 		
@@ -82,6 +82,7 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 				int messagesize, int ignore) throws IllegalArgumentException{
 			
 			//setup all the local variables
+			mWidth = image.getWidth();
 			mStartRange = startrange;
 			mEndRange = endrange;
 			filter.setStartRange(endrange + 1);
@@ -127,35 +128,19 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 		private void generateList(BufferedImage image, 
 				Filter filter, int size) throws Exception{
 			
-			filter.setImage(image);
-			System.gc();
+			int[] values = FilterMap.filterImage(filter, image);
 			
-			//filter the image
-			TreeSet sortedlist = new TreeSet(new FPComparator());
-			for(int i = 0; i < image.getWidth(); i++){
-				for(int j = 0; j < image.getHeight(); j++){
-					if((i * image.getHeight()) + j < size)
-						sortedlist.add(new FilteredPixel(i, j, 
-								Math.abs(filter.getValue(i, j))));
-					else if (Math.abs(filter.getValue(i, j)) 
-						> ((FilteredPixel)sortedlist.first()).getFilterValue()){
-						sortedlist.remove(sortedlist.first());
-						sortedlist.add(new FilteredPixel(i, j, 
-								Math.abs(filter.getValue(i, j))));
-					}
-
-				}				
-			} 
-				
-			//turn into an array
-			fparray = sortedlist.toArray();		
+			//pick out the best pixels for the message
+			//is in ascending order - low at start, high at end
+			fparray = PixelRanking.top(values, image.getWidth(), 
+					image.getHeight(), size);
 			
 		}
 		
 		
 		
 		/**
-		 * Generates a new shot.
+		 * Generates a new shot, packed (see Shot.pack()).
 		 *
 		 * A shot contains all the information needed to
 		 * place where the bit should be encoded.
@@ -163,13 +148,14 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 		 * @return A "shot" on the image where the next bit of information
 		 * will be hidden.
 		 */
-		public Shot getShot(){
+		public long nextPosition(){
 
 			//work out where we are up to...
-			FilteredPixel fp = (FilteredPixel)fparray[(fparray.length - mArrayPos) - 1];
+			long fp = fparray[(fparray.length - mArrayPos) - 1];
 			
 			//make the next shot
-			Shot sh = new Shot(fp.getX(), fp.getY(), mBitCount, mColour);
+			long sh = Shot.pack(PixelRanking.getX(fp), PixelRanking.getY(fp),
+					mWidth, mColour, mBitCount);
 			
 			mBitCount++;
 			if(mBitCount >= (mEndRange - mStartRange) + 1){
@@ -185,12 +171,31 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 		}
 		
 		
+		/**
+		 * Generates a run of new shots, packed (see Shot.pack()).
+		 *
+		 * @param positions The array to put the packed shots in.
+		 * @param offset Where to put the first shot in the array.
+		 * @param count The number of shots to generate.
+		 */
+		public void nextPositions(long[] positions, int offset, int count){
+			for(int i = 0; i < count; i++){
+				positions[offset + i] = this.nextPosition();
+			}
+		}
+		
+		
 		//VARIABLES
 		
 		/**
-		 * The set of filtered pixels.
+		 * The set of filtered pixels, packed and ranked.
 		 */
-		private Object[] fparray;
+		private long[] fparray;
+		
+		/**
+		 * The width of the image.
+		 */
+		private int mWidth;
 		
 		/**
 		 * The start range to hide data.
@@ -319,59 +324,37 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 				mFilter,
 				(int)((message.getSize() * 8) + 32), 0);
 		
-		Shot sh;
+		long sh;
 		int messagesize = (int) message.getSize();
 		
 		Random aran = new Random(seed);
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 						
 			//put in the next size bit...
 			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						sh.getBitPosition(),
-						bit);
-			}else{
-				//match!
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						mFilter.getStartRange(),
-						bit,
-						aran.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
 		}
 		
 		//now we can start embedding the message into the cover
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
 			boolean bit = message.nextBit();
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						sh.getBitPosition(),
-						bit);
-			}else{
-				//match!
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						mFilter.getStartRange(),
-						bit,
-						aran.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
+			if(buffer.isFull())
+				buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
 			
 		}
 
+		//hide whatever is left in the buffer
+		buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
+		
 		//now the message is hidden inside the image.
 		return new StegoImage(cimage.getImage());
 		
@@ -398,18 +381,15 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 				mFilter,
 				50, 0);
 		
-		Shot sh;
+		long sh;
 		int size = 0;
 		
 		//get the size - in the first 32 hidden bits
 		for(int i = 0; i < 32; i++){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			int bit =  simage.getPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition());
+			int bit =  simage.getPixelBit(sh);
 			
 			size = size << 1 | bit;
 			
@@ -427,40 +407,39 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 		size2 = size2 * 8;
 		
 		//make sure that the message isn't bigger than it's supposed to be
-		long imagespace = (((simage.getImage().getWidth()
-				* simage.getImage().getHeight())
+		long imagespace = (((simage.getWidth()
+				* simage.getHeight())
 				* simage.getLayerCount())
 				* ((mEndBits - mStartBits) + 1));
-		if(size2 >= imagespace || size2 < 0)
+		//(the size itself takes up the first 32 shots)
+		if(size2 < 0 || (long)size2 + 32 > imagespace)
 			throw new NoMessageException();
 		
-		RetrievedMessage rmess = new RetrievedMessage(path);
-		
-		rgen = new ShotPicker(seed, 
-				mStartBits,
-				mEndBits,
-				simage.getImage(),
-				mFilter,
-				size2 + 50, 32);
+		RetrievedMessage rmess = new RetrievedMessage(path, size2 / 8);
 		try{
-		//start retrieving and writing out the message
-		for(int k = 0; k < size2; k++){
-			sh = rgen.getShot();
+			ShotBuffer buffer = new ShotBuffer(simage.getWidth());
+			
+			rgen = new ShotPicker(seed, 
+					mStartBits,
+					mEndBits,
+					simage.getImage(),
+					mFilter,
+					size2 + 50, 32);
+			
+			//start retrieving and writing out the message
+			int left = size2;
+			while(left > 0){
+				left = left - buffer.fill(rgen, left);
+				buffer.retrieve(simage);
+				rmess.setNext(buffer.getBits(), buffer.getCount());
+				buffer.clear();
+			}
 			
-			rmess.setNext( (simage.getPixelBit(sh.getX(), 
-					sh.getY(), 
-					sh.getLayer(),
-					sh.getBitPosition())
-			) == 0x1);
-						
-		}
-		}catch(Exception e){
-			e.printStackTrace();
 			rmess.close();
-			System.exit(0);
+		}finally{
+			//don't leave half a message behind if it couldn't be read
+			rmess.discard();
 		}
-		
-		rmess.close();
 		return rmess;
 	}
 	
@@ -477,8 +456,8 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 			CoverImage image) throws IOException{
 		
 		//get the size of the image
-		int imgX = image.getImage().getWidth(); 
-		int imgY = image.getImage().getHeight();
+		int imgX = image.getWidth(); 
+		int imgY = image.getHeight();
 		
 		//check the size of the image on disk
 		long imagespace = (((imgX * imgY) * image.getLayerCount())
@@ -517,40 +496,38 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 				mFilter,
 				(int)(message.getSize() * 8 + 50), 0);
 		
-		Shot sh;
+		long sh;
 		
 		//make the whole image black...
 		BufferedImage image = simage.getImage();
 		int black = 0x0;
-		for(int i = 0; i < image.getHeight(); i++){
-			for(int j = 0; j < image.getWidth(); j++){
-				image.setRGB(j, i, black);
-			}
-		}
+		ImageRaster raster = new ImageRaster(image);
+		raster.fill(black);
 		
 		//put the size in the first 32 bits
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			
 		}
 		
 		//now we can start "embedding" the message into the cover
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
+			sh = rgen.nextPosition();
 			
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			
 			message.nextBit();
 			
 		}		
 		
 		//now the message is "hidden" inside the image.
+		raster.flush();
 		return image;
 	}
 	
@@ -623,16 +600,6 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 		mStartBits = newstart;
 	}
 	
-	/**
-	 * Pops up a window to alter the configuration.
-	 *
-	 * @param parent The parent frame to display this within.
-	 */
-	public void openConfigurationWindow(Frame parent){
-		new StartEndFilterWindow(parent, this);
-		parent.repaint();
-	}
-	
 	/**
 	 * Returns text explaining what this algorithm does.
 	 * 
@@ -662,6 +629,20 @@ public class DynamicFilterFirst implements StegoAlgorithm, Filterable{
 		return mLSBMatch;
 	}
 		
+	/**
+	 * Makes a new DynamicFilterFirst with the same settings as this one.
+	 * The filter is copied too, so the copy can be used at the same
+	 * time as this algorithm.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy(){
+		DynamicFilterFirst copy = new DynamicFilterFirst(mStartBits, mEndBits, 10, 5, 2, 5,
+				mFilter.copy());
+		copy.setMatch(mLSBMatch);
+		return copy;
+	}
+	
 	//VARIABLES
 	
 	/**
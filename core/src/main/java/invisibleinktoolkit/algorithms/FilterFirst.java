@@ -0,0 +1,1057 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.algorithms;
+
+import invisibleinktoolkit.stego.*;
+import invisibleinktoolkit.util.Shot;
+import invisibleinktoolkit.util.ShotSource;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.ShotBuffer;
+import invisibleinktoolkit.util.CounterRandom;
+import invisibleinktoolkit.util.TaskPool;
+import java.awt.image.BufferedImage;
+import invisibleinktoolkit.filters.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * A filter first way of hiding data.
+ *
+ * This algorithm is the second extreme of BattleSteg (the first being
+ * Hide and Seek).  It filters the image first, and hides in the filter
+ * first (hence the name).  In this way the message is always hidden in the part
+ * of the image deemed "best to hide".
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FilterFirst implements StegoAlgorithm, Filterable{
+	
+	//INNER CLASS
+	/**
+	 * An internal representation of a shot generator
+	 * which produces the next filter value in the chain
+	 * to use.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private class ShotPicker implements ShotSource{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new shot picker, for a given image.
+		 * The random seed is not used at this stage - but may
+		 * be used in the future to help shuffle the array.
+		 *
+		 * @param seed The seed to initialise the generator.
+		 * @param startrange The start range of bit positions.
+		 * @param endrange The ending range of bit positions.
+		 * @param image The image to figure out the ships for.
+		 * @param filter The filter to use on the image.
+		 */
+		public ShotPicker(long seed, 
+				int startrange, 
+				int endrange,
+				BufferedImage image,
+				Filter filter) throws IllegalArgumentException{
+			
+			//setup all the local variables
+			mWidth = image.getWidth();
+			mStartRange = startrange;
+			mEndRange = endrange;
+			filter.setStartRange(endrange + 1);
+			filter.setEndRange(8);
+			mCountBits = image.getHeight() * image.getWidth() * 
+			(mEndRange + 1 - mStartRange) * 3;
+			mTotalBits = mCountBits;
+			
+			try{
+				//organise the filter (similar to picking ships)
+				this.generateList(image, filter);
+			}catch(Exception e){
+				e.printStackTrace();
+				System.exit(0);
+			}
+		}
+		
+		
+		/**
+		 * Generates a list of all the filter values to use.
+		 *
+		 * @param image The image to filter.
+		 * @param filter The filter to use.
+		 * @throws Exception If the image for the filter 
+		 * has not been correctly set.
+		 */
+		private void generateList(BufferedImage image, 
+				Filter filter) throws Exception{
+			
+			int[] values = FilterMap.filterImage(filter, image);
+			int width = image.getWidth();
+			
+			//rank the filter results
+			//is in ascending order - low at start, high at end
+			fparray = PixelRanking.rank(values, width, image.getHeight());
+			
+		}
+		
+		
+		
+		/**
+		 * Generates a new shot, packed (see Shot.pack()).
+		 *
+		 * A shot contains all the information needed to
+		 * place where the bit should be encoded.
+		 *
+		 * @return A "shot" on the image where the next bit of information
+		 * will be hidden.
+		 */
+		public long nextPosition(){
+			long sh = this.getPositionAt(mCountBits);
+			mCountBits--;
+			return sh;
+		}
+		
+		
+		/**
+		 * Gets a shot by its number, without making the shots before
+		 * it.  Shot N is the same shot nextPosition() gives the Nth time
+		 * it is called (counting from 0).
+		 *
+		 * @param shot The number of the shot.
+		 * @return The shot, packed (see Shot.pack()).
+		 */
+		public long getPosition(int shot){
+			return this.getPositionAt(mTotalBits - shot);
+		}
+		
+		
+		/**
+		 * Moves a shot number back to the first shot on the same pixel.
+		 * Shots on the same pixel are always numbered one after
+		 * another, so splitting the shots at these numbers gives each 
+		 * part its own pixels.
+		 *
+		 * @param shot The number of the shot.
+		 * @return The number of the first shot on the same pixel.
+		 */
+		public int alignToPixel(int shot){
+			int bitsperpixel = ((mEndRange - mStartRange) + 1) * 3;
+			int rangeupto = (mTotalBits - shot) % bitsperpixel;
+			return shot - ((bitsperpixel - 1) - rangeupto);
+		}
+		
+		
+		/**
+		 * Works out the shot for a count of bits left to write.
+		 *
+		 * @param count The count of bits left to write.
+		 * @return The shot, packed (see Shot.pack()).
+		 */
+		private long getPositionAt(int count){
+			//work out where we are up to...
+			int bitsperpixel = (mEndRange - mStartRange) + 1;
+			int rangeupto = (int)(count % (bitsperpixel * 3));
+			int arraypos = (int)(((count - rangeupto)/(bitsperpixel * 3)) 
+					% fparray.length);
+			long fp = fparray[arraypos];
+			
+			//make the next shot
+			return Shot.pack(PixelRanking.getX(fp), PixelRanking.getY(fp),
+					mWidth,
+					((rangeupto - (rangeupto % bitsperpixel)) / bitsperpixel),
+					rangeupto % bitsperpixel);
+		}
+		
+		
+		/**
+		 * Generates a run of new shots, packed (see Shot.pack()).
+		 *
+		 * @param positions The array to put the packed shots in.
+		 * @param offset Where to put the first shot in the array.
+		 * @param count The number of shots to generate.
+		 */
+		public void nextPositions(long[] positions, int offset, int count){
+			for(int i = 0; i < count; i++){
+				positions[offset + i] = this.nextPosition();
+			}
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * The set of filtered pixels, packed and ranked.
+		 */
+		private long []fparray;
+		
+		/**
+		 * The width of the image.
+		 */
+		private int mWidth;
+		
+		/**
+		 * The start range to hide data.
+		 */
+		private int mStartRange;
+		
+		/**
+		 * The end range to hide data.
+		 */
+		private int mEndRange;
+		
+		/**
+		 * The count of the number of bits left to write.
+		 */
+		private int mCountBits;
+		
+		/**
+		 * The count of bits to write before any are written.
+		 */
+		private int mTotalBits;
+		
+	}
+	//end of inner class.
+	
+	
+	/**
+	 * A part of a message to hide, which splits itself up further
+	 * until it is small enough to hide on one thread.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private class HideTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new task to hide part of a run of bits.
+		 *
+		 * @param picker The shot picker for the image.
+		 * @param aran The generator for the LSB matching directions.
+		 * @param cimage The image to hide in.
+		 * @param bits The run of bits, packed 64 to a long.
+		 * @param first The shot number of the first bit in the run.
+		 * @param start The first bit in the run to hide.
+		 * @param end The bit after the last one to hide.
+		 * @param tasksize The most bits to hide without splitting.
+		 */
+		public HideTask(ShotPicker picker, CounterRandom aran, 
+				CoverImage cimage, long[] bits, int first, 
+				int start, int end, int tasksize){
+			mPicker = picker;
+			mRandom = aran;
+			mImage = cimage;
+			mBits = bits;
+			mFirst = first;
+			mStart = start;
+			mEnd = end;
+			mTaskSize = tasksize;
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Hides the bits, or splits them between two new tasks.
+		 */
+		protected void compute(){
+			//split on a pixel, so no two tasks change the same one
+			if(mEnd - mStart > mTaskSize){
+				int middle = mPicker.alignToPixel(mFirst + 
+						((mStart + mEnd) >>> 1)) - mFirst;
+				if(middle > mStart){
+					invokeAll(new HideTask(mPicker, mRandom, mImage, mBits,
+								mFirst, mStart, middle, mTaskSize),
+							new HideTask(mPicker, mRandom, mImage, mBits,
+								mFirst, middle, mEnd, mTaskSize));
+					return;
+				}
+			}
+			
+			ShotBuffer buffer = new ShotBuffer(mImage.getWidth());
+			for(int i = mStart; i < mEnd; i++){
+				int shot = mFirst + i;
+				boolean bit = ((mBits[i >> 6] >>> i) & 0x1) == 0x1;
+				buffer.add(mPicker.getPosition(shot), bit, 
+						mLSBMatch && mRandom.getBoolean(shot));
+				if(buffer.isFull())
+					buffer.hide(mImage, mLSBMatch, mFilter.getStartRange());
+			}
+			buffer.hide(mImage, mLSBMatch, mFilter.getStartRange());
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The shot picker for the image.
+		 */
+		private ShotPicker mPicker;
+		
+		/**
+		 * The generator for the LSB matching directions.
+		 */
+		private CounterRandom mRandom;
+		
+		/**
+		 * The image to hide in.
+		 */
+		private CoverImage mImage;
+		
+		/**
+		 * The run of bits.
+		 */
+		private long[] mBits;
+		
+		/**
+		 * The shot number of the first bit in the run.
+		 */
+		private int mFirst;
+		
+		/**
+		 * The first bit to hide.
+		 */
+		private int mStart;
+		
+		/**
+		 * The bit after the last one to hide.
+		 */
+		private int mEnd;
+		
+		/**
+		 * The most bits to hide without splitting.
+		 */
+		private int mTaskSize;
+		
+	}
+	//end of inner class.
+	
+	
+	/**
+	 * A part of a message to retrieve, which splits itself up further
+	 * until it is small enough to retrieve on one thread.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private class RetrieveTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new task to retrieve part of a run of bits.
+		 *
+		 * @param picker The shot picker for the image.
+		 * @param simage The image to retrieve from.
+		 * @param bits The run of bits to fill, packed 64 to a long.
+		 * @param first The shot number of the first bit in the run.
+		 * @param start The first bit in the run to retrieve, which 
+		 * must be a multiple of 64.
+		 * @param end The bit after the last one to retrieve.
+		 * @param tasksize The most bits to retrieve without splitting.
+		 */
+		public RetrieveTask(ShotPicker picker, StegoImage simage,
+				long[] bits, int first, int start, int end, int tasksize){
+			mPicker = picker;
+			mImage = simage;
+			mBits = bits;
+			mFirst = first;
+			mStart = start;
+			mEnd = end;
+			mTaskSize = tasksize;
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Retrieves the bits, or splits them between two new tasks.
+		 */
+		protected void compute(){
+			//split on a whole long, so no two tasks write the same one
+			if(mEnd - mStart > mTaskSize){
+				int middle = ((mStart + mEnd) >>> 1) & ~0x3f;
+				invokeAll(new RetrieveTask(mPicker, mImage, mBits, mFirst,
+							mStart, middle, mTaskSize),
+						new RetrieveTask(mPicker, mImage, mBits, mFirst,
+							middle, mEnd, mTaskSize));
+				return;
+			}
+			
+			int count = mEnd - mStart;
+			long[] positions = new long[count];
+			long[] bits = new long[(count + 63) >> 6];
+			for(int i = 0; i < count; i++){
+				positions[i] = mPicker.getPosition(mFirst + mStart + i);
+			}
+			mImage.getPixelBits(positions, bits, count);
+			System.arraycopy(bits, 0, mBits, mStart >> 6, bits.length);
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The shot picker for the image.
+		 */
+		private ShotPicker mPicker;
+		
+		/**
+		 * The image to retrieve from.
+		 */
+		private StegoImage mImage;
+		
+		/**
+		 * The run of bits to fill.
+		 */
+		private long[] mBits;
+		
+		/**
+		 * The shot number of the first bit in the run.
+		 */
+		private int mFirst;
+		
+		/**
+		 * The first bit to retrieve.
+		 */
+		private int mStart;
+		
+		/**
+		 * The bit after the last one to retrieve.
+		 */
+		private int mEnd;
+		
+		/**
+		 * The most bits to retrieve without splitting.
+		 */
+		private int mTaskSize;
+		
+	}
+	//end of inner class.
+	
+	//=============
+	//ACTUAL CLASS
+	//=============
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new FilterFirst algorithm.
+	 *
+	 * The start and end positions for possible hits should
+	 * be zero based - i.e. the first bit is 0.  This is counting
+	 * from LSB to MSB (0 is least significant, 7 most).  555 and
+	 * 565 image formats should be in the range 0-4, other images
+	 * should have 0-7.
+	 *
+	 * @param startbits The start bit position for possible hits.
+	 * @param endbits The end bit position for possible bits.
+	 * @param moveaway The time to start moving away from the hits.
+	 * @param initshots The number of shots to make after an initial hit.
+	 * @param shotsincrease The number of shots to increase by after a hit.
+	 * @param shotrange The range for the shots.
+	 * @param filter The filter to use for the shots.
+	 * @throws IllegalArgumentException If the incorrect number of 
+	 * start/end bits is passed.
+	 */
+	public FilterFirst(int startbits, int endbits, int moveaway,
+			int initshots,
+			int shotsincrease, 
+			int shotrange, Filter filter)
+	throws IllegalArgumentException{
+		
+		//check the bit ranges.
+		if(startbits > 6 || startbits < 0){
+			throw new IllegalArgumentException
+			("Start bit range not in range 0-6!");
+		}
+		if(endbits > 6 || endbits < 0){
+			throw new IllegalArgumentException
+			("End bit range not in range 1-6!");
+		}
+		if(startbits > endbits){
+			throw new IllegalArgumentException
+			("End bit range must be higher than start range!");
+		}
+		
+		
+		//assign in the start and end bits.
+		mStartBits = startbits;
+		mEndBits = endbits;
+		
+		mFilter = filter;
+		mThreads = 0;
+	}
+	
+	/**
+	 * Creates a new FilterFirst algorithm using
+	 * default bit ranges of 0 and 0 (4 bits), and a default
+	 * Laplace filter on the remainder of the bits.
+	 *
+	 * @throws IllegalArgumentException This will actually not be thrown.
+	 */
+	public FilterFirst() throws IllegalArgumentException{
+		this(0, 0, 10, 5, 2, 5, new Laplace(1, 8));
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Encodes an image with the given message, using the seed
+	 * to initialise the random number generator.
+	 *
+	 * @param message The message to embed.
+	 * @param cimage The image to hide the message in.
+	 * @param seed The seed to the random number generator.
+	 * @return An image containing the embedded message.
+	 * @throws IOException When the message is not properly finished.
+	 * @throws IllegalArgumentException When the message is too big.
+	 */
+	public StegoImage encode(InsertableMessage message, CoverImage cimage,
+			long seed) throws 
+			IOException 
+			,IllegalArgumentException{
+		
+		//check the message fill actually fit
+		if(!this.willMessageFit(message, cimage)){
+			throw new IllegalArgumentException
+			("Message is too big for this image!");
+		}
+		
+		//setup the random number generator
+		ShotPicker rgen = new ShotPicker(seed, 
+				mStartBits,
+				mEndBits,
+				cimage.getImage(),
+				mFilter);
+		
+		//share the work out between threads if asked to
+		if(mThreads > 0){
+			this.hideInParallel(message, cimage, seed, rgen);
+			return new StegoImage(cimage.getImage());
+		}
+		
+		long sh;
+		int messagesize = (int) message.getSize();
+		
+		Random aran = new Random(seed);
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
+		
+		//put the size in the first 32 bits
+		for(int i = 0; i < 32; i++){
+			//generate a valid shot
+			sh = rgen.nextPosition();
+			
+			//put in the next size bit...
+			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
+		}
+		
+		//now we can start embedding the message into the cover
+		while(message.notFinished()){
+			
+			sh = rgen.nextPosition();
+			
+			boolean bit = message.nextBit();
+			
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
+			if(buffer.isFull())
+				buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
+			
+		}
+		
+		//hide whatever is left in the buffer
+		buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
+		
+		//now the message is hidden inside the image.
+		return new StegoImage(cimage.getImage());
+		
+	}
+	
+	
+	/**
+	 * Retrieves a message from a steganographic image.
+	 *
+	 * @param simage The stego image to retreive the message from.
+	 * @param seed The seed to the message.
+	 * @param path The path to the new message on disk.
+	 * @return The message retrieved.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	public RetrievedMessage decode(StegoImage simage, long seed, String path)
+	throws IOException, NoMessageException{
+		
+		//setup the random number generator
+		ShotPicker rgen = new ShotPicker(seed, 
+				mStartBits,
+				mEndBits,
+				simage.getImage(),
+				mFilter);
+		
+		long sh;
+		int size = 0;
+		
+		//get the size - in the first 32 hidden bits
+		for(int i = 0; i < 32; i++){
+			
+			sh = rgen.nextPosition();
+			
+			int bit =  simage.getPixelBit(sh);
+			
+			size = size << 1 | bit;
+			
+		}
+		
+		//reverse it as it was retrieved backwards
+		int size2 = 0;
+		for(int j = 0; j < 32; j++){
+			size2 = size2 << 1 | ((size >> j) & 0x1);
+		}
+		
+		//multiply by 8 to get then number of bits
+		size2 = size2 * 8;
+		
+		//make sure that the message isn't bigger than it's supposed to be
+		long imagespace = (((simage.getWidth()
+				* simage.getHeight())
+				* simage.getLayerCount())
+				* ((mEndBits - mStartBits) + 1));
+		//(the size itself takes up the first 32 shots)
+		if(size2 < 0 || (long)size2 + 32 > imagespace)
+			throw new NoMessageException();
+		
+		RetrievedMessage rmess = new RetrievedMessage(path, size2 / 8);
+		try{
+			//share the work out between threads if asked to
+			if(mThreads > 0){
+				this.retrieveInParallel(simage, rgen, size2, rmess);
+			}else{
+				ShotBuffer buffer = new ShotBuffer(simage.getWidth());
+				
+				//start retrieving and writing out the message
+				int left = size2;
+				while(left > 0){
+					left = left - buffer.fill(rgen, left);
+					buffer.retrieve(simage);
+					rmess.setNext(buffer.getBits(), buffer.getCount());
+					buffer.clear();
+				}
+			}
+			
+			rmess.close();
+		}finally{
+			//don't leave half a message behind if it couldn't be read
+			rmess.discard();
+		}
+		return rmess;
+	}
+	
+	
+	/**
+	 * Hides a message using several threads.
+	 * <P>
+	 * The message is read a chunk at a time, and each chunk is split
+	 * up between the threads on pixel boundaries, and run on the shared
+	 * {@link TaskPool}.  The direction of each LSB match comes from a
+	 * counter based generator, so the image is the same no matter how
+	 * many threads are used.
+	 *
+	 * @param message The message to embed.
+	 * @param cimage The image to hide the message in.
+	 * @param seed The seed to the random number generator.
+	 * @param rgen The shot picker for the image.
+	 * @throws IOException When the message is not properly finished.
+	 */
+	private void hideInParallel(InsertableMessage message, 
+			CoverImage cimage, long seed, ShotPicker rgen)
+	throws IOException{
+		
+		CounterRandom aran = new CounterRandom(seed);
+		int messagesize = (int) message.getSize();
+		
+		//put the size in the first 32 bits - this is done first
+		//as the very first shot shares a pixel with the last ones
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
+		for(int i = 0; i < 32; i++){
+			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
+			buffer.add(rgen.getPosition(i), bit, 
+					mLSBMatch && aran.getBoolean(i));
+		}
+		buffer.hide(cimage, mLSBMatch, mFilter.getStartRange());
+		
+		//images written straight through can only take one thread
+		int threads = mThreads;
+		if(!cimage.canChangeInParallel())
+			threads = 1;
+		
+		int tasksize = this.getTaskSize(threads);
+		long[] bits = new long[CHUNK_SIZE >> 6];
+		int shot = 32;
+		while(message.notFinished()){
+			int count = message.nextBits(bits, CHUNK_SIZE);
+			this.run(new HideTask(rgen, aran, cimage, bits, shot, 
+					0, count, tasksize), threads);
+			shot += count;
+		}
+	}
+	
+	
+	/**
+	 * Retrieves a message using several threads.
+	 *
+	 * @param simage The stego image to retrieve the message from.
+	 * @param rgen The shot picker for the image, past the size.
+	 * @param size The number of bits in the message.
+	 * @param rmess The message to write the bits to.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	private void retrieveInParallel(StegoImage simage, ShotPicker rgen,
+			int size, RetrievedMessage rmess) throws IOException{
+		
+		int tasksize = this.getTaskSize(mThreads);
+		long[] bits = new long[CHUNK_SIZE >> 6];
+		for(int done = 0; done < size; done += CHUNK_SIZE){
+			int count = Math.min(CHUNK_SIZE, size - done);
+			this.run(new RetrieveTask(rgen, simage, bits, 
+					32 + done, 0, count, tasksize), mThreads);
+			rmess.setNext(bits, count);
+		}
+	}
+	
+	
+	/**
+	 * Gets the most bits a task hides or retrieves without splitting,
+	 * so that each chunk is split into a few tasks a thread.
+	 *
+	 * @param threads The number of threads to share the chunk between.
+	 * @return The most bits for one task.
+	 */
+	private int getTaskSize(int threads){
+		if(threads == 1)
+			return CHUNK_SIZE;
+		return Math.max(TASK_SIZE, 
+				(CHUNK_SIZE + (threads * 4) - 1) / (threads * 4));
+	}
+	
+	
+	/**
+	 * Runs a task on the calling thread if only one thread is to be
+	 * used, or on the shared pool otherwise.
+	 *
+	 * @param task The task to run.
+	 * @param threads The number of threads to share the task between.
+	 */
+	private void run(RecursiveAction task, int threads){
+		if(threads == 1)
+			task.invoke();
+		else
+			TaskPool.invoke(task);
+	}
+	
+	
+	/**
+	 * Gets whether a message will fit inside a given cover image
+	 *
+	 * @param message The message to hide.
+	 * @param image The cover image to hide in.
+	 * @return True if the message will fit, false otherwise.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	public boolean willMessageFit(InsertableMessage message,
+			CoverImage image) throws IOException{
+		
+		//get the size of the image
+		int imgX = image.getWidth(); 
+		int imgY = image.getHeight();
+		
+		//check the size of the image on disk
+		long imagespace = (((imgX * imgY) * image.getLayerCount())
+				* ((mEndBits - mStartBits) + 1));
+		
+		int messagesize = ((int) message.getSize() * 8) + 50;
+		
+		return (messagesize <= imagespace);
+	}
+	
+	
+	/**
+	 * Outputs a simulation of where it is writing to.
+	 *
+	 * @param message The message to simulate writing of.
+	 * @param simage The cover image to simulate on.
+	 * @param seed The seed to the algorithm.
+	 * @return A black and white map of where the message will be hidden.
+	 * @throws IOException If there was an I/O error with the message.
+	 */
+	public BufferedImage outputSimulation(InsertableMessage message, 
+			CoverImage simage, 
+			long seed) throws IOException, IllegalArgumentException{
+		
+		//check the message fill actually fit
+		if(!this.willMessageFit(message, simage)){
+			throw new IllegalArgumentException
+			("Message is too big for this image!");
+		}
+		
+		//setup the random number generator
+		ShotPicker rgen = new ShotPicker(seed, 
+				mStartBits,
+				mEndBits,
+				simage.getImage(),
+				mFilter);
+		
+		long sh;
+		
+		//make the whole image black...
+		BufferedImage image = simage.getImage();
+		int black = 0x0;
+		ImageRaster raster = new ImageRaster(image);
+		raster.fill(black);
+		
+		//put the size in the first 32 bits
+		for(int i = 0; i < 32; i++){
+			//generate a valid shot
+			sh = rgen.nextPosition();
+			
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
+			
+		}
+		
+		//now we can start "embedding" the message into the cover
+		while(message.notFinished()){
+			
+			sh = rgen.nextPosition();
+			
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
+			
+			message.nextBit();
+			
+		}
+		
+		//now the message is "hidden" inside the image.
+		raster.flush();
+		return image;
+	}
+	
+	
+	/**
+	 * Increases the darkness of a pixel.
+	 * 
+	 * @param colour The pixel's original colour
+	 * @return The (whiter) colour of the pixel.
+	 */
+	private int decreaseDarkness(int colour){
+		return (int)(colour << 1 | 0x0f0f0f0f);	
+	}
+	
+	
+	/**
+	 * Sets the filter for the algorithm.
+	 *
+	 * @param filter The new filter to use.
+	 */
+	public void setFilter(Filter filter){
+		mFilter = filter; 
+	}
+	
+	
+	/**
+	 * Gets the filter that is being used for the algorithm.
+	 *
+	 * @return The filter currently used.
+	 */
+	public Filter getFilter(){
+		return mFilter;
+	}
+	
+	
+	
+	/**
+	 * Gets the start position of the hiding.
+	 *
+	 * @return The start position for hiding.
+	 */
+	public int getStartBits(){
+		return mStartBits;
+	}
+	
+	/**
+	 * Gets the end position of the hiding.
+	 *
+	 * @return The end position for hiding.
+	 */
+	public int getEndBits(){
+		return mEndBits;
+	}
+	
+	/**
+	 * Sets the end position for hiding.
+	 *
+	 *@param newend The new end position for hiding.
+	 */
+	public void setEndBits(int newend){
+		mEndBits = newend;
+	}
+	
+	/**
+	 * Sets the start position for hiding.
+	 *
+	 * @param newstart The new start position for hiding.
+	 */
+	public void setStartBits(int newstart){
+		mStartBits = newstart;
+	}
+	
+	/**
+	 * Returns text explaining what this algorithm does.
+	 * 
+	 * @return What this algorithm does.
+	 */
+	public String explainMe(){
+		return "A pure steganography method, FilterFirst uses \n" +
+				"edge detecting filters to obtain an ordered list of\n" + 
+				"the best places to hide. It then writes to this list\n" + 
+				"in the order given.";
+	}
+	
+	/**
+	 * Whether LSB Matching should be used.
+	 * 
+	 * @param shouldMatch Whether to use LSB or not.
+	 */
+	public void setMatch(boolean shouldMatch){
+		mLSBMatch = shouldMatch;
+	}	
+	
+	/**
+	 * Gets whether this algorithm is using LSB matching or not.
+	 * 
+	 * @return Whether this algorithm will use LSB matching.
+	 */
+	public boolean getMatch(){
+		return mLSBMatch;
+	}
+	
+	/**
+	 * Sets the number of threads to hide and retrieve with.
+	 * <P>
+	 * 0 (the default) uses the original single threaded hiding, and 1
+	 * uses the threaded hiding on the calling thread.  Any other number
+	 * splits each chunk of the message into a few tasks for each of 
+	 * that many threads, which run on the shared {@link TaskPool} - so
+	 * no more run at once than the pool has threads.  The threaded 
+	 * hiding always makes the same image whatever the number of 
+	 * threads, and it is the same as the original hiding unless LSB 
+	 * matching is used.  Messages can be retrieved with any number of
+	 * threads.
+	 *
+	 * @param threads The number of threads to split the work for.
+	 * @throws IllegalArgumentException If the number is negative.
+	 */
+	public void setThreads(int threads) throws IllegalArgumentException{
+		if(threads < 0)
+			throw new IllegalArgumentException
+			("The number of threads can't be negative!");
+		mThreads = threads;
+	}
+	
+	/**
+	 * Gets the number of threads to hide and retrieve with.
+	 *
+	 * @return The number of threads, or 0 for the original hiding.
+	 */
+	public int getThreads(){
+		return mThreads;
+	}
+		
+	/**
+	 * Makes a new FilterFirst with the same settings as this one.
+	 * The filter is copied too, so the copy can be used at the same
+	 * time as this algorithm.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy(){
+		FilterFirst copy = new FilterFirst(mStartBits, mEndBits, 10, 5, 2, 5,
+				mFilter.copy());
+		copy.setMatch(mLSBMatch);
+		copy.setThreads(mThreads);
+		return copy;
+	}
+	
+	//VARIABLES
+	
+	/**
+	 * The number of bits read from the message at a time when using
+	 * threads.
+	 */
+	private static final int CHUNK_SIZE = 1 << 20;
+	
+	/**
+	 * The fewest bits one task hides or retrieves without splitting.
+	 */
+	private static final int TASK_SIZE = 1 << 14;
+	
+	/**
+	 * Whether to use LSB Matching or not.
+	 */
+	private boolean mLSBMatch;
+	
+	/**
+	 * The number of threads to use, or 0 for the original hiding.
+	 */
+	private int mThreads;
+	
+	/**
+	 * The start range for writable bits.
+	 */
+	private int mStartBits;
+	
+	/**
+	 * The end range for writable bits.
+	 */
+	private int mEndBits;
+	
+	/**
+	 * The filter to use for the algorithm.
+	 */
+	private Filter mFilter;
+	
+	
+	
+}
+//end of class.
@@ -22,13 +22,14 @@ package invisibleinktoolkit.algorithms;
 
 import invisibleinktoolkit.stego.*;
 import invisibleinktoolkit.util.Shot;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.ShotBuffer;
 import invisibleinktoolkit.util.PRandom;
+import invisibleinktoolkit.util.ShotSet;
 import java.io.IOException;
 import java.util.Random;
 import java.awt.image.BufferedImage;
-import java.awt.Frame;
 
-import invisibleinktoolkit.algorithms.gui.StartEndWindow;
 
 /**
  * A hide and seek way of hiding data.
@@ -95,6 +96,7 @@ public class HideSeek implements StegoAlgorithm{
 		//assign in the start and end bits.
 		mStartBits = startbits;
 		mEndBits = endbits;
+		mSelection = PRandom.RANDOM_SELECTION;
 		
 	}
 	
@@ -118,20 +120,13 @@ public class HideSeek implements StegoAlgorithm{
 			,IllegalArgumentException{
 		
 		//get the size of the image
-		int imgX = cimage.getImage().getWidth(); 
-		int imgY = cimage.getImage().getHeight();
-		
-		//hold using an array - initialise it to be false.
-		boolean haveWritten[][][][] = new boolean[imgX][imgY][3][8];
-		for(int i = 0; i < imgX; i++){
-			for(int j = 0; j < imgY; j++){
-				for(int k = 0; k < 8; k++){
-					haveWritten[i][j][0][k] = false;
-					haveWritten[i][j][1][k] = false;
-					haveWritten[i][j][2][k] = false;
-				}					
-			}
-		}
+		int imgX = cimage.getWidth(); 
+		int imgY = cimage.getHeight();
+		
+		//hold using a set of shots (if they can repeat)
+		ShotSet haveWritten = null;
+		if(PRandom.canRepeat(mSelection))
+			haveWritten = new ShotSet(imgX, imgY);
 		
 		//check it will fit...
 		if(!this.willMessageFit(message, cimage)){
@@ -140,80 +135,44 @@ public class HideSeek implements StegoAlgorithm{
 		}
 		
 		//initialise some variables
-		PRandom rgen = new PRandom(seed, imgX, imgY,
+		PRandom rgen = PRandom.getGenerator(mSelection, seed, imgX, imgY,
 				cimage.getLayerCount(),
 				mStartBits,
 				mEndBits);
 		
-		Shot sh;
+		long sh;
 		
 		int messagesize = (int) message.getSize();
 		
 		//put the size in the first 32 bits
 		Random aran = new Random(seed);
+		ShotBuffer buffer = new ShotBuffer(cimage.getWidth());
 		
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
-			sh = rgen.getShot();
-			
-			while(haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-				sh = rgen.getShot();
-			}
-			//save it
-			haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
+			sh = this.nextPosition(rgen, haveWritten);
 			
 			//put in the next size bit...
 			boolean bit = ((messagesize >> i) & 0x1) == 0x1;
 			
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition(),
-					bit);
-			}else{
-				//need to get the value of the colour
-				//subtract 1, and update pixel.
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						8,
-						bit,
-						aran.nextBoolean());
-			}
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
 		}
 		
 		//now we can start embedding the message into the cover
 		while(message.notFinished()){
 			
-			sh = rgen.getShot();
-			while(haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-				sh = rgen.getShot();
-				//while(mShotsMade.containsKey(sh.toString())){
-			}
+			sh = this.nextPosition(rgen, haveWritten);
 			boolean bit = message.nextBit();
 			
-			if(!mLSBMatch){
-				cimage.setPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition(),
-					bit);
-			}else{
-				//need to get the value of the colour
-				//subtract 1, and update pixel.
-				cimage.matchPixelBit(sh.getX(),
-						sh.getY(),
-						sh.getLayer(),
-						8,
-						bit,
-						aran.nextBoolean());
-			}
-			
-			haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
+			buffer.add(sh, bit, mLSBMatch && aran.nextBoolean());
+			if(buffer.isFull())
+				buffer.hide(cimage, mLSBMatch, 8);
 			
 		}
 		
+		//hide whatever is left in the buffer
+		buffer.hide(cimage, mLSBMatch, 8);
+		
 		//now the message is hidden inside the image.
 		return new StegoImage(cimage.getImage());
 		
@@ -233,46 +192,30 @@ public class HideSeek implements StegoAlgorithm{
 	throws IOException, NoMessageException{
 		
 		//get the size of the image
-		int imgX = simage.getImage().getWidth(); 
-		int imgY = simage.getImage().getHeight();
-		
-		//hold using an array - initialise it to be false.
-		boolean haveWritten[][][][] = new boolean[imgX][imgY][3][8];
-		for(int i = 0; i < imgX; i++){
-			for(int j = 0; j < imgY; j++){
-				for(int k = 0; k < 8; k++){
-					haveWritten[i][j][0][k] = false;
-					haveWritten[i][j][1][k] = false;
-					haveWritten[i][j][2][k] = false;
-				}
-			}
-		}
+		int imgX = simage.getWidth(); 
+		int imgY = simage.getHeight();
+		
+		//hold using a set of shots (if they can repeat)
+		ShotSet haveWritten = null;
+		if(PRandom.canRepeat(mSelection))
+			haveWritten = new ShotSet(imgX, imgY);
 		
 		//initialise some variables
-		PRandom rgen = new PRandom(seed, imgX, imgY,
+		PRandom rgen = PRandom.getGenerator(mSelection, seed, imgX, imgY,
 				simage.getLayerCount(),
 				mStartBits,
 				mEndBits);
 		
 		
-		Shot sh;
+		long sh;
 		int size = 0;
 		
 		//get the size - in the first 32 hidden bits
 		for(int i = 0; i < 32; i++){
 			
-			sh = rgen.getShot();
-			
-			while(haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-				sh = rgen.getShot();
-			}
-			
-			haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
+			sh = this.nextPosition(rgen, haveWritten);
 			
-			int bit =  simage.getPixelBit(sh.getX(),
-					sh.getY(),
-					sh.getLayer(),
-					sh.getBitPosition());
+			int bit =  simage.getPixelBit(sh);
 			
 			size = size << 1 | bit;
 			
@@ -288,35 +231,36 @@ public class HideSeek implements StegoAlgorithm{
 		size2 = size2 * 8;
 		
 		//make sure that the message isn't bigger than it's supposed to be
-		long imagespace = (((simage.getImage().getWidth()
-				* simage.getImage().getHeight())
+		long imagespace = (((simage.getWidth()
+				* simage.getHeight())
 				* simage.getLayerCount())
 				* ((mEndBits - mStartBits) + 1));
-		if(size2 >= imagespace || size2 < 0)
+		//(the size itself takes up the first 32 shots)
+		if(size2 < 0 || (long)size2 + 32 > imagespace)
 			throw new NoMessageException();
 		
-		RetrievedMessage rmess = new RetrievedMessage(path);
-		
-		//begin to recover the message
-		for(int k = 0; k < size2; k++){
-			sh = rgen.getShot();
-			
+		RetrievedMessage rmess = new RetrievedMessage(path, size2 / 8);
+		try{
+			ShotBuffer buffer = new ShotBuffer(simage.getWidth());
 			
-			while(haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-				sh = rgen.getShot();
+			//begin to recover the message
+			for(int k = 0; k < size2; k++){
+				sh = this.nextPosition(rgen, haveWritten);
+				
+				buffer.add(sh);
+				if(buffer.isFull() || k == size2 - 1){
+					buffer.retrieve(simage);
+					rmess.setNext(buffer.getBits(), buffer.getCount());
+					buffer.clear();
+				}
+									
 			}
 			
-			haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
-			
-			rmess.setNext( (simage.getPixelBit(sh.getX(), 
-					sh.getY(), 
-					sh.getLayer(),
-					sh.getBitPosition())
-			) == 0x1);
-								
+			rmess.close();
+		}finally{
+			//don't leave half a message behind if it couldn't be read
+			rmess.discard();
 		}
-		
-		rmess.close();
 		return rmess;
 	}
 	
@@ -333,8 +277,8 @@ public class HideSeek implements StegoAlgorithm{
 			CoverImage image) throws IOException{
 		
 		//get the size of the image
-		int imgX = image.getImage().getWidth(); 
-		int imgY = image.getImage().getHeight();
+		int imgX = image.getWidth(); 
+		int imgY = image.getHeight();
 		
 		//check the size of the image on disk
 		long imagespace = (((imgX * imgY) * image.getLayerCount())
@@ -367,25 +311,18 @@ public class HideSeek implements StegoAlgorithm{
 		}
 		
 		//intialise some variables
-		Shot sh;
-		int height = simage.getImage().getHeight();
-		int width = simage.getImage().getWidth();
+		long sh;
+		int height = simage.getHeight();
+		int width = simage.getWidth();
 		
 		//make sure the shot list is empty
-		//hold using an array - initialise it to be false.
-		boolean haveWritten[][][][] = new boolean[width][height][3][8];
-		for(int i = 0; i < width; i++){
-			for(int j = 0; j < height; j++){
-				for(int k = 0; k < 8; k++){
-					haveWritten[i][j][0][k] = false;
-					haveWritten[i][j][1][k] = false;
-					haveWritten[i][j][2][k] = false;
-				}
-			}
-		}
+		//hold using a set of shots (if they can repeat)
+		ShotSet haveWritten = null;
+		if(PRandom.canRepeat(mSelection))
+			haveWritten = new ShotSet(width, height);
 		
 		
-		PRandom rgen = new PRandom(seed, width, height,
+		PRandom rgen = PRandom.getGenerator(mSelection, seed, width, height,
 				simage.getLayerCount(),
 				mStartBits,
 				mEndBits);
@@ -394,11 +331,8 @@ public class HideSeek implements StegoAlgorithm{
 		//make the whole image black...
 		BufferedImage image = simage.getImage();
 		int black = 0x0;
-		for(int i = 0; i < height; i++){
-			for(int j = 0; j < width; j++){
-				image.setRGB(j, i, black);
-			}
-		}
+		ImageRaster raster = new ImageRaster(image);
+		raster.fill(black);
 		
 		
 		
@@ -406,40 +340,49 @@ public class HideSeek implements StegoAlgorithm{
 		for(int i = 0; i < 32; i++){
 			//generate a valid shot
 			
-			sh = rgen.getShot();
-			while(haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-				sh = rgen.getShot();
-			}
-			
-			haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
+			sh = this.nextPosition(rgen, haveWritten);
 			
 			//put in the next size bit...
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 		}
 		
 		//now we can start "embedding" the message into the cover
 		while(message.notFinished()){
-			sh = rgen.getShot();
-			
-			while(haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()]){
-				sh = rgen.getShot();
-			}
-			
-			haveWritten[sh.getX()][sh.getY()][sh.getLayer()][sh.getBitPosition()] = true;
+			sh = this.nextPosition(rgen, haveWritten);
 			
-			image.setRGB(sh.getX(), sh.getY(), 
-					decreaseDarkness(image.getRGB(sh.getX(), sh.getY())));
+			raster.setPixel(Shot.getIndex(sh), 
+					decreaseDarkness(raster.getPixel(Shot.getIndex(sh))));
 			
 			message.nextBit();
 								
 		}
 		
 		//now the message is "hidden" inside the image.
+		raster.flush();
 		return image;
 	}
 	
 	
+	/**
+	 * Gets the next shot that has not been written to.
+	 *
+	 * @param rgen The generator to get shots from.
+	 * @param haveWritten The shots already made, or null if the
+	 * generator never repeats a shot.
+	 * @return The next unused shot, packed (see Shot.pack()).
+	 */
+	private long nextPosition(PRandom rgen, ShotSet haveWritten){
+		long sh = rgen.nextPosition();
+		if(haveWritten != null){
+			while(!haveWritten.add(sh)){
+				sh = rgen.nextPosition();
+			}
+		}
+		return sh;
+	}
+	
+	
 	/**
 	 * Increases the darkness of a pixel.
 	 * 
@@ -488,16 +431,6 @@ public class HideSeek implements StegoAlgorithm{
 	}
 	
 	
-	/**
-	 * Pops up a window to alter the configuration.
-	 *
-	 * @param parent The parent frame to display this within.
-	 */
-	public void openConfigurationWindow(Frame parent){
-		new StartEndWindow(parent, this);
-		parent.repaint();
-	}
-	
 	/**
 	 * Returns text explaining what this algorithm does.
 	 * 
@@ -526,7 +459,49 @@ public class HideSeek implements StegoAlgorithm{
 	public boolean getMatch(){
 		return mLSBMatch;
 	}
+	
+	/**
+	 * Sets how shots are selected.
+	 * <P>
+	 * PRandom.RANDOM_SELECTION is the original selection, which skips
+	 * over bits that have already been written to.
+	 * PRandom.PERMUTED_SELECTION picks each bit exactly once from a
+	 * keyed permutation, so it never has to skip.  A message can only
+	 * be retrieved with the same mode it was hidden with.
+	 *
+	 * @param selection The selection mode to use.
+	 * @throws IllegalArgumentException If the selection mode is unknown.
+	 */
+	public void setSelection(int selection) throws IllegalArgumentException{
+		if(selection != PRandom.RANDOM_SELECTION
+				&& selection != PRandom.PERMUTED_SELECTION)
+			throw new IllegalArgumentException
+			("Unknown shot selection mode!");
+		mSelection = selection;
+	}
+	
+	/**
+	 * Gets how shots are selected.
+	 *
+	 * @return The current selection mode.
+	 */
+	public int getSelection(){
+		return mSelection;
+	}
 		
+	/**
+	 * Makes a new HideSeek with the same settings as this one.
+	 * The copy can be used at the same time as this algorithm.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy(){
+		HideSeek copy = new HideSeek(mStartBits, mEndBits);
+		copy.setMatch(mLSBMatch);
+		copy.setSelection(mSelection);
+		return copy;
+	}
+	
 	//VARIABLES
 	
 	/**
@@ -534,6 +509,11 @@ public class HideSeek implements StegoAlgorithm{
 	 */
 	private boolean mLSBMatch;
 	
+	/**
+	 * How shots are selected.
+	 */
+	private int mSelection;
+	
 	/**
 	 * The start range for writable bits.
 	 */
@@ -30,7 +30,7 @@ import java.awt.image.BufferedImage;
  */
 public class AverageAbsoluteDifference 
 extends PixelBenchmark 
-implements Benchmark{
+implements SumBenchmark{
 	
 	
 	/**
@@ -70,6 +70,20 @@ implements Benchmark{
 		return totaldifference / ratio;
 	}
 	
+	/**
+	 * Calculates out the value of the average absolute difference from the sums
+	 * of the pixels of the two images.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums){
+		double ratio = (sums.getHeight() * sums.getWidth());
+		return sums.getDifferenceSum(1) / ratio;
+	}
+	
+	
 	/**
 	 * Returns the string representation of this measure - this
 	 * is just the name of the measure.
@@ -62,6 +62,7 @@ public class Benchmarker{
 		mRunPeakSignalToNoiseRatio = runpeaksnr;
 		mRunNormalisedCrossCorrelation = runncc;
 		mRunCorrelationQuality = runcquality;
+		mThreads = Runtime.getRuntime().availableProcessors();
 	}
 	
 	//FUNCTIONS
@@ -82,84 +83,71 @@ public class Benchmarker{
 		if(stego == null)
 			throw new IllegalArgumentException("Stego image must not be null!");
 		
-		//setup temp variables
-		Benchmark bench;
-		mResultsString = "Results of benchmark tests\n"
-			+ "==========================\n\n";
+		//the tests that are to be run, in order
+		SumBenchmark[] benches = new SumBenchmark[8];
+		int numbenches = 0;
+		if(mRunAverageAbsoluteDifference)
+			benches[numbenches++] = new AverageAbsoluteDifference();
+		if(mRunMeanSquaredError)
+			benches[numbenches++] = new MeanSquaredError();
+		if(mRunLpNorm)
+			benches[numbenches++] = new LpNorm();
+		if(mRunLaplacianMeanSquaredError)
+			benches[numbenches++] = new LaplacianMeanSquaredError();
+		if(mRunSignalToNoiseRatio)
+			benches[numbenches++] = new SignalToNoiseRatio();
+		if(mRunPeakSignalToNoiseRatio)
+			benches[numbenches++] = new PeakSignalToNoiseRatio();
+		if(mRunNormalisedCrossCorrelation)
+			benches[numbenches++] = new NormalisedCrossCorrelation();
+		if(mRunCorrelationQuality)
+			benches[numbenches++] = new CorrelationQuality();
 		
-		
-		
-		//run all the tests...
-		if(mRunAverageAbsoluteDifference){
-			bench = new AverageAbsoluteDifference();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		if(mRunMeanSquaredError){
-			bench = new MeanSquaredError();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		if(mRunLpNorm){
-			bench = new LpNorm();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		if(mRunLaplacianMeanSquaredError){
-			bench = new LaplacianMeanSquaredError();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		if(mRunSignalToNoiseRatio){
-			bench = new SignalToNoiseRatio();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		if(mRunPeakSignalToNoiseRatio){
-			bench = new PeakSignalToNoiseRatio();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
+		//sum up both images once, for all the tests
+		StringBuffer results = new StringBuffer("Results of benchmark tests\n"
+				+ "==========================\n\n");
+		if(numbenches > 0){
+			PixelSums sums = new PixelSums(original, stego,
+					mRunLaplacianMeanSquaredError, mThreads);
+			for(int i = 0; i < numbenches; i++){
+				results.append(benches[i].toString());
+				results.append(": ");
+				results.append(benches[i].calculate(sums));
+				results.append("\n");
+			}
 		}
-		if(mRunNormalisedCrossCorrelation){
-			bench = new NormalisedCrossCorrelation();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		if(mRunCorrelationQuality){
-			bench = new CorrelationQuality();
-			mResultsString = mResultsString
-			+ bench.toString()
-			+ ": " 
-			+ bench.calculate(original,stego)
-			+ "\n";	    
-		}
-		
+		mResultsString = results.toString();
 		
 		return mResultsString;
 	}
 		
 	
+	/**
+	 * Sets the number of threads to sum the images with.  The sums are
+	 * split into tasks for that many threads, which run on the shared
+	 * pool of threads.
+	 *
+	 * @param threads The number of threads.
+	 * @throws IllegalArgumentException If there are no threads.
+	 */
+	public void setThreads(int threads) throws IllegalArgumentException{
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		mThreads = threads;
+	}
+	
+	
+	/**
+	 * Gets the number of threads to sum the images with.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getThreads(){
+		return mThreads;
+	}
+	
+	
 	/**
 	 * Returns the last results of this benchmarker.
 	 *
@@ -235,6 +223,11 @@ public class Benchmarker{
 	 */
 	private boolean mRunCorrelationQuality;
 	
+	/**
+	 * The number of threads to sum the images with.
+	 */
+	private int mThreads;
+	
 	
 }
 //end of class.
@@ -0,0 +1,285 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import invisibleinktoolkit.util.PasswordSeed;
+
+
+/**
+ * A cache of steganalysis features, kept on disk.
+ * <P>
+ * The features of an image are kept under a hash of its decoded pixels
+ * (and size), so the same picture is only ever steganalysed once, 
+ * whatever it is called, whichever folder it is in, and whatever 
+ * format it was saved in.  The raw features are kept rather than the
+ * rows of a file, so one cache serves CSV and ARFF files with any 
+ * number of Laplace values.
+ * <P>
+ * Working out the hash still means reading the image, so each image
+ * file is also noted down under its path, length and time last 
+ * modified.  An image file that has not changed since it was last
+ * steganalysed can have its features found without reading it at all.
+ * <P>
+ * Every entry is written to a temporary file and then moved into 
+ * place, so several threads (or programs) can share a cache, and an
+ * entry is never seen half written.  The cache is only there to save
+ * time - an entry that is missing or can't be read is just treated as
+ * not being there.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FeatureCache{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Opens a cache in a folder, creating the folder if it isn't 
+	 * there.
+	 *
+	 * @param folder The folder to keep the cache in.
+	 * @throws IOException If the folder could not be created.
+	 */
+	public FeatureCache(File folder) throws IOException{
+		mFeatureFolder = new File(folder, "features");
+		mFileFolder = new File(folder, "files");
+		mFeatureFolder.mkdirs();
+		mFileFolder.mkdirs();
+		if(!mFeatureFolder.isDirectory() || !mFileFolder.isDirectory())
+			throw new IOException("Could not create the cache in " 
+					+ folder.getPath());
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the key for an image, a hash of its size and pixels.
+	 *
+	 * @param image The decoded image.
+	 * @return The key for the image.
+	 */
+	public String getKey(BufferedImage image){
+		MessageDigest digest = getDigest();
+		int width = image.getWidth(), height = image.getHeight();
+		digest.update(toBytes(new int[]{width, height}, 2));
+		
+		//one row at a time, to keep the memory down
+		int[] row = new int[width];
+		for(int y = 0; y < height; y++){
+			image.getRGB(0, y, width, 1, row, 0, width);
+			digest.update(toBytes(row, width));
+		}
+		return PasswordSeed.toHexString(digest.digest());
+	}
+	
+	
+	/**
+	 * Gets the key an image file had when it was last cached, if the 
+	 * file hasn't changed since.
+	 *
+	 * @param imagefile The image file.
+	 * @return The key for the image, or null if it isn't known.
+	 */
+	public String getKey(File imagefile){
+		try{
+			DataInputStream in = new DataInputStream(new FileInputStream
+					(this.getFileEntry(imagefile)));
+			try{
+				return in.readUTF();
+			}finally{
+				in.close();
+			}
+		}catch(IOException ioe){
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Notes down the key for an image file.
+	 *
+	 * @param imagefile The image file.
+	 * @param key The key for the image.
+	 */
+	public void putKey(File imagefile, String key){
+		try{
+			File entry = this.getFileEntry(imagefile);
+			File temp = File.createTempFile("entry", ".tmp", mFileFolder);
+			DataOutputStream out = new DataOutputStream
+			(new FileOutputStream(temp));
+			try{
+				out.writeUTF(key);
+			}finally{
+				out.close();
+			}
+			this.moveInto(temp, entry);
+		}catch(IOException ioe){
+			//not cached, do nothing
+		}
+	}
+	
+	
+	/**
+	 * Gets the features for an image.
+	 *
+	 * @param key The key for the image.
+	 * @return The features, or null if they aren't in the cache.
+	 */
+	public ImageFeatures get(String key){
+		File entry = new File(mFeatureFolder, key);
+		if(!entry.isFile())
+			return null;
+		try{
+			DataInputStream in = new DataInputStream(new BufferedInputStream
+					(new FileInputStream(entry)));
+			try{
+				return ImageFeatures.read(in);
+			}finally{
+				in.close();
+			}
+		}catch(Exception e){
+			//a broken entry is the same as no entry
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * Puts the features for an image into the cache, replacing any 
+	 * that are already there.
+	 *
+	 * @param key The key for the image.
+	 * @param features The features of the image.
+	 */
+	public void put(String key, ImageFeatures features){
+		try{
+			File temp = File.createTempFile("entry", ".tmp", mFeatureFolder);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream
+					(new FileOutputStream(temp)));
+			try{
+				features.write(out);
+			}finally{
+				out.close();
+			}
+			this.moveInto(temp, new File(mFeatureFolder, key));
+		}catch(IOException ioe){
+			//not cached, do nothing
+		}
+	}
+	
+	
+	/**
+	 * Gets the entry that notes down the key for an image file.  The 
+	 * entry is named by a hash of the file's path, length and time last
+	 * modified, so it is never found once the file has changed.
+	 *
+	 * @param imagefile The image file.
+	 * @return The entry for the file.
+	 * @throws IOException If the path of the file could not be found.
+	 */
+	private File getFileEntry(File imagefile) throws IOException{
+		String id = imagefile.getCanonicalPath() + "\n" + imagefile.length()
+		+ "\n" + imagefile.lastModified();
+		MessageDigest digest = getDigest();
+		digest.update(id.getBytes("UTF-8"));
+		return new File(mFileFolder, 
+				PasswordSeed.toHexString(digest.digest()));
+	}
+	
+	
+	/**
+	 * Moves a finished temporary file over an entry.
+	 *
+	 * @param temp The temporary file.
+	 * @param entry The entry to replace.
+	 * @throws IOException If the file could not be moved.
+	 */
+	private void moveInto(File temp, File entry) throws IOException{
+		try{
+			Files.move(temp.toPath(), entry.toPath(), 
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}finally{
+			temp.delete();
+		}
+	}
+	
+	
+	/**
+	 * Gets a new digest to hash with.
+	 *
+	 * @return A SHA-256 digest.
+	 */
+	private static MessageDigest getDigest(){
+		try{
+			return MessageDigest.getInstance("SHA-256");
+		}catch(Exception e){
+			//every java platform has SHA-256
+			throw new IllegalStateException("SHA-256 is not available!");
+		}
+	}
+	
+	
+	/**
+	 * Turns some values into bytes, most significant first.
+	 *
+	 * @param values The values.
+	 * @param length The number of values to turn into bytes.
+	 * @return The bytes.
+	 */
+	private static byte[] toBytes(int[] values, int length){
+		byte[] bytes = new byte[length * 4];
+		for(int i = 0, j = 0; i < length; i++){
+			bytes[j++] = (byte)(values[i] >>> 24);
+			bytes[j++] = (byte)(values[i] >>> 16);
+			bytes[j++] = (byte)(values[i] >>> 8);
+			bytes[j++] = (byte)values[i];
+		}
+		return bytes;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The folder the features are kept in, by key.
+	 */
+	private File mFeatureFolder;
+	
+	/**
+	 * The folder the keys of each image file are kept in.
+	 */
+	private File mFileFolder;
+	
+}
+//end of class.
@@ -0,0 +1,226 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.io.RandomAccessFile;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+
+
+/**
+ * Writes a table of steganalysis features to a file, one row at a time.
+ * <P>
+ * Each row goes through a buffered writer on the file's channel, and is
+ * flushed as soon as it is written, so a run that is stopped part way
+ * still leaves every finished row on disk.
+ * <P>
+ * If the writer is set to resume and the file already has a table in
+ * it, the table is carried on from rather than started again.  The
+ * header must be the same as the new one (so the same analysis is
+ * being run), and every complete row has its image marked as done.
+ * Anything after the last complete row (a half written row, or the
+ * footer) is cut off, and the new rows are added after it.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FeatureFileWriter implements FeatureWriter{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Sets up a writer for a file.  Nothing is written until the table
+	 * is started.
+	 *
+	 * @param file The file to write the table to.
+	 * @param resume Whether to carry on from a table already in the file.
+	 */
+	public FeatureFileWriter(File file, boolean resume){
+		mFile = file;
+		mResume = resume;
+		mDone = new HashSet<String>();
+		mWriter = null;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Starts the table off, or carries on from the table already in the
+	 * file.
+	 *
+	 * @param header The header of the table, ending in a new line.
+	 * @throws IOException If the header could not be written, or the
+	 * table being carried on from has a different header.
+	 */
+	public void start(String header) throws IOException{
+		long length = 0;
+		if(mResume && mFile.exists() && mFile.length() > 0)
+			length = this.readRows(header.getBytes());
+		
+		//cut off anything after the last complete row
+		RandomAccessFile file = new RandomAccessFile(mFile, "rw");
+		file.setLength(length);
+		FileChannel channel = file.getChannel();
+		channel.position(length);
+		mWriter = Channels.newWriter(channel,
+				Charset.defaultCharset().newEncoder(),
+				BUFFER_SIZE);
+		if(length == 0){
+			mWriter.write(header);
+			mWriter.flush();
+		}
+	}
+	
+	
+	/**
+	 * Reads the rows of the table already in the file.
+	 *
+	 * @param header The header the table must have.
+	 * @return The length of the file up to the end of the last complete
+	 * row.
+	 * @throws IOException If the file could not be read, or has a 
+	 * different header.
+	 */
+	private long readRows(byte[] header) throws IOException{
+		BufferedInputStream in = new BufferedInputStream
+		(new FileInputStream(mFile));
+		try{
+			//check the header is the same
+			for(int i = 0; i < header.length; i++){
+				if(in.read() != (header[i] & 0xff))
+					throw new IOException
+					("The table in " + mFile.getPath()
+							+ " was written with different settings!");
+			}
+			
+			//then mark off each complete row
+			long length = header.length, position = header.length;
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int value;
+			while((value = in.read()) != -1){
+				position++;
+				if(value != '\n'){
+					line.write(value);
+					continue;
+				}
+				String row = line.toString();
+				line.reset();
+				if(row.length() > 0){
+					mDone.add(row.substring(row.lastIndexOf(',') + 1));
+					length = position;
+				}
+			}
+			return length;
+		}finally{
+			in.close();
+		}
+	}
+	
+	
+	/**
+	 * Gets whether an image already had a row in the file.
+	 *
+	 * @param imagename The file name of the image.
+	 * @return True if the image has a row already.
+	 */
+	public boolean isDone(String imagename){
+		return mDone.contains(imagename);
+	}
+	
+	
+	/**
+	 * Writes the row for an image, straight through to the file.
+	 *
+	 * @param imagename The file name of the image, which must be the
+	 * last value in the row.
+	 * @param row The row, without a new line on the end.
+	 * @throws IOException If the row could not be written.
+	 */
+	public void writeRow(String imagename, String row) throws IOException{
+		mWriter.write(row);
+		mWriter.write('\n');
+		mWriter.flush();
+		mDone.add(imagename);
+	}
+	
+	
+	/**
+	 * Finishes off the table, and closes the file.
+	 *
+	 * @param footer The footer of the table.
+	 * @throws IOException If the footer could not be written.
+	 */
+	public void finish(String footer) throws IOException{
+		mWriter.write(footer);
+		this.close();
+	}
+	
+	
+	/**
+	 * Closes the file, without finishing the table.
+	 *
+	 * @throws IOException If the file could not be closed.
+	 */
+	public void close() throws IOException{
+		if(mWriter != null){
+			mWriter.close();
+			mWriter = null;
+		}
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The size of the buffer in front of the file.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	/**
+	 * The file to write the table to.
+	 */
+	private File mFile;
+	
+	/**
+	 * Whether to carry on from a table already in the file.
+	 */
+	private boolean mResume;
+	
+	/**
+	 * The images that have a row in the table.
+	 */
+	private HashSet<String> mDone;
+	
+	/**
+	 * The writer for the file, once the table has been started.
+	 */
+	private Writer mWriter;
+	
+}
+//end of class.
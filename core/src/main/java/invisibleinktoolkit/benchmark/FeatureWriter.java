@@ -0,0 +1,84 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.io.IOException;
+
+/**
+ * Somewhere to write a table of steganalysis features to, one row at
+ * a time.
+ * <P>
+ * The header is written first, then a row for each image as soon as
+ * it has been analysed, then the footer.  A writer can be carrying on
+ * from an earlier run that was stopped part way, in which case it
+ * tells the analyser which images already have a row, so they can be
+ * skipped.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public interface FeatureWriter{
+	
+	/**
+	 * Starts the table off.
+	 *
+	 * @param header The header of the table, ending in a new line.
+	 * @throws IOException If the header could not be written, or the
+	 * table being carried on from has a different header.
+	 */
+	public void start(String header) throws IOException;
+	
+	/**
+	 * Gets whether an image already has a row in the table.
+	 *
+	 * @param imagename The file name of the image.
+	 * @return True if the image has a row already.
+	 */
+	public boolean isDone(String imagename);
+	
+	/**
+	 * Writes the row for an image.
+	 *
+	 * @param imagename The file name of the image, which must be the
+	 * last value in the row.
+	 * @param row The row, without a new line on the end.
+	 * @throws IOException If the row could not be written.
+	 */
+	public void writeRow(String imagename, String row) throws IOException;
+	
+	/**
+	 * Finishes off the table, and closes the writer.
+	 *
+	 * @param footer The footer of the table.
+	 * @throws IOException If the footer could not be written.
+	 */
+	public void finish(String footer) throws IOException;
+	
+	/**
+	 * Closes the writer, without finishing the table.  This does 
+	 * nothing if it has already been closed.
+	 *
+	 * @throws IOException If the writer could not be closed.
+	 */
+	public void close() throws IOException;
+	
+	
+}
+//end of interface.
@@ -0,0 +1,234 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import invisibleinktoolkit.util.TaskPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * A histogram of the filter values of an image.
+ * <P>
+ * The filters only make a small range of values, so rather than sorting
+ * every value to find out how many times each one appears, each value
+ * is just counted in a slot for that value.  The histogram can be
+ * counted on several threads, each with its own slots, which are added
+ * up at the end.  The counting runs on the shared {@link TaskPool}.
+ * <P>
+ * <B>This class will have no effect if instantiated.<\B>
+ *
+ * @author Kathryn Hempstalk
+ */
+public class FilterHistogram{
+	
+	//INNER CLASS
+	
+	/**
+	 * A part of the values to count, which splits itself in half until
+	 * it is small enough.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private static class CountTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new task to count some values.
+		 *
+		 * @param values The filter values.
+		 * @param min The smallest filter value.
+		 * @param size The number of slots in the histogram.
+		 * @param start The first value to count.
+		 * @param end The value to stop counting at.
+		 * @param tasksize The most values to count without splitting.
+		 */
+		public CountTask(int[] values, int min, int size, int start,
+				int end, int tasksize){
+			mValues = values;
+			mMin = min;
+			mStart = start;
+			mEnd = end;
+			mTaskSize = tasksize;
+			mCounts = new int[size];
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Counts the values, or splits them between two new tasks.
+		 */
+		protected void compute(){
+			if(mEnd - mStart > mTaskSize){
+				int middle = (mStart + mEnd) >>> 1;
+				CountTask first = new CountTask(mValues, mMin,
+						mCounts.length, mStart, middle, mTaskSize);
+				CountTask second = new CountTask(mValues, mMin,
+						mCounts.length, middle, mEnd, mTaskSize);
+				invokeAll(first, second);
+				for(int i = 0; i < mCounts.length; i++)
+					mCounts[i] = first.mCounts[i] + second.mCounts[i];
+			}else{
+				count(mValues, mMin, mStart, mEnd, mCounts);
+			}
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The filter values.
+		 */
+		private int[] mValues;
+		
+		/**
+		 * The smallest filter value.
+		 */
+		private int mMin;
+		
+		/**
+		 * The first value to count.
+		 */
+		private int mStart;
+		
+		/**
+		 * The value to stop counting at.
+		 */
+		private int mEnd;
+		
+		/**
+		 * The most values to count without splitting.
+		 */
+		private int mTaskSize;
+		
+		/**
+		 * The histogram for these values.
+		 */
+		private int[] mCounts;
+		
+	}
+	//end of inner class.
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the graph of some filter values.
+	 * <P>
+	 * Each row of the graph is a filter value followed by the fraction
+	 * of all the values that are that value, from the lowest value to
+	 * the highest.  As it always has, the lowest value is counted one
+	 * more time than it appears.
+	 *
+	 * @param values The filter values.
+	 * @param threads The number of threads to split the counting for 
+	 * (it runs on the shared pool, and 1 counts on the calling thread).
+	 * @return The graph of the values.
+	 * @throws IllegalArgumentException If there are no threads.
+	 */
+	public static double[][] getGraph(int[] values, int threads)
+	throws IllegalArgumentException{
+		
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		
+		//find out how many slots are needed
+		int min = values[0], max = values[0];
+		for(int i = 1; i < values.length; i++){
+			if(values[i] < min)
+				min = values[i];
+			else if(values[i] > max)
+				max = values[i];
+		}
+		int size = (max - min) + 1;
+		
+		//now count them all
+		int[] counts;
+		if(threads == 1 || values.length < TASK_SIZE){
+			counts = new int[size];
+			count(values, min, 0, values.length, counts);
+		}else{
+			//a few tasks a thread, so they finish at about the same time
+			int tasksize = Math.max(TASK_SIZE, 
+					(values.length + (threads * 4) - 1) / (threads * 4));
+			CountTask task = new CountTask(values, min, size, 0,
+					values.length, tasksize);
+			TaskPool.invoke(task);
+			counts = task.mCounts;
+		}
+		
+		//one row for each value that appears
+		int numdistinct = 0;
+		for(int i = 0; i < size; i++){
+			if(counts[i] > 0)
+				numdistinct++;
+		}
+		double[][] results = new double[numdistinct][2];
+		int j = 0;
+		for(int i = 0; i < size; i++){
+			if(counts[i] > 0){
+				results[j][0] = min + i;
+				results[j][1] = counts[i];
+				j++;
+			}
+		}
+		results[0][1]++;
+		
+		//now normalise the graph
+		for(int i = 0; i < results.length; i++){
+			results[i][1] = results[i][1] / values.length;
+		}
+		return results;
+	}
+	
+	
+	/**
+	 * Counts some filter values into a histogram.
+	 *
+	 * @param values The filter values.
+	 * @param min The smallest filter value.
+	 * @param start The first value to count.
+	 * @param end The value to stop counting at.
+	 * @param counts The histogram to count into.
+	 */
+	private static void count(int[] values, int min, int start, int end,
+			int[] counts){
+		for(int i = start; i < end; i++)
+			counts[values[i] - min]++;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The most values one thread counts without splitting.
+	 */
+	private static final int TASK_SIZE = 1 << 16;
+	
+}
+//end of class.
@@ -0,0 +1,281 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+
+/**
+ * The raw steganalysis features of one image.
+ * <P>
+ * These are the results straight out of each kind of steganalysis,
+ * before they are cut down or formatted for a CSV or ARFF file: all 
+ * the RS results for each colour and overlap, the Sample Pairs 
+ * estimates for each colour, and the whole Laplace graph.  Any of them
+ * can be missing (null) if that steganalysis has not been run yet.
+ * <P>
+ * The features can be written to and read back from a stream exactly,
+ * so they can be kept in a FeatureCache.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ImageFeatures{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new set of features for an image, with no steganalysis
+	 * results yet.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 */
+	public ImageFeatures(int width, int height){
+		mWidth = width;
+		mHeight = height;
+		mRS = null;
+		mSamplePairs = null;
+		mLaplace = null;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the width of the image.
+	 *
+	 * @return The width of the image.
+	 */
+	public int getWidth(){
+		return mWidth;
+	}
+	
+	/**
+	 * Gets the height of the image.
+	 *
+	 * @return The height of the image.
+	 */
+	public int getHeight(){
+		return mHeight;
+	}
+	
+	/**
+	 * Gets the RS analysis results.
+	 *
+	 * @return The results as RSAnalysis.doAnalysis(image) gives them, 
+	 * by overlap then colour, or null if there are none.
+	 */
+	public double[][][] getRS(){
+		return mRS;
+	}
+	
+	/**
+	 * Sets the RS analysis results.
+	 *
+	 * @param results The results as RSAnalysis.doAnalysis(image) gives
+	 * them, by overlap then colour.
+	 */
+	public void setRS(double[][][] results){
+		mRS = results;
+	}
+	
+	/**
+	 * Gets the Sample Pairs estimates.
+	 *
+	 * @return The estimated message length for each colour, or null if
+	 * there are none.
+	 */
+	public double[] getSamplePairs(){
+		return mSamplePairs;
+	}
+	
+	/**
+	 * Sets the Sample Pairs estimates.
+	 *
+	 * @param estimates The estimated message length for each colour.
+	 */
+	public void setSamplePairs(double[] estimates){
+		mSamplePairs = estimates;
+	}
+	
+	/**
+	 * Gets the Laplace graph.
+	 *
+	 * @return The whole graph as LaplaceGraph.getGraph() gives it, or
+	 * null if there is none.
+	 */
+	public double[][] getLaplace(){
+		return mLaplace;
+	}
+	
+	/**
+	 * Sets the Laplace graph.
+	 *
+	 * @param graph The whole graph as LaplaceGraph.getGraph() gives it.
+	 */
+	public void setLaplace(double[][] graph){
+		mLaplace = graph;
+	}
+	
+	
+	/**
+	 * Writes the features out to a stream.
+	 *
+	 * @param out The stream to write to.
+	 * @throws IOException If the features could not be written.
+	 */
+	public void write(DataOutputStream out) throws IOException{
+		out.writeInt(VERSION);
+		out.writeInt(mWidth);
+		out.writeInt(mHeight);
+		
+		//RS results
+		out.writeBoolean(mRS != null);
+		if(mRS != null){
+			out.writeInt(mRS.length);
+			for(int i = 0; i < mRS.length; i++){
+				out.writeInt(mRS[i].length);
+				for(int j = 0; j < mRS[i].length; j++)
+					writeArray(out, mRS[i][j]);
+			}
+		}
+		
+		//sample pairs
+		out.writeBoolean(mSamplePairs != null);
+		if(mSamplePairs != null)
+			writeArray(out, mSamplePairs);
+		
+		//laplace graph
+		out.writeBoolean(mLaplace != null);
+		if(mLaplace != null){
+			out.writeInt(mLaplace.length);
+			for(int i = 0; i < mLaplace.length; i++)
+				writeArray(out, mLaplace[i]);
+		}
+	}
+	
+	
+	/**
+	 * Reads features back in from a stream.
+	 *
+	 * @param in The stream to read from.
+	 * @return The features, exactly as they were written.
+	 * @throws IOException If the features could not be read, or were
+	 * written by a different version.
+	 */
+	public static ImageFeatures read(DataInputStream in) throws IOException{
+		if(in.readInt() != VERSION)
+			throw new IOException("Features are from a different version!");
+		ImageFeatures features = new ImageFeatures(in.readInt(), 
+				in.readInt());
+		
+		//RS results
+		if(in.readBoolean()){
+			double[][][] rs = new double[in.readInt()][][];
+			for(int i = 0; i < rs.length; i++){
+				rs[i] = new double[in.readInt()][];
+				for(int j = 0; j < rs[i].length; j++)
+					rs[i][j] = readArray(in);
+			}
+			features.setRS(rs);
+		}
+		
+		//sample pairs
+		if(in.readBoolean())
+			features.setSamplePairs(readArray(in));
+		
+		//laplace graph
+		if(in.readBoolean()){
+			double[][] graph = new double[in.readInt()][];
+			for(int i = 0; i < graph.length; i++)
+				graph[i] = readArray(in);
+			features.setLaplace(graph);
+		}
+		return features;
+	}
+	
+	
+	/**
+	 * Writes an array of values, with its length first.
+	 *
+	 * @param out The stream to write to.
+	 * @param values The values to write.
+	 * @throws IOException If the values could not be written.
+	 */
+	private static void writeArray(DataOutputStream out, double[] values)
+	throws IOException{
+		out.writeInt(values.length);
+		for(int i = 0; i < values.length; i++)
+			out.writeDouble(values[i]);
+	}
+	
+	
+	/**
+	 * Reads an array of values, with its length first.
+	 *
+	 * @param in The stream to read from.
+	 * @return The values.
+	 * @throws IOException If the values could not be read.
+	 */
+	private static double[] readArray(DataInputStream in) throws IOException{
+		double[] values = new double[in.readInt()];
+		for(int i = 0; i < values.length; i++)
+			values[i] = in.readDouble();
+		return values;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The version of the stream format.
+	 */
+	private static final int VERSION = 1;
+	
+	/**
+	 * The width of the image.
+	 */
+	private int mWidth;
+	
+	/**
+	 * The height of the image.
+	 */
+	private int mHeight;
+	
+	/**
+	 * The RS analysis results, by overlap then colour.
+	 */
+	private double[][][] mRS;
+	
+	/**
+	 * The Sample Pairs estimates for each colour.
+	 */
+	private double[] mSamplePairs;
+	
+	/**
+	 * The whole Laplace graph.
+	 */
+	private double[][] mLaplace;
+	
+}
+//end of class.
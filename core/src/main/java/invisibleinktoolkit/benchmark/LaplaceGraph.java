@@ -22,9 +22,6 @@ package invisibleinktoolkit.benchmark;
 
 import java.awt.image.BufferedImage;
 import invisibleinktoolkit.filters.Laplace;
-import invisibleinktoolkit.filters.FilteredPixel;
-import invisibleinktoolkit.filters.FPComparator;
-import java.util.Arrays;
 
 
 /**
@@ -51,9 +48,23 @@ public class LaplaceGraph{
 	 * the format of CSV.
 	 */
 	public static String getCSVGraph(BufferedImage image) throws Exception{
+		return getCSVGraph(image, 1);
+	}
+	
+	/**
+	 * Outputs a laplace graph in csv format, counting the graph on 
+	 * several threads.
+	 *
+	 * @param image The image to create the laplace graph of.
+	 * @param threads The number of threads to count the graph with.
+	 * @return A string representation of the laplace graph in
+	 * the format of CSV.
+	 */
+	public static String getCSVGraph(BufferedImage image, int threads) 
+	throws Exception{
 		StringBuffer sb = new StringBuffer();
 		sb.append("\"Frequency\",\"Laplace Value\"\n");
-		double [][] graph = getGraph(image);
+		double [][] graph = getGraph(image, threads);
 		for(int i = 0; i < graph.length; i++){
 			sb.append(graph[i][1] + "," + graph[i][0] + "\n");
 		}
@@ -71,60 +82,28 @@ public class LaplaceGraph{
 	 * @return The graph of the image.
 	 */
 	public static double[][] getGraph(BufferedImage image) throws Exception{
+		return getGraph(image, 1);
+	}
+	
+	/**
+	 * Gets the laplace graph of an image, counting the graph on several 
+	 * threads.  The graph is the same whatever the number of threads.
+	 * 
+	 * @param image The image to get the graph of.
+	 * @param threads The number of threads to count the graph with.
+	 * @return The graph of the image.
+	 */
+	public static double[][] getGraph(BufferedImage image, int threads)
+	throws Exception{
 		
 		Laplace filter = new Laplace(0, 8);
 		
 		//set up the image for the filter
 		filter.setImage(image);
 		
-		//filter the image
-		FilteredPixel[] fparray = 
-			new FilteredPixel[image.getWidth() * image.getHeight()];
-		for(int i = 0; i < image.getWidth(); i++){
-			for(int j = 0; j < image.getHeight(); j++){
-				fparray[(i * image.getHeight()) + j] = 
-					new FilteredPixel(i, j, 
-							Math.abs(filter.getValue(i, j)));
-			}
-		} 
-		
-		//sort the filter results
-		//is in ascending order - low at start, high at end
-		Arrays.sort(fparray, new FPComparator());
-		
-		//now for each individual filter result, we count how many we have
-		
-		//first find out how many different values we have
-		int numdistinct = 1;
-		for(int i = 1; i < fparray.length; i++){
-			if(fparray[i].getFilterValue() != fparray[i - 1].getFilterValue())
-				numdistinct++;
-		}
-		
-		//now we create an array to hold the filter values and their counts
-		double [][] results = new double[numdistinct][2];
-		results[0][0] = fparray[0].getFilterValue();
-		results[0][1] = 1;
-		int j = 0;
-		
-		//now we fill up the array
-		for(int i = 0; i < fparray.length; i++){
-			if(results[j][0] != fparray[i].getFilterValue()){
-				j++;
-				results[j][0] = fparray[i].getFilterValue();
-				results[j][1] = 1;
-			}else{
-				results[j][1]++;
-			}
-		}
-		
-		//now normalise the graph
-		for(int i = 0; i < results.length; i++){
-			results[i][1] = results[i][1] / fparray.length;
-		}
-		
-		//graph produced, return results
-		return results;
+		//filter the image, and count how many of each filter value
+		//there are
+		return FilterHistogram.getGraph(filter.getValues(), threads);
 	}
 	
 	
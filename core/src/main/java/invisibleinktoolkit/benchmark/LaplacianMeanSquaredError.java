@@ -31,7 +31,7 @@ import invisibleinktoolkit.filters.Laplace;
  */
 public class LaplacianMeanSquaredError 
 extends PixelBenchmark 
-implements Benchmark{
+implements SumBenchmark{
 	
 	
 	/**
@@ -77,6 +77,26 @@ implements Benchmark{
 	}
 	
 	
+	/**
+	 * Calculates out the value of the laplacian mean squared error from the sums
+	 * of the pixels of the two images.
+	 *
+	 * The sums must include the laplace values.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums){
+		double originaldiff = sums.getLaplaceDifferenceSum();
+		double totaldifference = sums.getLaplaceSquaredSum();
+		if(originaldiff == 0 || totaldifference == 0)
+			return 0;
+		else
+			return (originaldiff / totaldifference);
+	}
+	
+	
 	/**
 	 * Returns the string representation of this measure - this
 	 * is just the name of the measure.
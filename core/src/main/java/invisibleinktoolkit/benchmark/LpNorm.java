@@ -30,7 +30,7 @@ import java.awt.image.BufferedImage;
  */
 public class LpNorm 
 extends PixelBenchmark 
-implements Benchmark{
+implements SumBenchmark{
 	
 	
 	/**
@@ -72,6 +72,21 @@ implements Benchmark{
 		return (totaldifference / ratio) * lpratio;
 	}
 	
+	/**
+	 * Calculates out the value of the Lp norm from the sums
+	 * of the pixels of the two images.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums){
+		double ratio = (sums.getHeight() * sums.getWidth());
+		double lpratio = 1 / mP;
+		return (sums.getDifferenceSum(mP) / ratio) * lpratio;
+	}
+	
+	
 	/**
 	 * Returns the string representation of this measure - this
 	 * is just the name of the measure.
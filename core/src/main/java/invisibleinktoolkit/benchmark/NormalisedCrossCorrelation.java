@@ -30,7 +30,7 @@ import java.awt.image.BufferedImage;
  */
 public class NormalisedCrossCorrelation 
 extends PixelBenchmark 
-implements Benchmark{
+implements SumBenchmark{
 	
 	
 	/**
@@ -75,6 +75,24 @@ implements Benchmark{
 	}
 	
 	
+	/**
+	 * Calculates out the value of the normalised cross-correlation from the sums
+	 * of the pixels of the two images.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums){
+		double originaldiff = sums.getColourSquaresSum();
+		double totaldifference = sums.getProductSum();
+		if(totaldifference == 0 || originaldiff == 0)
+			return 0;
+		else
+			return (totaldifference / originaldiff);
+	}
+	
+	
 	/**
 	 * Returns the string representation of this measure - this
 	 * is just the name of the measure.
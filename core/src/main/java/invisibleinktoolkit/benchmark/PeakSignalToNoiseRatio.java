@@ -30,7 +30,7 @@ import java.awt.image.BufferedImage;
  */
 public class PeakSignalToNoiseRatio 
 extends PixelBenchmark 
-implements Benchmark{
+implements SumBenchmark{
 	
 	
 	/**
@@ -78,6 +78,25 @@ implements Benchmark{
 	}
 	
 	
+	/**
+	 * Calculates out the value of the peak signal to noise ratio from the sums
+	 * of the pixels of the two images.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums){
+		double totaldifference = sums.getDifferenceSum(2);
+		double maxdiff = sums.getMaxColourSquared();
+		if(totaldifference == 0 || maxdiff == 0)
+			return 0;
+		else
+			return ( (sums.getWidth() * sums.getHeight() * maxdiff)
+					/ totaldifference);
+	}
+	
+	
 	/**
 	 * Returns the string representation of this measure - this
 	 * is just the name of the measure.
@@ -0,0 +1,491 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.RecursiveAction;
+import invisibleinktoolkit.filters.Laplace;
+import invisibleinktoolkit.util.TaskPool;
+
+
+/**
+ * The sums over every pixel of an original and a stego image that the
+ * benchmarks are worked out from.
+ * <P>
+ * Both images are read once, and every sum is made in the same pass.
+ * The sums are all of whole numbers, so they are kept as longs and
+ * are exact - this means the image can be split into bands of rows
+ * and summed on several threads, and the benchmarks still come out
+ * exactly the same as adding up each pixel in turn.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class PixelSums{
+	
+	//INNER CLASS
+	
+	/**
+	 * A band of rows to sum, which splits itself in half until it is
+	 * small enough.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private class SumTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new band to sum.
+		 *
+		 * @param starty The first row of the band.
+		 * @param endy The row after the band.
+		 * @param bandrows The most rows to sum without splitting.
+		 */
+		public SumTask(int starty, int endy, int bandrows){
+			mStartY = starty;
+			mEndY = endy;
+			mBandRows = bandrows;
+			mTaskSums = new long[NUM_SUMS];
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Sums the band, or splits it between two new bands.
+		 */
+		protected void compute(){
+			if(mEndY - mStartY > mBandRows){
+				int middle = (mStartY + mEndY) >>> 1;
+				SumTask first = new SumTask(mStartY, middle, mBandRows);
+				SumTask second = new SumTask(middle, mEndY, mBandRows);
+				invokeAll(first, second);
+				addSums(first.mTaskSums, mTaskSums);
+				addSums(second.mTaskSums, mTaskSums);
+			}else{
+				sumRows(mStartY, mEndY, mTaskSums);
+			}
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The first row of the band.
+		 */
+		private int mStartY;
+		
+		/**
+		 * The row after the band.
+		 */
+		private int mEndY;
+		
+		/**
+		 * The most rows to sum without splitting.
+		 */
+		private int mBandRows;
+		
+		/**
+		 * The sums for this band.
+		 */
+		private long[] mTaskSums;
+		
+	}
+	//end of inner class.
+	
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Works out the sums for an original and a stego image.
+	 *
+	 * @param original The original image.
+	 * @param stego The stego image.
+	 * @param laplace Whether to work out the sums of the laplace
+	 * filter values as well.
+	 * @param threads The number of threads to split the sums for (they
+	 * run on the shared pool, and 1 sums on the calling thread).
+	 * @throws IllegalArgumentException If there are no threads.
+	 */
+	public PixelSums(BufferedImage original, BufferedImage stego,
+			boolean laplace, int threads) throws IllegalArgumentException{
+		
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		
+		//read both images in one go
+		mWidth = original.getWidth();
+		mHeight = original.getHeight();
+		mOriginal = original.getRGB(0, 0, mWidth, mHeight, null, 0, mWidth);
+		mStego = stego.getRGB(0, 0, mWidth, mHeight, null, 0, mWidth);
+		
+		mLaplace = laplace;
+		if(laplace){
+			mFilter = new Laplace(0, 8);
+			mOriginalValues = new int[mOriginal.length];
+			mStegoValues = new int[mStego.length];
+		}
+		
+		mSums = new long[NUM_SUMS];
+		if(threads == 1 || mOriginal.length < MIN_PIXELS){
+			this.sumRows(0, mHeight, mSums);
+		}else{
+			//a few bands a thread, so they finish at about the same time
+			int bandrows = Math.max(1,
+					(mHeight + (threads * 4) - 1) / (threads * 4));
+			SumTask task = new SumTask(0, mHeight, bandrows);
+			TaskPool.invoke(task);
+			addSums(task.mTaskSums, mSums);
+		}
+		
+		//the pixels aren't needed any more
+		mOriginal = null;
+		mStego = null;
+		mOriginalValues = null;
+		mStegoValues = null;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Sums some rows of the images.
+	 *
+	 * @param starty The first row to sum.
+	 * @param endy The row to stop summing at.
+	 * @param sums The sums to add to.
+	 */
+	private void sumRows(int starty, int endy, long[] sums){
+		
+		long colours = 0, colourssquared = 0, maxsquared = 0;
+		long coloursquares = 0, products = 0;
+		for(int i = starty * mWidth; i < endy * mWidth; i++){
+			int origpix = mOriginal[i];
+			int stegpix = mStego[i];
+			int red = (origpix >> 16) & 0xff;
+			int green = (origpix >> 8) & 0xff;
+			int blue = origpix & 0xff;
+			int stegred = (stegpix >> 16) & 0xff;
+			int steggreen = (stegpix >> 8) & 0xff;
+			int stegblue = stegpix & 0xff;
+			
+			//the difference between the two pixels
+			int difference = Math.abs(red - stegred)
+			+ Math.abs(green - steggreen) + Math.abs(blue - stegblue);
+			sums[difference]++;
+			
+			//the original pixel by itself, and with the stego pixel
+			long colour = red + green + blue;
+			colours += colour;
+			colourssquared += colour * colour;
+			if(colour * colour > maxsquared)
+				maxsquared = colour * colour;
+			coloursquares += (red * red) + (green * green) + (blue * blue);
+			products += (red * stegred) + (green * steggreen)
+			+ (blue * stegblue);
+		}
+		sums[COLOURS] += colours;
+		sums[COLOURS_SQUARED] += colourssquared;
+		sums[MAX_COLOURS_SQUARED] = Math.max(sums[MAX_COLOURS_SQUARED],
+				maxsquared);
+		sums[COLOUR_SQUARES] += coloursquares;
+		sums[PRODUCTS] += products;
+		
+		//then the laplace values, if they are wanted
+		if(mFilter != null){
+			mFilter.filterRows(mOriginal, mWidth, mHeight, mOriginalValues,
+					starty, endy);
+			mFilter.filterRows(mStego, mWidth, mHeight, mStegoValues,
+					starty, endy);
+			long laplacediff = 0, laplacesquared = 0;
+			for(int i = starty * mWidth; i < endy * mWidth; i++){
+				long diff = mOriginalValues[i] - mStegoValues[i];
+				laplacediff += diff * diff;
+				long value = mOriginalValues[i];
+				laplacesquared += value * value;
+			}
+			sums[LAPLACE_DIFFERENCE] += laplacediff;
+			sums[LAPLACE_SQUARED] += laplacesquared;
+		}
+	}
+	
+	
+	/**
+	 * Adds one set of sums to another.
+	 *
+	 * @param from The sums to add.
+	 * @param to The sums to add them to.
+	 */
+	private static void addSums(long[] from, long[] to){
+		for(int i = 0; i < NUM_SUMS; i++){
+			if(i == MAX_COLOURS_SQUARED)
+				to[i] = Math.max(to[i], from[i]);
+			else
+				to[i] += from[i];
+		}
+	}
+	
+	
+	/**
+	 * Gets the width of the images.
+	 *
+	 * @return The width of the images.
+	 */
+	public int getWidth(){
+		return mWidth;
+	}
+	
+	
+	/**
+	 * Gets the height of the images.
+	 *
+	 * @return The height of the images.
+	 */
+	public int getHeight(){
+		return mHeight;
+	}
+	
+	
+	/**
+	 * Gets the number of pixels with a given difference.  The difference
+	 * of two pixels is the sum of the absolute differences of their
+	 * colours, from 0 to MAX_DIFFERENCE.
+	 *
+	 * @param difference The difference.
+	 * @return The number of pixels with that difference.
+	 */
+	public long getDifferenceCount(int difference){
+		return mSums[difference];
+	}
+	
+	
+	/**
+	 * Gets the sum of the differences raised to a power.  For whole
+	 * number powers this is exact, so long as it is less than 2^53.
+	 *
+	 * @param power The power to raise each difference to.
+	 * @return The sum of the differences to the power.
+	 */
+	public double getDifferenceSum(double power){
+		double total = 0;
+		for(int i = 0; i <= MAX_DIFFERENCE; i++){
+			if(mSums[i] > 0)
+				total += mSums[i] * Math.pow(i, power);
+		}
+		return total;
+	}
+	
+	
+	/**
+	 * Gets the sum of the colours (red + green + blue) of each
+	 * original pixel.
+	 *
+	 * @return The sum of the colours.
+	 */
+	public long getColourSum(){
+		return mSums[COLOURS];
+	}
+	
+	
+	/**
+	 * Gets the sum of the square of the colours (red + green + blue) of
+	 * each original pixel.
+	 *
+	 * @return The sum of the squares.
+	 */
+	public long getColourSquaredSum(){
+		return mSums[COLOURS_SQUARED];
+	}
+	
+	
+	/**
+	 * Gets the largest square of the colours (red + green + blue) of
+	 * any original pixel.
+	 *
+	 * @return The largest square.
+	 */
+	public long getMaxColourSquared(){
+		return mSums[MAX_COLOURS_SQUARED];
+	}
+	
+	
+	/**
+	 * Gets the sum of the squares of each colour of each original pixel
+	 * (red * red + green * green + blue * blue).
+	 *
+	 * @return The sum of the squares.
+	 */
+	public long getColourSquaresSum(){
+		return mSums[COLOUR_SQUARES];
+	}
+	
+	
+	/**
+	 * Gets the sum of each colour of each original pixel times the same
+	 * colour in the stego pixel.
+	 *
+	 * @return The sum of the products.
+	 */
+	public long getProductSum(){
+		return mSums[PRODUCTS];
+	}
+	
+	
+	/**
+	 * Gets the sum of the squared differences between the laplace
+	 * filter values of the two images.
+	 *
+	 * @return The sum of the squared differences, or 0 if the laplace
+	 * values weren't worked out.
+	 */
+	public long getLaplaceDifferenceSum(){
+		return mSums[LAPLACE_DIFFERENCE];
+	}
+	
+	
+	/**
+	 * Gets the sum of the squared laplace filter values of the original
+	 * image.
+	 *
+	 * @return The sum of the squared values, or 0 if the laplace
+	 * values weren't worked out.
+	 */
+	public long getLaplaceSquaredSum(){
+		return mSums[LAPLACE_SQUARED];
+	}
+	
+	
+	/**
+	 * Gets whether the laplace filter values were summed.
+	 *
+	 * @return True if the laplace sums were worked out.
+	 */
+	public boolean hasLaplace(){
+		return mLaplace;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The largest difference between two pixels.
+	 */
+	public static final int MAX_DIFFERENCE = 3 * 255;
+	
+	/**
+	 * Where the sum of the colours is kept (after the differences).
+	 */
+	private static final int COLOURS = MAX_DIFFERENCE + 1;
+	
+	/**
+	 * Where the sum of the squared colours is kept.
+	 */
+	private static final int COLOURS_SQUARED = COLOURS + 1;
+	
+	/**
+	 * Where the largest squared colours is kept.
+	 */
+	private static final int MAX_COLOURS_SQUARED = COLOURS + 2;
+	
+	/**
+	 * Where the sum of the squares of each colour is kept.
+	 */
+	private static final int COLOUR_SQUARES = COLOURS + 3;
+	
+	/**
+	 * Where the sum of the products of the colours is kept.
+	 */
+	private static final int PRODUCTS = COLOURS + 4;
+	
+	/**
+	 * Where the sum of the squared laplace differences is kept.
+	 */
+	private static final int LAPLACE_DIFFERENCE = COLOURS + 5;
+	
+	/**
+	 * Where the sum of the squared laplace values is kept.
+	 */
+	private static final int LAPLACE_SQUARED = COLOURS + 6;
+	
+	/**
+	 * The number of sums.
+	 */
+	private static final int NUM_SUMS = COLOURS + 7;
+	
+	/**
+	 * The fewest pixels the images need before they are summed on
+	 * several threads.
+	 */
+	private static final int MIN_PIXELS = 1 << 16;
+	
+	/**
+	 * The width of the images.
+	 */
+	private int mWidth;
+	
+	/**
+	 * The height of the images.
+	 */
+	private int mHeight;
+	
+	/**
+	 * The pixels of the original image, while summing.
+	 */
+	private int[] mOriginal;
+	
+	/**
+	 * The pixels of the stego image, while summing.
+	 */
+	private int[] mStego;
+	
+	/**
+	 * The laplace filter, if the laplace values are being summed.
+	 */
+	private Laplace mFilter;
+	
+	/**
+	 * The laplace values of the original image, while summing.
+	 */
+	private int[] mOriginalValues;
+	
+	/**
+	 * The laplace values of the stego image, while summing.
+	 */
+	private int[] mStegoValues;
+	
+	/**
+	 * Whether the laplace values were summed.
+	 */
+	private boolean mLaplace;
+	
+	/**
+	 * The sums, starting with the count of each difference.
+	 */
+	private long[] mSums;
+	
+}
+//end of class.
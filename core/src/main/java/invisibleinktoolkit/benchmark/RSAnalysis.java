@@ -0,0 +1,981 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.Vector;
+import java.util.Enumeration;
+import javax.imageio.ImageIO;
+import java.io.File;
+import invisibleinktoolkit.util.TaskPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * RS analysis for a stego-image.
+ * <P>
+ * RS analysis is a system for detecting LSB steganography proposed by
+ * Dr. Fridrich at Binghamton University, NY.  You can visit her
+ * webpage for more information - 
+ * {@link http://www.ws.binghamton.edu/fridrich/} <BR>
+ * Implemented as described in "Reliable detection of LSB steganography
+ * in color and grayscale images" by J. Fridrich, M. Goljan and R. Du. 
+ * <BR>
+ * This code was produced with the aid of the authors and has been 
+ * verified as a correct implementation of RS Analysis.  Their assistance
+ * has proved invaluable.
+ *
+ * @author Kathryn Hempstalk
+ */
+public class RSAnalysis extends PixelBenchmark{
+	
+	//INNER CLASS
+	
+	/**
+	 * Some rows of blocks to count, which splits itself in half until 
+	 * it is small enough.
+	 * <P>
+	 * Each task keeps its own counts, and adds up the counts of the two
+	 * halves once they are done, so no counts are ever shared between
+	 * threads.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private class CountTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new task to count some rows of blocks.
+		 *
+		 * @param pixels The pixels of the image, in scan lines.
+		 * @param imgx The width of the image.
+		 * @param imgy The height of the image.
+		 * @param overlap Whether the blocks should overlap.
+		 * @param firstrow The first row of blocks to count.
+		 * @param endrow The row of blocks to stop counting at.
+		 * @param separate Whether to count the non-overlapping blocks 
+		 * separately as well.
+		 * @param taskrows The most rows to count without splitting.
+		 */
+		public CountTask(int[] pixels, int imgx, int imgy, 
+				boolean overlap, int firstrow, int endrow, 
+				boolean separate, int taskrows){
+			mPixels = pixels;
+			mImgX = imgx;
+			mImgY = imgy;
+			mOverlap = overlap;
+			mFirstRow = firstrow;
+			mEndRow = endrow;
+			mTaskRows = taskrows;
+			mCounts = new long[NUM_COUNTS];
+			mSeparate = (separate) ? new long[NUM_COUNTS] : null;
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Counts the rows, or splits them between two new tasks.
+		 */
+		protected void compute(){
+			if(mEndRow - mFirstRow > mTaskRows){
+				int middle = (mFirstRow + mEndRow) >>> 1;
+				CountTask first = new CountTask(mPixels, mImgX, mImgY,
+						mOverlap, mFirstRow, middle, mSeparate != null,
+						mTaskRows);
+				CountTask second = new CountTask(mPixels, mImgX, mImgY,
+						mOverlap, middle, mEndRow, mSeparate != null,
+						mTaskRows);
+				invokeAll(first, second);
+				first.addTo(mCounts, mSeparate);
+				second.addTo(mCounts, mSeparate);
+			}else{
+				countGroups(mPixels, mImgX, mImgY, mOverlap, mFirstRow,
+						mEndRow, mCounts, mSeparate);
+			}
+		}
+		
+		/**
+		 * Adds the counts from this task to some other counts.
+		 *
+		 * @param counts The counts to add to.
+		 * @param separate The non-overlapping counts to add to, or null.
+		 */
+		public void addTo(long[] counts, long[] separate){
+			for(int i = 0; i < NUM_COUNTS; i++){
+				counts[i] += mCounts[i];
+				if(separate != null)
+					separate[i] += mSeparate[i];
+			}
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The pixels of the image.
+		 */
+		private int[] mPixels;
+		
+		/**
+		 * The width of the image.
+		 */
+		private int mImgX;
+		
+		/**
+		 * The height of the image.
+		 */
+		private int mImgY;
+		
+		/**
+		 * Whether the blocks overlap.
+		 */
+		private boolean mOverlap;
+		
+		/**
+		 * The first row of blocks to count.
+		 */
+		private int mFirstRow;
+		
+		/**
+		 * The row of blocks to stop counting at.
+		 */
+		private int mEndRow;
+		
+		/**
+		 * The most rows to count without splitting.
+		 */
+		private int mTaskRows;
+		
+		/**
+		 * The counts for these rows.
+		 */
+		private long[] mCounts;
+		
+		/**
+		 * The counts for the non-overlapping blocks in these rows, or 
+		 * null if they aren't being counted.
+		 */
+		private long[] mSeparate;
+		
+	}
+	//end of inner class.
+	
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new RS analysis with a given mask size of m x n.
+	 *
+	 * Each alternating bit is set to 1.  Eg for a mask of size 2x2
+	 * the resulting mask will be {1,0;0,1}.  Two masks are used - one is
+	 * the inverse of the other.
+	 *
+	 * @param m The x mask size.
+	 * @param n The y mask size.
+	 */
+	public RSAnalysis(int m, int n){
+		//two masks
+		mMask = new int[2][m * n];
+		
+		//iterate through them and set alternating bits
+		int k = 0;
+		for(int i = 0; i < n; i++){
+			for(int j = 0; j < m; j++){
+				if ( ((j % 2) == 0  && (i % 2) == 0 )
+						|| ((j % 2) == 1 && (i % 2) == 1 )){
+					mMask[0][k] = 1;
+					mMask[1][k] = 0;
+				}else{
+					mMask[0][k] = 0;
+					mMask[1][k] = 1;
+				}
+				k++;
+			}
+		}
+		
+		//set up the mask size.
+		mM = m;
+		mN = n;
+		mThreads = 1;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Does an RS analysis of a given image.  
+	 * <P>
+	 * The analysis data returned is specified by name in
+	 * the getResultNames() method.
+	 *
+	 * @param image The image to analyse.
+	 * @param colour The colour to analyse.
+	 * @param overlap Whether the blocks should overlap or not.
+	 * @return The analysis information.
+	 */
+	public double[] doAnalysis(BufferedImage image, int colour, boolean overlap){
+		
+		//get the images sizes
+		int imgx = image.getWidth(), imgy = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, imgx, imgy, null, 0, imgx);
+		
+		long[] counts = new long[NUM_COUNTS];
+		this.count(pixels, imgx, imgy, overlap, counts, null);
+		return this.getResults(counts, colour, imgx, imgy);
+	}
+	
+	
+	/**
+	 * Does an RS analysis of all three colours of a given image at once.
+	 * <P>
+	 * The image is only gone through once, and the results are exactly
+	 * the same as calling doAnalysis() for each colour.
+	 *
+	 * @param image The image to analyse.
+	 * @param overlap Whether the blocks should overlap or not.
+	 * @return The analysis information for red, green and blue (indexed
+	 * by the ANALYSIS_COLOUR constants).
+	 */
+	public double[][] doAnalysis(BufferedImage image, boolean overlap){
+		
+		//get the images sizes
+		int imgx = image.getWidth(), imgy = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, imgx, imgy, null, 0, imgx);
+		
+		long[] counts = new long[NUM_COUNTS];
+		this.count(pixels, imgx, imgy, overlap, counts, null);
+		
+		double[][] results = new double[3][];
+		for(int colour = 0; colour < 3; colour++)
+			results[colour] = this.getResults(counts, colour, imgx, imgy);
+		return results;
+	}
+	
+	
+	/**
+	 * Does an RS analysis of all three colours of a given image, with
+	 * both overlapping and non-overlapping blocks, at once.
+	 * <P>
+	 * The non-overlapping blocks are just the overlapping blocks that 
+	 * start on a multiple of the mask size, so both are counted in the
+	 * one pass through the image.  The results are exactly the same as
+	 * calling doAnalysis() for each colour and overlap.
+	 *
+	 * @param image The image to analyse.
+	 * @return The analysis information, indexed first by overlap (0 for 
+	 * non-overlapping and 1 for overlapping blocks) and then by colour.
+	 */
+	public double[][][] doAnalysis(BufferedImage image){
+		
+		//get the images sizes
+		int imgx = image.getWidth(), imgy = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, imgx, imgy, null, 0, imgx);
+		
+		long[] overlapping = new long[NUM_COUNTS];
+		long[] separate = new long[NUM_COUNTS];
+		this.count(pixels, imgx, imgy, true, overlapping, separate);
+		
+		double[][][] results = new double[2][3][];
+		for(int colour = 0; colour < 3; colour++){
+			results[0][colour] = this.getResults(separate, colour, imgx, imgy);
+			results[1][colour] = this.getResults(overlapping, colour, 
+					imgx, imgy);
+		}
+		return results;
+	}
+	
+	
+	/**
+	 * Works out the analysis information from the group counts.
+	 *
+	 * @param counts The counts of each type of group.
+	 * @param colour The colour to get the information for.
+	 * @param imgx The width of the image.
+	 * @param imgy The height of the image.
+	 * @return The analysis information.
+	 */
+	private double[] getResults(long[] counts, int colour, int imgx, int imgy){
+		
+		double numregular = 0, numsingular = 0;
+		double numnegreg = 0, numnegsing = 0;
+		double numunusable = 0;
+		double allpixels[] = new double[4];
+		
+		if(colour == ANALYSIS_COLOUR_RED || colour == ANALYSIS_COLOUR_GREEN
+				|| colour == ANALYSIS_COLOUR_BLUE){
+			int index = colour * COLOUR_COUNTS;
+			numregular = counts[index + REGULAR];
+			numsingular = counts[index + SINGULAR];
+			numunusable = counts[index + UNUSABLE];
+			numnegreg = counts[index + NEG_REGULAR];
+			numnegsing = counts[index + NEG_SINGULAR];
+			allpixels[0] = counts[index + FLIPPED + REGULAR];
+			allpixels[1] = counts[index + FLIPPED + SINGULAR];
+			allpixels[2] = counts[index + FLIPPED + NEG_REGULAR];
+			allpixels[3] = counts[index + FLIPPED + NEG_SINGULAR];
+		}else{
+			//no colour - every block reads as zeros, flipped or not,
+			//and only the negative mask (which moves 0 to -1) changes it
+			int[] changed = new int[mM * mN];
+			for(int m = 0; m < 2; m++){
+				for(int k = 0; k < changed.length; k++)
+					changed[k] = -mMask[m][k];
+				numunusable += counts[BLOCKS];
+				if(getVariation(changed) > 0){
+					numnegreg += counts[BLOCKS];
+					allpixels[2] += counts[BLOCKS];
+				}
+			}
+		}
+		
+		//get all the details needed to derive x...
+		double totalgroups = numregular + numsingular + numunusable;
+		double x = getX(numregular, numnegreg, allpixels[0], allpixels[2],
+				numsingular, numnegsing, allpixels[1], allpixels[3]);
+		
+		//calculate the estimated percent of flipped pixels and message length
+		double epf, ml;
+		if( 2 * (x - 1) == 0)
+			epf = 0;
+		else
+			epf = Math.abs(x / (2 * (x - 1)));
+		
+		if(x - 0.5 == 0)
+			ml = 0;
+		else
+			ml = Math.abs(x / (x - 0.5));
+		
+		//now we have the number of regular and singular groups...
+		double results[] = new double[28];
+		
+		//save them all...
+		
+		//these results
+		results[0] = numregular;
+		results[1] = numsingular;
+		results[2] = numnegreg;
+		results[3] = numnegsing;
+		results[4] = Math.abs(numregular - numnegreg);
+		results[5] = Math.abs(numsingular - numnegsing);
+		results[6] = (numregular / totalgroups) * 100;
+		results[7] = (numsingular / totalgroups) * 100;
+		results[8] = (numnegreg / totalgroups) * 100;
+		results[9] = (numnegsing / totalgroups) * 100;
+		results[10] = (results[4] / totalgroups) * 100;
+		results[11] = (results[5] / totalgroups) * 100;
+		
+		//all pixel results
+		results[12] = allpixels[0];
+		results[13] = allpixels[1];
+		results[14] = allpixels[2];
+		results[15] = allpixels[3];
+		results[16] = Math.abs(allpixels[0] - allpixels[1]);
+		results[17] = Math.abs(allpixels[2] - allpixels[3]);
+		results[18] = (allpixels[0] / totalgroups) * 100;
+		results[19] = (allpixels[1] / totalgroups) * 100;
+		results[20] = (allpixels[2] / totalgroups) * 100;
+		results[21] = (allpixels[3] / totalgroups) * 100;
+		results[22] = (results[16] / totalgroups) * 100;
+		results[23] = (results[17] / totalgroups) * 100;
+		
+		//overall results
+		results[24] = totalgroups;
+		results[25] = epf;
+		results[26] = ml;
+		results[27] = ((imgx * imgy * 3) * ml) / 8;
+		
+		return results;
+	}
+	
+	
+	/**
+	 * Gets the x value for the p=x(x/2) RS equation. See the paper for
+	 * more details.
+	 *
+	 * @param r The value of Rm(p/2).
+	 * @param rm The value of R-m(p/2).
+	 * @param r1 The value of Rm(1-p/2).
+	 * @param rm1 The value of R-m(1-p/2).
+	 * @param s The value of Sm(p/2).
+	 * @param sm The value of S-m(p/2).
+	 * @param s1 The value of Sm(1-p/2).
+	 * @param sm1 The value of S-m(1-p/2).
+	 * @return The value of x.
+	 */
+	private double getX(double r, double rm, double r1, double rm1,
+			double s, double sm, double s1, double sm1){
+		
+		double x = 0; //the cross point.
+		
+		double dzero = r - s; // d0 = Rm(p/2) - Sm(p/2)
+		double dminuszero = rm - sm; // d-0 = R-m(p/2) - S-m(p/2)
+		double done = r1 - s1; // d1 = Rm(1-p/2) - Sm(1-p/2)
+		double dminusone = rm1 - sm1; // d-1 = R-m(1-p/2) - S-m(1-p/2)
+		
+		//get x as the root of the equation 
+		//2(d1 + d0)x^2 + (d-0 - d-1 - d1 - 3d0)x + d0 - d-0 = 0
+		//x = (-b +or- sqrt(b^2-4ac))/2a
+		//where ax^2 + bx + c = 0 and this is the form of the equation
+		
+		//thanks to a good friend in Dunedin, NZ for helping with maths
+		//and to Miroslav Goljan's fantastic Matlab code
+		
+		double a = 2 * (done + dzero);
+		double b = dminuszero - dminusone - done - (3 * dzero);
+		double c = dzero - dminuszero;
+		
+		if(a == 0)
+		    //take it as a straight line
+		    x = c / b;
+		  		
+		//take it as a curve
+		double discriminant = Math.pow(b,2) - (4 * a * c);
+		
+		if(discriminant >= 0){
+			double rootpos = ((-1 * b) + Math.sqrt(discriminant)) / (2 * a);
+			double rootneg = ((-1 * b) - Math.sqrt(discriminant)) / (2 * a);
+			
+			//return the root with the smallest absolute value (as per paper)
+			if(Math.abs(rootpos) <= Math.abs(rootneg))
+				x = rootpos;
+			else
+				x = rootneg;
+		}else{
+			//maybe it's not the curve we think (straight line)
+			double cr = (rm - r) / (r1 - r + rm - rm1);
+			double cs = (sm - s) / (s1 -s + sm - sm1);
+			x = (cr + cs) / 2;
+		}
+		
+		if(x == 0){
+			double ar = ((rm1 - r1 + r - rm) + (rm - r) / x) / (x - 1);
+			double as = ((sm1 - s1 + s - sm) + (sm - s) / x) / (x - 1);
+			if(as > 0 | ar < 0){
+				//let's assume straight lines again...
+				double cr = (rm - r) / (r1 - r + rm - rm1);
+				double cs = (sm - s) / (s1 -s + sm - sm1);
+				x = (cr + cs) / 2; 
+			}
+		}
+		return x;
+	}
+	
+	
+	/**
+	 * Counts the groups for all the blocks in an image, on as many
+	 * threads as have been set.
+	 *
+	 * @param pixels The pixels of the image, in scan lines.
+	 * @param imgx The width of the image.
+	 * @param imgy The height of the image.
+	 * @param overlap Whether the blocks should overlap.
+	 * @param counts The counts to add to.
+	 * @param separate The counts to add the non-overlapping blocks to as
+	 * well, or null if they aren't needed.
+	 */
+	private void count(int[] pixels, int imgx, int imgy, boolean overlap,
+			long[] counts, long[] separate){
+		
+		int rows = this.getNumRows(imgy, overlap);
+		if(mThreads == 1 || rows < 2){
+			this.countGroups(pixels, imgx, imgy, overlap, 0, rows, counts,
+					separate);
+			return;
+		}
+		
+		//a few tasks a thread, so they finish at about the same time
+		int taskrows = Math.max(1, (rows + (mThreads * 4) - 1) 
+				/ (mThreads * 4));
+		CountTask task = new CountTask(pixels, imgx, imgy, overlap, 0, rows,
+				separate != null, taskrows);
+		TaskPool.invoke(task);
+		task.addTo(counts, separate);
+	}
+	
+	
+	/**
+	 * Gets the number of rows of blocks in an image.
+	 *
+	 * @param imgy The height of the image.
+	 * @param overlap Whether the blocks overlap.
+	 * @return The number of rows of blocks.
+	 */
+	private int getNumRows(int imgy, boolean overlap){
+		return getNumBlocks(imgy, (overlap) ? 1 : mN);
+	}
+	
+	
+	/**
+	 * Gets the number of blocks along one side of an image.  The first
+	 * block is always used, and then a new block is started every step
+	 * until it would start at (or after) the last pixel.
+	 *
+	 * @param length The length of the side of the image.
+	 * @param step The distance between the start of each block.
+	 * @return The number of blocks along the side.
+	 */
+	private static int getNumBlocks(int length, int step){
+		return Math.max(1, ((length - 1) + step - 1) / step);
+	}
+	
+	
+	/**
+	 * Counts the regular, singular and unusable groups for some rows of
+	 * blocks in an image.
+	 * <P>
+	 * Every count for all three colours - for the positive and negative
+	 * masks, with and without every pixel flipped - is made from the one
+	 * read of each block.
+	 *
+	 * @param pixels The pixels of the image, in scan lines.
+	 * @param imgx The width of the image.
+	 * @param imgy The height of the image.
+	 * @param overlap Whether the blocks should overlap.
+	 * @param firstrow The first row of blocks to count.
+	 * @param endrow The row of blocks to stop counting at.
+	 * @param counts The counts to add to.
+	 * @param separate The counts to add the non-overlapping blocks to as
+	 * well, or null if they aren't needed.
+	 * @throws ArrayIndexOutOfBoundsException If a block goes off the 
+	 * edge of the image.
+	 */
+	private void countGroups(int[] pixels, int imgx, int imgy, 
+			boolean overlap, int firstrow, int endrow, long[] counts,
+			long[] separate) throws ArrayIndexOutOfBoundsException{
+		
+		int stepx = (overlap) ? 1 : mM;
+		int stepy = (overlap) ? 1 : mN;
+		int columns = getNumBlocks(imgx, stepx);
+		
+		//(a single row of pixels stops after the first block)
+		if(imgy <= 1)
+			columns = 1;
+		
+		//where each pixel of a block is, from the top left of the block
+		int size = mM * mN;
+		int[] offsets = new int[size];
+		for(int k = 0; k < size; k++)
+			offsets[k] = ((k / mM) * imgx) + (k % mM);
+		
+		int[] block = new int[size];
+		int[] changed = new int[size];
+		
+		for(int row = firstrow; row < endrow; row++){
+			int starty = row * stepy;
+			for(int column = 0; column < columns; column++){
+				int startx = column * stepx;
+				if(startx + mM > imgx || starty + mN > imgy)
+					throw new ArrayIndexOutOfBoundsException
+					("Coordinate out of bounds!");
+				
+				//non-overlapping blocks start on a multiple of the mask size
+				long[] also = null;
+				if(separate != null && (startx % mM) == 0 
+						&& (starty % mN) == 0)
+					also = separate;
+				tally(counts, also, BLOCKS);
+				
+				int corner = (starty * imgx) + startx;
+				for(int colour = 0; colour < 3; colour++){
+					int shift = 16 - (colour * 8);
+					for(int k = 0; k < size; k++)
+						block[k] = (pixels[corner + offsets[k]] >> shift) & 0xff;
+					this.classify(block, changed, counts, also, 
+							colour * COLOUR_COUNTS);
+					
+					//and again with every pixel flipped
+					for(int k = 0; k < size; k++)
+						block[k] = block[k] ^ 0x1;
+					this.classify(block, changed, counts, also,
+							(colour * COLOUR_COUNTS) + FLIPPED);
+				}
+			}
+		}
+	}
+	
+	
+	/**
+	 * Works out which group a block belongs to for each mask, and adds
+	 * it to the counts.
+	 * <P>
+	 * The positive mask negates the LSB of each masked value 
+	 * (2n <-> 2n+1), and the negative mask shifts them the other way 
+	 * (2n-1 <-> 2n, so 255 becomes 256 and 0 becomes -1).
+	 *
+	 * @param block The colour values of the block.
+	 * @param changed An array the size of the block to work in.
+	 * @param counts The counts to add to.
+	 * @param also Some more counts to add to, or null.
+	 * @param index Where the counts for this block start.
+	 */
+	private void classify(int[] block, int[] changed, long[] counts,
+			long[] also, int index){
+		
+		//(blocks of four are by far the most common)
+		if(block.length == 4){
+			this.classify(block[0], block[1], block[2], block[3], counts,
+					also, index);
+			return;
+		}
+		
+		int variationB = getVariation(block);
+		for(int m = 0; m < 2; m++){
+			int[] mask = mMask[m];
+			
+			//positive mask
+			for(int k = 0; k < block.length; k++)
+				changed[k] = block[k] ^ mask[k];
+			int variationP = getVariation(changed);
+			
+			//negative mask
+			for(int k = 0; k < block.length; k++)
+				changed[k] = invertLSB(block[k], mask[k]);
+			int variationN = getVariation(changed);
+			
+			//now we need to work out which group each belongs to
+			//(regular if it went up, unusable if the same, else singular)
+			tally(counts, also, index + REGULAR 
+					+ 1 - Integer.signum(variationP - variationB));
+			tally(counts, also, index + NEG_REGULAR 
+					+ 1 - Integer.signum(variationN - variationB));
+		}
+	}
+	
+	
+	/**
+	 * Works out which group a block of four values belongs to for each
+	 * mask, and adds it to the counts.  This is the same as classifying
+	 * the block as an array, but everything is kept in local variables.
+	 *
+	 * @param x0 The first colour value of the block.
+	 * @param x1 The second colour value of the block.
+	 * @param x2 The third colour value of the block.
+	 * @param x3 The fourth colour value of the block.
+	 * @param counts The counts to add to.
+	 * @param also Some more counts to add to, or null.
+	 * @param index Where the counts for this block start.
+	 */
+	private void classify(int x0, int x1, int x2, int x3, long[] counts,
+			long[] also, int index){
+		
+		int variationB = getVariation(x0, x1, x2, x3);
+		for(int m = 0; m < 2; m++){
+			int[] mask = mMask[m];
+			int variationP = getVariation(x0 ^ mask[0], x1 ^ mask[1],
+					x2 ^ mask[2], x3 ^ mask[3]);
+			int variationN = getVariation(invertLSB(x0, mask[0]), 
+					invertLSB(x1, mask[1]), invertLSB(x2, mask[2]),
+					invertLSB(x3, mask[3]));
+			
+			tally(counts, also, index + REGULAR 
+					+ 1 - Integer.signum(variationP - variationB));
+			tally(counts, also, index + NEG_REGULAR 
+					+ 1 - Integer.signum(variationN - variationB));
+		}
+	}
+	
+	
+	/**
+	 * Adds one to a count.
+	 *
+	 * @param counts The counts to add to.
+	 * @param also Some more counts to add to, or null.
+	 * @param index The count to add one to.
+	 */
+	private static void tally(long[] counts, long[] also, int index){
+		counts[index]++;
+		if(also != null)
+			also[index]++;
+	}
+	
+	
+	/**
+	 * Returns an enumeration of all the result names.
+	 *
+	 * @return The names of all the results.
+	 */
+	public Enumeration getResultNames(){
+		Vector names = new Vector(28);
+		names.add("Number of regular groups (positive)");
+		names.add("Number of singular groups (positive)");
+		names.add("Number of regular groups (negative)");
+		names.add("Number of singular groups (negative)");
+		names.add("Difference for regular groups");
+		names.add("Difference for singular groups");
+		names.add("Percentage of regular groups (positive)");
+		names.add("Percentage of singular groups (positive)");
+		names.add("Percentage of regular groups (negative)");
+		names.add("Percentage of singular groups (negative)");
+		names.add("Difference for regular groups %");
+		names.add("Difference for singular groups %");
+		names.add("Number of regular groups (positive for all flipped)");
+		names.add("Number of singular groups (positive for all flipped)");
+		names.add("Number of regular groups (negative for all flipped)");
+		names.add("Number of singular groups (negative for all flipped)");
+		names.add("Difference for regular groups (all flipped)");
+		names.add("Difference for singular groups (all flipped)");
+		names.add("Percentage of regular groups (positive for all flipped)");
+		names.add("Percentage of singular groups (positive for all flipped)");
+		names.add("Percentage of regular groups (negative for all flipped)");
+		names.add("Percentage of singular groups (negative for all flipped)");
+		names.add("Difference for regular groups (all flipped) %");
+		names.add("Difference for singular groups (all flipped) %");
+		names.add("Total number of groups");
+		names.add("Estimated percent of flipped pixels");
+		names.add("Estimated message length (in percent of pixels)(p)");
+		names.add("Estimated message length (in bytes)");
+		return names.elements();
+	}
+	
+	
+	/**
+	 * Gets the variation of the blocks of data. Uses
+	 * the formula f(x) = |x0 - x1| + |x1 + x3| + |x3 - x2| + |x2 - x0|;
+	 * However, if the block is not in the shape 2x2 or 4x1, this will be
+	 * applied as many times as the block can be broken up into 4 (without
+	 * overlaps).
+	 *
+	 * @param block The colour values of the block.
+	 * @return The variation in the block.
+	 */
+	private static int getVariation(int[] block){
+		int var = 0;
+		for(int i = 0; i < block.length; i = i + 4){
+			var += Math.abs(block[0 + i] - block[1 + i]);
+			var += Math.abs(block[3 + i] - block[2 + i]);
+			var += Math.abs(block[1 + i] - block[3 + i]);
+			var += Math.abs(block[2 + i] - block[0 + i]);
+		}
+		return var;
+	}
+	
+	
+	/**
+	 * Gets the variation of a block of four values, the same as 
+	 * getVariation() for an array.
+	 *
+	 * @param x0 The first colour value of the block.
+	 * @param x1 The second colour value of the block.
+	 * @param x2 The third colour value of the block.
+	 * @param x3 The fourth colour value of the block.
+	 * @return The variation in the block.
+	 */
+	private static int getVariation(int x0, int x1, int x2, int x3){
+		return Math.abs(x0 - x1) + Math.abs(x3 - x2) 
+		+ Math.abs(x1 - x3) + Math.abs(x2 - x0);
+	}
+	
+	
+	/**
+	 * Inverts the LSB of a colour value, if it is masked.  This moves
+	 * the value the opposite way to negating the LSB (2n-1 <-> 2n), so
+	 * 255 becomes 256 and 0 becomes -1.
+	 *
+	 * @param value The colour value.
+	 * @param mask 1 to invert the LSB, or 0 to leave it alone.
+	 * @return The inverted value.
+	 */
+	private static int invertLSB(int value, int mask){
+		return value + (mask * (((value & 0x1) << 1) - 1));
+	}
+	
+	
+	/**
+	 * Gets the given colour value for this pixel.
+	 * 
+	 * @param pixel The pixel to get the colour of.
+	 * @param colour The colour to get.
+	 * @return The colour value of the given colour in the given pixel.
+	 */
+	public int getPixelColour(int pixel, int colour){
+		if(colour == RSAnalysis.ANALYSIS_COLOUR_RED)
+			return getRed(pixel);
+		else if (colour == RSAnalysis.ANALYSIS_COLOUR_GREEN)
+			return getGreen(pixel);
+		else if (colour == RSAnalysis.ANALYSIS_COLOUR_BLUE)
+			return getBlue(pixel);
+		else
+			return 0;		
+	}
+	
+	
+	/**
+	 * Sets the number of threads to count the groups with.
+	 * <P>
+	 * The blocks are split into a few tasks of rows for each thread, 
+	 * which run on the shared {@link TaskPool} - so no more run at once
+	 * than the pool has threads.  The counts from each task are added
+	 * together at the end, so the results are exactly the same 
+	 * whatever the number of threads.
+	 *
+	 * @param threads The number of threads to split the work for (1,
+	 * the default, counts on the calling thread).
+	 * @throws IllegalArgumentException If there are no threads.
+	 */
+	public void setThreads(int threads) throws IllegalArgumentException{
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		mThreads = threads;
+	}
+	
+	
+	/**
+	 * Gets the number of threads to count the groups with.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getThreads(){
+		return mThreads;
+	}
+	
+	
+	/**
+	 * A small main method that will print out the message length
+	 * in percent of pixels.
+	 *
+	 */
+	public static void main(String[] args){
+		if(args.length != 1){
+			System.out.println("Usage: invisibleinktoolkit.benchmark.RSAnalysis <imagefilename>");
+			System.exit(1);
+		}
+		try{
+			System.out.println("\nRS Analysis results");
+			System.out.println("-------------------");
+			RSAnalysis rsa = new RSAnalysis(2,2);
+			rsa.setThreads(Runtime.getRuntime().availableProcessors());
+			BufferedImage image = ImageIO.read(new File(args[0]));
+			double average = 0;
+			double[] results = rsa.doAnalysis(image, RSAnalysis.ANALYSIS_COLOUR_RED, true);
+			System.out.println("Result from red: " + results[26]);
+			average += results[26];
+			results = rsa.doAnalysis(image, RSAnalysis.ANALYSIS_COLOUR_GREEN, true);
+			System.out.println("Result from green: " + results[26]);
+			average += results[26];
+			results = rsa.doAnalysis(image, RSAnalysis.ANALYSIS_COLOUR_BLUE, true);
+			System.out.println("Result from blue: " + results[26]);
+			average += results[26];
+			average = average/3;
+			System.out.println("Average result: " + average);
+			System.out.println();
+		}catch(Exception e){
+			System.out.println("ERROR: Cannot process that image type, please try another image.");
+			e.printStackTrace();
+		}
+	}
+	
+	//VARIABLES
+	
+	/**
+	 * The number of counts kept for each colour.
+	 */
+	private static final int COLOUR_COUNTS = 12;
+	
+	/**
+	 * Where the counts for the flipped groups start, for each colour.
+	 */
+	private static final int FLIPPED = 6;
+	
+	/**
+	 * The count of regular groups (positive mask).
+	 */
+	private static final int REGULAR = 0;
+	
+	/**
+	 * The count of unusable groups (positive mask).
+	 */
+	private static final int UNUSABLE = 1;
+	
+	/**
+	 * The count of singular groups (positive mask).
+	 */
+	private static final int SINGULAR = 2;
+	
+	/**
+	 * The count of regular groups (negative mask).
+	 */
+	private static final int NEG_REGULAR = 3;
+	
+	/**
+	 * The count of unusable groups (negative mask).
+	 */
+	private static final int NEG_UNUSABLE = 4;
+	
+	/**
+	 * The count of singular groups (negative mask).
+	 */
+	private static final int NEG_SINGULAR = 5;
+	
+	/**
+	 * The count of blocks, after the counts for all three colours.
+	 */
+	private static final int BLOCKS = 3 * COLOUR_COUNTS;
+	
+	/**
+	 * The total number of counts.
+	 */
+	private static final int NUM_COUNTS = BLOCKS + 1;
+	
+	/**
+	 * Denotes analysis to be done with red.
+	 */
+	public static final int ANALYSIS_COLOUR_RED = 0;
+	
+	/**
+	 * Denotes analysis to be done with green.
+	 */
+	public static final int ANALYSIS_COLOUR_GREEN = 1;
+	
+	/**
+	 * Denotes analysis to be done with blue.
+	 */
+	public static final int ANALYSIS_COLOUR_BLUE = 2;
+	
+	/**
+	 * The mask to be used for the pixel groups.
+	 */
+	private int[][] mMask;
+	
+	/**
+	 * The x length of the mask.
+	 */
+	private int mM;
+	
+	/**
+	 * The y length of the mask.
+	 */
+	private int mN;
+	
+	/**
+	 * The number of threads to count the groups with.
+	 */
+	private int mThreads;
+	
+}
+//end of class
@@ -0,0 +1,505 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *    Original C++ Code is copyright to Zhe Wang et al, McMaster University.
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import java.io.File;
+import invisibleinktoolkit.util.TaskPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Sample pairs analysis for an image.
+ * <P>
+ * Sample pairs analysis is a technique for detecting
+ * steganography in an image.  More information can be found
+ * in the paper "Detection of LSB steganography via Sample Pair analysis".
+ * This implementation is based off some C++ code kindly provided by 
+ * the authors of the paper.
+ * <P>
+ * The pairs for all three colours, both across and down the image, are
+ * counted in one pass through the pixels.  The image is gone through
+ * two rows at a time, as each pair down the image is the pixels at the
+ * same place in the two rows.
+ *
+ * @author Kathryn Hempstalk
+ */
+public class SamplePairs extends PixelBenchmark{
+	
+	//INNER CLASS
+	
+	/**
+	 * Some pairs of rows to count, which splits itself in half until it
+	 * is small enough.
+	 * <P>
+	 * Each task keeps its own counts, and adds up the counts of the two
+	 * halves once they are done, so no counts are ever shared between
+	 * threads.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private static class CountTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new task to count some pairs of rows.
+		 *
+		 * @param pixels The pixels of the image, in scan lines.
+		 * @param imgx The width of the image.
+		 * @param first The first pair of rows to count.
+		 * @param end The pair of rows to stop counting at.
+		 * @param taskrows The most pairs of rows to count without 
+		 * splitting.
+		 */
+		public CountTask(int[] pixels, int imgx, int first, int end,
+				int taskrows){
+			mPixels = pixels;
+			mImgX = imgx;
+			mFirst = first;
+			mEnd = end;
+			mTaskRows = taskrows;
+			mCounts = new long[NUM_COUNTS];
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Counts the rows, or splits them between two new tasks.
+		 */
+		protected void compute(){
+			if(mEnd - mFirst > mTaskRows){
+				int middle = (mFirst + mEnd) >>> 1;
+				CountTask first = new CountTask(mPixels, mImgX, mFirst,
+						middle, mTaskRows);
+				CountTask second = new CountTask(mPixels, mImgX, middle,
+						mEnd, mTaskRows);
+				invokeAll(first, second);
+				for(int i = 0; i < NUM_COUNTS; i++)
+					mCounts[i] = first.mCounts[i] + second.mCounts[i];
+			}else{
+				countPairs(mPixels, mImgX, mFirst, mEnd, mCounts);
+			}
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The pixels of the image.
+		 */
+		private int[] mPixels;
+		
+		/**
+		 * The width of the image.
+		 */
+		private int mImgX;
+		
+		/**
+		 * The first pair of rows to count.
+		 */
+		private int mFirst;
+		
+		/**
+		 * The pair of rows to stop counting at.
+		 */
+		private int mEnd;
+		
+		/**
+		 * The most pairs of rows to count without splitting.
+		 */
+		private int mTaskRows;
+		
+		/**
+		 * The counts for these rows.
+		 */
+		private long[] mCounts;
+		
+	}
+	//end of inner class.
+	
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new sample pairs analysis.
+	 */
+	public SamplePairs(){
+		super();
+		mThreads = 1;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Does sample pairs analysis on an image.
+	 *
+	 * @param image The image to analyse.
+	 * @param colour The colour to analyse.
+	 * @return The estimated length of the message, as a fraction of the
+	 * pixels.
+	 * @throws IllegalArgumentException If the image has an odd width or
+	 * height.
+	 */
+	public double doAnalysis(BufferedImage image, int colour)
+	throws IllegalArgumentException{
+		long[] counts = this.count(image);
+		if(colour == ANALYSIS_COLOUR_RED || colour == ANALYSIS_COLOUR_GREEN
+				|| colour == ANALYSIS_COLOUR_BLUE)
+			return solve(counts, colour * COLOUR_COUNTS);
+		
+		//no colour - every pair reads as zeros, so they are all the same
+		long[] nocolour = new long[COLOUR_COUNTS];
+		nocolour[ALL_PAIRS] = counts[ALL_PAIRS];
+		nocolour[Z_PAIRS] = counts[ALL_PAIRS];
+		return solve(nocolour, 0);
+	}
+	
+	
+	/**
+	 * Does sample pairs analysis on all three colours of an image at 
+	 * once.  The results are exactly the same as calling doAnalysis()
+	 * for each colour.
+	 *
+	 * @param image The image to analyse.
+	 * @return The estimated length of the message in red, green and blue.
+	 * @throws IllegalArgumentException If the image has an odd width or
+	 * height.
+	 */
+	public double[] doAnalysis(BufferedImage image)
+	throws IllegalArgumentException{
+		long[] counts = this.count(image);
+		double[] results = new double[3];
+		for(int colour = 0; colour < 3; colour++)
+			results[colour] = solve(counts, colour * COLOUR_COUNTS);
+		return results;
+	}
+	
+	
+	/**
+	 * Counts the pairs in an image, on as many threads as have been set.
+	 *
+	 * @param image The image to count.
+	 * @return The counts for each colour.
+	 * @throws IllegalArgumentException If the image has an odd width or
+	 * height.
+	 */
+	private long[] count(BufferedImage image) throws IllegalArgumentException{
+		
+		//get the images sizes
+		int imgx = image.getWidth(), imgy = image.getHeight();
+		
+		//the last pixel of an odd row or column has nothing to pair 
+		//with, and has never been analysed
+		if(imgx % 2 != 0 || imgy % 2 != 0)
+			throw new IllegalArgumentException
+			("Sample pairs needs an even width and height!");
+		
+		int[] pixels = image.getRGB(0, 0, imgx, imgy, null, 0, imgx);
+		int rows = imgy / 2;
+		long[] counts = new long[NUM_COUNTS];
+		if(mThreads == 1 || rows < 2){
+			countPairs(pixels, imgx, 0, rows, counts);
+			return counts;
+		}
+		
+		//a few tasks a thread, so they finish at about the same time
+		int taskrows = Math.max(1, (rows + (mThreads * 4) - 1) 
+				/ (mThreads * 4));
+		CountTask task = new CountTask(pixels, imgx, 0, rows, taskrows);
+		TaskPool.invoke(task);
+		return task.mCounts;
+	}
+	
+	
+	/**
+	 * Counts the pairs in some pairs of rows.  For each pair of rows, 
+	 * the pairs across both rows and the pairs down between them are
+	 * counted, for all three colours.
+	 *
+	 * @param pixels The pixels of the image, in scan lines.
+	 * @param imgx The width of the image.
+	 * @param first The first pair of rows to count.
+	 * @param end The pair of rows to stop counting at.
+	 * @param counts The counts to add to.
+	 */
+	private static void countPairs(int[] pixels, int imgx, int first, 
+			int end, long[] counts){
+		for(int row = first; row < end; row++){
+			int top = row * 2 * imgx, bottom = top + imgx;
+			
+			//pairs across the image
+			for(int x = 0; x < imgx; x = x + 2){
+				countPair(pixels[top + x], pixels[top + x + 1], counts);
+				countPair(pixels[bottom + x], pixels[bottom + x + 1], 
+						counts);
+			}
+			
+			//pairs down the image
+			for(int x = 0; x < imgx; x++)
+				countPair(pixels[top + x], pixels[bottom + x], counts);
+		}
+	}
+	
+	
+	/**
+	 * Counts one pair of pixels, for all three colours.
+	 *
+	 * @param first The first pixel of the pair.
+	 * @param second The second pixel of the pair.
+	 * @param counts The counts to add to.
+	 */
+	private static void countPair(int first, int second, long[] counts){
+		counts[ALL_PAIRS]++;
+		for(int colour = 0, shift = 16; colour < 3; colour++, shift -= 8){
+			int u = (first >> shift) & 0xff;
+			int v = (second >> shift) & 0xff;
+			int index = colour * COLOUR_COUNTS;
+			
+			//if the pixels are the same
+			if(u == v){
+				counts[index + Z_PAIRS]++;
+				continue;
+			}
+			//if the 7 msb are the same, but the 1 lsb are different
+			if(u >> 1 == v >> 1)
+				counts[index + W_PAIRS]++;
+			//if lsb(v) = 0 & u < v OR lsb(v) = 1 & u > v, or vice versa
+			if(((v & 0x1) == 0) == (u < v))
+				counts[index + X_PAIRS]++;
+			else
+				counts[index + Y_PAIRS]++;
+		}
+	}
+	
+	
+	/**
+	 * Works out the estimated length of the message from the counts.
+	 *
+	 * @param counts The counts of the pairs.
+	 * @param index Where the counts for the colour start.
+	 * @return The estimated length of the message.
+	 */
+	private static double solve(long[] counts, int index){
+		long P = counts[ALL_PAIRS];
+		long X = counts[index + X_PAIRS];
+		long Y = counts[index + Y_PAIRS];
+		long Z = counts[index + Z_PAIRS];
+		long W = counts[index + W_PAIRS];
+		
+		//solve the quadratic equation
+		//in the form ax^2 + bx + c = 0
+		double a = 0.5 * ( W + Z );
+		double b = 2 * X - P;
+		double c = Y - X;		
+		
+		//the result
+		double x;
+		
+		//straight line
+		if(a == 0)
+			x = c / b;
+		
+		//curve
+		//take it as a curve
+		double discriminant = Math.pow(b,2) - (4 * a * c);
+		
+		if(discriminant >= 0){
+			double rootpos = ((-1 * b) + Math.sqrt(discriminant)) / (2 * a);
+			double rootneg = ((-1 * b) - Math.sqrt(discriminant)) / (2 * a);
+			
+			//return the root with the smallest absolute value (as per paper)
+			if(Math.abs(rootpos) <= Math.abs(rootneg))
+				x = rootpos;
+			else
+				x = rootneg;
+		}else{
+			x = c / b;
+		}
+		
+		if(x == 0){
+			//let's assume straight lines again, something is probably wrong
+			x = c / b;
+		}
+		
+		return x;
+	}
+	
+	
+	/**
+	 * Sets the number of threads to count the pairs with.
+	 * <P>
+	 * The rows are split into a few tasks for each thread, which run on
+	 * the shared {@link TaskPool} - so no more run at once than the 
+	 * pool has threads.  The counts from each task are added together
+	 * at the end, so the results are exactly the same whatever the 
+	 * number of threads.
+	 *
+	 * @param threads The number of threads to split the work for (1,
+	 * the default, counts on the calling thread).
+	 * @throws IllegalArgumentException If there are no threads.
+	 */
+	public void setThreads(int threads) throws IllegalArgumentException{
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		mThreads = threads;
+	}
+	
+	
+	/**
+	 * Gets the number of threads to count the pairs with.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getThreads(){
+		return mThreads;
+	}
+	
+	
+	/**
+	 * Gets the given colour value for this pixel.
+	 * 
+	 * @param pixel The pixel to get the colour of.
+	 * @param colour The colour to get.
+	 * @return The colour value of the given colour in the given pixel.
+	 */
+	public int getPixelColour(int pixel, int colour){
+		if(colour == RSAnalysis.ANALYSIS_COLOUR_RED)
+			return getRed(pixel);
+		else if (colour == RSAnalysis.ANALYSIS_COLOUR_GREEN)
+			return getGreen(pixel);
+		else if (colour == RSAnalysis.ANALYSIS_COLOUR_BLUE)
+			return getBlue(pixel);
+		else
+			return 0;		
+	}
+	
+	
+	/*
+	 * A small main method that will print out the message length
+	 * in percent of pixels.
+	 *
+	 */
+	public static void main(String[] args){
+		if(args.length != 1){
+			System.out.println("Usage: invisibleinktoolkit.benchmark.SamplePairs <imagefilename>");
+			System.exit(1);
+		}
+		try{
+			System.out.println("\nSample Pairs Results");
+			System.out.println("--------------------");
+			SamplePairs sp = new SamplePairs();
+			sp.setThreads(Runtime.getRuntime().availableProcessors());
+			BufferedImage image = ImageIO.read(new File(args[0]));
+			double average = 0;
+			double[] results = sp.doAnalysis(image);
+			System.out.println("Result from red: " 
+					+ results[ANALYSIS_COLOUR_RED]);
+			average += results[ANALYSIS_COLOUR_RED];
+			System.out.println("Result from green: " 
+					+ results[ANALYSIS_COLOUR_GREEN]);
+			average += results[ANALYSIS_COLOUR_GREEN];
+			System.out.println("Result from blue: " 
+					+ results[ANALYSIS_COLOUR_BLUE]);
+			average += results[ANALYSIS_COLOUR_BLUE];
+			average = average/3;
+			System.out.println("Average result: " + average);
+			System.out.println();
+		}catch(Exception e){
+			System.out.println("ERROR: Cannot process that image type, please try another image.");
+			e.printStackTrace();
+		}
+	}
+	
+	
+	//VARIABLES
+	
+	
+	/**
+	 * Denotes analysis to be done with red.
+	 */
+	public static final int ANALYSIS_COLOUR_RED = 0;
+	
+	/**
+	 * Denotes analysis to be done with green.
+	 */
+	public static final int ANALYSIS_COLOUR_GREEN = 1;
+	
+	/**
+	 * Denotes analysis to be done with blue.
+	 */
+	public static final int ANALYSIS_COLOUR_BLUE = 2;
+	
+	/**
+	 * Where the count of all the pairs is kept (the same for every
+	 * colour, so it is only kept once).
+	 */
+	private static final int ALL_PAIRS = 0;
+	
+	/**
+	 * Where the count of X pairs is kept, for each colour.
+	 */
+	private static final int X_PAIRS = 1;
+	
+	/**
+	 * Where the count of Y pairs is kept, for each colour.
+	 */
+	private static final int Y_PAIRS = 2;
+	
+	/**
+	 * Where the count of pairs that are the same (Z) is kept, for 
+	 * each colour.
+	 */
+	private static final int Z_PAIRS = 3;
+	
+	/**
+	 * Where the count of pairs that only differ in the lsb (W) is kept,
+	 * for each colour.
+	 */
+	private static final int W_PAIRS = 4;
+	
+	/**
+	 * The number of counts kept for each colour.
+	 */
+	private static final int COLOUR_COUNTS = 5;
+	
+	/**
+	 * The number of counts kept for all the colours.
+	 */
+	private static final int NUM_COUNTS = COLOUR_COUNTS * 3;
+	
+	/**
+	 * The number of threads to count the pairs with.
+	 */
+	private int mThreads;
+	
+	
+}//end of class
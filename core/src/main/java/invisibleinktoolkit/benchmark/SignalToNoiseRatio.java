@@ -30,7 +30,7 @@ import java.awt.image.BufferedImage;
  */
 public class SignalToNoiseRatio 
 extends PixelBenchmark 
-implements Benchmark{
+implements SumBenchmark{
 	
 	
 	/**
@@ -75,6 +75,24 @@ implements Benchmark{
 	}
 	
 	
+	/**
+	 * Calculates out the value of the signal to noise ratio from the sums
+	 * of the pixels of the two images.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums){
+		double originaldiff = sums.getColourSquaredSum();
+		double totaldifference = sums.getDifferenceSum(2);
+		if(originaldiff == 0 || totaldifference == 0)
+			return 0;
+		else
+			return (originaldiff / totaldifference);
+	}
+	
+	
 	/**
 	 * Returns the string representation of this measure - this
 	 * is just the name of the measure.
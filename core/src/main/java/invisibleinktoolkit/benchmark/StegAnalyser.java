@@ -0,0 +1,1251 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+
+import invisibleinktoolkit.stego.*;
+import invisibleinktoolkit.util.TestingUtils;
+import invisibleinktoolkit.util.CombineBatch;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import javax.imageio.ImageIO;
+import java.util.Enumeration;
+
+
+/**
+ * Allows for steganalysis to be run for images.
+ * <P>
+ * This steganalyser can do RS Analysis, Sample Pairs Analysis and
+ * Laplace graphs.  The laplace graphs are printed in CSV format unless
+ * it is run for an arff file. 
+ *
+ * @author Kathryn Hempstalk.
+ */  
+public class StegAnalyser{
+	
+    //INNER CLASS
+	
+    /**
+     * A feature writer that keeps the whole table in memory.
+     *
+     * @author Kathryn Hempstalk.
+     */
+    private static class BufferWriter implements FeatureWriter{
+		
+	//FUNCTIONS
+		
+	/**
+	 * Starts the table off.
+	 *
+	 * @param header The header of the table.
+	 */
+	public void start(String header){
+	    mTable.append(header);
+	}
+		
+	/**
+	 * Gets whether an image already has a row in the table.
+	 *
+	 * @param imagename The file name of the image.
+	 * @return Always false, as the table always starts empty.
+	 */
+	public boolean isDone(String imagename){
+	    return false;
+	}
+		
+	/**
+	 * Writes the row for an image.
+	 *
+	 * @param imagename The file name of the image.
+	 * @param row The row, without a new line on the end.
+	 */
+	public void writeRow(String imagename, String row){
+	    mTable.append(row);
+	    mTable.append("\n");
+	}
+		
+	/**
+	 * Finishes off the table.
+	 *
+	 * @param footer The footer of the table.
+	 */
+	public void finish(String footer){
+	    mTable.append(footer);
+	}
+		
+	/**
+	 * Does nothing, as there is nothing to close.
+	 */
+	public void close(){
+	}
+		
+	/**
+	 * Gets the whole table.
+	 *
+	 * @return The table as text.
+	 */
+	public String toString(){
+	    return mTable.toString();
+	}
+		
+		
+	//VARIABLES
+		
+	/**
+	 * The table so far.
+	 */
+	private StringBuffer mTable = new StringBuffer();
+		
+    }
+    //end of inner class.
+	
+	
+    /**
+     * An image in a directory going through the steganalysis stages.
+     * <P>
+     * The job is first run on a reading thread, which reads the image
+     * and then hands the job on to an analysing thread.  The row is 
+     * ready once the job has been analysed, or has failed.
+     *
+     * @author Kathryn Hempstalk.
+     */
+    private class AnalysisJob implements Runnable{
+		
+	//CONSTRUCTORS
+		
+	/**
+	 * Sets up a job for an image.
+	 *
+	 * @param directory The directory the image is in.
+	 * @param index The position of the image in the directory list.
+	 * @param file The file name of the image.
+	 * @param laplacelimit The maximum number of laplace values to output.
+	 * @param arff Whether the row is for an ARFF file (rather than CSV).
+	 * @param threads The number of threads to steganalyse the image with.
+	 * @param analysers The threads to steganalyse the image on.
+	 */
+	public AnalysisJob(File directory, int index, String file,
+			   int laplacelimit, boolean arff, int threads,
+			   ThreadPoolExecutor analysers){
+	    mDirectory = directory;
+	    mIndex = index;
+	    mFile = file;
+	    mLaplaceLimit = laplacelimit;
+	    mARFF = arff;
+	    mImageThreads = threads;
+	    mAnalysers = analysers;
+	    mImage = null;
+	    mRow = null;
+	    mReady = new CountDownLatch(1);
+	}
+		
+		
+	//FUNCTIONS
+		
+	/**
+	 * Reads the image, then passes it on to be steganalysed.  If the
+	 * image file hasn't changed since its features were cached, the
+	 * row is made straight away instead.
+	 */
+	public void run(){
+	    File imagefile = new File(mDirectory, mFile);
+	    if(mCache != null){
+		String key = mCache.getKey(imagefile);
+		ImageFeatures features = (key == null) ? null : mCache.get(key);
+		if(features != null && hasFeatures(features)){
+		    mRow = StegAnalyser.this.getRow(features, mFile, 
+						    mLaplaceLimit, mARFF);
+		    mReady.countDown();
+		    return;
+		}
+	    }
+	    try{
+		mImage = ImageIO.read(imagefile);
+	    }catch(Exception e){
+		//skip the file...
+	    }
+	    if(mImage == null){
+		mReady.countDown();
+		return;
+	    }
+	    mAnalysers.execute(new Runnable(){
+		    public void run(){
+			analyse();
+		    }
+		});
+	}
+		
+	/**
+	 * Steganalyses the image, and lets go of it.
+	 */
+	private void analyse(){
+	    try{
+		ImageFeatures features = getFeatures(mImage, 
+						     new File(mDirectory, mFile),
+						     mImageThreads);
+		mRow = StegAnalyser.this.getRow(features, mFile, 
+						mLaplaceLimit, mARFF);
+	    }catch(Exception e){
+		//skip the file...
+	    }finally{
+		mImage = null;
+		mReady.countDown();
+	    }
+	}
+		
+	/**
+	 * Waits for the image to be steganalysed, and gets its row.
+	 *
+	 * @return The row of results, or null if the image was skipped.
+	 * @throws InterruptedException If interrupted while waiting.
+	 */
+	public String getRow() throws InterruptedException{
+	    mReady.await();
+	    return mRow;
+	}
+		
+	/**
+	 * Gets the position of the image in the directory list.
+	 *
+	 * @return The position of the image.
+	 */
+	public int getIndex(){
+	    return mIndex;
+	}
+		
+	/**
+	 * Gets the file name of the image.
+	 *
+	 * @return The file name.
+	 */
+	public String getFileName(){
+	    return mFile;
+	}
+		
+		
+	//VARIABLES
+		
+	/**
+	 * The directory the image is in.
+	 */
+	private File mDirectory;
+		
+	/**
+	 * The position of the image in the directory list.
+	 */
+	private int mIndex;
+		
+	/**
+	 * The file name of the image.
+	 */
+	private String mFile;
+		
+	/**
+	 * The maximum number of laplace values to output.
+	 */
+	private int mLaplaceLimit;
+		
+	/**
+	 * Whether the row is for an ARFF file.
+	 */
+	private boolean mARFF;
+		
+	/**
+	 * The number of threads to steganalyse the image with.
+	 */
+	private int mImageThreads;
+		
+	/**
+	 * The threads to steganalyse the image on.
+	 */
+	private ThreadPoolExecutor mAnalysers;
+		
+	/**
+	 * The image, once read and until it is steganalysed.
+	 */
+	private volatile BufferedImage mImage;
+		
+	/**
+	 * The row of results, once steganalysed.
+	 */
+	private volatile String mRow;
+		
+	/**
+	 * Lets the writer know when the row is ready.
+	 */
+	private CountDownLatch mReady;
+		
+    }
+    //end of inner class.
+	
+	
+    //CONSTRUCTORS
+	
+    /**
+     * Sets up steganalysis types that will be run.
+     * 
+     * @param runrsanalysis Whether to run RS analysis.
+     * @param runsamplepairs Whether to run Sample Pairs.
+     * @param runlaplacegraph Whether to run a Laplace Graph.
+     */
+    public StegAnalyser(boolean runrsanalysis,
+			boolean runsamplepairs, boolean runlaplacegraph){
+	mResultsString = "";
+	mRunRSAnalysis = runrsanalysis;
+	mRunSamplePairs = runsamplepairs;
+	mRunLaplaceGraph = runlaplacegraph;
+	mThreads = Runtime.getRuntime().availableProcessors();
+	mCache = null;
+    }
+	
+    //FUNCTIONS
+	
+    /**
+     * Runs all the steganalysis.
+     *
+     * @param stego The stego image to test.  
+     * @return All the results as text.
+     * @throws IllegalArgumentException If the stego image is null.
+     * @throws Exception If it has problems reading the images.
+     */
+    public String run(BufferedImage stego) 
+	throws IllegalArgumentException, Exception{
+		
+	if(stego == null)
+	    throw new IllegalArgumentException("Stego image must not be null!");
+		
+		
+	StringBuffer results = new StringBuffer("Results of steganalysis\n"
+						+ "==========================\n\n");
+		
+	String colour;
+	double averageresults = 0, averagelength = 0;
+		
+	//RS Analysis
+	if(mRunRSAnalysis){
+	    //all the colours and groupings are done in one go
+	    RSAnalysis rsa = new RSAnalysis(2,2);
+	    rsa.setThreads(mThreads);
+	    double[][][] rsresults = rsa.doAnalysis(stego);
+	    results.append("RS ANALYSIS\n" + "============\n\n");
+	    results.append("RS Analysis (Non-overlapping groups)\n");
+	    for(int j = 0; j < 3; j++){
+		double[] testresults = rsresults[0][j];
+				
+		//get the right colour
+		if(j == 0)
+		    colour = "red";
+		else if(j == 1)
+		    colour = "green";
+		else
+		    colour = "blue";
+				
+		//append the results
+		results.append("Percentage in " + colour + ": ");
+				
+		//round and append results
+		results.append(round(testresults[26] * 100, 5) + "\n");
+				
+		//and the approximate length (in bytes)
+		results.append("Approximate length (in bytes) from " + colour + ": "
+			       + round(testresults[27], 5) + "\n");
+				
+		averageresults += testresults[26];
+		averagelength += testresults[27];
+	    }
+			
+	    //now do again for overlapping groups
+	    results.append("\nRS Analysis (Overlapping groups)\n");
+	    for(int j = 0; j < 3; j++){
+		double[] testresults = rsresults[1][j];
+				
+		//get the right colour
+		if(j == 0)
+		    colour = "red";
+		else if(j == 1)
+		    colour = "green";
+		else
+		    colour = "blue";
+				
+		//append the results
+		results.append("Percentage in " + colour + ": ");
+				
+		//round and append results
+		results.append(round(testresults[26] * 100, 5) + "\n");
+				
+		//and the approximate length (in bytes)
+		results.append("Approximate length (in bytes) from " + colour + ": "
+			       + round(testresults[27], 5) + "\n");
+				
+		averageresults += testresults[26];
+		averagelength += testresults[27];
+	    }
+			
+	    results.append("\nAverage across all groups/colours: " +
+			   round(averageresults/6 * 100,5) );
+	    results.append("\nAverage approximate length across all groups/colours: " + 
+			   round(averagelength/6, 5) );
+	    results.append("\n\n\n");
+	}
+		
+		
+	//Sample Pairs
+	averageresults = 0;
+	averagelength = 0;
+	if(mRunSamplePairs){
+	    results.append("SAMPLE PAIRS\n" + "=============\n");
+	    //all the colours are done in one go
+	    SamplePairs sp = new SamplePairs();
+	    sp.setThreads(mThreads);
+	    double[] spresults = sp.doAnalysis(stego);
+	    for(int j = 0; j < 3; j++){
+		double estimatedlength = spresults[j];
+		double numbytes = ((stego.getHeight() * stego.getWidth() * 3)/8)
+		    * estimatedlength;
+				
+		//get the right colour
+		if(j == 0)
+		    colour = "red";
+		else if(j == 1)
+		    colour = "green";
+		else
+		    colour = "blue";
+				
+		//append the results
+		results.append("Percentage in " + colour + ": ");
+				
+		//round and append results
+		results.append(round(estimatedlength * 100, 5) + "\n");
+				
+		//and the approximate length (in bytes)
+		results.append("Approximate length (in bytes) from " + colour + ": "
+			       + round(numbytes, 5) + "\n");
+				
+		averageresults += estimatedlength;
+		averagelength += numbytes;
+	    }
+				
+		//average results
+	    results.append("\nAverage across all groups/colours: " +
+			   round(averageresults/3 * 100,5) );
+	    results.append("\nAverage approximate length across all groups/colours: " + 
+			   round(averagelength/3, 5) );
+	    results.append("\n\n\n");
+	}
+		
+		
+	//Laplace graph
+	if(mRunLaplaceGraph){
+	    results.append("LAPLACE GRAPH (CSV formatted)\n" 
+			   + "==============================\n\n");
+	    results.append(LaplaceGraph.getCSVGraph(stego));			
+	}
+		
+	//append some new lines to make it look nice
+	results.append("\n\n\n\n");
+		
+	mResultsString = results.toString();
+	return mResultsString;
+    }
+	
+	
+    /**
+     * Combines two directories into an output directory.
+     * <P>
+     * The output directory (tempdir) will have all the original
+     * images plus all the stegoimages copied into it.
+     * 
+     * @param messagedir The directory full of messages in (txt files).
+     * @param imagedir The directory full of images (png, jpg, bmp).
+     * @param tempdir The directory to write the results to.
+     * @param algorithm The algorithm to use to combine the messages and
+     * images with.
+     * @throws IllegalArgumentException If any directories are null.
+     * @return A string full of skipped files.
+     */
+    public String createCombineDirectories(File messagedir, File imagedir,
+					   File tempdir,
+					   StegoAlgorithm algorithm)
+	throws IllegalArgumentException{
+		
+	if(!messagedir.isDirectory() || !imagedir.isDirectory() ||
+	   !tempdir.isDirectory()){
+	    throw new IllegalArgumentException
+		("All passed files must be directories!");
+	}
+		
+	StringBuffer errors = new StringBuffer("Errors: \n========\n\n");
+		
+	//the algorithm has been set up already, so every combination
+	//gets a copy of it
+	String name = algorithm.getClass().getName().toLowerCase().substring
+	    (algorithm.getClass().getName().lastIndexOf(".") + 1,
+	     algorithm.getClass().getName().length());
+	CombineBatch batch = new CombineBatch(tempdir, "png",
+					      Runtime.getRuntime().availableProcessors());
+	batch.addAlgorithm(name, algorithm);
+	try{
+	    errors.append(batch.run(imagedir, messagedir));
+	}catch(InterruptedException ie){
+	    errors.append("Error: Combining was interrupted\n");
+	}
+		
+	//now we have a folder full of images - copy in the source files...
+	try{
+	    TestingUtils.copyIntoTempFolder(imagedir, tempdir, tempdir);
+	}catch(Exception e2){
+	    //do nothing
+	}		
+		
+	return errors.toString();
+    }
+	
+	
+    /**
+     * Generates a CSV formatted string of steganalysis information.
+     * <P>
+     * The directory passed has all it's image files steganalysed and
+     * the results are returned in a comma separated file format. No spaces
+     * are used in column headings, and all bar the steganography type are
+     * numerical values.  Images that can't be read or steganalysed are
+     * left out of the table altogether, rather than given a partly 
+     * filled in row.
+     * 
+     * @param directory The directory to steganalyse.
+     * @param laplacelimit The number of laplace values to write out in total.
+     * @return A string containing a csv file of results.
+     * @throws IllegalStateException If the steganalysis was interrupted.
+     */
+    public String getCSV(File directory, int laplacelimit){
+	BufferWriter writer = new BufferWriter();
+	try{
+	    this.writeCSV(directory, laplacelimit, writer);
+	}catch(InterruptedIOException iioe){
+	    //the interrupt is still set, but the table isn't finished
+	    throw new IllegalStateException(iioe.getMessage(), iioe);
+	}catch(IOException ioe){
+	    //can't happen in memory
+	}
+	return writer.toString();
+    }
+	
+	
+    /**
+     * Writes CSV formatted steganalysis information out a row at a time.
+     * <P>
+     * This is the same information as getCSV() makes, but each row is
+     * handed to the writer as soon as its image has been steganalysed,
+     * rather than the whole file being kept in memory.  Any images the
+     * writer already has a row for are skipped.
+     *
+     * @param directory The directory to steganalyse.
+     * @param laplacelimit The number of laplace values to write out in total.
+     * @param writer Where to write the rows to.
+     * @throws IOException If the rows could not be written.
+     */
+    public void writeCSV(File directory, int laplacelimit, 
+			 FeatureWriter writer) throws IOException{
+		
+	//output progress to console
+	System.out.print("\n\nCSV Progress: {");
+	String[] files = directory.list();
+	try{
+	    writer.start(this.getCSVHeader(laplacelimit));
+	    this.writeRows(directory, files, laplacelimit, false, writer);
+	    writer.finish("\n");
+	}finally{
+	    writer.close();
+	}
+    }
+	
+	
+    /**
+     * Gets the headings for a CSV file.
+     *
+     * @param laplacelimit The number of laplace values to write out in total.
+     * @return The headings, ending in a new line.
+     */
+    private String getCSVHeader(int laplacelimit){
+	StringBuffer csv = new StringBuffer();
+		
+	//add all the headings
+	if(mRunRSAnalysis){
+	    RSAnalysis rsa = new RSAnalysis(2,2);
+	    String rflag = "(rs overlapping)";
+	    String colour;
+			
+	    //overlapping
+	    for(int i = 0; i < 3; i++){
+		Enumeration rnames = rsa.getResultNames();
+		//get the right colour
+		if(i == 0)
+		    colour = " red ";
+		else if(i == 1)
+		    colour = " green ";
+		else
+		    colour = " blue ";
+		while(rnames.hasMoreElements()){
+		    String aname = (String) rnames.nextElement();
+		    String towrite = aname + colour + rflag + ",";
+		    towrite = towrite.replace(' ', '-');
+		    csv.append(towrite);
+		}
+	    }
+			
+	    //non overlapping
+	    rflag = "(rs non-overlapping)";
+	    for(int i = 0; i < 3; i++){
+		Enumeration rnames = rsa.getResultNames();
+		//get the right colour
+		if(i == 0)
+		    colour = " red ";
+		else if(i == 1)
+		    colour = " green ";
+		else
+		    colour = " blue ";
+		while(rnames.hasMoreElements()){
+		    String aname = (String) rnames.nextElement();
+		    String towrite = aname + colour + rflag + ",";
+		    towrite = towrite.replace(' ', '-');
+		    csv.append(towrite);
+		}
+	    }
+			
+	}
+	if(mRunSamplePairs){
+	    String colour;
+			
+	    //overlapping
+	    for(int i = 0; i < 3; i++){
+		//get the right colour
+		if(i == 0)
+		    colour = "-red-";
+		else if(i == 1)
+		    colour = "-green-";
+		else
+		    colour = "-blue-";
+		csv.append("SP-Percentage" + colour + ",");
+		csv.append("SP-Approximate-Bytes" + colour + ",");
+	    }			
+	}
+	if(mRunLaplaceGraph){
+	    for(int i = 0; i < laplacelimit; i++){
+		csv.append("Laplace-value-" + i + ",");
+	    }
+	}
+	csv.append("Steganography-Type,Image-Name\n");
+	return csv.toString();
+    }
+	
+	
+    /**
+     * Creates an ARFF file of steganography information.
+     * <P>
+     * An ARFF file is the natural internal format for WEKA - Waikato
+     * Environment for Knowledge Analysis.  WEKA can also handle CSV
+     * files but it is much nicer to be able to produce the natural format.
+     * The same information as per the CSV generator is produced here, just
+     * in a different format, and images that can't be read or 
+     * steganalysed are left out in the same way.
+     * 
+     * @param directory The directory to steganalyse.
+     * @param laplacelimit The maximum number of laplace values to output.
+     * @param relationname The internal name of the relation as it will be
+     * seen in WEKA.
+     * @return An ARFF formatted file full of the steganalysis information.
+     * @throws IllegalStateException If the steganalysis was interrupted.
+     * @see www.cs.waikato.ac.nz/ml/weka
+     * 
+     */
+    public String getARFF(File directory, int laplacelimit, String relationname){
+	BufferWriter writer = new BufferWriter();
+	try{
+	    this.writeARFF(directory, laplacelimit, relationname, writer);
+	}catch(InterruptedIOException iioe){
+	    //the interrupt is still set, but the table isn't finished
+	    throw new IllegalStateException(iioe.getMessage(), iioe);
+	}catch(IOException ioe){
+	    //can't happen in memory
+	}
+	return writer.toString();
+    }
+	
+	
+    /**
+     * Writes an ARFF file of steganography information out a row at a time.
+     * <P>
+     * This is the same information as getARFF() makes, but each row is
+     * handed to the writer as soon as its image has been steganalysed,
+     * rather than the whole file being kept in memory.  Any images the
+     * writer already has a row for are skipped.
+     *
+     * @param directory The directory to steganalyse.
+     * @param laplacelimit The maximum number of laplace values to output.
+     * @param relationname The internal name of the relation as it will be
+     * seen in WEKA.
+     * @param writer Where to write the rows to.
+     * @throws IOException If the rows could not be written.
+     */
+    public void writeARFF(File directory, int laplacelimit, 
+			  String relationname, FeatureWriter writer)
+	throws IOException{
+		
+	//output progress to console
+	System.out.print("\n\nARFF Progress: {");
+	String[] files = directory.list();
+	try{
+	    writer.start(this.getARFFHeader(laplacelimit, relationname, files));
+	    this.writeRows(directory, files, laplacelimit, true, writer);
+	    writer.finish("");
+	}finally{
+	    writer.close();
+	}
+    }
+	
+	
+    /**
+     * Gets the header of an ARFF file.
+     *
+     * @param laplacelimit The maximum number of laplace values to output.
+     * @param relationname The internal name of the relation as it will be
+     * seen in WEKA.
+     * @param files The files in the directory being steganalysed.
+     * @return The header, ending in a new line.
+     */
+    private String getARFFHeader(int laplacelimit, String relationname,
+				 String[] files){
+	StringBuffer arff = new StringBuffer();
+		
+	arff.append("% Steganography Benchmarking Data\n%\n");
+	arff.append("% Sourced from automatic generation in Digital Invisible Ink Toolkit\n");
+	arff.append("% Generator created by Kathryn Hempstalk.\n");
+	arff.append("% Generator copyright under the Gnu General Public License, 2005\n");
+	arff.append("\n");
+		
+	arff.append("\n@relation '" + relationname + "'\n\n");
+		
+		
+	//add all the headings
+	if(mRunRSAnalysis){
+	    RSAnalysis rsa = new RSAnalysis(2,2);
+	    String rflag = "(rs overlapping)";
+	    String colour;
+			
+	    //overlapping
+	    for(int i = 0; i < 3; i++){
+		Enumeration rnames = rsa.getResultNames();
+		//get the right colour
+		if(i == 0)
+		    colour = " red ";
+		else if(i == 1)
+		    colour = " green ";
+		else
+		    colour = " blue ";
+		while(rnames.hasMoreElements()){
+		    String aname = (String) rnames.nextElement();
+		    String towrite = aname + colour + rflag;
+		    arff.append("@attribute '" + towrite + "' numeric\n");
+		}
+	    }
+			
+	    //non overlapping
+	    rflag = "(rs non-overlapping)";
+	    for(int i = 0; i < 3; i++){
+		Enumeration rnames = rsa.getResultNames();
+		//get the right colour
+		if(i == 0)
+		    colour = " red ";
+		else if(i == 1)
+		    colour = " green ";
+		else
+		    colour = " blue ";
+		while(rnames.hasMoreElements()){
+		    String aname = (String) rnames.nextElement();
+		    String towrite = aname + colour + rflag;
+		    arff.append("@attribute '" + towrite + "' numeric\n");
+		}
+	    }
+			
+	}
+	if(mRunSamplePairs){
+	    String colour;
+			
+	    //overlapping
+	    for(int i = 0; i < 3; i++){
+		//get the right colour
+		if(i == 0)
+		    colour = " red ";
+		else if(i == 1)
+		    colour = " green ";
+		else
+		    colour = " blue ";
+		arff.append("@attribute 'SP Percentage" + colour + "' numeric\n");
+		arff.append("@attribute 'SP Approximate Bytes" + colour + "' numeric\n");
+	    }
+	}
+	if(mRunLaplaceGraph){
+	    for(int i = 0; i < laplacelimit; i++){
+		arff.append("@attribute 'Laplace value " + i + "' numeric\n");
+	    }
+	}
+		
+		
+	arff.append("@attribute 'Steganography Type' {");
+	//iterate through all the hashmap values...
+	HashMap stegotypes = getStegTypes(files);
+	Object[] valuesarray = stegotypes.values().toArray();
+	arff.append( (String) valuesarray[0]);
+	for(int i = 1; i < valuesarray.length; i++){
+	    arff.append("," + (String)valuesarray[i]);
+	}
+	arff.append("}\n");
+	arff.append("@attribute 'Image Name' string\n");
+		
+		
+	arff.append("\n@data\n");
+	return arff.toString();
+    }
+	
+	
+    /**
+     * Steganalyses each image in a directory, and writes out a row for it.
+     * <P>
+     * The images go through three stages at once.  A small pool of
+     * threads reads the images, a pool with one thread for each 
+     * processor steganalyses them, and this thread writes the rows out
+     * in the same order as the files are listed.  Only a few images are
+     * let into the stages at a time (two for each analysing thread), so
+     * only that many decoded images are ever in memory - the next image
+     * isn't started until the oldest one has been written.
+     * <P>
+     * If there is a cache, images that are in it are only read to find
+     * their key, or not at all if their file hasn't changed.
+     * <P>
+     * Images the writer already has a row for are skipped, as are any 
+     * images that can't be read.
+     *
+     * @param directory The directory to steganalyse.
+     * @param files The files in the directory.
+     * @param laplacelimit The maximum number of laplace values to output.
+     * @param arff Whether the rows are for an ARFF file (rather than CSV).
+     * @param writer Where to write the rows to.
+     * @throws IOException If a row could not be written, or the 
+     * steganalysis was interrupted.
+     */
+    private void writeRows(File directory, String[] files, int laplacelimit,
+			   boolean arff, FeatureWriter writer)
+	throws IOException{
+	int fivepercent = (int)Math.floor(files.length / 20);
+		
+	//work out which files need a row
+	Vector<Integer> towork = new Vector<Integer>();
+	for (int i = 0; i < files.length; i++) {
+	    if ((files[i].endsWith(".bmp") || files[i].endsWith(".png")
+		 || files[i].endsWith(".jpg")) && !writer.isDone(files[i]))
+		towork.add(Integer.valueOf(i));
+	}
+		
+	//split the threads between the images, and within each image
+	int analysers = Math.max(1, Math.min(mThreads, towork.size()));
+	int decoders = Math.max(1, Math.min(MAX_DECODERS, analysers / 2));
+	int window = analysers * 2;
+	int imagethreads = Math.max(1, mThreads / analysers);
+	ThreadPoolExecutor decodepool = new ThreadPoolExecutor(decoders,
+			decoders, 0, TimeUnit.MILLISECONDS, 
+			new ArrayBlockingQueue<Runnable>(window));
+	ThreadPoolExecutor analysepool = new ThreadPoolExecutor(analysers,
+			analysers, 0, TimeUnit.MILLISECONDS, 
+			new ArrayBlockingQueue<Runnable>(window));
+		
+	int printed = 0;
+	try{
+	    LinkedList<AnalysisJob> inflight = new LinkedList<AnalysisJob>();
+	    int next = 0;
+	    while(next < towork.size() || !inflight.isEmpty()){
+				
+		//let more images in while there is room
+		while(next < towork.size() && inflight.size() < window){
+		    int i = towork.get(next++).intValue();
+		    AnalysisJob job = new AnalysisJob(directory, i, files[i],
+						      laplacelimit, arff, 
+						      imagethreads, analysepool);
+		    inflight.addLast(job);
+		    decodepool.execute(job);
+		}
+				
+		//write out the oldest image
+		AnalysisJob oldest = inflight.removeFirst();
+		String row = oldest.getRow();
+		if(row != null)
+		    writer.writeRow(oldest.getFileName(), row);
+				
+		//print progress
+		printed = printProgress(printed, oldest.getIndex(), fivepercent);
+	    }
+	}catch(InterruptedException ie){
+	    Thread.currentThread().interrupt();
+	    throw new InterruptedIOException("Steganalysis was interrupted!");
+	}finally{
+	    decodepool.shutdownNow();
+	    analysepool.shutdownNow();
+	}
+		
+	//all done, including any skipped files at the end
+	printProgress(printed, files.length - 1, fivepercent);
+	System.out.println("} Complete!");
+    }
+	
+	
+    /**
+     * Prints a # for every five percent of the files that have been 
+     * gone through.
+     *
+     * @param printed The file the last # was printed for.
+     * @param index The file that has just been gone through.
+     * @param fivepercent The number of files in five percent.
+     * @return The file the last # has now been printed for.
+     */
+    private int printProgress(int printed, int index, int fivepercent){
+	if(fivepercent > 0){
+	    while(printed + fivepercent <= index){
+		printed += fivepercent;
+		System.out.print("#");
+	    }
+	}
+	return printed;
+    }
+	
+	
+    /**
+     * Gets the features of an image, from the cache if they are there.
+     * <P>
+     * Any steganalysis that the cache doesn't have results for is run,
+     * and the results are put in the cache for next time.
+     *
+     * @param image The image to steganalyse.
+     * @param imagefile The file the image was read from.
+     * @param threads The number of threads to steganalyse the image with.
+     * @return The features of the image.
+     * @throws Exception If the image could not be steganalysed.
+     */
+    private ImageFeatures getFeatures(BufferedImage image, File imagefile,
+				      int threads) throws Exception{
+	ImageFeatures features = null;
+	String key = null;
+	if(mCache != null){
+	    key = mCache.getKey(image);
+	    features = mCache.get(key);
+	}
+	if(features == null)
+	    features = new ImageFeatures(image.getWidth(), image.getHeight());
+	if(mCache != null && this.hasFeatures(features)){
+	    mCache.putKey(imagefile, key);
+	    return features;
+	}
+		
+	//run RS analysis
+	if(mRunRSAnalysis && features.getRS() == null){
+	    RSAnalysis rsa = new RSAnalysis(2,2);
+	    rsa.setThreads(threads);
+	    features.setRS(rsa.doAnalysis(image));
+	}
+		
+	//run Sample Pairs
+	if(mRunSamplePairs && features.getSamplePairs() == null){
+	    SamplePairs sp = new SamplePairs();
+	    sp.setThreads(threads);
+	    features.setSamplePairs(sp.doAnalysis(image));
+	}
+		
+	//run LaplaceGraph
+	if(mRunLaplaceGraph && features.getLaplace() == null)
+	    features.setLaplace(LaplaceGraph.getGraph(image, threads));
+		
+	if(mCache != null){
+	    mCache.put(key, features);
+	    mCache.putKey(imagefile, key);
+	}
+	return features;
+    }
+	
+	
+    /**
+     * Gets whether some features have the results of every kind of 
+     * steganalysis being run.
+     *
+     * @param features The features of an image.
+     * @return True if nothing needs to be run.
+     */
+    private boolean hasFeatures(ImageFeatures features){
+	return (!mRunRSAnalysis || features.getRS() != null)
+	    && (!mRunSamplePairs || features.getSamplePairs() != null)
+	    && (!mRunLaplaceGraph || features.getLaplace() != null);
+    }
+	
+	
+    /**
+     * Gets the row of results for an image.
+     *
+     * @param features The features of the image.
+     * @param file The file name of the image.
+     * @param laplacelimit The maximum number of laplace values to output.
+     * @param arff Whether the row is for an ARFF file (rather than CSV).
+     * @return The row of results, without a new line on the end.
+     */
+    private String getRow(ImageFeatures features, String file, 
+			  int laplacelimit, boolean arff){
+	StringBuffer row = new StringBuffer();
+	String flag;
+		
+	//RS analysis
+	if(mRunRSAnalysis){
+	    double[][][] rsresults = features.getRS();
+			
+	    //overlapping
+	    for(int j = 0; j < 3; j++){
+		double[] testresults = rsresults[1][j];
+				
+		for(int k = 0; k < testresults.length; k++){
+		    row.append(testresults[k] + ",");
+		}
+	    }
+	    //non-overlapping
+	    for(int j = 0; j < 3; j++){
+		double[] testresults = rsresults[0][j];
+				
+		for(int k = 0; k < testresults.length; k++){
+		    row.append(testresults[k] + ",");
+		}
+	    }
+	}
+		
+	//Sample Pairs
+	if(mRunSamplePairs){
+	    //overlapping
+	    for(int j = 0; j < 3; j++){
+		double estimatedlength = features.getSamplePairs()[j];
+		double numbytes;
+		if(arff)
+		    numbytes = ((features.getHeight() * features.getWidth() * 3)/8)
+			* (estimatedlength / 100);
+		else
+		    numbytes = ((features.getHeight() * features.getWidth() * 3)/8)
+			* estimatedlength;
+		row.append(estimatedlength + "," + numbytes + ",");
+	    }
+	}
+		
+	//LaplaceGraph
+	if(mRunLaplaceGraph){
+	    double[][] lgres = features.getLaplace();
+			
+	    for(int j = 0; j < laplacelimit; j++){
+		if(lgres.length <= laplacelimit && j >= lgres.length){
+		    row.append("0,");
+		}else{
+		    if(lgres[j][0] != j)
+			row.append("0,");
+		    else
+			row.append(lgres[j][1] + ",");
+		}
+	    }
+	}
+		
+	if(file.indexOf("_") >= 0 || file.indexOf("-") >= 0){
+	    if(file.indexOf("_") >= 0)
+		flag = file.substring(file.indexOf("_") + 1, file.lastIndexOf("."));
+	    else
+		flag = file.substring(file.indexOf("-") + 1, file.lastIndexOf("."));
+	}else
+	    flag = "none";
+		
+	row.append(flag);
+	//append in the file name
+	row.append("," + file);
+		
+	if(row.charAt(row.length() - 1) == ',')
+	    row.deleteCharAt(row.length() - 1);
+	return row.toString();
+    }
+	
+	
+	
+    /**
+     * Gets a map of all the steganography types in a 
+     * given list of files.
+     * <P>
+     * A steganography type is the word between an underscore or hyphen and
+     * the final dot in the file. None is added by default.  If there is no
+     * hyphen/underscore then no steg type will be added.
+     *
+     * @param filelist The list of files.
+     * @return A hashmap full of steganography names.
+     */
+    private HashMap getStegTypes(String[] files){
+	HashMap stegotypes = new HashMap();
+	stegotypes.put("none","none");
+	String stegtype = "";
+	for (int i = 0; i < files.length; i++) {
+	    if (files[i].endsWith(".bmp") || files[i].endsWith(".png")) {
+		//also add in the stego type
+		if(files[i].indexOf("_") >= 0){
+		    //steg type detected...
+		    stegtype = files[i].substring
+			(files[i].indexOf("_") + 1, files[i].lastIndexOf("."));
+		    stegotypes.put(stegtype, stegtype);
+		}
+		else if (files[i].indexOf("-") >= 0){
+		    //steg type detected...
+		    stegtype = files[i].substring
+			(files[i].indexOf("-") + 1, files[i].lastIndexOf("."));
+		    stegotypes.put(stegtype, stegtype);
+		}
+	    }			
+	}
+		
+	return stegotypes;
+    }
+	
+	
+	
+    /**
+     * Sets the cache to keep the features of each image in.  Images in
+     * the cache aren't steganalysed again when a directory is.
+     *
+     * @param cache The cache, or null to not use one (the default).
+     */
+    public void setCache(FeatureCache cache){
+	mCache = cache;
+    }
+	
+	
+    /**
+     * Gets the cache the features of each image are kept in.
+     *
+     * @return The cache, or null if there isn't one.
+     */
+    public FeatureCache getCache(){
+	return mCache;
+    }
+	
+	
+    /**
+     * Sets the number of threads to steganalyse with.  By default, 
+     * there is one thread for each processor.
+     *
+     * @param threads The number of threads.
+     * @throws IllegalArgumentException If there are no threads.
+     */
+    public void setThreads(int threads) throws IllegalArgumentException{
+	if(threads < 1)
+	    throw new IllegalArgumentException
+		("There must be at least one thread!");
+	mThreads = threads;
+    }
+	
+	
+    /**
+     * Gets the number of threads to steganalyse with.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads(){
+	return mThreads;
+    }
+	
+	
+    /**
+     * Returns the last results of this steg analyser.
+     *
+     * @return The last results.
+     */
+    public String toString(){
+	return mResultsString;
+    }
+	
+	
+    /**
+     * Rounds to the specified number of decimal places.
+     *
+     * @param number The number to round.
+     * @param places The number of decimal places to round to.
+     * @return The rounded number.
+     */
+    public double round(double number, int places){
+	double multiple = Math.pow(10, places);
+	number = number * multiple;
+	long num2 = Math.round(number);
+	number = num2 / multiple;
+		
+	if(number < 0.000000000001)
+	    return 0;
+	return number;
+    }
+	
+	
+    //VARIABLES
+	
+    /**
+     * A string holding the results of all the steganalysis.
+     */
+    private String mResultsString;
+	
+    /**
+     * Whether to run RS Analysis.
+     */
+    private boolean mRunRSAnalysis;
+	
+    /**
+     * Whether to run Sample Pairs.
+     */
+    private boolean mRunSamplePairs;
+	
+    /**
+     * Whether to run a Laplace Graph.
+     */
+    private boolean mRunLaplaceGraph;
+	
+    /**
+     * The number of threads to steganalyse with.
+     */
+    private int mThreads;
+	
+    /**
+     * The cache of image features, if there is one.
+     */
+    private FeatureCache mCache;
+	
+    /**
+     * The most threads used to read images in a directory.
+     */
+    private static final int MAX_DECODERS = 4;
+	
+}
+//end of class.
@@ -0,0 +1,45 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+/**
+ * A benchmark that can also be worked out from the sums of the pixels
+ * of the two images, so several benchmarks can share one pass over the
+ * images.
+ *
+ * @author Kathryn Hempstalk
+ */
+public interface SumBenchmark extends Benchmark{
+	
+	/**
+	 * Calculates out the value of the benchmark from the sums of the
+	 * pixels.  This gives the same value as calculate() on the images
+	 * the sums were made from.
+	 *
+	 * @param sums The sums of the pixels of the two images.
+	 * @return A benchmark value on how well hidden the information
+	 * is in the stego image.
+	 */
+	public double calculate(PixelSums sums);
+	
+	
+}
+//end of interface.
@@ -0,0 +1,227 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.filters;
+
+import java.util.Arrays;
+
+
+/**
+ * The red, green and blue colours of a band of rows, each in its own
+ * array (plane).
+ * <P>
+ * Each plane has a border of zeros one pixel wide all the way around
+ * it, so the pixels next to any pixel in the band can be read without
+ * checking if they are off the edge of the image - a missing pixel
+ * just reads as zero, which is what the filters use for them anyway.
+ * This lets the filters work through a row with one plain loop of
+ * integer sums, which the JIT compiler can turn into vector
+ * instructions.
+ * <P>
+ * The rows just above and below the band (its halo) are copied in too,
+ * if they are in the image.  The planes only hold a few rows at a 
+ * time, and are loaded again for each band.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ChannelPlanes{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates the colour planes for an image.  No rows are loaded
+	 * until load() is called.
+	 *
+	 * @param pixels The masked pixels of the image, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 */
+	public ChannelPlanes(int[] pixels, int width, int height){
+		mPixels = pixels;
+		mWidth = width;
+		mHeight = height;
+		mStride = width + 2;
+		mStartY = 0;
+		mEndY = 0;
+		
+		//one row of border (or halo) above and below the band
+		int size = (BAND_ROWS + 2) * mStride;
+		mRed = new int[size];
+		mGreen = new int[size];
+		mBlue = new int[size];
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Loads the next band of rows into the planes.  At most BAND_ROWS
+	 * rows are loaded, so the planes stay small enough to be kept in
+	 * the processor's cache.
+	 *
+	 * @param starty The first row of the band.
+	 * @param endy The row to stop loading at.
+	 * @return The row after the last one loaded.
+	 */
+	public int load(int starty, int endy){
+		mStartY = starty;
+		mEndY = Math.min(endy, starty + BAND_ROWS);
+		
+		//rows off the image read as zero
+		for(int y = starty - 1; y <= mEndY; y++){
+			int out = this.getOffset(0, y);
+			if(y < 0 || y >= mHeight){
+				Arrays.fill(mRed, out, out + mWidth, 0);
+				Arrays.fill(mGreen, out, out + mWidth, 0);
+				Arrays.fill(mBlue, out, out + mWidth, 0);
+				continue;
+			}
+			int in = y * mWidth;
+			for(int x = 0; x < mWidth; x++){
+				int pixel = mPixels[in + x];
+				mRed[out + x] = (pixel >> 16) & 0xff;
+				mGreen[out + x] = (pixel >> 8) & 0xff;
+				mBlue[out + x] = pixel & 0xff;
+			}
+		}
+		return mEndY;
+	}
+	
+	/**
+	 * Gets the row after the band that is loaded.
+	 *
+	 * @return The row after the band.
+	 */
+	public int getEndY(){
+		return mEndY;
+	}
+	
+	/**
+	 * Gets where a pixel is in the planes.  The pixel to the left
+	 * is one before this, and the pixel above is one stride before it.
+	 *
+	 * @param x The x position of the pixel in the image.
+	 * @param y The y position of the pixel in the image.
+	 * @return The position of the pixel in each plane.
+	 */
+	public int getOffset(int x, int y){
+		return ((y - mStartY + 1) * mStride) + x + 1;
+	}
+	
+	/**
+	 * Gets the distance between one row and the next in the planes.
+	 *
+	 * @return The stride of the planes.
+	 */
+	public int getStride(){
+		return mStride;
+	}
+	
+	/**
+	 * Gets the width of the image.
+	 *
+	 * @return The width of the image.
+	 */
+	public int getWidth(){
+		return mWidth;
+	}
+	
+	/**
+	 * Gets the red plane.
+	 *
+	 * @return The red colour of each pixel.
+	 */
+	public int[] getRed(){
+		return mRed;
+	}
+	
+	/**
+	 * Gets the green plane.
+	 *
+	 * @return The green colour of each pixel.
+	 */
+	public int[] getGreen(){
+		return mGreen;
+	}
+	
+	/**
+	 * Gets the blue plane.
+	 *
+	 * @return The blue colour of each pixel.
+	 */
+	public int[] getBlue(){
+		return mBlue;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The most rows loaded into the planes at once.
+	 */
+	public static final int BAND_ROWS = 16;
+	
+	/**
+	 * The masked pixels of the image.
+	 */
+	private int[] mPixels;
+	
+	/**
+	 * The width of the image.
+	 */
+	private int mWidth;
+	
+	/**
+	 * The height of the image.
+	 */
+	private int mHeight;
+	
+	/**
+	 * The distance between one row and the next in the planes.
+	 */
+	private int mStride;
+	
+	/**
+	 * The first row of the band.
+	 */
+	private int mStartY;
+	
+	/**
+	 * The row after the band.
+	 */
+	private int mEndY;
+	
+	/**
+	 * The red plane.
+	 */
+	private int[] mRed;
+	
+	/**
+	 * The green plane.
+	 */
+	private int[] mGreen;
+	
+	/**
+	 * The blue plane.
+	 */
+	private int[] mBlue;
+	
+}
+//end of class.
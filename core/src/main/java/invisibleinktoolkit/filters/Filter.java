@@ -83,4 +83,13 @@ public interface Filter{
 	 */
 	public int getEndRange();
 	
+	/**
+	 * Makes a new filter of the same kind over the same range of bits.
+	 * The copy has no image, so it can be used at the same time as this
+	 * filter.
+	 *
+	 * @return A copy of this filter.
+	 */
+	public Filter copy();
+	
 }
@@ -0,0 +1,254 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.filters;
+
+import invisibleinktoolkit.util.TaskPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Filters whole images on several threads.
+ * <P>
+ * The image is split into bands of rows, and each band is filtered
+ * on its own thread.  A band reads the rows just above and below it
+ * (its halo) straight from the shared pixels, which are never 
+ * changed, and only writes its own values - so the result is exactly
+ * the same as filtering the image in one go.
+ * <P>
+ * The bands run on the shared {@link TaskPool}, so the number of 
+ * threads only decides how many bands the image is split into.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FilterExecutor{
+	
+	//INNER CLASS
+	
+	/**
+	 * A band of rows to filter, which splits itself in half until it
+	 * is small enough.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private static class BandTask extends RecursiveAction{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new band to filter.
+		 *
+		 * @param filter The filter to use.
+		 * @param pixels The masked pixels of the image.
+		 * @param width The width of the image.
+		 * @param height The height of the image.
+		 * @param values The array to put the filter values in.
+		 * @param starty The first row of the band.
+		 * @param endy The row after the band.
+		 * @param bandrows The most rows to filter without splitting.
+		 */
+		public BandTask(RowFilter filter, int[] pixels, int width,
+				int height, int[] values, int starty, int endy, 
+				int bandrows){
+			mFilter = filter;
+			mPixels = pixels;
+			mWidth = width;
+			mHeight = height;
+			mValues = values;
+			mStartY = starty;
+			mEndY = endy;
+			mBandRows = bandrows;
+		}
+		
+		
+		//FUNCTIONS
+		
+		/**
+		 * Filters the band, or splits it between two new bands.
+		 */
+		protected void compute(){
+			if(mEndY - mStartY > mBandRows){
+				int middle = (mStartY + mEndY) >>> 1;
+				invokeAll(new BandTask(mFilter, mPixels, mWidth, mHeight,
+							mValues, mStartY, middle, mBandRows),
+						new BandTask(mFilter, mPixels, mWidth, mHeight,
+							mValues, middle, mEndY, mBandRows));
+			}else{
+				mFilter.filterRows(mPixels, mWidth, mHeight, mValues,
+						mStartY, mEndY);
+			}
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * Serialisation version.
+		 */
+		private static final long serialVersionUID = 0;
+		
+		/**
+		 * The filter to use.
+		 */
+		private RowFilter mFilter;
+		
+		/**
+		 * The masked pixels of the image.
+		 */
+		private int[] mPixels;
+		
+		/**
+		 * The width of the image.
+		 */
+		private int mWidth;
+		
+		/**
+		 * The height of the image.
+		 */
+		private int mHeight;
+		
+		/**
+		 * The array to put the filter values in.
+		 */
+		private int[] mValues;
+		
+		/**
+		 * The first row of the band.
+		 */
+		private int mStartY;
+		
+		/**
+		 * The row after the band.
+		 */
+		private int mEndY;
+		
+		/**
+		 * The most rows to filter without splitting.
+		 */
+		private int mBandRows;
+		
+	}
+	//end of inner class.
+	
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new filter executor.
+	 *
+	 * @param threads The number of threads to split the image for - 1
+	 * filters on the calling thread.
+	 * @throws IllegalArgumentException If there are no threads.
+	 */
+	public FilterExecutor(int threads) throws IllegalArgumentException{
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		mThreads = threads;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Works out the filter values for a whole image.
+	 *
+	 * @param filter The filter to use.
+	 * @param pixels The masked pixels of the image, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param values The array to put the filter values in.
+	 */
+	public void filter(RowFilter filter, int[] pixels, int width, 
+			int height, int[] values){
+		
+		//small images aren't worth handing out
+		if(mThreads == 1 || pixels.length < MIN_PIXELS){
+			filter.filterRows(pixels, width, height, values, 0, height);
+			return;
+		}
+		
+		//a few bands a thread, so they finish at about the same time
+		int bandrows = Math.max(MIN_ROWS, 
+				(height + (mThreads * 4) - 1) / (mThreads * 4));
+		TaskPool.invoke(new BandTask(filter, pixels, width, height,
+				values, 0, height, bandrows));
+	}
+	
+	
+	/**
+	 * Gets the number of threads this filters with.
+	 *
+	 * @return The number of threads.
+	 */
+	public int getThreads(){
+		return mThreads;
+	}
+	
+	
+	/**
+	 * Gets the executor the filters use.  By default this uses one 
+	 * thread for each processor.
+	 *
+	 * @return The executor the filters use.
+	 */
+	public static synchronized FilterExecutor getDefault(){
+		if(mDefault == null)
+			mDefault = new FilterExecutor(
+					Runtime.getRuntime().availableProcessors());
+		return mDefault;
+	}
+	
+	
+	/**
+	 * Sets the executor the filters use.
+	 *
+	 * @param executor The new executor for the filters.
+	 */
+	public static synchronized void setDefault(FilterExecutor executor){
+		mDefault = executor;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The fewest pixels an image needs before it is filtered on 
+	 * several threads.
+	 */
+	private static final int MIN_PIXELS = 1 << 16;
+	
+	/**
+	 * The fewest rows in a band.
+	 */
+	private static final int MIN_ROWS = 8;
+	
+	/**
+	 * The executor the filters use.
+	 */
+	private static FilterExecutor mDefault;
+	
+	/**
+	 * The number of threads to filter with.
+	 */
+	private int mThreads;
+	
+}
+//end of class.
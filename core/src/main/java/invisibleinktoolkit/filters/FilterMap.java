@@ -0,0 +1,155 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.filters;
+
+import java.awt.image.BufferedImage;
+
+
+/**
+ * A map of the filter values for a whole image.
+ * <P>
+ * A filter keeps its map when it is given an image again, so the 
+ * values can be asked for more than once (say to work out the space
+ * in an image, then to hide in it, then to retrieve from it) while 
+ * only filtering the image the first time.  The map is only used 
+ * again for the same image, with the same bits being filtered, when
+ * a hash of the masked pixels - worked out as they are read - is the
+ * same as last time.  Hiding only changes the bits that aren't 
+ * filtered, so the map stays good while a message is hidden.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FilterMap{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new, empty, filter map.
+	 */
+	public FilterMap(){
+		mImage = null;
+		mValues = null;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the filter values of every pixel in an image, only 
+	 * filtering it if the map doesn't already have them.
+	 *
+	 * @param filter The filter to use.
+	 * @param image The image to filter.
+	 * @param mask The mask for each colour, so only the bits being
+	 * filtered are left.
+	 * @return The filter values, in scan lines.
+	 */
+	public int[] getValues(RowFilter filter, BufferedImage image, 
+			int mask){
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+		
+		//mask the pixels, and hash them on the way through
+		int colourmask = (mask << 16) | (mask << 8) | mask;
+		long hash = HASH_START;
+		for(int i = 0; i < pixels.length; i++){
+			pixels[i] = pixels[i] & colourmask;
+			hash = (hash ^ pixels[i]) * HASH_PRIME;
+		}
+		
+		if(mValues == null || image != mImage || mask != mMask 
+				|| hash != mHash){
+			int[] values = new int[pixels.length];
+			FilterExecutor.getDefault().filter(filter, pixels, width, 
+					height, values);
+			mImage = image;
+			mMask = mask;
+			mHash = hash;
+			mValues = values;
+		}
+		return mValues;
+	}
+	
+	/**
+	 * Sets the image for a filter, and gets the filter values of every
+	 * pixel in it.
+	 * <P>
+	 * Row filters work out all the values at once, or give back the 
+	 * ones they already have for the image.  Any other filter is asked
+	 * for the value of each pixel in turn.
+	 *
+	 * @param filter The filter to use.
+	 * @param image The image to filter.
+	 * @return The filter values of the image, in scan lines.
+	 * @throws Exception If the image could not be filtered.
+	 */
+	public static int[] filterImage(Filter filter, BufferedImage image)
+	throws Exception{
+		filter.setImage(image);
+		if(filter instanceof RowFilter)
+			return ((RowFilter)filter).getValues();
+		
+		int width = image.getWidth();
+		int height = image.getHeight();
+		int[] values = new int[width * height];
+		for(int y = 0; y < height; y++){
+			for(int x = 0; x < width; x++)
+				values[(y * width) + x] = filter.getValue(x, y);
+		}
+		return values;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The starting value of the pixel hash (64 bit FNV).
+	 */
+	private static final long HASH_START = 0xcbf29ce484222325L;
+	
+	/**
+	 * The multiplier for the pixel hash (64 bit FNV).
+	 */
+	private static final long HASH_PRIME = 0x100000001b3L;
+	
+	/**
+	 * The image the values are for.
+	 */
+	private BufferedImage mImage;
+	
+	/**
+	 * The mask used on the pixels.
+	 */
+	private int mMask;
+	
+	/**
+	 * The hash of the masked pixels.
+	 */
+	private long mHash;
+	
+	/**
+	 * The filter values, in scan lines.
+	 */
+	private int[] mValues;
+	
+}
+//end of class.
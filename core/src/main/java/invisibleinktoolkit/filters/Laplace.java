@@ -34,7 +34,7 @@ import java.awt.image.BufferedImage;
  *
  * @author Kathryn Hempstalk.
  */
-public class Laplace implements Filter{
+public class Laplace implements RowFilter{
 	
 	//CONSTRUCTORS
 	/**
@@ -75,6 +75,7 @@ public class Laplace implements Filter{
 		mStartRange = startbits;
 		mEndRange = endbits;
 		mImage = image;
+		mMap = new FilterMap();
 	}
 	
 	
@@ -140,6 +141,96 @@ public class Laplace implements Filter{
 	}
 	
 	
+	/**
+	 * Gets the filter values of every pixel in the image at once.
+	 *
+	 * @return The filter values of the whole image, in scan lines.
+	 * @throws Exception When the image isn't known.
+	 */
+	public int[] getValues() throws Exception{
+		
+		if(mImage == null)
+			throw new Exception("No image has been set!");
+		
+		//only filter again if the image or the filtered bits have changed
+		return mMap.getValues(this, mImage, this.getByteMask());
+	}
+	
+	
+	/**
+	 * Works out the filter values for some rows of an image.
+	 *
+	 * @param pixels The masked pixels of the image, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param values The array to put the filter values in.
+	 * @param starty The first row to filter.
+	 * @param endy The row to stop filtering at (not filtered).
+	 */
+	public void filterRows(int[] pixels, int width, int height,
+			int[] values, int starty, int endy){
+		
+		ChannelPlanes planes = new ChannelPlanes(pixels, width, height);
+		int[] red = planes.getRed();
+		int[] green = planes.getGreen();
+		int[] blue = planes.getBlue();
+		int stride = planes.getStride();
+		
+		//a few rows at a time, so the planes stay in the cache
+		for(int band = starty; band < endy; band = planes.getEndY()){
+			planes.load(band, endy);
+			
+			for(int y = band; y < planes.getEndY(); y++){
+				//(only count pixels that exist - missing ones read as zero)
+				int pixcount = 4;
+				if(y <= 0)
+					pixcount--;
+				if(y >= height - 1)
+					pixcount--;
+				
+				int in = planes.getOffset(0, y);
+				int out = y * width;
+				
+				//the middle of the row all has the same count
+				for(int x = 1; x < width - 1; x++){
+					values[out + x] = laplace(red, green, blue, in + x, stride,
+							pixcount);
+				}
+				
+				//then the ends of the row, which are missing a pixel
+				values[out] = laplace(red, green, blue, in, stride,
+						(width > 1) ? pixcount - 1 : pixcount - 2);
+				if(width > 1)
+					values[out + width - 1] = laplace(red, green, blue, 
+							in + width - 1, stride, pixcount - 1);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Works out the filter value for one pixel in a set of colour planes.
+	 *
+	 * @param red The red plane.
+	 * @param green The green plane.
+	 * @param blue The blue plane.
+	 * @param pos The position of the pixel in the planes.
+	 * @param stride The distance between rows in the planes.
+	 * @param pixcount The number of pixels around this one that exist.
+	 * @return The filter value of the pixel.
+	 */
+	private static int laplace(int[] red, int[] green, int[] blue,
+			int pos, int stride, int pixcount){
+		int reddiff = (red[pos] * pixcount) - (red[pos - 1] + red[pos + 1]
+				+ red[pos - stride] + red[pos + stride]);
+		int greendiff = (green[pos] * pixcount) - (green[pos - 1] 
+				+ green[pos + 1] + green[pos - stride] + green[pos + stride]);
+		int bluediff = (blue[pos] * pixcount) - (blue[pos - 1] 
+				+ blue[pos + 1] + blue[pos - stride] + blue[pos + stride]);
+		return Math.abs(reddiff) + Math.abs(greendiff) + Math.abs(bluediff);
+	}
+	
+	
 	/**
 	 * Gets the red content of a pixel.
 	 *
@@ -181,19 +272,11 @@ public class Laplace implements Filter{
 	 * @return An integer that is a mask for the pixel.
 	 */
 	protected int getByteMask(){
-		int abyte = 0, abyte2 = 0;
-		for(int i = 0; i < 8; i++){
-			byte bit;
-			if(i <= mEndRange && i >= mStartRange)
-				bit = 1;
-			else
-				bit = 0;
-			abyte = (byte)(abyte << 1 | bit);
-		}
-		for(int i = 0; i < 8; i++){
-			abyte2 = abyte2 << 1 | ((abyte >> i) & 0x1);
-		}
-		return abyte2;
+		int start = Math.max(mStartRange, 0);
+		int end = Math.min(mEndRange, 7);
+		if(start > end)
+			return 0;
+		return (0xff >> (7 - end)) & (0xff << start) & 0xff;
 	}
 	
 	/**
@@ -244,6 +327,17 @@ public class Laplace implements Filter{
 	}
 	
 	
+	/**
+	 * Makes a new Laplace filter over the same range of bits,
+	 * without an image.
+	 *
+	 * @return A copy of this filter.
+	 */
+	public Filter copy(){
+		return new Laplace(mStartRange, mEndRange);
+	}
+	
+	
 	// VARIABLES
 	
 	/**
@@ -251,6 +345,11 @@ public class Laplace implements Filter{
 	 */
 	private BufferedImage mImage;
 	
+	/**
+	 * The filter values of the whole image, once worked out.
+	 */
+	private FilterMap mMap;
+	
 	/**
 	 * The starting range of pixels to use.
 	 */
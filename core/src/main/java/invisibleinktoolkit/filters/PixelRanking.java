@@ -0,0 +1,315 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.filters;
+
+import java.util.Arrays;
+
+
+/**
+ * A ranking of all the pixels in an image by their filter value.
+ * <P>
+ * Each pixel is packed into a long holding its filter value, x and
+ * y position (in that order, from the top bits down), so sorting the
+ * longs puts the pixels in exactly the same order as sorting 
+ * FilteredPixels with an FPComparator - by filter value, then x, then y.
+ * Since filter values are small, the ranking is done with a radix sort
+ * instead of comparing pixels.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class PixelRanking{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Ranks all the pixels in an image by their absolute filter value.
+	 *
+	 * @param values The filter values of the image, in scan lines (as
+	 * given by FilterMap.filterImage()).
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @return The packed pixels, in ascending order - low at start, 
+	 * high at end.
+	 * @throws IllegalArgumentException If the image or a filter value
+	 * is too big to pack.
+	 */
+	public static long[] rank(int[] values, int width, int height)
+	throws IllegalArgumentException{
+		
+		if(width > FIELD_MASK || height > FIELD_MASK)
+			throw new IllegalArgumentException
+			("Image is too big to rank!");
+		
+		//pack the pixels, going down each column - they are then
+		//already in x,y order, so only the values need sorting
+		long[] ranking = new long[width * height];
+		int max = 0;
+		for(int i = 0; i < width; i++){
+			for(int j = 0; j < height; j++){
+				int value = Math.abs(values[(j * width) + i]);
+				if(value < 0 || value > FIELD_MASK)
+					throw new IllegalArgumentException
+					("Filter value is too big to rank!");
+				if(value > max)
+					max = value;
+				ranking[(i * height) + j] = pack(value, i, j);
+			}
+		}
+		
+		//sort on the values, a digit at a time
+		long[] spare = new long[ranking.length];
+		int[] counts = new int[1 << DIGIT_BITS];
+		for(int shift = 0; (max >>> shift) > 0; shift += DIGIT_BITS){
+			
+			//count up each digit
+			for(int i = 0; i < counts.length; i++)
+				counts[i] = 0;
+			for(int i = 0; i < ranking.length; i++)
+				counts[getDigit(ranking[i], shift)]++;
+			
+			//turn the counts into starting positions
+			int total = 0;
+			for(int i = 0; i < counts.length; i++){
+				int count = counts[i];
+				counts[i] = total;
+				total += count;
+			}
+			
+			//and move everything into place, keeping the order of ties
+			for(int i = 0; i < ranking.length; i++){
+				int digit = getDigit(ranking[i], shift);
+				spare[counts[digit]] = ranking[i];
+				counts[digit]++;
+			}
+			
+			long[] temp = ranking;
+			ranking = spare;
+			spare = temp;
+		}
+		
+		return ranking;
+	}
+	
+	/**
+	 * Picks out the pixels with the highest absolute filter values.
+	 * <P>
+	 * This gives exactly the same pixels as going down each column of
+	 * the image, filling a TreeSet (with an FPComparator) with the first
+	 * size pixels, and then swapping the first (lowest) pixel in the set
+	 * for any later pixel that has a strictly higher filter value.
+	 * <P>
+	 * Rather than keeping a set, the lowest value in the set is tracked
+	 * with a histogram.  The lowest value only goes up once the set is 
+	 * full, so every pixel above its final value must be in the set, and
+	 * every pixel below it can't be.  Pixels on the final value leave the 
+	 * set in the order they joined, so the ones left are the last to join.
+	 *
+	 * @param values The filter values of the image, in scan lines (as
+	 * given by FilterMap.filterImage()).
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param size The number of pixels to pick.
+	 * @return The packed pixels, in ascending order - low at start, 
+	 * high at end.
+	 * @throws IllegalArgumentException If the size is less than one,
+	 * or the image or a filter value is too big to pack.
+	 */
+	public static long[] top(int[] values, int width, int height, int size)
+	throws IllegalArgumentException{
+		
+		if(size < 1)
+			throw new IllegalArgumentException
+			("Must pick at least one pixel!");
+		if(width > FIELD_MASK || height > FIELD_MASK)
+			throw new IllegalArgumentException
+			("Image is too big to rank!");
+		
+		//get the values in the order they are looked at
+		int[] column = new int[width * height];
+		int max = 0;
+		for(int i = 0; i < width; i++){
+			for(int j = 0; j < height; j++){
+				int value = Math.abs(values[(j * width) + i]);
+				if(value < 0 || value > FIELD_MASK)
+					throw new IllegalArgumentException
+					("Filter value is too big to rank!");
+				if(value > max)
+					max = value;
+				column[(i * height) + j] = value;
+			}
+		}
+		
+		//find the lowest value that is left in the set, and how many
+		//of those pixels are left
+		int fill = Math.min(size, column.length);
+		int[] counts = new int[max + 1];
+		int lowest = selectLowest(column, fill, counts, -1, null);
+		int ties = counts[lowest];
+		
+		//go through again, remembering which pixels on the lowest
+		//value joined the set
+		int total = 0;
+		for(int k = 0; k < column.length; k++){
+			if(column[k] == lowest)
+				total++;
+		}
+		int[] joined = new int[total];
+		for(int i = 0; i < counts.length; i++)
+			counts[i] = 0;
+		int numjoined = 0;
+		selectLowest(column, fill, counts, lowest, joined);
+		while(numjoined < joined.length && joined[numjoined] >= 0)
+			numjoined++;
+		
+		//everything above the lowest value, and the last ties to join
+		long[] picked = new long[fill];
+		int count = 0;
+		for(int k = 0; k < column.length; k++){
+			if(column[k] > lowest)
+				picked[count++] = pack(column[k], k / height, k % height);
+		}
+		for(int k = numjoined - ties; k < numjoined; k++){
+			picked[count++] = pack(lowest, joined[k] / height, 
+					joined[k] % height);
+		}
+		
+		//and put them in order
+		Arrays.sort(picked);
+		return picked;
+	}
+	
+	/**
+	 * Runs through filling the set, tracking the values in it.
+	 *
+	 * @param column The values, in the order they are looked at.
+	 * @param fill The number of values that are always added.
+	 * @param counts The number of pixels in the set on each value.
+	 * @param watch The value to remember the pixels joining on, or -1.
+	 * @param joined The array to remember pixels in (ends with -1 if not
+	 * full), or null.
+	 * @return The lowest value in the set at the end.
+	 */
+	private static int selectLowest(int[] column, int fill, int[] counts,
+			int watch, int[] joined){
+		int numjoined = 0;
+		
+		//the first lot always go in
+		for(int k = 0; k < fill; k++){
+			counts[column[k]]++;
+			if(column[k] == watch)
+				joined[numjoined++] = k;
+		}
+		int lowest = 0;
+		while(counts[lowest] == 0)
+			lowest++;
+		
+		//then they have to beat the lowest
+		for(int k = fill; k < column.length; k++){
+			int value = column[k];
+			if(value > lowest){
+				counts[lowest]--;
+				counts[value]++;
+				if(value == watch)
+					joined[numjoined++] = k;
+				while(counts[lowest] == 0)
+					lowest++;
+			}
+		}
+		
+		if(joined != null && numjoined < joined.length)
+			joined[numjoined] = -1;
+		return lowest;
+	}
+	
+	/**
+	 * Packs a pixel into a long.
+	 *
+	 * @param value The filter value of the pixel.
+	 * @param x The x position of the pixel.
+	 * @param y The y position of the pixel.
+	 * @return The packed pixel.
+	 */
+	public static long pack(int value, int x, int y){
+		return ((long)value << (FIELD_BITS * 2)) 
+			| ((long)x << FIELD_BITS) | (long)y;
+	}
+	
+	/**
+	 * Gets the filter value of a packed pixel.
+	 *
+	 * @param packed The packed pixel.
+	 * @return The filter value.
+	 */
+	public static int getFilterValue(long packed){
+		return (int)(packed >>> (FIELD_BITS * 2));
+	}
+	
+	/**
+	 * Gets the x position of a packed pixel.
+	 *
+	 * @param packed The packed pixel.
+	 * @return The x position.
+	 */
+	public static int getX(long packed){
+		return (int)(packed >>> FIELD_BITS) & FIELD_MASK;
+	}
+	
+	/**
+	 * Gets the y position of a packed pixel.
+	 *
+	 * @param packed The packed pixel.
+	 * @return The y position.
+	 */
+	public static int getY(long packed){
+		return (int)packed & FIELD_MASK;
+	}
+	
+	/**
+	 * Gets one digit of the filter value of a packed pixel.
+	 *
+	 * @param packed The packed pixel.
+	 * @param shift The position of the digit in the filter value.
+	 * @return The digit.
+	 */
+	private static int getDigit(long packed, int shift){
+		return (getFilterValue(packed) >>> shift) & ((1 << DIGIT_BITS) - 1);
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The number of bits for each of the value, x and y.
+	 */
+	private static final int FIELD_BITS = 21;
+	
+	/**
+	 * The mask for each of the value, x and y.
+	 */
+	private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+	
+	/**
+	 * The number of bits of the filter value sorted on in each pass.
+	 */
+	private static final int DIGIT_BITS = 13;
+	
+}
+//end of class.
@@ -35,7 +35,7 @@ import java.awt.image.BufferedImage;
  *
  * @author Kathryn Hempstalk.
  */
-public class Prewitt implements Filter{
+public class Prewitt implements RowFilter{
 	
 	//CONSTRUCTORS
 	/**
@@ -76,6 +76,7 @@ public class Prewitt implements Filter{
 		mStartRange = startbits;
 		mEndRange = endbits;
 		mImage = image;
+		mMap = new FilterMap();
 	}
 	
 	
@@ -190,6 +191,95 @@ public class Prewitt implements Filter{
 	}
 	
 	
+	/**
+	 * Gets the filter values of every pixel in the image at once.
+	 *
+	 * @return The filter values of the whole image, in scan lines.
+	 * @throws Exception When the image isn't known.
+	 */
+	public int[] getValues() throws Exception{
+		
+		if(mImage == null)
+			throw new Exception("No image has been set!");
+		
+		//only filter again if the image or the filtered bits have changed
+		return mMap.getValues(this, mImage, this.getByteMask());
+	}
+	
+	
+	/**
+	 * Works out the filter values for some rows of an image.
+	 *
+	 * @param pixels The masked pixels of the image, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param values The array to put the filter values in.
+	 * @param starty The first row to filter.
+	 * @param endy The row to stop filtering at (not filtered).
+	 */
+	public void filterRows(int[] pixels, int width, int height,
+			int[] values, int starty, int endy){
+		
+		ChannelPlanes planes = new ChannelPlanes(pixels, width, height);
+		int[] red = planes.getRed();
+		int[] green = planes.getGreen();
+		int[] blue = planes.getBlue();
+		int stride = planes.getStride();
+		
+		//a few rows at a time, so the planes stay in the cache
+		for(int band = starty; band < endy; band = planes.getEndY()){
+			planes.load(band, endy);
+			
+			for(int y = band; y < planes.getEndY(); y++){
+				int in = planes.getOffset(0, y);
+				int out = y * width;
+				
+				//the edges of the image are never filtered
+				values[out] = 0;
+				values[out + width - 1] = 0;
+				if(y == 0 || y == height - 1){
+					for(int x = 1; x < width - 1; x++)
+						values[out + x] = 0;
+					continue;
+				}
+				
+				for(int x = 1; x < width - 1; x++){
+					int pos = in + x;
+					values[out + x] = gradient(red, pos, stride) 
+					+ gradient(green, pos, stride) + gradient(blue, pos, stride);
+				}
+			}
+		}
+	}
+	
+	
+	/**
+	 * Works out the size of the gradient at one pixel in a colour plane.
+	 * <P>
+	 * The squares are added up as integers, which is exact, so taking 
+	 * the square root of them gives the same answer as squaring the 
+	 * differences with Math.pow().
+	 *
+	 * @param plane The colour plane.
+	 * @param pos The position of the pixel in the plane.
+	 * @param stride The distance between rows in the plane.
+	 * @return The size of the gradient at the pixel.
+	 */
+	private static int gradient(int[] plane, int pos, int stride){
+		int leftup = plane[pos - stride - 1];
+		int rightup = plane[pos - stride + 1];
+		int leftdown = plane[pos + stride - 1];
+		int rightdown = plane[pos + stride + 1];
+		
+		int across = (plane[pos + 1] + rightup + rightdown) -
+		(plane[pos - 1] + leftup + leftdown);
+		int upward = (plane[pos - stride] + leftup + rightup) -
+		(plane[pos + stride] + leftdown + rightdown);
+		
+		return (int)Math.sqrt((across * across) + (upward * upward));
+	}
+	
+	
 	/**
 	 * Gets the red content of a pixel.
 	 *
@@ -230,19 +320,11 @@ public class Prewitt implements Filter{
 	 * @return An integer that is a mask for the pixel.
 	 */
 	protected int getByteMask(){
-		int abyte = 0, abyte2 = 0;
-		for(int i = 0; i < 8; i++){
-			byte bit;
-			if(i <= mEndRange && i >= mStartRange)
-				bit = 1;
-			else
-				bit = 0;
-			abyte = (byte)(abyte << 1 | bit);
-		}
-		for(int i = 0; i < 8; i++){
-			abyte2 = abyte2 << 1 | ((abyte >> i) & 0x1);
-		}
-		return abyte2;
+		int start = Math.max(mStartRange, 0);
+		int end = Math.min(mEndRange, 7);
+		if(start > end)
+			return 0;
+		return (0xff >> (7 - end)) & (0xff << start) & 0xff;
 	}
 	
 	
@@ -293,6 +375,17 @@ public class Prewitt implements Filter{
 		return mEndRange;
 	}
 	
+	/**
+	 * Makes a new Prewitt filter over the same range of bits,
+	 * without an image.
+	 *
+	 * @return A copy of this filter.
+	 */
+	public Filter copy(){
+		return new Prewitt(mStartRange, mEndRange);
+	}
+	
+	
 	//VARIABLES
 	
 	/**
@@ -300,6 +393,11 @@ public class Prewitt implements Filter{
 	 */
 	private BufferedImage mImage;
 	
+	/**
+	 * The filter values of the whole image, once worked out.
+	 */
+	private FilterMap mMap;
+	
 	/**
 	 * The starting range of pixels to use.
 	 */
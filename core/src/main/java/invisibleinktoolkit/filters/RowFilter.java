@@ -0,0 +1,65 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.filters;
+
+/**
+ * An interface for filters that can work out a band of rows at a time.
+ * <P>
+ * Each filter value only depends on the (masked) pixels around it, so
+ * the rows of an image can be filtered in any order, or at the same 
+ * time, and still give the same values.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public interface RowFilter extends Filter{
+	
+	/**
+	 * Works out the filter values for some rows of an image.
+	 * <P>
+	 * The rows either side of the band may be read, but only values
+	 * inside the band are written.
+	 *
+	 * @param pixels The masked pixels of the image, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param values The array to put the filter values in.
+	 * @param starty The first row to filter.
+	 * @param endy The row to stop filtering at (not filtered).
+	 */
+	public void filterRows(int[] pixels, int width, int height,
+			int[] values, int starty, int endy);
+	
+	/**
+	 * Gets the filter values of every pixel in the image at once.
+	 * <P>
+	 * The values are in scan lines, so the value of the pixel at (x,y)
+	 * is at position (y * width) + x, and are the same as getValue()
+	 * would give.  The values are kept, and given back again while the
+	 * filtered bits of the image are the same - so the array should be
+	 * treated as read only.
+	 *
+	 * @return The filter values of the whole image.
+	 * @throws Exception When the image isn't known.
+	 */
+	public int[] getValues() throws Exception;
+	
+}
+//end of interface.
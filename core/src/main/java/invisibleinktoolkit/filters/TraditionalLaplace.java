@@ -38,7 +38,7 @@ import java.awt.image.BufferedImage;
  *
  * @author Kathryn Hempstalk.
  */
-public class TraditionalLaplace implements Filter{
+public class TraditionalLaplace implements RowFilter{
 	
 	//CONSTRUCTORS
 	/**
@@ -79,6 +79,7 @@ public class TraditionalLaplace implements Filter{
 		mStartRange = startbits;
 		mEndRange = endbits;
 		mImage = image;
+		mMap = new FilterMap();
 	}
 	
 	
@@ -129,13 +130,95 @@ public class TraditionalLaplace implements Filter{
 		int value = (pixcount * this.getLuminance(pixelval)) -
 		(this.getLuminance(leftpix) + this.getLuminance(rightpix)
 				+ this.getLuminance(uppix) + this.getLuminance(downpix));
-				
+		
 		//return the results...
 		return value;
 		
 	}
 	
-
+	
+	/**
+	 * Gets the filter values of every pixel in the image at once.
+	 *
+	 * @return The filter values of the whole image, in scan lines.
+	 * @throws Exception When the image isn't known.
+	 */
+	public int[] getValues() throws Exception{
+		
+		if(mImage == null)
+			throw new Exception("No image has been set!");
+		
+		//only filter again if the image or the filtered bits have changed
+		return mMap.getValues(this, mImage, this.getByteMask());
+	}
+	
+	
+	/**
+	 * Works out the filter values for some rows of an image.
+	 *
+	 * @param pixels The masked pixels of the image, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param values The array to put the filter values in.
+	 * @param starty The first row to filter.
+	 * @param endy The row to stop filtering at (not filtered).
+	 */
+	public void filterRows(int[] pixels, int width, int height,
+			int[] values, int starty, int endy){
+		
+		ChannelPlanes planes = new ChannelPlanes(pixels, width, height);
+		int[] red = planes.getRed();
+		int[] green = planes.getGreen();
+		int[] blue = planes.getBlue();
+		int stride = planes.getStride();
+		int[] luminance = new int[red.length];
+		
+		//a few rows at a time, so the planes stay in the cache
+		for(int band = starty; band < endy; band = planes.getEndY()){
+			planes.load(band, endy);
+			
+			//work out the luminance of every pixel once, rather than five
+			//times (the border stays zero, the luminance of a missing pixel)
+			for(int i = 0; i < luminance.length; i++){
+				luminance[i] = (int)((0.299 * red[i]) + (0.587 * green[i])
+						+ (0.114 * blue[i]));
+			}
+			
+			for(int y = band; y < planes.getEndY(); y++){
+				//(only count pixels that exist - missing ones read as zero)
+				int pixcount = 4;
+				if(y <= 0)
+					pixcount--;
+				if(y >= height - 1)
+					pixcount--;
+				
+				int in = planes.getOffset(0, y);
+				int out = y * width;
+				
+				//the middle of the row all has the same count
+				for(int x = 1; x < width - 1; x++){
+					int pos = in + x;
+					values[out + x] = (pixcount * luminance[pos]) - 
+					(luminance[pos - 1] + luminance[pos + 1]
+							+ luminance[pos - stride] + luminance[pos + stride]);
+				}
+				
+				//then the ends of the row, which are missing a pixel
+				int count = (width > 1) ? pixcount - 1 : pixcount - 2;
+				values[out] = (count * luminance[in]) - 
+				(luminance[in - 1] + luminance[in + 1]
+						+ luminance[in - stride] + luminance[in + stride]);
+				if(width > 1){
+					int pos = in + width - 1;
+					values[out + width - 1] = ((pixcount - 1) * luminance[pos]) - 
+					(luminance[pos - 1] + luminance[pos + 1]
+							+ luminance[pos - stride] + luminance[pos + stride]);
+				}
+			}
+		}
+	}
+	
+	
 	/**
 	 * Gets the grayscale colour value (luminance) of a pixel.
 	 * 
@@ -147,7 +230,7 @@ public class TraditionalLaplace implements Filter{
 		return (int)((0.299 * this.getRed(pixel)) + (0.587 * this.getGreen(pixel))
 			+ (0.114 * this.getBlue(pixel)));
 	}
-
+	
 	/**
 	 * Gets the red content of a pixel.
 	 *
@@ -189,19 +272,11 @@ public class TraditionalLaplace implements Filter{
 	 * @return An integer that is a mask for the pixel.
 	 */
 	protected int getByteMask(){
-		int abyte = 0, abyte2 = 0;
-		for(int i = 0; i < 8; i++){
-			byte bit;
-			if(i <= mEndRange && i >= mStartRange)
-				bit = 1;
-			else
-				bit = 0;
-			abyte = (byte)(abyte << 1 | bit);
-		}
-		for(int i = 0; i < 8; i++){
-			abyte2 = abyte2 << 1 | ((abyte >> i) & 0x1);
-		}
-		return abyte2;
+		int start = Math.max(mStartRange, 0);
+		int end = Math.min(mEndRange, 7);
+		if(start > end)
+			return 0;
+		return (0xff >> (7 - end)) & (0xff << start) & 0xff;
 	}
 	
 	/**
@@ -252,6 +327,17 @@ public class TraditionalLaplace implements Filter{
 	}
 	
 	
+	/**
+	 * Makes a new TraditionalLaplace filter over the same range of bits,
+	 * without an image.
+	 *
+	 * @return A copy of this filter.
+	 */
+	public Filter copy(){
+		return new TraditionalLaplace(mStartRange, mEndRange);
+	}
+	
+	
 	// VARIABLES
 	
 	/**
@@ -259,6 +345,11 @@ public class TraditionalLaplace implements Filter{
 	 */
 	private BufferedImage mImage;
 	
+	/**
+	 * The filter values of the whole image, once worked out.
+	 */
+	private FilterMap mMap;
+	
 	/**
 	 * The starting range of pixels to use.
 	 */
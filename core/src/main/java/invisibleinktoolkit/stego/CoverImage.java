@@ -22,8 +22,11 @@ package invisibleinktoolkit.stego;
 
 import java.io.File;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
 import javax.imageio.ImageIO;
 import java.io.IOException;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.Shot;
 
 
 /**
@@ -64,17 +67,66 @@ public class CoverImage{
 		}
 		
 		//check that it is a type we can deal with
+		this.checkType();
+	}
+	
+	
+	/**
+	 * Creates a new cover image from an image that has already been
+	 * read in.
+	 * <P>
+	 * The image is shared rather than copied straight away - it is only
+	 * copied the first time a bit is changed or the image is asked for,
+	 * and the shared image itself is never changed.  This means many
+	 * covers can be made from one image without reading it from disk
+	 * each time, and a cover that is never changed costs nothing.
+	 *
+	 * @param image The image to share.
+	 * @throws IllegalArgumentException If the image is not a usable
+	 * type.
+	 * @throws NullPointerException If the image is null.
+	 */
+	public CoverImage(BufferedImage image) throws IllegalArgumentException,
+	NullPointerException{
+		
+		if(image == null)
+			throw new NullPointerException
+			("Image must be set to a non-null value");
+		mCover = image;
+		mShared = true;
+		this.checkType();
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Checks the image is a type that can hide a message.
+	 *
+	 * @throws IllegalArgumentException If the image can't be used.
+	 */
+	private void checkType() throws IllegalArgumentException{
 		if(this.getLayerCount() <= 1 
 				|| mCover.getType() == BufferedImage.TYPE_USHORT_555_RGB
 				|| mCover.getType() == BufferedImage.TYPE_USHORT_565_RGB){
 			throw new IllegalArgumentException
 			("Picture colour depth is not deep enough!");
 		}
-		
 	}
 	
 	
-	//FUNCTIONS
+	/**
+	 * Makes this cover's own copy of a shared image, if it hasn't
+	 * already got one.
+	 */
+	private void unshare(){
+		if(mShared){
+			ColorModel model = mCover.getColorModel();
+			mCover = new BufferedImage(model, mCover.copyData(null),
+					model.isAlphaPremultiplied(), null);
+			mShared = false;
+		}
+	}
 	
 	/**
 	 * Gets the number of layers the image has.
@@ -109,13 +161,67 @@ public class CoverImage{
 	/**
 	 * Gets the image that is currently residing inside
 	 * this cover.
+	 * <P>
+	 * Any bits that have been changed are written back to the
+	 * image first.  The image may then be changed directly, the 
+	 * next bit change will read it in again.
 	 *
 	 * @return The image inside this cover.
 	 */
 	public BufferedImage getImage(){
+		this.unshare();
+		if(mRaster != null){
+			mRaster.flush();
+			mRaster = null;
+		}
 		return mCover;
 	}
 	
+	/**
+	 * Gets whether different pixels of the image can be changed by
+	 * different threads at the same time.
+	 * <P>
+	 * This is only true when the pixels are kept in a raster until the
+	 * image is asked for, rather than written straight to the image.
+	 *
+	 * @return True if different pixels can be changed in parallel.
+	 */
+	public boolean canChangeInParallel(){
+		return !this.getRaster().isWriteThrough();
+	}
+	
+	/**
+	 * Gets the width of the cover image.
+	 *
+	 * @return The width of the image.
+	 */
+	public int getWidth(){
+		return mCover.getWidth();
+	}
+	
+	/**
+	 * Gets the height of the cover image.
+	 *
+	 * @return The height of the image.
+	 */
+	public int getHeight(){
+		return mCover.getHeight();
+	}
+	
+	/**
+	 * Gets the raster all the bit changes are made on, reading
+	 * the image in if it hasn't been read yet.
+	 *
+	 * @return The raster for the cover image.
+	 */
+	private ImageRaster getRaster(){
+		if(mRaster == null){
+			this.unshare();
+			mRaster = new ImageRaster(mCover);
+		}
+		return mRaster;
+	}
+	
 	
 	/**
 	 * Sets the pixel bit at the given location
@@ -150,25 +256,19 @@ public class CoverImage{
 		
 		
 		//get the pixel we want to work on
-		int pixel = mCover.getRGB(xpos, ypos);
+		ImageRaster raster = this.getRaster();
+		int pixel = raster.getPixel(xpos, ypos);
 		
-		int newcolour = 0, newpixel;
+		int newcolour = 1 << (bitpos + (layer * 8)), newpixel;
 		
 		//hide the bit
-		if(newbit){
-			newcolour = 1;
-			newcolour = newcolour << (bitpos + (layer * 8));
+		if(newbit)
 			newpixel = pixel | newcolour;
-		}else{
-			newcolour = 0xfffffffe;
-			for(int i = 0; i < (bitpos + (layer * 8)); i++){
-				newcolour = (newcolour << 1) | 0x1;
-			}
-			newpixel = pixel & newcolour;		 
-		}
+		else
+			newpixel = pixel & ~newcolour;
 		
 		//now set the pixel.
-		mCover.setRGB(xpos, ypos, newpixel);		
+		raster.setPixel(xpos, ypos, newpixel);		
 	}
 	
 	
@@ -200,8 +300,111 @@ public class CoverImage{
 			throw new IllegalArgumentException
 			("Layer is incorrect for image type!");
 		
+		ImageRaster raster = this.getRaster();
+		this.matchPixel(raster, (y * raster.getWidth()) + x, layer,
+				maxChangePosition, newbit, subtract);
+	}
+	
+	
+	/**
+	 * Sets a whole batch of pixel bits to new values.
+	 * <P>
+	 * Each position is a shot packed with Shot.pack(), and the new
+	 * bits are packed 64 to a long - bit i is (bits[i / 64] >>> (i % 64)) 
+	 * &amp; 1.  The bits are set in order, so a position that appears 
+	 * twice ends up with the later bit.
+	 *
+	 * @param positions The packed shots to set.
+	 * @param bits The new bits, packed 64 to a long.
+	 * @param count The number of positions to set.
+	 * @throws IllegalArgumentException If a layer is incorrect.
+	 */
+	public void setPixelBits(long[] positions, long[] bits, int count)
+	throws IllegalArgumentException{
+		
+		int layers = this.getLayerCount();
+		ImageRaster raster = this.getRaster();
+		
+		for(int i = 0; i < count; i++){
+			long position = positions[i];
+			int layer = Shot.getLayer(position);
+			int bitpos = Shot.getBitPosition(position);
+			
+			//check layer
+			if(layer > layers)
+				throw new IllegalArgumentException
+				("Layer is incorrect for image type!");
+			
+			int index = Shot.getIndex(position);
+			int newcolour = 1 << (bitpos + (layer * 8));
+			int pixel = raster.getPixel(index);
+			
+			//hide the bit
+			if(((bits[i >> 6] >>> i) & 0x1) == 0x1)
+				raster.setPixel(index, pixel | newcolour);
+			else
+				raster.setPixel(index, pixel & ~newcolour);
+		}
+	}
+	
+	
+	/**
+	 * Matches a whole batch of pixel bits instead of just overwriting
+	 * them.
+	 * <P>
+	 * This works the same as matchPixelBit(), and the bits and
+	 * whether to subtract are packed the same as for setPixelBits().
+	 * The bit position in each packed shot is not used, as matching
+	 * always works on the LSB.
+	 *
+	 * @param positions The packed shots to match.
+	 * @param bits The new bits, packed 64 to a long.
+	 * @param subtract Whether to add or subtract one when a bit doesn't
+	 * match, packed 64 to a long.
+	 * @param maxChangePosition The maximum position to change - ie where 
+	 * the filter starts reading.
+	 * @param count The number of positions to match.
+	 * @throws IllegalArgumentException If a layer is incorrect.
+	 */
+	public void matchPixelBits(long[] positions, long[] bits, 
+			long[] subtract, int maxChangePosition, int count)
+	throws IllegalArgumentException{
+		
+		int layers = this.getLayerCount();
+		ImageRaster raster = this.getRaster();
+		
+		for(int i = 0; i < count; i++){
+			long position = positions[i];
+			int layer = Shot.getLayer(position);
+			
+			//check layer
+			if(layer > layers)
+				throw new IllegalArgumentException
+				("Layer is incorrect for image type!");
+			
+			this.matchPixel(raster, Shot.getIndex(position), layer,
+					maxChangePosition,
+					((bits[i >> 6] >>> i) & 0x1) == 0x1,
+					((subtract[i >> 6] >>> i) & 0x1) == 0x1);
+		}
+	}
+	
+	
+	/**
+	 * Matches the LSB of a single colour on the raster.
+	 *
+	 * @param raster The raster to change.
+	 * @param index The position of the pixel, (y * width) + x.
+	 * @param layer The layer (colour) the bit to be changed is part of.
+	 * @param maxChangePosition The maximum position to change.
+	 * @param newbit The new bit.
+	 * @param subtract Whether to add or subtract one when it doesn't match.
+	 */
+	private void matchPixel(ImageRaster raster, int index, int layer,
+			int maxChangePosition, boolean newbit, boolean subtract){
+		
 		//get the pixel we want to work on
-		int pixel = mCover.getRGB(x, y);
+		int pixel = raster.getPixel(index);
 				
 		byte thiscolour = (byte)((pixel >> (layer * 8)) & 0x000000ff);
 		
@@ -213,12 +416,9 @@ public class CoverImage{
 			//subtract or add one.
 			
 			//MORE CODE HERE TO COPE WITH FILTERS...
-			int leftmask = 0, rightmask = 0;
-			rightmask = rightmask | 0x000000ff;
-			for(int i = 0; i < maxChangePosition; i++){
-				leftmask = (leftmask << 1) | 0x1;
-				rightmask = (rightmask << 1) & 0x000000fe;
-			}
+			//(the bits below the filter can change, the rest stay put)
+			int leftmask = (1 << maxChangePosition) - 1;
+			int rightmask = (0x000000ff << maxChangePosition) & 0x000000ff;
 			int tochange = thiscolour & leftmask;
 			int top = thiscolour & rightmask;
 			
@@ -246,18 +446,12 @@ public class CoverImage{
 			//put the top part back on
 			newcolour = (newcolour | top) & 0x000000ff;			
 			
-			byte[] colours = new byte[4];
-			for(int i = 0; i < 4; i++){
-				colours[i] = (byte)((pixel >> (i * 8)) & 0x000000ff);
-			}
-			colours[layer] = (byte)newcolour;
-			int finalcolour = 0;
-			for(int i = 3; i >= 0 ; i--){
-				finalcolour = ((finalcolour << 8) | (colours[i] & 0xff)) & 0xffffffff; 
-			}			
+			//swap the colour into the pixel
+			int finalcolour = (pixel & ~(0x000000ff << (layer * 8)))
+				| (newcolour << (layer * 8));
 			
 			// now set the pixel.
-			mCover.setRGB(x, y, finalcolour);			
+			raster.setPixel(index, finalcolour);			
 		}		
 	}
 	
@@ -269,6 +463,18 @@ public class CoverImage{
 	 */
 	private BufferedImage mCover;
 	
+	/**
+	 * The raster bits are changed on, or null if the image hasn't 
+	 * been read in yet.
+	 */
+	private ImageRaster mRaster;
+	
+	/**
+	 * Whether the image is shared with other covers, and so has to be
+	 * copied before it is changed.
+	 */
+	private boolean mShared;
+	
 	
 }
 //end of class.
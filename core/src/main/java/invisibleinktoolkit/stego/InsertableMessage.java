@@ -0,0 +1,262 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.stego;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * A message to hide.
+ * <P>
+ * A message is a file on disk that will be embedded into
+ * a cover object in order to hide it.  It can read out the
+ * message in terms of 0's and 1's (boolean false and true) to
+ * make life easier for the encoding process.
+ * <P>
+ * The file is memory mapped where possible, otherwise it is read
+ * through a large buffer.  Bits are served from a 64 bit word, so
+ * the file is only touched once every 8 bytes.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class InsertableMessage{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new message.
+	 *
+	 * @param path The path to the message on disk.
+	 * @throws FileNotFoundException If the path is not a valid file.
+	 * @throws SecurityException If the user doesn't have access to this file.
+	 * @throws IOException If the input file is empty.
+	 */
+	public InsertableMessage(String path) throws 
+	FileNotFoundException, SecurityException, IOException{
+		
+		mIsFileFinished = false;
+		
+		RandomAccessFile raf = new RandomAccessFile(path, "r");
+		mChannel = raf.getChannel();
+		mSize = mChannel.size();
+		
+		if(mSize > 0 && mSize <= Integer.MAX_VALUE){
+			//map the whole file, we don't need the channel after that
+			mData = mChannel.map(FileChannel.MapMode.READ_ONLY, 0, mSize);
+			mChannel.close();
+			mChannel = null;
+		}else{
+			//too big (or not a normal file), so stream it
+			mData = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			mData.flip();
+		}
+		
+		//get the first word
+		this.nextWord();
+		if (mIsFileFinished)
+			throw new IOException("File is empty!");
+		
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Delivers the next bit from the stream.
+	 *
+	 * @return The next bit (as a boolean).
+	 * @throws IOException If there are no more bits to read.
+	 */
+	public boolean nextBit() throws IOException{
+		//first check if we need to get another byte.
+		if(mIsFileFinished)
+			throw new IOException("File reading has finished!");
+		
+		//the next bit is always at the top of the word
+		boolean bit = (mWord < 0);
+		mWord = mWord << 1;
+		mCount--;
+		
+		if(mCount == 0)
+			this.nextWord();
+		
+		return bit;
+	}
+	
+	/**
+	 * Delivers a whole batch of bits from the stream.
+	 * <P>
+	 * The bits are packed 64 to a long, in the order they would have 
+	 * come from nextBit() - bit i is (dst[i / 64] >>> (i % 64)) &amp; 1.
+	 *
+	 * @param dst The array to put the bits in.
+	 * @param n The number of bits wanted.
+	 * @return The number of bits delivered, which is only less than n
+	 * if the stream finished.
+	 * @throws IOException If there are no more bits to read.
+	 */
+	public int nextBits(long[] dst, int n) throws IOException{
+		if(mIsFileFinished)
+			throw new IOException("File reading has finished!");
+		
+		//clear out the words we are writing to
+		for(int i = 0; i < (n + 63) >> 6; i++)
+			dst[i] = 0;
+		
+		int done = 0;
+		while(done < n && !mIsFileFinished){
+			int take = Math.min(mCount, n - done);
+			
+			//reverse the word so the next bit is at the bottom
+			long chunk = Long.reverse(mWord);
+			if(take < 64)
+				chunk = chunk & ((1L << take) - 1);
+			
+			//put it in, it may cross over into the next long
+			int word = done >> 6;
+			int offset = done & 0x3f;
+			dst[word] |= chunk << offset;
+			if(offset + take > 64)
+				dst[word + 1] |= chunk >>> (64 - offset);
+			
+			mWord = (take == 64) ? 0 : mWord << take;
+			mCount -= take;
+			done += take;
+			
+			if(mCount == 0)
+				this.nextWord();
+		}
+		
+		return done;
+	}
+	
+	
+	/**
+	 * Indicates whether the file reading has finished or not.
+	 *
+	 * @return Whether the stream has finished.
+	 */
+	public boolean notFinished(){
+		return !mIsFileFinished;
+	}
+	
+	/**
+	 * Gives the size of the message on disk.
+	 *
+	 * @return The size of the message (in bytes).
+	 * @throws IOException If there was a problem getting the file size.
+	 * @throws FileNotFoundException If the file can't be found on disk.
+	 */
+	public long getSize() throws IOException, FileNotFoundException{
+		return mSize;
+	}
+	
+	/**
+	 * Loads the next word of bits from the file, marking the
+	 * file as finished if there are none left.
+	 *
+	 * @throws IOException If there was a problem reading the file.
+	 */
+	private void nextWord() throws IOException{
+		if(mData.remaining() < 8 && mChannel != null)
+			this.fillBuffer();
+		
+		if(mData.remaining() >= 8){
+			mWord = mData.getLong();
+			mCount = 64;
+		}else if(mData.hasRemaining()){
+			//the last few bytes
+			mWord = 0;
+			mCount = 0;
+			while(mData.hasRemaining()){
+				mWord |= ((long)(mData.get() & 0xff)) << (56 - mCount);
+				mCount += 8;
+			}
+		}else{
+			mIsFileFinished = true;
+			mData = null;
+		}
+	}
+	
+	/**
+	 * Tops up the buffer from the file, closing the file when 
+	 * the end of it is reached.
+	 *
+	 * @throws IOException If there was a problem reading the file.
+	 */
+	private void fillBuffer() throws IOException{
+		mData.compact();
+		int status = 0;
+		while(mData.hasRemaining() && status != -1)
+			status = mChannel.read(mData);
+		mData.flip();
+		
+		if(status == -1){
+			mChannel.close();
+			mChannel = null;
+		}
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The size of the buffer used when the file is streamed.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	/**
+	 * The size of the message (in bytes).
+	 */
+	private long mSize;
+	
+	/**
+	 * A count of the number of bits left in the word that can 
+	 * be streamed.
+	 */
+	private int mCount;
+	
+	/**
+	 * The bits currently being streamed, the next one at the top.
+	 */
+	private long mWord;
+	
+	/**
+	 * The file being streamed, or null if it is mapped or finished.
+	 */
+	private FileChannel mChannel;
+	
+	/**
+	 * The contents of the file, either mapped or buffered.
+	 */
+	private ByteBuffer mData;
+	
+	/**
+	 * A indicator that the file reading is finished.
+	 */
+	private boolean mIsFileFinished;
+	
+}
+//end of class.
@@ -0,0 +1,361 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.stego;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.FileNotFoundException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A retrieved message.
+ * <P>
+ * A retrieved message is any sort of file, to be written
+ * to disk as it is retrieved from a steganographic object.
+ * <P>
+ * Bits are collected 64 at a time, and written to the file through
+ * a large buffer.  If the size of the message is known up front, and
+ * it is a large message, the file is memory mapped and written
+ * straight into instead.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class RetrievedMessage{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new retrieved message.
+	 *
+	 * @param outfile The file to write the message to.
+	 * @throws FileNotFoundException If the file exists but is a directory
+	 *  rather than a regular file, does not exist but cannot be created, 
+	 * or cannot be opened for any other reason.
+	 * @throws SecurityException If write access to this file is denied.
+	 */
+	public RetrievedMessage(String outfile)
+	throws FileNotFoundException, SecurityException{
+		//set up all the variables
+		mRetrievedMessage = new FileOutputStream(outfile).getChannel();
+		mData = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		mPath = outfile;
+		mIsFinished = false;
+		mIsMapped = false;
+		mBitCount = 0;
+		mBuffer = 0;
+	}
+	
+	/**
+	 * Creates a new retrieved message of a known size.
+	 * <P>
+	 * Large messages have the file made the right size and memory 
+	 * mapped, so the message is written straight into it, and if more
+	 * than the given size is written the rest is written normally.
+	 * Smaller messages are written through the buffer, as the mapping
+	 * isn't worth it for them, and a mapped file stays locked on some
+	 * systems until the mapping is garbage collected.
+	 *
+	 * @param outfile The file to write the message to.
+	 * @param size The size of the message (in bytes).
+	 * @throws FileNotFoundException If the file exists but is a directory
+	 *  rather than a regular file, does not exist but cannot be created, 
+	 * or cannot be opened for any other reason.
+	 * @throws SecurityException If write access to this file is denied.
+	 * @throws IOException If the file could not be mapped.
+	 */
+	public RetrievedMessage(String outfile, long size)
+	throws FileNotFoundException, SecurityException, IOException{
+		if(size < 0 || size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException
+			("Size is out of range for mapping!");
+		
+		//set up all the variables
+		mPath = outfile;
+		mIsFinished = false;
+		mBitCount = 0;
+		mBuffer = 0;
+		if(size < MIN_MAP_SIZE){
+			mRetrievedMessage = new FileOutputStream(outfile).getChannel();
+			mData = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			mIsMapped = false;
+			return;
+		}
+		
+		RandomAccessFile raf = new RandomAccessFile(outfile, "rw");
+		try{
+			raf.setLength(size);
+			mRetrievedMessage = raf.getChannel();
+			mData = mRetrievedMessage.map(FileChannel.MapMode.READ_WRITE, 
+					0, size);
+		}catch(IOException ioe){
+			raf.close();
+			throw ioe;
+		}
+		mIsMapped = true;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Sets the next bit of the output stream.
+	 *
+	 * The bit will be set to 0 if bit is false, 1 if
+	 * it is true.
+	 *
+	 * @param bit The value to set.
+	 * @throws IOException If the file is finished writing already,
+	 * or there was an I/O Error.
+	 */
+	public void setNext(boolean bit) throws IOException{
+		
+		//check file hasn't been closed
+		if(mIsFinished)
+			throw new IOException
+			("File has finished writing!");
+		
+		//set the new bit - the buffer fills from the top down
+		if(bit)
+			mBuffer = mBuffer | (0x8000000000000000L >>> mBitCount);
+		mBitCount++;
+		
+		//if the buffer is full, write it out
+		if(mBitCount == 64){
+			this.writeBuffer();
+		}	    
+	}
+	
+	/**
+	 * Sets the next bits of the output stream.
+	 * <P>
+	 * The bits are packed 64 to a long - bit i is 
+	 * (bits[i / 64] >>> (i % 64)) &amp; 1, and they are written
+	 * in order.
+	 *
+	 * @param bits The bits to write.
+	 * @param n The number of bits to write.
+	 * @throws IOException If the file is finished writing already,
+	 * or there was an I/O Error.
+	 */
+	public void setNext(long[] bits, int n) throws IOException{
+		
+		//check file hasn't been closed
+		if(mIsFinished)
+			throw new IOException
+			("File has finished writing!");
+		
+		int done = 0;
+		while(done < n){
+			int take = Math.min(64 - mBitCount, n - done);
+			
+			//get the next bits, which may cross over two longs
+			int word = done >> 6;
+			int offset = done & 0x3f;
+			long chunk = bits[word] >>> offset;
+			if(offset + take > 64)
+				chunk = chunk | (bits[word + 1] << (64 - offset));
+			if(take < 64)
+				chunk = chunk & ((1L << take) - 1);
+			
+			//reverse them so the first is at the top, and add them on
+			mBuffer = mBuffer | (Long.reverse(chunk) >>> mBitCount);
+			mBitCount += take;
+			done += take;
+			
+			if(mBitCount == 64){
+				this.writeBuffer();
+			}
+		}
+	}
+	
+	/**
+	 * Writes the buffer out to the stream.
+	 *
+	 * This method also re-zeroes the bitcount and buffer
+	 * ready for the next 64 bits.
+	 *
+	 * @throws IOException If there was an I/O error.
+	 */
+	private void writeBuffer() throws IOException{
+		if(mData.remaining() < 8)
+			this.flushData();
+		
+		if(mData.remaining() >= 8){
+			mData.putLong(mBuffer);
+		}else{
+			//only room for some of it (the end of a mapped file)
+			for(int i = 0; i < 8; i++){
+				if(!mData.hasRemaining())
+					this.flushData();
+				mData.put((byte)(mBuffer >>> (56 - (i * 8))));
+			}
+		}
+		
+		mBitCount = 0;
+		mBuffer = 0;
+	}
+	
+	/**
+	 * Writes out what is in the data buffer, making room for more.
+	 * <P>
+	 * When a mapped file is full, the rest of the message is written
+	 * after it through a normal buffer.
+	 *
+	 * @throws IOException If there was an I/O error.
+	 */
+	private void flushData() throws IOException{
+		if(mIsMapped){
+			if(mData.hasRemaining())
+				return;
+			mRetrievedMessage.position(mData.capacity());
+			mData = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			mIsMapped = false;
+		}else{
+			mData.flip();
+			while(mData.hasRemaining())
+				mRetrievedMessage.write(mData);
+			mData.clear();
+		}
+	}
+	
+	/**
+	 * Closes off and releases resources for this message.
+	 *
+	 * If there is half a buffer, it will be padded to the correct
+	 * position, and written before the file is completely closed.
+	 *
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void close() throws IOException{
+		if(mIsFinished)
+			return;
+		
+		//check there isn't something left to write
+		if(mBitCount > 0){
+			//write it, padding out the last byte
+			int bytes = (mBitCount + 7) / 8;
+			for(int i = 0; i < bytes; i++){
+				if(!mData.hasRemaining())
+					this.flushData();
+				mData.put((byte)(mBuffer >>> (56 - (i * 8))));
+			}
+			mBitCount = 0;
+			mBuffer = 0;
+		}
+		
+		//close it all off
+		if(mIsMapped){
+			//cut off anything that wasn't written
+			if(mData.hasRemaining())
+				mRetrievedMessage.truncate(mData.position());
+		}else{
+			this.flushData();
+		}
+		mRetrievedMessage.close();
+		mData = null;
+		mIsFinished = true;
+	}
+	
+	/**
+	 * Throws away a message that wasn't finished, closing and deleting
+	 * its file.  This does nothing once the message has been closed,
+	 * so it can be called from a finally block after closing it.
+	 */
+	public void discard(){
+		if(mIsFinished)
+			return;
+		
+		mIsFinished = true;
+		mData = null;
+		try{
+			mRetrievedMessage.close();
+		}catch(IOException ioe){
+			//it is being thrown away anyway
+		}
+		new File(mPath).delete();
+	}
+	
+	/**
+	 * Gets the path of the file this retrieved message is writing
+	 * to.
+	 *
+	 * @return The path this message has been written to.
+	 */
+	public String getPath(){
+		return mPath;
+	}
+	
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The size of the buffer used when the file isn't mapped.
+	 */
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	/**
+	 * The smallest message (in bytes) that is written to a mapped file.
+	 */
+	private static final long MIN_MAP_SIZE = 1 << 24;
+	
+	/**
+	 * The file the message is being written to.
+	 */
+	private FileChannel mRetrievedMessage;
+	
+	/**
+	 * The bytes waiting to be written, or the mapped file.
+	 */
+	private ByteBuffer mData;
+	
+	/**
+	 * Whether the data is being written straight into a mapped file.
+	 */
+	private boolean mIsMapped;
+	
+	/**
+	 * Whether this file has finished writing or not.
+	 */
+	private boolean mIsFinished;
+	
+	/**
+	 * The count of bits in the buffer.
+	 */
+	private int mBitCount;
+	
+	/**
+	 * A buffer that will be the next 64 bits output to the file, 
+	 * filled from the top down.
+	 */
+	private long mBuffer;
+	
+	/**
+	 * The path this message is writing out to.
+	 */
+	private String mPath;
+	
+	
+}
+//end of class.
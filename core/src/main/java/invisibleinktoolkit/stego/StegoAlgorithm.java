@@ -22,7 +22,6 @@ package invisibleinktoolkit.stego;
 
 import java.io.IOException;
 import java.awt.image.BufferedImage;
-import java.awt.Frame;
 
 
 /**
@@ -71,6 +70,17 @@ public interface StegoAlgorithm{
 	public RetrievedMessage decode(StegoImage simage, long seed, String path)
 	throws IOException, NoMessageException;
 	
+	/**
+	 * Gets whether a message will fit inside a given cover image.
+	 *
+	 * @param message The message to hide.
+	 * @param image The cover image to hide in.
+	 * @return True if the message will fit, false otherwise.
+	 * @throws IOException If an I/O error occurred.
+	 */
+	public boolean willMessageFit(InsertableMessage message,
+			CoverImage image) throws IOException;
+	
 	/**
 	 * Outputs a simulation of where it is writing to.
 	 *
@@ -112,13 +122,6 @@ public interface StegoAlgorithm{
 	 */
 	public void setStartBits(int newstart);
 	
-	/**
-	 * Pops up a window to alter the configuration.
-	 *
-	 * @param parent The parent frame to display this within.
-	 */
-	public void openConfigurationWindow(Frame parent);
-	
 	/**
 	 * Returns text explaining what this algorithm does.
 	 * 
@@ -140,5 +143,13 @@ public interface StegoAlgorithm{
 	 */
 	public boolean getMatch();
 	
+	/**
+	 * Makes a new algorithm of the same kind with the same settings,
+	 * which can be used at the same time as this one.
+	 *
+	 * @return A copy of this algorithm.
+	 */
+	public StegoAlgorithm copy();
+	
 }
 //end of interface.
@@ -24,6 +24,8 @@ import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
+import invisibleinktoolkit.util.ImageRaster;
+import invisibleinktoolkit.util.Shot;
 
 
 /**
@@ -109,13 +111,35 @@ public class StegoImage{
 	
 	/**
 	 * Gets the image.
+	 * <P>
+	 * The image may be changed after it has been got, the next
+	 * bit read will read it in again.
 	 *
 	 * @return The image.
 	 */
 	public BufferedImage getImage(){
+		mRaster = null;
 		return mStego;
 	}
 	
+	/**
+	 * Gets the width of the stego image.
+	 *
+	 * @return The width of the image.
+	 */
+	public int getWidth(){
+		return mStego.getWidth();
+	}
+	
+	/**
+	 * Gets the height of the stego image.
+	 *
+	 * @return The height of the image.
+	 */
+	public int getHeight(){
+		return mStego.getHeight();
+	}
+	
 	/**
 	 * Gets a particular bit in the image, and puts
 	 * it into the LSB of an integer.
@@ -127,11 +151,63 @@ public class StegoImage{
 	 * @return The bit at the given position, as the LSB of an integer.
 	 */
 	public int getPixelBit(int xpos, int ypos, int layer, int bitpos){
-		int pixel = mStego.getRGB(xpos, ypos);
+		int pixel = this.getRaster().getPixel(xpos, ypos);
 		int layerpos = (layer * 8) + bitpos;
 		return ((pixel >> layerpos) & 0x1);
 	}
 	
+	/**
+	 * Gets a bit from the image.
+	 *
+	 * @param position The shot to read, packed with Shot.pack().
+	 * @return The bit at that position.
+	 */
+	public int getPixelBit(long position){
+		int pixel = this.getRaster().getPixel(Shot.getIndex(position));
+		int layerpos = (Shot.getLayer(position) * 8) 
+			+ Shot.getBitPosition(position);
+		return ((pixel >> layerpos) & 0x1);
+	}
+	
+	/**
+	 * Gets a whole batch of bits from the image.
+	 * <P>
+	 * Each position is a shot packed with Shot.pack(), and the bits 
+	 * are packed 64 to a long - bit i is (bits[i / 64] >>> (i % 64)) 
+	 * &amp; 1.
+	 *
+	 * @param positions The packed shots to read.
+	 * @param bits The array to put the bits into.
+	 * @param count The number of positions to read.
+	 */
+	public void getPixelBits(long[] positions, long[] bits, int count){
+		int[] pixels = this.getRaster().getPixels();
+		
+		//clear out the words we are writing to
+		for(int i = 0; i < (count + 63) >> 6; i++)
+			bits[i] = 0;
+		
+		for(int i = 0; i < count; i++){
+			long position = positions[i];
+			int layerpos = (Shot.getLayer(position) * 8) 
+				+ Shot.getBitPosition(position);
+			long bit = (pixels[Shot.getIndex(position)] >> layerpos) & 0x1;
+			bits[i >> 6] |= bit << i;
+		}
+	}
+	
+	/**
+	 * Gets the raster bits are read from, reading the image in 
+	 * if it hasn't been read yet.
+	 *
+	 * @return The raster for the stego image.
+	 */
+	private ImageRaster getRaster(){
+		if(mRaster == null)
+			mRaster = new ImageRaster(mStego);
+		return mRaster;
+	}
+	
 	
 	//VARIABLES
 	
@@ -140,5 +216,11 @@ public class StegoImage{
 	 */
 	private BufferedImage mStego;
 	
+	/**
+	 * The raster bits are read from, or null if the image hasn't
+	 * been read in yet.
+	 */
+	private ImageRaster mRaster;
+	
 }
 //end of class.
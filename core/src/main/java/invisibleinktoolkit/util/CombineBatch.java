@@ -0,0 +1,458 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import java.io.File;
+import java.util.Vector;
+import java.util.TreeMap;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import invisibleinktoolkit.stego.*;
+import invisibleinktoolkit.filters.Filter;
+import invisibleinktoolkit.filters.Filterable;
+
+
+/**
+ * Hides every message in a folder in every image in another folder,
+ * with a list of algorithms, on several threads.
+ * <P>
+ * Each cover image is read from disk only once, and every combination
+ * for it gets a cover that shares the image until the algorithm first
+ * changes it.  The combinations are run by a fixed number of worker
+ * threads, fed through a short queue so only a few covers are in memory
+ * at once - when the queue is full, the thread adding the combinations
+ * runs one itself.  The stego images the workers make are passed on
+ * through another short queue to writer threads, which write them to
+ * disk while the workers carry on hiding.
+ * <P>
+ * Algorithms added by class name get a new instance for every
+ * combination, so they are run in parallel.  An algorithm instance
+ * that has been set up already (say from a window) can be added too -
+ * every combination gets its own copy of it, with the same settings and
+ * a copy of its filter, so these run in parallel as well.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class CombineBatch{
+	
+	//INNER CLASS
+	
+	/**
+	 * A stego image waiting to be written to disk.
+	 *
+	 * @author Kathryn Hempstalk.
+	 */
+	private static class Output{
+		
+		//CONSTRUCTORS
+		
+		/**
+		 * Creates a new image to write.
+		 *
+		 * @param image The image to write, or null to stop the writer.
+		 * @param file The file to write to.
+		 * @param number The number of the combination, for errors.
+		 * @param description What was hidden in the image, for errors.
+		 */
+		public Output(BufferedImage image, File file, long number,
+				String description){
+			mImage = image;
+			mFile = file;
+			mNumber = number;
+			mDescription = description;
+		}
+		
+		
+		//VARIABLES
+		
+		/**
+		 * The image to write, or null to stop the writer.
+		 */
+		private BufferedImage mImage;
+		
+		/**
+		 * The file to write to.
+		 */
+		private File mFile;
+		
+		/**
+		 * The number of the combination, for errors.
+		 */
+		private long mNumber;
+		
+		/**
+		 * What was hidden in the image, for errors.
+		 */
+		private String mDescription;
+		
+	}
+	//end of inner class.
+	
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Sets up a batch with no algorithms.
+	 *
+	 * @param outputfolder The folder to write the stego images to.
+	 * @param outformat The format to write the stego images in.
+	 * @param threads The number of worker threads to hide with.
+	 * @throws IllegalArgumentException If the output folder is not a
+	 * folder, or there are no threads.
+	 */
+	public CombineBatch(File outputfolder, String outformat, int threads)
+	throws IllegalArgumentException{
+		if(!outputfolder.isDirectory())
+			throw new IllegalArgumentException
+			("The output folder must be a folder!");
+		if(threads < 1)
+			throw new IllegalArgumentException
+			("There must be at least one thread!");
+		mOutputFolder = outputfolder;
+		mOutFormat = outformat;
+		mThreads = threads;
+		mNames = new Vector<String>();
+		mAlgorithms = new Vector<Object>();
+		mFilters = new Vector<String>();
+		mErrors = new TreeMap<Long,String>();
+		mVerbose = false;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Adds an algorithm by class name, which gets a new instance for
+	 * every combination.
+	 *
+	 * @param name The name to put in the output file names.
+	 * @param algorithm The class name of the algorithm.
+	 * @param filter The class name of the filter to use, or null for
+	 * the algorithm's own.
+	 */
+	public void addAlgorithm(String name, String algorithm, String filter){
+		mNames.add(name);
+		mAlgorithms.add(algorithm);
+		mFilters.add(filter);
+	}
+	
+	
+	/**
+	 * Adds an algorithm that has already been set up.  Each combination
+	 * hides with its own {@link StegoAlgorithm#copy() copy} of it.
+	 *
+	 * @param name The name to put in the output file names.
+	 * @param algorithm The algorithm.
+	 */
+	public void addAlgorithm(String name, StegoAlgorithm algorithm){
+		mNames.add(name);
+		mAlgorithms.add(algorithm);
+		mFilters.add(null);
+	}
+	
+	
+	/**
+	 * Sets whether to print out each file as it is made, and each one
+	 * that can't be.
+	 *
+	 * @param verbose Whether to print progress to the console.
+	 */
+	public void setVerbose(boolean verbose){
+		mVerbose = verbose;
+	}
+	
+	
+	/**
+	 * Hides every message in every image with every algorithm.
+	 * <P>
+	 * Images are files ending in .bmp, .jpg or .png, and messages are
+	 * files ending in .txt.  Each stego image is written as
+	 * image~message-name.format, and any combination that fails is
+	 * skipped.
+	 *
+	 * @param imagefolder The folder of cover images.
+	 * @param messagefolder The folder of messages.
+	 * @return A line for each combination that failed, in the order
+	 * they would have been run one at a time.
+	 * @throws IllegalArgumentException If either folder is not a folder.
+	 * @throws InterruptedException If the batch is interrupted.
+	 */
+	public String run(File imagefolder, File messagefolder)
+	throws IllegalArgumentException, InterruptedException{
+		
+		if(!imagefolder.isDirectory() || !messagefolder.isDirectory())
+			throw new IllegalArgumentException
+			("Not all passed files are folders!");
+		
+		String[] imagelist = imagefolder.list();
+		String[] messagelist = messagefolder.list();
+		mErrors = new TreeMap<Long,String>();
+		mNumCombinations = 0;
+		
+		//start up the writers
+		int numwriters = Math.max(1, mThreads / 2);
+		final BlockingQueue<Output> outputs = 
+			new ArrayBlockingQueue<Output>(mThreads * 2);
+		Thread[] writers = new Thread[numwriters];
+		for(int i = 0; i < numwriters; i++){
+			writers[i] = new Thread(){
+				public void run(){
+					writeOutputs(outputs);
+				}
+			};
+			writers[i].start();
+		}
+		
+		//and the workers
+		ThreadPoolExecutor workers = new ThreadPoolExecutor(mThreads,
+				mThreads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(mThreads * 2),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		try{
+			for(int i = 0; i < imagelist.length; i++){
+				if(imagelist[i].endsWith(".bmp") ||
+						imagelist[i].endsWith(".jpg") ||
+						imagelist[i].endsWith(".png")){
+					this.addCombinations(new File(imagefolder, imagelist[i]),
+							messagefolder, messagelist, workers, outputs);
+				}
+			}
+		}finally{
+			//let everything finish, then stop the writers
+			workers.shutdown();
+			try{
+				workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}catch(InterruptedException ie){
+				//give up on what's left, so no worker waits on the queue
+				workers.shutdownNow();
+				throw ie;
+			}finally{
+				for(int i = 0; i < numwriters; i++)
+					outputs.put(new Output(null, null, 0, null));
+				for(int i = 0; i < numwriters; i++)
+					writers[i].join();
+			}
+		}
+		
+		StringBuffer errors = new StringBuffer();
+		Iterator<String> iterator = mErrors.values().iterator();
+		while(iterator.hasNext())
+			errors.append("Error: Could not process: " + iterator.next() + "\n");
+		return errors.toString();
+	}
+	
+	
+	/**
+	 * Reads in a cover image and hands out all its combinations to the
+	 * workers.
+	 *
+	 * @param imagefile The cover image.
+	 * @param messagefolder The folder of messages.
+	 * @param messagelist The files in the message folder.
+	 * @param workers The workers to run the combinations.
+	 * @param outputs The queue the stego images go to.
+	 */
+	private void addCombinations(File imagefile, File messagefolder,
+			String[] messagelist, ThreadPoolExecutor workers,
+			final BlockingQueue<Output> outputs){
+		
+		final String imagename = imagefile.getName();
+		final String originalname = imagename.substring(0,
+				imagename.indexOf("."));
+		
+		//read the image once for all its combinations
+		BufferedImage image;
+		try{
+			image = ImageIO.read(imagefile);
+		}catch(Exception e){
+			image = null;
+		}
+		final BufferedImage cover = image;
+		
+		for(int j = 0; j < messagelist.length; j++){
+			if(!messagelist[j].endsWith(".txt"))
+				continue;
+			final String messagename = messagelist[j];
+			final String messagepath = new File(messagefolder,
+					messagelist[j]).getPath();
+			for(int k = 0; k < mNames.size(); k++){
+				final int setup = k;
+				final long number = mNumCombinations++;
+				workers.execute(new Runnable(){
+					public void run(){
+						combine(cover, imagename, originalname, messagename,
+								messagepath, setup, number, outputs);
+					}
+				});
+			}
+		}
+	}
+	
+	
+	/**
+	 * Hides a single message in a single cover image, and passes the
+	 * stego image on to be written.
+	 *
+	 * @param cover The shared cover image, or null if it couldn't be read.
+	 * @param imagename The file name of the cover image.
+	 * @param originalname The cover image name, without its extension.
+	 * @param messagename The file name of the message.
+	 * @param messagepath The path to the message.
+	 * @param setup The number of the algorithm to use.
+	 * @param number The number of the combination.
+	 * @param outputs The queue the stego images go to.
+	 */
+	private void combine(BufferedImage cover, String imagename,
+			String originalname, String messagename, String messagepath,
+			int setup, long number, BlockingQueue<Output> outputs){
+		
+		String description = imagename + " with " + messagename;
+		try{
+			//setup the filename...
+			String outputpath = originalname + "~"
+			+ messagename.substring(0, messagename.lastIndexOf("."))
+			+ "-" + mNames.get(setup) + "." + mOutFormat;
+			
+			//setup the algorithm...
+			Object algorithm = mAlgorithms.get(setup);
+			StegoAlgorithm alg;
+			if(algorithm instanceof StegoAlgorithm){
+				alg = ((StegoAlgorithm)algorithm).copy();
+			}else{
+				alg = (StegoAlgorithm)Class.forName
+				((String)algorithm).newInstance();
+				if(mFilters.get(setup) != null)
+					((Filterable)alg).setFilter((Filter)Class.forName
+							(mFilters.get(setup)).newInstance());
+			}
+			
+			//setup the two files...
+			if(cover == null)
+				throw new IllegalArgumentException
+				("File type is not a recognisable type.");
+			CoverImage cimage = new CoverImage(cover);
+			InsertableMessage imess = new InsertableMessage(messagepath);
+			
+			//encode it
+			if(mVerbose)
+				System.out.println("Outputting... " + outputpath);
+			StegoImage stego = alg.encode(imess, cimage, 0);
+			outputs.put(new Output(stego.getImage(),
+					new File(mOutputFolder, outputpath), number, description));
+		}catch(Exception e){
+			this.addError(number, description);
+		}
+	}
+	
+	
+	/**
+	 * Writes out the stego images passed to it, until it gets an empty
+	 * one.
+	 *
+	 * @param outputs The queue the stego images come from.
+	 */
+	private void writeOutputs(BlockingQueue<Output> outputs){
+		while(true){
+			Output output;
+			try{
+				output = outputs.take();
+			}catch(InterruptedException ie){
+				return;
+			}
+			if(output.mImage == null)
+				return;
+			try{
+				ImageIO.write(output.mImage, mOutFormat, output.mFile);
+			}catch(Exception e){
+				this.addError(output.mNumber, output.mDescription);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Notes down a combination that failed.
+	 *
+	 * @param number The number of the combination.
+	 * @param description What was being hidden.
+	 */
+	private synchronized void addError(long number, String description){
+		mErrors.put(Long.valueOf(number), description);
+		if(mVerbose)
+			System.out.println("Error processing image. Skipping...");
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The folder to write the stego images to.
+	 */
+	private File mOutputFolder;
+	
+	/**
+	 * The format to write the stego images in.
+	 */
+	private String mOutFormat;
+	
+	/**
+	 * The number of worker threads.
+	 */
+	private int mThreads;
+	
+	/**
+	 * The names of the algorithms, for the output file names.
+	 */
+	private Vector<String> mNames;
+	
+	/**
+	 * The algorithms, either as class names or set up instances.
+	 */
+	private Vector<Object> mAlgorithms;
+	
+	/**
+	 * The class names of the filters for each algorithm, or null.
+	 */
+	private Vector<String> mFilters;
+	
+	/**
+	 * What was being hidden in each combination that failed, by the
+	 * number of the combination.
+	 */
+	private TreeMap<Long,String> mErrors;
+	
+	/**
+	 * The number of combinations handed out so far.
+	 */
+	private long mNumCombinations;
+	
+	/**
+	 * Whether to print progress to the console.
+	 */
+	private boolean mVerbose;
+	
+}
+//end of class.
@@ -0,0 +1,99 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+
+/**
+ * A counter based psuedo-random number generator.
+ * <P>
+ * Instead of stepping through a sequence, each random number is
+ * worked out from the seed and a counter alone.  Number N is always
+ * the same for the same seed, no matter which numbers have been asked
+ * for before it, so different threads can each take the numbers for
+ * their own part of a job and still get the same answer as one thread
+ * doing all of it.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class CounterRandom{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new counter based generator.
+	 *
+	 * @param seed The seed to initialise the generator.
+	 */
+	public CounterRandom(long seed){
+		mSeed = mix(seed);
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets a random long.
+	 *
+	 * @param counter The number of the random number.
+	 * @return The random long for that counter.
+	 */
+	public long getLong(long counter){
+		return mix(mSeed + (counter * STEP));
+	}
+	
+	/**
+	 * Gets a random boolean.
+	 *
+	 * @param counter The number of the random number.
+	 * @return The random boolean for that counter.
+	 */
+	public boolean getBoolean(long counter){
+		return this.getLong(counter) < 0;
+	}
+	
+	/**
+	 * Mixes up the bits of a value (the SplitMix64 finaliser).
+	 * Every value mixes to a different value.
+	 *
+	 * @param value The value to mix.
+	 * @return The mixed value.
+	 */
+	public static long mix(long value){
+		value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+		return value ^ (value >>> 31);
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The step between the values for each counter.
+	 */
+	private static final long STEP = 0x9e3779b97f4a7c15L;
+	
+	/**
+	 * The mixed up seed.
+	 */
+	private long mSeed;
+	
+}
+//end of class.
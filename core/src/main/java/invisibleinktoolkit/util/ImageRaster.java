@@ -0,0 +1,247 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import java.awt.image.BufferedImage;
+
+
+/**
+ * A packed pixel raster for an image.
+ * <P>
+ * The raster reads the whole image once into an array of packed
+ * ARGB integers (the same format as BufferedImage.getRGB()), so
+ * that pixels can be read and changed without a colour model
+ * conversion on every access.  Changes are written back to the
+ * image in one go when the raster is flushed.
+ * <P>
+ * Images whose colour model cannot hold a packed pixel exactly
+ * (grey, indexed and premultiplied images) are written through on
+ * every change instead, so that they behave exactly as if getRGB()
+ * and setRGB() had been used directly.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ImageRaster{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new raster from the current contents of an image.
+	 *
+	 * @param image The image to read the pixels of.
+	 * @throws NullPointerException If the image is null.
+	 */
+	public ImageRaster(BufferedImage image) throws NullPointerException{
+		mImage = image;
+		mWidth = image.getWidth();
+		mHeight = image.getHeight();
+		mPixels = image.getRGB(0, 0, mWidth, mHeight, null, 0, mWidth);
+		mIsDirty = false;
+		
+		//work out how the pixels can be stored
+		int type = image.getType();
+		mWriteThrough = !(type == BufferedImage.TYPE_INT_RGB
+				|| type == BufferedImage.TYPE_INT_ARGB
+				|| type == BufferedImage.TYPE_INT_BGR
+				|| type == BufferedImage.TYPE_3BYTE_BGR
+				|| type == BufferedImage.TYPE_4BYTE_ABGR);
+		
+		//images without alpha always read back as opaque
+		if(image.getColorModel().hasAlpha())
+			mAlphaFill = 0;
+		else
+			mAlphaFill = 0xff000000;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the width of the raster.
+	 *
+	 * @return The width of the raster.
+	 */
+	public int getWidth(){
+		return mWidth;
+	}
+	
+	/**
+	 * Gets the height of the raster.
+	 *
+	 * @return The height of the raster.
+	 */
+	public int getHeight(){
+		return mHeight;
+	}
+	
+	/**
+	 * Gets the image this raster was read from.
+	 *
+	 * @return The image behind this raster.
+	 */
+	public BufferedImage getImage(){
+		return mImage;
+	}
+	
+	/**
+	 * Gets the packed pixels of this raster.
+	 * <P>
+	 * The pixels are stored in scan lines, so the pixel at (x,y)
+	 * is at position (y * width) + x.  The array should be treated
+	 * as read only - use setPixel() to change pixels.
+	 *
+	 * @return The packed ARGB pixels of the raster.
+	 */
+	public int[] getPixels(){
+		return mPixels;
+	}
+	
+	/**
+	 * Gets whether every change goes straight to the image.
+	 * <P>
+	 * When it doesn't, changes only touch the raster's own array, so
+	 * different pixels can safely be changed from different threads.
+	 *
+	 * @return True if changes are written through to the image.
+	 */
+	public boolean isWriteThrough(){
+		return mWriteThrough;
+	}
+	
+	/**
+	 * Gets a packed ARGB pixel.
+	 *
+	 * @param x The x position of the pixel.
+	 * @param y The y position of the pixel.
+	 * @return The pixel, in the same format as BufferedImage.getRGB().
+	 */
+	public int getPixel(int x, int y){
+		return mPixels[(y * mWidth) + x];
+	}
+	
+	/**
+	 * Sets a packed ARGB pixel.
+	 *
+	 * @param x The x position of the pixel.
+	 * @param y The y position of the pixel.
+	 * @param pixel The new pixel, in the same format as
+	 * BufferedImage.setRGB().
+	 */
+	public void setPixel(int x, int y, int pixel){
+		if(mWriteThrough){
+			//let the image convert it, and keep what it stored
+			mImage.setRGB(x, y, pixel);
+			mPixels[(y * mWidth) + x] = mImage.getRGB(x, y);
+		}else{
+			mPixels[(y * mWidth) + x] = pixel | mAlphaFill;
+			mIsDirty = true;
+		}
+	}
+	
+	/**
+	 * Gets a packed ARGB pixel by its position in the raster.
+	 *
+	 * @param index The position of the pixel, (y * width) + x.
+	 * @return The pixel, in the same format as BufferedImage.getRGB().
+	 */
+	public int getPixel(int index){
+		return mPixels[index];
+	}
+	
+	/**
+	 * Sets a packed ARGB pixel by its position in the raster.
+	 *
+	 * @param index The position of the pixel, (y * width) + x.
+	 * @param pixel The new pixel, in the same format as
+	 * BufferedImage.setRGB().
+	 */
+	public void setPixel(int index, int pixel){
+		if(mWriteThrough){
+			this.setPixel(index % mWidth, index / mWidth, pixel);
+		}else{
+			mPixels[index] = pixel | mAlphaFill;
+			mIsDirty = true;
+		}
+	}
+	
+	/**
+	 * Fills the whole raster with a single pixel value.
+	 *
+	 * @param pixel The pixel to fill with.
+	 */
+	public void fill(int pixel){
+		for(int y = 0; y < mHeight; y++){
+			for(int x = 0; x < mWidth; x++){
+				this.setPixel(x, y, pixel);
+			}
+		}
+	}
+	
+	/**
+	 * Writes any changed pixels back to the image.
+	 */
+	public void flush(){
+		if(mIsDirty){
+			mImage.setRGB(0, 0, mWidth, mHeight, mPixels, 0, mWidth);
+			mIsDirty = false;
+		}
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The image this raster was read from.
+	 */
+	private BufferedImage mImage;
+	
+	/**
+	 * The packed pixels, in scan lines.
+	 */
+	private int[] mPixels;
+	
+	/**
+	 * The width of the image.
+	 */
+	private int mWidth;
+	
+	/**
+	 * The height of the image.
+	 */
+	private int mHeight;
+	
+	/**
+	 * Whether pixels have changed since the last flush.
+	 */
+	private boolean mIsDirty;
+	
+	/**
+	 * Whether every change has to go straight to the image.
+	 */
+	private boolean mWriteThrough;
+	
+	/**
+	 * The alpha to put on pixels for images without alpha.
+	 */
+	private int mAlphaFill;
+	
+}
+//end of class.
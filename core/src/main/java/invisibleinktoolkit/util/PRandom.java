@@ -30,7 +30,7 @@ import java.util.Random;
  *
  * @author Kathryn Hempstalk.
  */
-public class PRandom{
+public class PRandom implements ShotSource{
 	
 	//CONSTRUCTORS
 	
@@ -55,7 +55,8 @@ public class PRandom{
 		mNumLayers = numlayers;
 		mStart = startrange;
 		mEnd = endrange;
-		mLastShot = null;
+		mLastX = 0;
+		mLastY = 0;
 		mRandomGen = new Random(seed);
 	}
 	
@@ -71,6 +72,16 @@ public class PRandom{
 	 * @return A shot for a steganography algorithm.
 	 */
 	public Shot getShot(){
+		return this.toShot(this.nextPosition());
+	}
+	
+	
+	/**
+	 * Generates a new shot, packed (see Shot.pack()).
+	 *
+	 * @return The next shot, packed.
+	 */
+	public long nextPosition(){
 		//generate x and y shots
 		int shotx = Math.abs(mRandomGen.nextInt(mWidth));
 		int shoty = Math.abs(mRandomGen.nextInt(mHeight));
@@ -83,9 +94,23 @@ public class PRandom{
 		Math.abs(mRandomGen.nextInt((mEnd - mStart) + 1));
 		
 		//return the next shot...
-		Shot sh = new Shot(shotx, shoty, bitpos, layer);
-		mLastShot = sh;
-		return sh;
+		mLastX = shotx;
+		mLastY = shoty;
+		return Shot.pack(shotx, shoty, mWidth, layer, bitpos);
+	}
+	
+	
+	/**
+	 * Generates a run of new shots, packed (see Shot.pack()).
+	 *
+	 * @param positions The array to put the packed shots in.
+	 * @param offset Where to put the first shot in the array.
+	 * @param count The number of shots to generate.
+	 */
+	public void nextPositions(long[] positions, int offset, int count){
+		for(int i = 0; i < count; i++){
+			positions[offset + i] = this.nextPosition();
+		}
 	}
 	
 	
@@ -100,26 +125,37 @@ public class PRandom{
 	 * @return The shot within the given range.
 	 */
 	public Shot getRangedShot(int range){
+		return this.toShot(this.nextRangedPosition(range));
+	}
+	
+	
+	/**
+	 * Generates a ranged shot, packed (see Shot.pack()).
+	 *
+	 * @param range The range to shoot within.
+	 * @return The shot within the given range, packed.
+	 */
+	public long nextRangedPosition(int range){
 		range = Math.abs(range);
 		
 		//check the up/down ranges
 		int rangeup, rangedown, rangeleft, rangeright;
-		if(mLastShot.getX() == 0)
+		if(mLastX == 0)
 			rangeleft = 0;
 		else
-			rangeleft = range % mLastShot.getX();
-		if( (mWidth - mLastShot.getX()) == 0)
+			rangeleft = range % mLastX;
+		if( (mWidth - mLastX) == 0)
 			rangeright = 0;
 		else
-			rangeright = range % (mWidth - mLastShot.getX());
-		if (mLastShot.getY() == 0)
+			rangeright = range % (mWidth - mLastX);
+		if (mLastY == 0)
 			rangeup = 0;
 		else
-			rangeup = range % mLastShot.getY();
-		if ( (mHeight - mLastShot.getY()) == 0)
+			rangeup = range % mLastY;
+		if ( (mHeight - mLastY) == 0)
 			rangedown = 0;
 		else
-			rangedown = range % (mHeight - mLastShot.getY());
+			rangedown = range % (mHeight - mLastY);
 		
 		int distright, distdown;
 		distright = rangeleft + rangeright;
@@ -127,8 +163,8 @@ public class PRandom{
 		
 		//take a shot
 		//generate x and y shots
-		int shotx = (mLastShot.getX() - rangeleft) + mRandomGen.nextInt(distright);
-		int shoty = (mLastShot.getY() - rangeup) + mRandomGen.nextInt(distdown);
+		int shotx = (mLastX - rangeleft) + mRandomGen.nextInt(distright);
+		int shoty = (mLastY - rangeup) + mRandomGen.nextInt(distdown);
 		
 		//generate layer position
 		int layer = Math.abs(mRandomGen.nextInt(mNumLayers));
@@ -137,7 +173,62 @@ public class PRandom{
 		int bitpos = mStart + 
 		Math.abs(mRandomGen.nextInt((mEnd - mStart) + 1));
 		
-		return new Shot(shotx, shoty, bitpos, layer);
+		return Shot.pack(shotx, shoty, mWidth, layer, bitpos);
+	}
+	
+	
+	/**
+	 * Unpacks a shot.
+	 *
+	 * @param position The packed shot.
+	 * @return The shot.
+	 */
+	private Shot toShot(long position){
+		return new Shot(Shot.getX(position, mWidth), 
+				Shot.getY(position, mWidth),
+				Shot.getBitPosition(position), Shot.getLayer(position));
+	}
+	
+	
+	/**
+	 * Creates a shot generator for a selection mode.
+	 *
+	 * @param selection The selection mode, RANDOM_SELECTION or
+	 * PERMUTED_SELECTION.
+	 * @param seed The seed to initialise the generator.
+	 * @param width The maximum breadth of the shots.
+	 * @param height The maximum height of the shots.
+	 * @param numlayers The number of layers for the shots.
+	 * @param startrange The start range of bit positions.
+	 * @param endrange The ending range of bit positions.
+	 * @return A shot generator for the selection mode.
+	 * @throws IllegalArgumentException If the selection mode is unknown.
+	 */
+	public static PRandom getGenerator(int selection, long seed,
+			int width, int height, int numlayers, int startrange,
+			int endrange) throws IllegalArgumentException{
+		switch(selection){
+			case RANDOM_SELECTION:
+				return new PRandom(seed, width, height, numlayers,
+						startrange, endrange);
+			case PERMUTED_SELECTION:
+				return new ShotPermutation(seed, width, height, numlayers,
+						startrange, endrange);
+			default:
+				throw new IllegalArgumentException
+				("Unknown shot selection mode!");
+		}
+	}
+	
+	
+	/**
+	 * Gets whether a generator for a selection mode can repeat shots.
+	 *
+	 * @param selection The selection mode.
+	 * @return True if shots can repeat, false if each shot is unique.
+	 */
+	public static boolean canRepeat(int selection){
+		return selection != PERMUTED_SELECTION;
 	}
 	
 	
@@ -147,11 +238,36 @@ public class PRandom{
 	 * @param sh The last shot.
 	 */
 	public void setLast(Shot sh){
-		mLastShot = sh;
+		mLastX = sh.getX();
+		mLastY = sh.getY();
+	}
+	
+	
+	/**
+	 * Allows the last shot to be set from a packed shot.
+	 *
+	 * @param position The last shot, packed.
+	 */
+	public void setLast(long position){
+		mLastX = Shot.getX(position, mWidth);
+		mLastY = Shot.getY(position, mWidth);
 	}
 	
 	
 	//VARIABLES
+	
+	/**
+	 * The original selection mode, where each shot is picked at random
+	 * and may be one that has already been made.
+	 */
+	public static final int RANDOM_SELECTION = 0;
+	
+	/**
+	 * The permuted selection mode, where shots are picked from a keyed
+	 * permutation and never repeat (see ShotPermutation).
+	 */
+	public static final int PERMUTED_SELECTION = 1;
+	
 	/**
 	 * A psuedorandom number generator.
 	 */
@@ -183,9 +299,14 @@ public class PRandom{
 	private int mEnd;
 	
 	/**
-	 * The last shot that was made.
+	 * The x position of the last shot that was made.
+	 */
+	private int mLastX;
+	
+	/**
+	 * The y position of the last shot that was made.
 	 */
-	private Shot mLastShot;
+	private int mLastY;
 	
 	
 }
@@ -0,0 +1,96 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import java.security.MessageDigest;
+
+
+/**
+ * Turns passwords into seeds for the stego algorithms.
+ * <P>
+ * The password is digested into an MD5 value, which is written out in
+ * hexadecimal and cut down to 15 characters - this is then read back in
+ * as a long value.  This makes the seed as unique as possible for each
+ * password, and means any password can be used, not just numbers.  The
+ * graphical interface and the command line both use this, so a message
+ * hidden with one can be retrieved with the other.
+ * <P>
+ * <B>This class will have no effect if instantiated.<\B>
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class PasswordSeed{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the seed for a password.
+	 *
+	 * @param password The password to get the seed for.
+	 * @return A numerical version of the password.
+	 */
+	public static long getSeed(String password){
+		try {
+			byte[] passbytes = password.getBytes();
+			MessageDigest digest = MessageDigest.getInstance("MD5");
+			digest.update(passbytes);
+			byte[] md5sum = digest.digest();
+			String smd5sum = toHexString(md5sum);
+			smd5sum = smd5sum.substring(0,15);
+			return Long.parseLong(smd5sum, 16);
+		} catch (Exception e) {
+			return 0;
+		}
+	}
+	
+	
+	/**
+	 * Converts a byte string to a String.
+	 *
+	 * @param bytestring The bytestring string to convert.
+	 * @return The string as a String.
+	 */
+	public static String toHexString(byte[] bytestring){
+		StringBuffer sb = new StringBuffer(bytestring.length * 2);
+		for(int i = 0; i < bytestring.length; i++){
+			// look up high nibble character
+			sb.append(hexChar[(bytestring[i] & 0xf0) >>> 4]);
+			
+			// look up low nibble character
+			sb.append(hexChar[bytestring[i] & 0x0f]);
+		}
+		return sb.toString();
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * An array of hexadecimal characters.
+	 */
+	private static char[] hexChar = {
+		'0' , '1' , '2' , '3' ,
+		'4' , '5' , '6' , '7' ,
+		'8' , '9' , 'a' , 'b' ,
+		'c' , 'd' , 'e' , 'f'};
+	
+}
+//end of class.
@@ -29,6 +29,13 @@ package invisibleinktoolkit.util;
  * pixel on the image, and the position of the bit that will
  * be changed by this "shot".
  *
+ * <P>
+ * A shot can also be packed into a single long, for when lots of
+ * shots need to be passed around at once.  The packed form holds
+ * the position of the pixel in the image's scan lines, (y * width) + x,
+ * in the top bits, then two bits of layer and three bits of bit
+ * position.
+ *
  * @author Kathryn Hempstalk
  */
 public class Shot{
@@ -99,6 +106,96 @@ public class Shot{
 		return mLayer;
 	}
 	
+	/**
+	 * Packs this shot into a long.
+	 *
+	 * @param width The width of the image the shot is on.
+	 * @return The packed shot.
+	 */
+	public long pack(int width){
+		return pack(mXPosition, mYPosition, width, mLayer, mBitPosition);
+	}
+	
+	/**
+	 * Packs a shot into a long.
+	 *
+	 * @param xpos The x position of the shot.
+	 * @param ypos The y position of the shot.
+	 * @param width The width of the image the shot is on.
+	 * @param layer The layer for the shot (0-3).
+	 * @param bitpos The bit position of the shot (0-7).
+	 * @return The packed shot.
+	 */
+	public static long pack(int xpos, int ypos, int width, int layer, 
+			int bitpos){
+		return pack((ypos * width) + xpos, layer, bitpos);
+	}
+	
+	/**
+	 * Packs a shot into a long.
+	 *
+	 * @param index The position of the pixel, (y * width) + x.
+	 * @param layer The layer for the shot (0-3).
+	 * @param bitpos The bit position of the shot (0-7).
+	 * @return The packed shot.
+	 */
+	public static long pack(int index, int layer, int bitpos){
+		return ((long)index << 5) | ((layer & 0x3) << 3) | (bitpos & 0x7);
+	}
+	
+	/**
+	 * Gets the x position of a packed shot.
+	 *
+	 * @param packed The packed shot.
+	 * @param width The width of the image the shot is on.
+	 * @return The x position of the shot.
+	 */
+	public static int getX(long packed, int width){
+		return getIndex(packed) % width;
+	}
+	
+	/**
+	 * Gets the y position of a packed shot.
+	 *
+	 * @param packed The packed shot.
+	 * @param width The width of the image the shot is on.
+	 * @return The y position of the shot.
+	 */
+	public static int getY(long packed, int width){
+		return getIndex(packed) / width;
+	}
+	
+	/**
+	 * Gets the position of the pixel, (y * width) + x, from a 
+	 * packed shot.
+	 *
+	 * @param packed The packed shot.
+	 * @return The position of the pixel in the image.
+	 */
+	public static int getIndex(long packed){
+		return (int)(packed >>> 5);
+	}
+	
+	/**
+	 * Gets the layer from a packed shot.
+	 *
+	 * @param packed The packed shot.
+	 * @return The layer for the shot.
+	 */
+	public static int getLayer(long packed){
+		return (int)(packed >>> 3) & 0x3;
+	}
+	
+	/**
+	 * Gets the bit position from a packed shot.
+	 *
+	 * @param packed The packed shot.
+	 * @return The bit position for the shot.
+	 */
+	public static int getBitPosition(long packed){
+		return (int)packed & 0x7;
+	}
+	
 	/**
 	 * Provides a string representation of the shot.
 	 *
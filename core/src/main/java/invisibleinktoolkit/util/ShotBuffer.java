@@ -0,0 +1,238 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import invisibleinktoolkit.stego.CoverImage;
+import invisibleinktoolkit.stego.StegoImage;
+
+
+/**
+ * A buffer of shots, and the bits that go with them.
+ * <P>
+ * Rather than hiding or retrieving one bit at a time, an algorithm
+ * can collect its shots in a buffer and then hide or retrieve them
+ * all at once.  The shots are stored packed (see Shot.pack()) and
+ * the bits 64 to a long, ready for the batch functions on 
+ * CoverImage and StegoImage.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ShotBuffer{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new shot buffer with the default size.
+	 *
+	 * @param width The width of the image the shots are on.
+	 */
+	public ShotBuffer(int width){
+		this(width, DEFAULT_SIZE);
+	}
+	
+	/**
+	 * Creates a new shot buffer.
+	 *
+	 * @param width The width of the image the shots are on.
+	 * @param size The number of shots the buffer holds - this will
+	 * be rounded up to a multiple of 64.
+	 */
+	public ShotBuffer(int width, int size){
+		int words = (size + 63) >> 6;
+		mWidth = width;
+		mPositions = new long[words << 6];
+		mBits = new long[words];
+		mSubtract = new long[words];
+		mCount = 0;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Adds a shot to be retrieved.
+	 *
+	 * @param sh The shot to add.
+	 */
+	public void add(Shot sh){
+		this.add(sh.pack(mWidth));
+	}
+	
+	/**
+	 * Adds a packed shot (see Shot.pack()) to be retrieved.
+	 *
+	 * @param position The packed shot to add.
+	 */
+	public void add(long position){
+		mPositions[mCount] = position;
+		mCount++;
+	}
+	
+	/**
+	 * Adds a shot and the bit to hide there.
+	 *
+	 * @param sh The shot to add.
+	 * @param bit The bit to hide.
+	 * @param subtract Whether to subtract one when matching the bit.
+	 */
+	public void add(Shot sh, boolean bit, boolean subtract){
+		this.add(sh.pack(mWidth), bit, subtract);
+	}
+	
+	/**
+	 * Adds a packed shot (see Shot.pack()) and the bit to hide there.
+	 *
+	 * @param position The packed shot to add.
+	 * @param bit The bit to hide.
+	 * @param subtract Whether to subtract one when matching the bit.
+	 */
+	public void add(long position, boolean bit, boolean subtract){
+		if(bit)
+			mBits[mCount >> 6] |= 1L << mCount;
+		if(subtract)
+			mSubtract[mCount >> 6] |= 1L << mCount;
+		this.add(position);
+	}
+	
+	/**
+	 * Fills the buffer with shots to be retrieved.
+	 *
+	 * @param source Where to get the shots from.
+	 * @param max The most shots to add.
+	 * @return The number of shots added.
+	 */
+	public int fill(ShotSource source, int max){
+		int count = Math.min(max, mPositions.length - mCount);
+		source.nextPositions(mPositions, mCount, count);
+		mCount += count;
+		return count;
+	}
+	
+	/**
+	 * Gets whether the buffer is full.
+	 *
+	 * @return True if no more shots can be added.
+	 */
+	public boolean isFull(){
+		return mCount == mPositions.length;
+	}
+	
+	/**
+	 * Gets the number of shots in the buffer.
+	 *
+	 * @return The number of shots.
+	 */
+	public int getCount(){
+		return mCount;
+	}
+	
+	/**
+	 * Gets the packed shots in the buffer.
+	 *
+	 * @return The packed shots.
+	 */
+	public long[] getPositions(){
+		return mPositions;
+	}
+	
+	/**
+	 * Gets the bits in the buffer, packed 64 to a long.
+	 *
+	 * @return The bits.
+	 */
+	public long[] getBits(){
+		return mBits;
+	}
+	
+	/**
+	 * Hides all the bits in the buffer, then empties it.
+	 *
+	 * @param cimage The image to hide the bits in.
+	 * @param match Whether to use LSB matching instead of replacing.
+	 * @param maxChangePosition The maximum position LSB matching can
+	 * change.
+	 */
+	public void hide(CoverImage cimage, boolean match, 
+			int maxChangePosition){
+		if(!match)
+			cimage.setPixelBits(mPositions, mBits, mCount);
+		else
+			cimage.matchPixelBits(mPositions, mBits, mSubtract,
+					maxChangePosition, mCount);
+		this.clear();
+	}
+	
+	/**
+	 * Reads the bits for all the shots in the buffer.  The bits can 
+	 * then be got with getBits().
+	 *
+	 * @param simage The image to read the bits from.
+	 */
+	public void retrieve(StegoImage simage){
+		simage.getPixelBits(mPositions, mBits, mCount);
+	}
+	
+	/**
+	 * Empties the buffer.
+	 */
+	public void clear(){
+		for(int i = 0; i < mBits.length; i++){
+			mBits[i] = 0;
+			mSubtract[i] = 0;
+		}
+		mCount = 0;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The default number of shots in a buffer.
+	 */
+	public static final int DEFAULT_SIZE = 4096;
+	
+	/**
+	 * The width of the image the shots are on.
+	 */
+	private int mWidth;
+	
+	/**
+	 * The packed shots.
+	 */
+	private long[] mPositions;
+	
+	/**
+	 * The bits to go with the shots.
+	 */
+	private long[] mBits;
+	
+	/**
+	 * Whether to subtract when matching each bit.
+	 */
+	private long[] mSubtract;
+	
+	/**
+	 * The number of shots in the buffer.
+	 */
+	private int mCount;
+	
+}
+//end of class.
@@ -0,0 +1,208 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+
+/**
+ * A psuedo-random shot generator that never repeats a shot.
+ * <P>
+ * Every possible shot (pixel, layer and bit position) is numbered,
+ * and the numbers are put through a keyed Feistel network to shuffle
+ * them.  The network works on a power of two sized range, so any
+ * number that falls outside the real range is put through again
+ * (cycle walking) until it lands inside it.  This means each shot is
+ * made exactly once, in an order decided by the seed, without having
+ * to remember which shots have already been made.
+ * <P>
+ * Ranged shots are still made the same way as PRandom makes them,
+ * around the last normal shot, so they can repeat.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ShotPermutation extends PRandom{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new shot permutation with a set seed.
+	 *
+	 * @param seed The seed to key the permutation with.
+	 * @param width The maximum breadth of the shots.
+	 * @param height The maximum height of the shots.
+	 * @param numlayers The number of layers for the shots.
+	 * @param startrange The start range of bit positions.
+	 * @param endrange The ending range of bit positions.
+	 * @throws IllegalArgumentException If there are no shots to make.
+	 */
+	public ShotPermutation(long seed, int width, int height,
+			int numlayers, int startrange,
+			int endrange) throws IllegalArgumentException{
+		
+		super(seed, width, height, numlayers, startrange, endrange);
+		
+		mNumLayers = numlayers;
+		mStart = startrange;
+		mNumBits = (endrange - startrange) + 1;
+		mSize = (long)width * height * numlayers * mNumBits;
+		if(mSize <= 0)
+			throw new IllegalArgumentException
+			("There are no shots to make!");
+		
+		//split the smallest power of two range in half
+		int bits = 64 - Long.numberOfLeadingZeros(Math.max(mSize - 1, 1));
+		mHalfBits = (bits + 1) / 2;
+		mHalfMask = (1L << mHalfBits) - 1;
+		
+		//one key for each round
+		mKeys = new long[ROUNDS];
+		for(int i = 0; i < ROUNDS; i++){
+			mKeys[i] = CounterRandom.mix(seed + ((i + 1) * KEY_STEP));
+		}
+		mNext = 0;
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Generates a new shot, packed (see Shot.pack()).
+	 *
+	 * The shot will not have been made before by this generator.
+	 *
+	 * @return The next shot, packed.
+	 * @throws IllegalStateException If every shot has been made.
+	 */
+	public long nextPosition() throws IllegalStateException{
+		if(mNext >= mSize)
+			throw new IllegalStateException
+			("Every shot has already been made!");
+		
+		//work out the shot from its number
+		long position = this.permute(mNext++);
+		int bitpos = mStart + (int)(position % mNumBits);
+		position = position / mNumBits;
+		int layer = (int)(position % mNumLayers);
+		int index = (int)(position / mNumLayers);
+		
+		//return the next shot...
+		long packed = Shot.pack(index, layer, bitpos);
+		this.setLast(packed);
+		return packed;
+	}
+	
+	
+	/**
+	 * Gets the number of shots that have not been made yet.
+	 *
+	 * @return The number of shots left.
+	 */
+	public long getRemaining(){
+		return mSize - mNext;
+	}
+	
+	
+	/**
+	 * Gets where a shot number is moved to by the permutation.
+	 *
+	 * @param index The number of the shot, from 0 to the number of
+	 * possible shots.
+	 * @return The shuffled number of the shot, in the same range.
+	 */
+	public long permute(long index){
+		long value = this.encrypt(index);
+		while(value >= mSize)
+			value = this.encrypt(value);
+		return value;
+	}
+	
+	
+	/**
+	 * Puts a value through the Feistel network once.
+	 *
+	 * @param value The value to encrypt, within the power of two range.
+	 * @return The encrypted value.
+	 */
+	private long encrypt(long value){
+		long left = value >>> mHalfBits;
+		long right = value & mHalfMask;
+		for(int i = 0; i < ROUNDS; i++){
+			long temp = left ^ (CounterRandom.mix(right ^ mKeys[i]) & mHalfMask);
+			left = right;
+			right = temp;
+		}
+		return (left << mHalfBits) | right;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The number of rounds in the Feistel network.
+	 */
+	private static final int ROUNDS = 4;
+	
+	/**
+	 * The step between the seeds of each round key.
+	 */
+	private static final long KEY_STEP = 0x9e3779b97f4a7c15L;
+	
+	/**
+	 * The number of layers this will generate shots for.
+	 */
+	private int mNumLayers;
+	
+	/**
+	 * The start range of the bit positions.
+	 */
+	private int mStart;
+	
+	/**
+	 * The number of bit positions in the range.
+	 */
+	private int mNumBits;
+	
+	/**
+	 * The number of possible shots.
+	 */
+	private long mSize;
+	
+	/**
+	 * The number of bits in each half of the network.
+	 */
+	private int mHalfBits;
+	
+	/**
+	 * A mask for one half of the network.
+	 */
+	private long mHalfMask;
+	
+	/**
+	 * The keys for each round.
+	 */
+	private long[] mKeys;
+	
+	/**
+	 * The number of the next shot to make.
+	 */
+	private long mNext;
+	
+}
+//end of class.
@@ -0,0 +1,259 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+
+/**
+ * A set of shots that have been used on an image.
+ * <P>
+ * The set holds one bit for every bit position (0-7) of every layer
+ * (0-2) of every pixel, so it takes 3 bytes a pixel.  The bits can be 
+ * held in a normal array, or outside of the Java heap for very large 
+ * images.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ShotSet{
+	
+	//CONSTRUCTORS
+	
+	/**
+	 * Creates a new, empty, set of shots.  Images with at least 
+	 * OFFHEAP_PIXELS pixels have their set kept outside of the Java 
+	 * heap, as long as it fits in one buffer.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @throws IllegalArgumentException If the image is too big.
+	 */
+	public ShotSet(int width, int height) throws IllegalArgumentException{
+		this(width, height, isLarge(width, height));
+	}
+	
+	/**
+	 * Creates a new, empty, set of shots.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param offheap Whether to keep the set outside of the Java heap.
+	 * @throws IllegalArgumentException If the image is too big.
+	 */
+	public ShotSet(int width, int height, boolean offheap)
+	throws IllegalArgumentException{
+		mWidth = width;
+		long words = (((long)width * height * BITS_PER_PIXEL) + 63) >> 6;
+		
+		if(offheap){
+			if(words * 8 > Integer.MAX_VALUE)
+				throw new IllegalArgumentException
+				("Image is too big for the shot set!");
+			mBits = null;
+			mDirectBits = ByteBuffer.allocateDirect((int)words * 8)
+				.asLongBuffer();
+		}else{
+			if(words > Integer.MAX_VALUE)
+				throw new IllegalArgumentException
+				("Image is too big for the shot set!");
+			mBits = new long[(int)words];
+			mDirectBits = null;
+		}
+	}
+	
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets whether the set for an image should be kept off the heap.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @return True if the image is large, and its set fits in one buffer.
+	 */
+	private static boolean isLarge(int width, int height){
+		long pixels = (long)width * height;
+		return pixels >= OFFHEAP_PIXELS
+			&& (((pixels * BITS_PER_PIXEL) + 63) >> 6) * 8 <= Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Adds a shot to the set.
+	 *
+	 * @param sh The shot to add.
+	 * @return True if the shot wasn't already in the set.
+	 */
+	public boolean add(Shot sh){
+		return this.add(sh.getX(), sh.getY(), sh.getLayer(), 
+				sh.getBitPosition());
+	}
+	
+	/**
+	 * Adds a shot to the set.
+	 *
+	 * @param x The x position of the shot.
+	 * @param y The y position of the shot.
+	 * @param layer The layer of the shot.
+	 * @param bitpos The bit position of the shot.
+	 * @return True if the shot wasn't already in the set.
+	 */
+	public boolean add(int x, int y, int layer, int bitpos){
+		return this.set(this.getPosition(x, y, layer, bitpos));
+	}
+	
+	/**
+	 * Adds a packed shot (see Shot.pack()) to the set.
+	 *
+	 * @param position The packed shot to add.
+	 * @return True if the shot wasn't already in the set.
+	 */
+	public boolean add(long position){
+		return this.set(this.getPosition(position));
+	}
+	
+	/**
+	 * Gets whether a shot is in the set.
+	 *
+	 * @param sh The shot to look for.
+	 * @return True if the shot is in the set.
+	 */
+	public boolean contains(Shot sh){
+		return this.contains(sh.getX(), sh.getY(), sh.getLayer(), 
+				sh.getBitPosition());
+	}
+	
+	/**
+	 * Gets whether a shot is in the set.
+	 *
+	 * @param x The x position of the shot.
+	 * @param y The y position of the shot.
+	 * @param layer The layer of the shot.
+	 * @param bitpos The bit position of the shot.
+	 * @return True if the shot is in the set.
+	 */
+	public boolean contains(int x, int y, int layer, int bitpos){
+		return this.isSet(this.getPosition(x, y, layer, bitpos));
+	}
+	
+	/**
+	 * Gets whether a packed shot (see Shot.pack()) is in the set.
+	 *
+	 * @param position The packed shot to look for.
+	 * @return True if the shot is in the set.
+	 */
+	public boolean contains(long position){
+		return this.isSet(this.getPosition(position));
+	}
+	
+	/**
+	 * Sets the bit for a shot.
+	 *
+	 * @param pos The position of the shot's bit.
+	 * @return True if the bit wasn't already set.
+	 */
+	private boolean set(long pos){
+		int word = (int)(pos >>> 6);
+		long bit = 1L << pos;
+		
+		if(mBits != null){
+			long old = mBits[word];
+			mBits[word] = old | bit;
+			return (old & bit) == 0;
+		}else{
+			long old = mDirectBits.get(word);
+			mDirectBits.put(word, old | bit);
+			return (old & bit) == 0;
+		}
+	}
+	
+	/**
+	 * Gets whether the bit for a shot is set.
+	 *
+	 * @param pos The position of the shot's bit.
+	 * @return True if the bit is set.
+	 */
+	private boolean isSet(long pos){
+		int word = (int)(pos >>> 6);
+		long bit = 1L << pos;
+		
+		if(mBits != null)
+			return (mBits[word] & bit) != 0;
+		else
+			return (mDirectBits.get(word) & bit) != 0;
+	}
+	
+	/**
+	 * Works out where a shot is kept in the set.
+	 *
+	 * @param x The x position of the shot.
+	 * @param y The y position of the shot.
+	 * @param layer The layer of the shot.
+	 * @param bitpos The bit position of the shot.
+	 * @return The position of the shot's bit.
+	 */
+	private long getPosition(int x, int y, int layer, int bitpos){
+		return ((((long)y * mWidth) + x) * BITS_PER_PIXEL) 
+			+ (layer * 8) + bitpos;
+	}
+	
+	/**
+	 * Works out where a packed shot is kept in the set.
+	 *
+	 * @param position The packed shot.
+	 * @return The position of the shot's bit.
+	 */
+	private long getPosition(long position){
+		return ((long)Shot.getIndex(position) * BITS_PER_PIXEL)
+			+ (Shot.getLayer(position) * 8) + Shot.getBitPosition(position);
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The number of bits kept for each pixel.
+	 */
+	private static final int BITS_PER_PIXEL = 24;
+	
+	/**
+	 * The number of pixels from which the set is kept off the heap
+	 * (48MB of set), so huge images don't crowd the heap.
+	 */
+	public static final long OFFHEAP_PIXELS = 1L << 24;
+	
+	/**
+	 * The width of the image.
+	 */
+	private int mWidth;
+	
+	/**
+	 * The set, when it is on the heap.
+	 */
+	private long[] mBits;
+	
+	/**
+	 * The set, when it is off the heap.
+	 */
+	private LongBuffer mDirectBits;
+	
+}
+//end of class.
@@ -0,0 +1,55 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+
+/**
+ * A source of packed shots.
+ * <P>
+ * A shot source gives out the same shots, in the same order, as a
+ * shot generator would, only packed into a long (see Shot.pack())
+ * instead of as a new Shot.  This means an algorithm can pick every
+ * position it hides in without creating any objects.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public interface ShotSource{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Gets the next shot.
+	 *
+	 * @return The next shot, packed.
+	 */
+	public long nextPosition();
+	
+	/**
+	 * Gets a run of shots.
+	 *
+	 * @param positions The array to put the packed shots in.
+	 * @param offset Where to put the first shot in the array.
+	 * @param count The number of shots to get.
+	 */
+	public void nextPositions(long[] positions, int offset, int count);
+	
+}
+//end of interface.
@@ -0,0 +1,91 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+
+/**
+ * The one pool of threads that work is shared out on.
+ * <P>
+ * The filters, the benchmarks and the threaded hiding all split their
+ * work into tasks and run them here, so however many images are being
+ * worked on at once there are never more threads busy than the pool
+ * has.  The number of threads each of them is given only decides how
+ * finely its work is split up.  The pool has one thread for each
+ * processor, and is never shut down - its threads are daemons, so it
+ * doesn't keep the program running.
+ * <P>
+ * <B>This class will have no effect if instantiated.<\B>
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class TaskPool{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Runs a task on the pool, and waits for it to finish.
+	 *
+	 * @param task The task to run.
+	 */
+	public static void invoke(ForkJoinTask<?> task){
+		getPool().invoke(task);
+	}
+	
+	
+	/**
+	 * Gets the pool of threads, starting it if needed.
+	 *
+	 * @return The pool of threads.
+	 */
+	public static synchronized ForkJoinPool getPool(){
+		if(mPool == null)
+			mPool = new ForkJoinPool(THREADS);
+		return mPool;
+	}
+	
+	
+	/**
+	 * Gets the number of threads in the pool.
+	 *
+	 * @return The number of threads in the pool.
+	 */
+	public static int getThreads(){
+		return THREADS;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The number of threads in the pool.
+	 */
+	private static final int THREADS = 
+		Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * The pool of threads, once it has been started.
+	 */
+	private static ForkJoinPool mPool;
+	
+}
+//end of class.
@@ -32,9 +32,7 @@ import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.BufferedReader;
 import java.io.IOException;
-import invisibleinktoolkit.stego.*;
 import invisibleinktoolkit.filters.Filterable;
-import invisibleinktoolkit.filters.Filter;
 
 /**
  * Utilities for testing out benchmarks.
@@ -139,6 +137,34 @@ public final class TestingUtils{
 			File outputfolder, boolean bmpformat,
 			String[] algorithms, String[] filters)
 	throws IllegalArgumentException{
+		combineFolders(imagefolder, messagefolder, outputfolder, bmpformat,
+				algorithms, filters, Runtime.getRuntime().availableProcessors());
+	}
+	
+	
+	/**
+	 * Combines a folder of images and a folder of messages, on a number
+	 * of threads.
+	 * <P>
+	 * This is the same as the other combineFolders(), but the
+	 * combinations are run by a CombineBatch, with the given number of
+	 * worker threads.  Each image is only read from disk once.
+	 *
+	 * @param imagefolder The folder containing the original images.
+	 * @param messagefolder The folder containing the messages.
+	 * @param outputfolder The folder to output the results to.
+	 * @param bmpformat The format to output the stego-files (if true,
+	 * uses bmp, if false uses png).
+	 * @param algorithms The list of algorithms to use.
+	 * @param filters The list of filters to use.
+	 * @param threads The number of threads to hide with.
+	 * @throws IllegalArgumentException If the files aren't directories,
+	 * the list of algorithms has nothing in it, or there are no threads.
+	 */
+	public static final void combineFolders(File imagefolder, File messagefolder,
+			File outputfolder, boolean bmpformat,
+			String[] algorithms, String[] filters, int threads)
+	throws IllegalArgumentException{
 		
 		//set the output file format
 		String outformat = "png";
@@ -157,92 +183,39 @@ public final class TestingUtils{
 		
 		
 		//now we're good to go...
-		
-		String[] messagelist = messagefolder.list();
-		String[] imagelist = imagefolder.list();
-		CoverImage cimage;
-		InsertableMessage imess;
-		StegoAlgorithm alg;
-		String coverfilepath, messagefilepath, outputpath, originalname;
-		String fileseparator = System.getProperty("file.separator");
-		
-		//for each file in the image folder...
-		for(int i = 0; i < imagelist.length; i++){
-			if(imagelist[i].endsWith(".bmp") ||
-					imagelist[i].endsWith(".jpg") ||
-					imagelist[i].endsWith(".png")){
-				//ok to combine it...
-				coverfilepath = imagefolder.getPath() + fileseparator
-				+ imagelist[i];
-				originalname = imagelist[i].substring(0, imagelist[i].indexOf("."));
-				
-				//for each message in the message folder...
-				for(int j = 0; j < messagelist.length; j++){
-					if(messagelist[j].endsWith(".txt")){
-						//ok to combine...
-						messagefilepath = messagefolder.getPath() + 
-						fileseparator + messagelist[j];
-						
-						//now write it out using each algorithm...
-						
-						for(int k = 0; k < algorithms.length; k++){
-							try{
-								//setup the algorithm...
-								alg =  (StegoAlgorithm)Class.forName(algorithms[k]).newInstance();
-								
-								if(alg instanceof Filterable){
-									for(int l = 0; l < filters.length; l++){
-										//setup the filter...
-										((Filterable)alg).setFilter
-										((Filter)Class.forName(filters[l]).newInstance());
-										
-										//setup the two files...
-										cimage = new CoverImage(coverfilepath);
-										imess = new InsertableMessage(messagefilepath);
-										
-										//setup the filename...
-										outputpath = originalname + "~"
-										+ messagelist[j].substring(0,messagelist[j].lastIndexOf("."))
-										+ "-" 
-										+ algorithms[k].toLowerCase().substring(algorithms[k].lastIndexOf(".") + 1,
-												algorithms[k].length())
-												+ "-"
-												+ filters[l].toLowerCase().substring(filters[l].lastIndexOf(".") + 1,
-														filters[l].length())
-														+ "." + outformat;
-										
-										//encode it
-										System.out.println("Outputting... " + outputpath);
-										StegoImage stego = alg.encode(imess, cimage, 0);
-										stego.write(outformat, new File(outputfolder, outputpath));	
-									}
-								}else{
-									//setup the two files...
-									cimage = new CoverImage(coverfilepath);
-									imess = new InsertableMessage(messagefilepath);
-									
-									//setup the filename...
-									outputpath = originalname + "~"
-									+ messagelist[j].substring(0,messagelist[j].lastIndexOf("."))
-									+ "-" 
-									+ algorithms[k].toLowerCase().substring(algorithms[k].lastIndexOf(".") + 1,
-											algorithms[k].length())
-											+ "." + outformat;
-									//encode it
-									System.out.println("Outputting... " + outputpath);
-									StegoImage stego = alg.encode(imess, cimage, 0);
-									stego.write(outformat, new File(outputfolder, outputpath));	
-								}	
-							}catch(Exception e){
-								//just go on to the next one...
-								System.out.println("Error processing image. Skipping...");
-							}
-						}
-					}
+		CombineBatch batch = new CombineBatch(outputfolder, outformat, threads);
+		batch.setVerbose(true);
+		for(int k = 0; k < algorithms.length; k++){
+			String name = algorithms[k].toLowerCase().substring
+			(algorithms[k].lastIndexOf(".") + 1, algorithms[k].length());
+			
+			//filtered algorithms are run once with each filter
+			boolean filterable;
+			try{
+				filterable = Class.forName(algorithms[k]).newInstance()
+				instanceof Filterable;
+			}catch(Exception e){
+				//it will fail (and be skipped) for each combination
+				filterable = false;
+			}
+			if(filterable){
+				for(int l = 0; l < filters.length; l++){
+					batch.addAlgorithm(name + "-" + filters[l].toLowerCase()
+							.substring(filters[l].lastIndexOf(".") + 1,
+									filters[l].length()),
+							algorithms[k], filters[l]);
 				}
+			}else{
+				batch.addAlgorithm(name, algorithms[k], null);
 			}
 		}
 		
+		try{
+			batch.run(imagefolder, messagefolder);
+		}catch(InterruptedException ie){
+			System.out.println("Combining interrupted, stopping...");
+		}
+		
 		//it is done.
 	}
 	
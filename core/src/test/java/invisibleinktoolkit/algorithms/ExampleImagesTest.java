@@ -0,0 +1,145 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.algorithms;
+
+import invisibleinktoolkit.filters.Laplace;
+import invisibleinktoolkit.filters.Sobel;
+import invisibleinktoolkit.stego.StegoAlgorithm;
+import invisibleinktoolkit.stego.StegoImage;
+import invisibleinktoolkit.util.PasswordSeed;
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import javax.imageio.ImageIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Retrieves the messages from the example stego images in the README.
+ * <P>
+ * Each example hides the same 64517 byte PDF file in cove.png, in the
+ * 4 least significant bits, with the password "123".  This checks 
+ * that images made by older versions of the toolkit can still be 
+ * read.  The two BattleSteg examples are not checked - they were made
+ * before the BattleSteg shuffling was fixed, and can't be read back
+ * with any settings of this version.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ExampleImagesTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Retrieves the BlindHide example.
+	 */
+	@Test
+	public void testBlindHide() throws Exception{
+		this.check("bh", new BlindHide(0, 3));
+	}
+	
+	
+	/**
+	 * Retrieves the HideSeek example.
+	 */
+	@Test
+	public void testHideSeek() throws Exception{
+		this.check("hs", new HideSeek(0, 3));
+	}
+	
+	
+	/**
+	 * Retrieves the FilterFirst example that used a Laplace filter.
+	 */
+	@Test
+	public void testFilterFirstLaplace() throws Exception{
+		FilterFirst algorithm = new FilterFirst();
+		algorithm.setEndBits(3);
+		algorithm.setFilter(new Laplace());
+		this.check("ff_lp", algorithm);
+	}
+	
+	
+	/**
+	 * Retrieves the FilterFirst example that used a Sobel filter.
+	 */
+	@Test
+	public void testFilterFirstSobel() throws Exception{
+		FilterFirst algorithm = new FilterFirst();
+		algorithm.setEndBits(3);
+		algorithm.setFilter(new Sobel());
+		this.check("ff_sb", algorithm);
+	}
+	
+	
+	/**
+	 * Retrieves the message from an example, and checks it is the 
+	 * file that was hidden.
+	 *
+	 * @param name The name of the example, after "cove_hidden_".
+	 * @param algorithm The algorithm it was hidden with.
+	 */
+	private void check(String name, StegoAlgorithm algorithm) 
+			throws Exception{
+		StegoImage simage = new StegoImage(ImageIO.read(
+				this.getClass().getResource("/images/cove_hidden_" 
+					+ name + ".png")));
+		File decoded = mFolder.newFile();
+		algorithm.decode(simage, PasswordSeed.getSeed(PASSWORD), 
+				decoded.getPath());
+		
+		byte[] message = Files.readAllBytes(decoded.toPath());
+		assertEquals(name, MESSAGE_SIZE, message.length);
+		MessageDigest digest = MessageDigest.getInstance("MD5");
+		assertEquals(name, MESSAGE_MD5, 
+				PasswordSeed.toHexString(digest.digest(message)));
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The password the examples were hidden with.
+	 */
+	private static final String PASSWORD = "123";
+	
+	/**
+	 * The number of bytes in the hidden file.
+	 */
+	private static final int MESSAGE_SIZE = 64517;
+	
+	/**
+	 * The MD5 sum of the hidden file.
+	 */
+	private static final String MESSAGE_MD5 = 
+		"2b9c4a829dda2d3f4f9d5aeaca00ae3a";
+	
+	/**
+	 * A folder for the retrieved messages, removed after each test.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
@@ -0,0 +1,117 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.algorithms;
+
+import invisibleinktoolkit.stego.CoverImage;
+import invisibleinktoolkit.stego.NoMessageException;
+import invisibleinktoolkit.stego.StegoImage;
+import invisibleinktoolkit.util.PRandom;
+import invisibleinktoolkit.util.ShotSet;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Retrieves from images whose first 32 bits give a size that only 
+ * just doesn't fit - as a wrong password can.  The message fits in
+ * the image, but not after the 32 bits of the size, so there is no
+ * message rather than running out of shots.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class NoMessageTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * HideSeek picking shots at random.
+	 */
+	@Test(timeout = 60000, expected = NoMessageException.class)
+	public void testRandomSelection() throws Exception{
+		this.tryDecode(PRandom.RANDOM_SELECTION);
+	}
+	
+	
+	/**
+	 * HideSeek picking shots from a permutation.
+	 */
+	@Test(timeout = 60000, expected = NoMessageException.class)
+	public void testPermutedSelection() throws Exception{
+		this.tryDecode(PRandom.PERMUTED_SELECTION);
+	}
+	
+	
+	/**
+	 * Writes a size that is too big into the first 32 shots HideSeek
+	 * makes, then tries to retrieve it.
+	 *
+	 * @param selection The selection mode to use.
+	 */
+	private void tryDecode(int selection) throws Exception{
+		CoverImage cimage = new CoverImage(new BufferedImage(SIZE, SIZE,
+				BufferedImage.TYPE_INT_RGB));
+		
+		//the same shots HideSeek makes for the size
+		PRandom rgen = PRandom.getGenerator(selection, SEED, SIZE, SIZE,
+				cimage.getLayerCount(), 0, 0);
+		ShotSet shots = new ShotSet(SIZE, SIZE);
+		long[] positions = new long[32];
+		for(int i = 0; i < 32; i++){
+			long sh = rgen.nextPosition();
+			while(!shots.add(sh))
+				sh = rgen.nextPosition();
+			positions[i] = sh;
+		}
+		
+		//16 bits short of the image, so 16 too many with the size
+		long space = SIZE * SIZE * cimage.getLayerCount();
+		long[] bits = {(space - 16) / 8};
+		cimage.setPixelBits(positions, bits, 32);
+		
+		HideSeek algorithm = new HideSeek();
+		algorithm.setSelection(selection);
+		algorithm.decode(new StegoImage(cimage.getImage()), SEED, 
+				mFolder.newFile().getPath());
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The width and height of the image.
+	 */
+	private static final int SIZE = 16;
+	
+	/**
+	 * The seed to retrieve with.
+	 */
+	private static final long SEED = 99;
+	
+	/**
+	 * A folder for the retrieved messages, removed after each test.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
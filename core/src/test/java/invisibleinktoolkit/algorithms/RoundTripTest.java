@@ -0,0 +1,244 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.algorithms;
+
+import invisibleinktoolkit.stego.*;
+import invisibleinktoolkit.util.PRandom;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+
+
+/**
+ * Hides a message with each algorithm and gets it back out again.
+ * <P>
+ * Every algorithm is tried with and without LSB matching, with each 
+ * selection mode it has, and on covers with even and odd sizes.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class RoundTripTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Round trips BlindHide.
+	 */
+	@Test
+	public void testBlindHide() throws Exception{
+		for(boolean match : MATCHES){
+			BlindHide algorithm = new BlindHide();
+			algorithm.setMatch(match);
+			this.roundTrip(algorithm);
+		}
+	}
+	
+	
+	/**
+	 * Round trips HideSeek in both selection modes.
+	 */
+	@Test
+	public void testHideSeek() throws Exception{
+		for(int selection : SELECTIONS){
+			for(boolean match : MATCHES){
+				HideSeek algorithm = new HideSeek();
+				algorithm.setSelection(selection);
+				algorithm.setMatch(match);
+				this.roundTrip(algorithm);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Round trips FilterFirst, with the original hiding and on 
+	 * several threads.
+	 */
+	@Test
+	public void testFilterFirst() throws Exception{
+		for(int threads : THREADS){
+			for(boolean match : MATCHES){
+				FilterFirst algorithm = new FilterFirst();
+				algorithm.setThreads(threads);
+				algorithm.setMatch(match);
+				this.roundTrip(algorithm);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Round trips DynamicFilterFirst.
+	 */
+	@Test
+	public void testDynamicFilterFirst() throws Exception{
+		for(boolean match : MATCHES){
+			DynamicFilterFirst algorithm = new DynamicFilterFirst();
+			algorithm.setMatch(match);
+			this.roundTrip(algorithm);
+		}
+	}
+	
+	
+	/**
+	 * Round trips BattleSteg in both selection modes.
+	 */
+	@Test
+	public void testBattleSteg() throws Exception{
+		for(int selection : SELECTIONS){
+			for(boolean match : MATCHES){
+				BattleSteg algorithm = new BattleSteg();
+				algorithm.setSelection(selection);
+				algorithm.setMatch(match);
+				this.roundTrip(algorithm);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Round trips DynamicBattleSteg in both selection modes.
+	 */
+	@Test
+	public void testDynamicBattleSteg() throws Exception{
+		for(int selection : SELECTIONS){
+			for(boolean match : MATCHES){
+				DynamicBattleSteg algorithm = new DynamicBattleSteg();
+				algorithm.setSelection(selection);
+				algorithm.setMatch(match);
+				this.roundTrip(algorithm);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Hides a message in each cover and checks the same message comes
+	 * back out, both from the stego image in memory and after it has
+	 * been written out to a PNG and read back in.  The PNG is read by
+	 * a copy of the algorithm, which must have the same settings.
+	 *
+	 * @param algorithm The algorithm to round trip.
+	 */
+	private void roundTrip(StegoAlgorithm algorithm) throws Exception{
+		Random random = new Random(SEED);
+		byte[] message = new byte[MESSAGE_SIZE];
+		random.nextBytes(message);
+		File messagefile = mFolder.newFile();
+		FileOutputStream out = new FileOutputStream(messagefile);
+		try{
+			out.write(message);
+		}finally{
+			out.close();
+		}
+		
+		for(int[] size : SIZES){
+			BufferedImage cover = makeCover(size[0], size[1], random);
+			String name = algorithm.getClass().getName() + " on " 
+				+ size[0] + "x" + size[1];
+			StegoImage simage = algorithm.encode(
+					new InsertableMessage(messagefile.getPath()),
+					new CoverImage(cover), SEED);
+			
+			File decoded = mFolder.newFile();
+			algorithm.decode(simage, SEED, decoded.getPath());
+			assertArrayEquals(name, message, 
+					Files.readAllBytes(decoded.toPath()));
+			
+			File png = mFolder.newFile();
+			simage.write("png", png);
+			decoded = mFolder.newFile();
+			algorithm.copy().decode(new StegoImage(ImageIO.read(png)), SEED,
+					decoded.getPath());
+			assertArrayEquals(name + " from a PNG", message, 
+					Files.readAllBytes(decoded.toPath()));
+		}
+	}
+	
+	
+	/**
+	 * Makes a cover image full of noise, so every filter has something
+	 * to find.
+	 *
+	 * @param width The width of the cover.
+	 * @param height The height of the cover.
+	 * @param random Where the noise comes from.
+	 * @return The cover image.
+	 */
+	private static BufferedImage makeCover(int width, int height, 
+			Random random){
+		BufferedImage cover = new BufferedImage(width, height, 
+				BufferedImage.TYPE_INT_RGB);
+		for(int y = 0; y < height; y++)
+			for(int x = 0; x < width; x++)
+				cover.setRGB(x, y, random.nextInt(0x1000000));
+		return cover;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The seed to hide and retrieve with.
+	 */
+	private static final long SEED = 1234567;
+	
+	/**
+	 * The number of bytes in the message.
+	 */
+	private static final int MESSAGE_SIZE = 300;
+	
+	/**
+	 * The cover sizes to try - one even, and one odd both ways.
+	 */
+	private static final int[][] SIZES = {{96, 64}, {101, 77}};
+	
+	/**
+	 * Both LSB matching settings.
+	 */
+	private static final boolean[] MATCHES = {false, true};
+	
+	/**
+	 * Both selection modes.
+	 */
+	private static final int[] SELECTIONS = {PRandom.RANDOM_SELECTION, 
+		PRandom.PERMUTED_SELECTION};
+	
+	/**
+	 * The thread settings to try FilterFirst with.
+	 */
+	private static final int[] THREADS = {0, 1, 3};
+	
+	/**
+	 * A folder for the messages and images, removed after each test.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
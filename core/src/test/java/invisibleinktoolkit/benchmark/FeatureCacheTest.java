@@ -0,0 +1,166 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+
+/**
+ * Checks the feature cache finds what was put in it, and nothing else.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FeatureCacheTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Features come back out under their key, and other keys miss.
+	 */
+	@Test
+	public void testFeatures() throws Exception{
+		FeatureCache cache = new FeatureCache(mFolder.newFolder());
+		String key = cache.getKey(makeImage(1));
+		assertNull(cache.get(key));
+		
+		ImageFeatures features = new ImageFeatures(WIDTH, WIDTH);
+		features.setSamplePairs(new double[]{0.25, 0.5, 0.75});
+		features.setLaplace(new double[][]{{1, 2}, {3, 4}});
+		cache.put(key, features);
+		
+		ImageFeatures cached = cache.get(key);
+		assertNotNull(cached);
+		assertEquals(WIDTH, cached.getWidth());
+		assertNull(cached.getRS());
+		assertArrayEquals(features.getSamplePairs(),
+				cached.getSamplePairs(), 0);
+		assertArrayEquals(features.getLaplace()[1],
+				cached.getLaplace()[1], 0);
+		assertNull(cache.get(cache.getKey(makeImage(2))));
+	}
+	
+	
+	/**
+	 * The key only depends on the pixels, not where they came from.
+	 */
+	@Test
+	public void testKey() throws Exception{
+		FeatureCache cache = new FeatureCache(mFolder.newFolder());
+		BufferedImage image = makeImage(1);
+		File png = mFolder.newFile("image.png");
+		File bmp = mFolder.newFile("image.bmp");
+		ImageIO.write(image, "png", png);
+		ImageIO.write(image, "bmp", bmp);
+		
+		String key = cache.getKey(image);
+		assertEquals(key, cache.getKey(ImageIO.read(png)));
+		assertEquals(key, cache.getKey(ImageIO.read(bmp)));
+		assertFalse(key.equals(cache.getKey(makeImage(2))));
+		
+		//the same pixels in a different shape are a different image
+		BufferedImage wide = new BufferedImage(WIDTH * 2, WIDTH / 2,
+				BufferedImage.TYPE_INT_RGB);
+		assertFalse(cache.getKey(new BufferedImage(WIDTH, WIDTH,
+				BufferedImage.TYPE_INT_RGB)).equals(cache.getKey(wide)));
+	}
+	
+	
+	/**
+	 * An image file's key is only found while the file is unchanged.
+	 */
+	@Test
+	public void testFileKey() throws Exception{
+		FeatureCache cache = new FeatureCache(mFolder.newFolder());
+		File png = mFolder.newFile("image.png");
+		ImageIO.write(makeImage(1), "png", png);
+		assertNull(cache.getKey(png));
+		
+		String key = cache.getKey(ImageIO.read(png));
+		cache.putKey(png, key);
+		assertEquals(key, cache.getKey(png));
+		assertNull(cache.getKey(mFolder.newFile("other.png")));
+		
+		ImageIO.write(makeImage(2), "png", png);
+		png.setLastModified(png.lastModified() + 2000);
+		assertNull(cache.getKey(png));
+	}
+	
+	
+	/**
+	 * A broken entry is a miss, not an error.
+	 */
+	@Test
+	public void testBrokenEntry() throws Exception{
+		File folder = mFolder.newFolder();
+		FeatureCache cache = new FeatureCache(folder);
+		String key = cache.getKey(makeImage(1));
+		cache.put(key, new ImageFeatures(WIDTH, WIDTH));
+		Files.write(new File(new File(folder, "features"), key).toPath(),
+				new byte[]{1, 2, 3});
+		assertNull(cache.get(key));
+	}
+	
+	
+	/**
+	 * Makes an image full of noise.
+	 *
+	 * @param seed The seed for the noise.
+	 * @return The image.
+	 */
+	private static BufferedImage makeImage(long seed){
+		Random random = new Random(seed);
+		BufferedImage image = new BufferedImage(WIDTH, WIDTH,
+				BufferedImage.TYPE_INT_RGB);
+		for(int y = 0; y < WIDTH; y++)
+			for(int x = 0; x < WIDTH; x++)
+				image.setRGB(x, y, random.nextInt(0x1000000));
+		return image;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The width and height of the test images.
+	 */
+	private static final int WIDTH = 16;
+	
+	/**
+	 * Somewhere to put the cache and images.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
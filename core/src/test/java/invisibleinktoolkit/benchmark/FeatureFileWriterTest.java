@@ -0,0 +1,168 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Checks a feature file can be carried on from after being stopped
+ * part way, even in the middle of a row.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FeatureFileWriterTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * A half written row is cut off, and only the complete rows count
+	 * as done.
+	 */
+	@Test
+	public void testResumePartialRow() throws Exception{
+		File file = mFolder.newFile();
+		FeatureFileWriter writer = new FeatureFileWriter(file, false);
+		writer.start(HEADER);
+		writer.writeRow("a.png", "1,2,a.png");
+		writer.writeRow("b.png", "3,4,b.png");
+		writer.close();
+		
+		//stopped while writing the next row
+		Files.write(file.toPath(), (read(file) + "5,6,c.pn").getBytes());
+		
+		writer = new FeatureFileWriter(file, true);
+		writer.start(HEADER);
+		assertTrue(writer.isDone("a.png"));
+		assertTrue(writer.isDone("b.png"));
+		assertFalse(writer.isDone("c.png"));
+		assertFalse(writer.isDone("c.pn"));
+		writer.writeRow("c.png", "5,6,c.png");
+		writer.finish(FOOTER);
+		
+		assertEquals(HEADER + "1,2,a.png\n3,4,b.png\n5,6,c.png\n" + FOOTER,
+				read(file));
+	}
+	
+	
+	/**
+	 * A finished table has its footer cut off, so new rows go before
+	 * the new footer.
+	 */
+	@Test
+	public void testResumeFinished() throws Exception{
+		File file = mFolder.newFile();
+		FeatureFileWriter writer = new FeatureFileWriter(file, false);
+		writer.start(HEADER);
+		writer.writeRow("a.png", "1,2,a.png");
+		writer.finish(FOOTER);
+		
+		writer = new FeatureFileWriter(file, true);
+		writer.start(HEADER);
+		assertTrue(writer.isDone("a.png"));
+		writer.writeRow("b.png", "3,4,b.png");
+		writer.finish(FOOTER);
+		
+		assertEquals(HEADER + "1,2,a.png\n3,4,b.png\n" + FOOTER, read(file));
+	}
+	
+	
+	/**
+	 * A table written with different settings isn't carried on from,
+	 * and is left alone.
+	 */
+	@Test
+	public void testResumeDifferentHeader() throws Exception{
+		File file = mFolder.newFile();
+		FeatureFileWriter writer = new FeatureFileWriter(file, false);
+		writer.start(HEADER);
+		writer.writeRow("a.png", "1,2,a.png");
+		writer.close();
+		String before = read(file);
+		
+		writer = new FeatureFileWriter(file, true);
+		try{
+			writer.start("x,y,name\n");
+			fail("Carried on from a different table");
+		}catch(IOException ioe){
+			//expected
+		}
+		assertEquals(before, read(file));
+	}
+	
+	
+	/**
+	 * Not resuming starts the file again.
+	 */
+	@Test
+	public void testNoResume() throws Exception{
+		File file = mFolder.newFile();
+		Files.write(file.toPath(), (HEADER + "1,2,a.png\n").getBytes());
+		
+		FeatureFileWriter writer = new FeatureFileWriter(file, false);
+		writer.start(HEADER);
+		assertFalse(writer.isDone("a.png"));
+		writer.finish(FOOTER);
+		assertEquals(HEADER + FOOTER, read(file));
+	}
+	
+	
+	/**
+	 * Reads a whole file in.
+	 *
+	 * @param file The file.
+	 * @return What is in the file.
+	 */
+	private static String read(File file) throws IOException{
+		return new String(Files.readAllBytes(file.toPath()));
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The header of the test tables.
+	 */
+	private static final String HEADER = "first,second,name\n";
+	
+	/**
+	 * The footer of the test tables, a blank line as on CSV files.
+	 */
+	private static final String FOOTER = "\n";
+	
+	/**
+	 * Somewhere to put the test tables.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
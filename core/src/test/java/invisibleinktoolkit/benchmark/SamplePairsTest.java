@@ -0,0 +1,100 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.benchmark;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+
+/**
+ * Checks sample pairs analysis turns away odd sized images, and gives
+ * the same results on any number of threads.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class SamplePairsTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * An image with an odd width can't be analysed.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOddWidth(){
+		new SamplePairs().doAnalysis(makeImage(101, 76));
+	}
+	
+	
+	/**
+	 * An image with an odd height can't be analysed.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOddHeight(){
+		new SamplePairs().doAnalysis(makeImage(100, 77));
+	}
+	
+	
+	/**
+	 * A single colour can't be analysed in an odd sized image either.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOddColour(){
+		new SamplePairs().doAnalysis(makeImage(101, 77), 
+				SamplePairs.ANALYSIS_COLOUR_RED);
+	}
+	
+	
+	/**
+	 * The results are exactly the same whatever the number of threads.
+	 */
+	@Test
+	public void testThreads(){
+		BufferedImage image = makeImage(640, 480);
+		double[] expected = new SamplePairs().doAnalysis(image);
+		for(int threads = 2; threads <= 4; threads++){
+			SamplePairs analysis = new SamplePairs();
+			analysis.setThreads(threads);
+			assertArrayEquals(expected, analysis.doAnalysis(image), 0);
+		}
+	}
+	
+	
+	/**
+	 * Makes an image full of noise.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @return The image.
+	 */
+	private static BufferedImage makeImage(int width, int height){
+		Random random = new Random(width * height);
+		BufferedImage image = new BufferedImage(width, height, 
+				BufferedImage.TYPE_INT_RGB);
+		for(int y = 0; y < height; y++)
+			for(int x = 0; x < width; x++)
+				image.setRGB(x, y, random.nextInt(0x1000000));
+		return image;
+	}
+	
+}
+//end of class.
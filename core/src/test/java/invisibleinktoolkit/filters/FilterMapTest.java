@@ -0,0 +1,125 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.filters;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Checks a filter only filters an image again when its filtered bits
+ * have changed.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class FilterMapTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Setting the same image again keeps the values.
+	 */
+	@Test
+	public void testSameImage() throws Exception{
+		BufferedImage image = makeImage();
+		Laplace filter = new Laplace();
+		int[] first = FilterMap.filterImage(filter, image);
+		assertSame(first, FilterMap.filterImage(filter, image));
+	}
+	
+	
+	/**
+	 * Changing bits that aren't filtered keeps the values, as hiding
+	 * does.
+	 */
+	@Test
+	public void testUnfilteredBitsChanged() throws Exception{
+		BufferedImage image = makeImage();
+		Laplace filter = new Laplace(1, 8);
+		int[] first = FilterMap.filterImage(filter, image);
+		image.setRGB(5, 5, image.getRGB(5, 5) ^ 0x010101);
+		assertSame(first, FilterMap.filterImage(filter, image));
+	}
+	
+	
+	/**
+	 * Changing a filtered bit filters the image again.
+	 */
+	@Test
+	public void testFilteredBitsChanged() throws Exception{
+		BufferedImage image = makeImage();
+		Laplace filter = new Laplace(1, 8);
+		int[] first = FilterMap.filterImage(filter, image).clone();
+		image.setRGB(5, 5, image.getRGB(5, 5) ^ 0x800000);
+		int[] second = FilterMap.filterImage(filter, image);
+		assertArrayEquals(FilterMap.filterImage(new Laplace(1, 8), image),
+				second);
+		assertNotSame(first, second);
+		assertTrue(first[(5 * WIDTH) + 5] != second[(5 * WIDTH) + 5]);
+	}
+	
+	
+	/**
+	 * A different image, or different filtered bits, filters again.
+	 */
+	@Test
+	public void testOtherImageOrRange() throws Exception{
+		BufferedImage image = makeImage();
+		Sobel filter = new Sobel();
+		int[] first = FilterMap.filterImage(filter, image);
+		assertNotSame(first, FilterMap.filterImage(filter, makeImage()));
+		
+		first = FilterMap.filterImage(filter, image);
+		filter.setStartRange(filter.getStartRange() + 1);
+		assertNotSame(first, FilterMap.filterImage(filter, image));
+	}
+	
+	
+	/**
+	 * Makes an image full of noise.
+	 *
+	 * @return The image.
+	 */
+	private static BufferedImage makeImage(){
+		Random random = new Random(WIDTH);
+		BufferedImage image = new BufferedImage(WIDTH, WIDTH, 
+				BufferedImage.TYPE_INT_RGB);
+		for(int y = 0; y < WIDTH; y++)
+			for(int x = 0; x < WIDTH; x++)
+				image.setRGB(x, y, random.nextInt(0x1000000));
+		return image;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The width and height of the test images.
+	 */
+	private static final int WIDTH = 40;
+	
+}
+//end of class.
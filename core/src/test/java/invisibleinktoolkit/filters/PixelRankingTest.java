@@ -0,0 +1,153 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.filters;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+
+/**
+ * Checks the pixel rankings come out in exactly the same order as the
+ * FilteredPixels they replaced, ties and all.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class PixelRankingTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Ranking all the pixels matches sorting them with an FPComparator.
+	 */
+	@Test
+	public void testRank() throws Exception{
+		for(int[] size : SIZES){
+			int[] values = makeValues(size[0], size[1]);
+			FilteredPixel[] pixels = makePixels(values, size[0], size[1]);
+			Arrays.sort(pixels, new FPComparator());
+			assertArrayEquals(pack(pixels),
+					PixelRanking.rank(values, size[0], size[1]));
+		}
+	}
+	
+	
+	/**
+	 * Picking the top pixels matches filling a TreeSet, for sizes
+	 * smaller than, equal to and bigger than the image.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testTop() throws Exception{
+		for(int[] size : SIZES){
+			int[] values = makeValues(size[0], size[1]);
+			FilteredPixel[] pixels = makePixels(values, size[0], size[1]);
+			int total = size[0] * size[1];
+			for(int pick : new int[]{1, 7, (total / 2) + 1, total, total + 3}){
+				TreeSet set = new TreeSet(new FPComparator());
+				for(int k = 0; k < pixels.length; k++){
+					if(k < pick)
+						set.add(pixels[k]);
+					else if(pixels[k].getFilterValue() >
+					((FilteredPixel)set.first()).getFilterValue()){
+						set.remove(set.first());
+						set.add(pixels[k]);
+					}
+				}
+				FilteredPixel[] expected = new FilteredPixel[set.size()];
+				Iterator iterator = set.iterator();
+				for(int k = 0; k < expected.length; k++)
+					expected[k] = (FilteredPixel)iterator.next();
+				
+				assertArrayEquals(size[0] + "x" + size[1] + " top " + pick,
+						pack(expected),
+						PixelRanking.top(values, size[0], size[1], pick));
+			}
+		}
+	}
+	
+	
+	/**
+	 * Makes filter values with lots of ties, some of them negative,
+	 * and one value big enough to need a second radix digit.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @return The values, in scan lines.
+	 */
+	private static int[] makeValues(int width, int height){
+		Random random = new Random(width * height);
+		int[] values = new int[width * height];
+		for(int i = 0; i < values.length; i++)
+			values[i] = random.nextInt(9) - 4;
+		values[values.length / 3] = 1 << 14;
+		return values;
+	}
+	
+	
+	/**
+	 * Makes the filtered pixels going down each column, as the
+	 * algorithms used to.
+	 *
+	 * @param values The values, in scan lines.
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @return The pixels.
+	 */
+	private static FilteredPixel[] makePixels(int[] values, int width,
+			int height){
+		FilteredPixel[] pixels = new FilteredPixel[width * height];
+		for(int i = 0; i < width; i++)
+			for(int j = 0; j < height; j++)
+				pixels[(i * height) + j] = new FilteredPixel(i, j,
+						Math.abs(values[(j * width) + i]));
+		return pixels;
+	}
+	
+	
+	/**
+	 * Packs filtered pixels the same way as the rankings.
+	 *
+	 * @param pixels The pixels.
+	 * @return The packed pixels.
+	 */
+	private static long[] pack(FilteredPixel[] pixels){
+		long[] packed = new long[pixels.length];
+		for(int i = 0; i < pixels.length; i++)
+			packed[i] = PixelRanking.pack(pixels[i].getFilterValue(),
+					pixels[i].getX(), pixels[i].getY());
+		return packed;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The sizes of image to rank.
+	 */
+	private static final int[][] SIZES = {{1, 1}, {13, 7}, {30, 41}};
+	
+}
+//end of class.
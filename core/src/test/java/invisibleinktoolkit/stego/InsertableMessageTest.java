@@ -0,0 +1,128 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.stego;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+/**
+ * Checks reading a message a batch of bits at a time gives the same
+ * bits as reading it one at a time, wherever the batches start and end.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class InsertableMessageTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Reads the message in batches that start and end on, before and
+	 * after the edges of the 64 bit words.
+	 */
+	@Test
+	public void testNextBits() throws Exception{
+		byte[] message = new byte[MESSAGE_SIZE];
+		new Random(MESSAGE_SIZE).nextBytes(message);
+		File file = mFolder.newFile();
+		Files.write(file.toPath(), message);
+		
+		for(int[] batches : BATCHES){
+			InsertableMessage imess = new InsertableMessage(file.getPath());
+			long[] bits = new long[4];
+			int position = 0, next = 0;
+			while(imess.notFinished()){
+				int n = batches[next++ % batches.length];
+				int done = imess.nextBits(bits, n);
+				for(int i = 0; i < done; i++){
+					boolean bit = ((bits[i >> 6] >>> (i & 0x3f)) & 1) != 0;
+					assertEquals("bit " + position, getBit(message, position),
+							bit);
+					position++;
+				}
+				
+				//nothing is left set in the rest of the batch's words
+				for(int i = done; i < ((n + 63) >> 6) * 64; i++)
+					assertFalse(((bits[i >> 6] >>> (i & 0x3f)) & 1) != 0);
+			}
+			assertEquals(message.length * 8, position);
+		}
+	}
+	
+	
+	/**
+	 * Reading one bit at a time gives the bits of each byte from the
+	 * top down.
+	 */
+	@Test
+	public void testNextBit() throws Exception{
+		byte[] message = new byte[MESSAGE_SIZE];
+		new Random(MESSAGE_SIZE).nextBytes(message);
+		File file = mFolder.newFile();
+		Files.write(file.toPath(), message);
+		
+		InsertableMessage imess = new InsertableMessage(file.getPath());
+		for(int i = 0; i < message.length * 8; i++)
+			assertEquals("bit " + i, getBit(message, i), imess.nextBit());
+		assertFalse(imess.notFinished());
+	}
+	
+	
+	/**
+	 * Gets a bit of a message, from the top of each byte down.
+	 *
+	 * @param message The message.
+	 * @param position The position of the bit.
+	 * @return The bit.
+	 */
+	private static boolean getBit(byte[] message, int position){
+		return ((message[position >> 3] >>> (7 - (position & 7))) & 1) != 0;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The size of the test message - not a whole number of words.
+	 */
+	private static final int MESSAGE_SIZE = 203;
+	
+	/**
+	 * The batch sizes to read in, over and over.
+	 */
+	private static final int[][] BATCHES = {
+		{64}, {1}, {63}, {65}, {128}, {3, 64, 61, 130, 1, 200}, {256}};
+	
+	/**
+	 * Somewhere to put the test message.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
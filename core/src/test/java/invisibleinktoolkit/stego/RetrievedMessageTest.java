@@ -0,0 +1,182 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.stego;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+
+/**
+ * Checks writing a message a batch of bits at a time writes the same
+ * file as writing it one bit at a time, with or without a known size.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class RetrievedMessageTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Small messages, with and without a size, in uneven batches.
+	 */
+	@Test
+	public void testSetNext() throws Exception{
+		byte[] message = makeMessage(203);
+		for(long size : new long[]{-1, 0, 100, 203}){
+			assertArrayEquals("bit at a time, size " + size, message,
+					this.write(message, size, new int[]{1}));
+			assertArrayEquals("batches, size " + size, message,
+					this.write(message, size, new int[]{3, 64, 61, 130, 1}));
+		}
+	}
+	
+	
+	/**
+	 * A message that doesn't end on a byte has its last byte padded
+	 * with zeros.
+	 */
+	@Test
+	public void testPartialByte() throws Exception{
+		File file = mFolder.newFile();
+		RetrievedMessage rmess = new RetrievedMessage(file.getPath());
+		rmess.setNext(new long[]{0x1ffL}, 9);
+		rmess.close();
+		assertArrayEquals(new byte[]{(byte)0xff, (byte)0x80},
+				Files.readAllBytes(file.toPath()));
+	}
+	
+	
+	/**
+	 * A large message is mapped, and anything written past the size it
+	 * was given carries on after the end of the mapping.
+	 */
+	@Test
+	public void testPastMappedEnd() throws Exception{
+		int size = 1 << 24;
+		byte[] message = makeMessage(size + 13);
+		assertArrayEquals(message,
+				this.write(message, size, new int[]{4093, 64, 1 << 16}));
+		assertArrayEquals(message,
+				this.write(message, message.length + 50, new int[]{1 << 20}));
+	}
+	
+	
+	/**
+	 * Discarding a message that wasn't finished deletes it, but a
+	 * finished message is kept.
+	 */
+	@Test
+	public void testDiscard() throws Exception{
+		File file = mFolder.newFile();
+		RetrievedMessage rmess = new RetrievedMessage(file.getPath(), 10);
+		rmess.setNext(true);
+		rmess.discard();
+		assertFalse(file.exists());
+		
+		file = mFolder.newFile();
+		rmess = new RetrievedMessage(file.getPath(), 10);
+		rmess.setNext(true);
+		rmess.close();
+		rmess.discard();
+		assertArrayEquals(new byte[]{(byte)0x80},
+				Files.readAllBytes(file.toPath()));
+	}
+	
+	
+	/**
+	 * Writes a message out in batches.
+	 *
+	 * @param message The message to write.
+	 * @param size The size to give the retrieved message, or -1 for
+	 * none.
+	 * @param batches The batch sizes to write in, over and over.
+	 * @return What was written to disk.
+	 */
+	private byte[] write(byte[] message, long size, int[] batches)
+	throws Exception{
+		File file = mFolder.newFile();
+		RetrievedMessage rmess;
+		if(size < 0)
+			rmess = new RetrievedMessage(file.getPath());
+		else
+			rmess = new RetrievedMessage(file.getPath(), size);
+		
+		//pack the bits of each byte from the top down
+		long[] bits = new long[(message.length + 7) / 8];
+		for(int i = 0; i < message.length * 8; i++){
+			if(((message[i >> 3] >>> (7 - (i & 7))) & 1) != 0)
+				bits[i >> 6] |= 1L << (i & 0x3f);
+		}
+		
+		int position = 0, next = 0;
+		while(position < message.length * 8){
+			int n = Math.min(batches[next++ % batches.length],
+					(message.length * 8) - position);
+			if(n == 1){
+				rmess.setNext(((bits[position >> 6]
+				                     >>> (position & 0x3f)) & 1) != 0);
+			}else{
+				//the batch has to start at the front of an array
+				long[] batch = new long[(n + 63) / 64];
+				for(int i = 0; i < n; i++){
+					int at = position + i;
+					if(((bits[at >> 6] >>> (at & 0x3f)) & 1) != 0)
+						batch[i >> 6] |= 1L << (i & 0x3f);
+				}
+				rmess.setNext(batch, n);
+			}
+			position += n;
+		}
+		rmess.close();
+		return Files.readAllBytes(file.toPath());
+	}
+	
+	
+	/**
+	 * Makes a message full of noise.
+	 *
+	 * @param size The size of the message.
+	 * @return The message.
+	 */
+	private static byte[] makeMessage(int size){
+		byte[] message = new byte[size];
+		new Random(size).nextBytes(message);
+		return message;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * Somewhere to put the test messages.
+	 */
+	@Rule
+	public TemporaryFolder mFolder = new TemporaryFolder();
+	
+}
+//end of class.
@@ -0,0 +1,103 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Checks a shot permutation makes every shot exactly once, even when
+ * the number of shots isn't a power of two.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ShotPermutationTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Every shot comes out once, and then there are none left.
+	 */
+	@Test
+	public void testEveryShotOnce() throws Exception{
+		for(int[] size : SIZES){
+			int width = size[0], height = size[1], layers = size[2];
+			int start = size[3], end = size[4];
+			String name = width + "x" + height + "x" + layers
+			+ " bits " + start + "-" + end;
+			ShotPermutation permutation = new ShotPermutation(size.length,
+					width, height, layers, start, end);
+			ShotSet made = new ShotSet(width, height);
+			long total = (long)width * height * layers * ((end - start) + 1);
+			assertEquals(name, total, permutation.getRemaining());
+			
+			for(long i = 0; i < total; i++){
+				long shot = permutation.nextPosition();
+				assertTrue(name, Shot.getIndex(shot) < width * height);
+				assertTrue(name, Shot.getLayer(shot) < layers);
+				assertTrue(name, Shot.getBitPosition(shot) >= start
+						&& Shot.getBitPosition(shot) <= end);
+				assertTrue(name + " repeated a shot", made.add(shot));
+			}
+			assertEquals(name, 0, permutation.getRemaining());
+			try{
+				permutation.nextPosition();
+				fail(name + " made more shots than there are");
+			}catch(IllegalStateException ise){
+				//expected
+			}
+		}
+	}
+	
+	
+	/**
+	 * Different seeds give different orders.
+	 */
+	@Test
+	public void testSeedChangesOrder() throws Exception{
+		ShotPermutation first = new ShotPermutation(1, 7, 5, 3, 0, 1);
+		ShotPermutation second = new ShotPermutation(2, 7, 5, 3, 0, 1);
+		boolean same = true;
+		while(first.getRemaining() > 0){
+			if(first.nextPosition() != second.nextPosition())
+				same = false;
+		}
+		assertFalse(same);
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The width, height, layers, start and end bits to try - the first
+	 * is a power of two, the rest are not.
+	 */
+	private static final int[][] SIZES = {
+		{4, 4, 1, 0, 3}, {1, 1, 1, 0, 0}, {1, 1, 3, 2, 2},
+		{7, 5, 3, 0, 2}, {31, 17, 3, 1, 6}, {100, 3, 1, 0, 0}};
+	
+}
+//end of class.
@@ -0,0 +1,104 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Checks adding to a shot set says whether the shot was already there,
+ * on and off the heap.
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ShotSetTest{
+	
+	//FUNCTIONS
+	
+	/**
+	 * A shot is only new the first time it is added, however it is
+	 * added, and no other shot is touched.
+	 */
+	@Test
+	public void testAddOnce() throws Exception{
+		for(boolean offheap : new boolean[]{false, true}){
+			ShotSet set = new ShotSet(WIDTH, HEIGHT, offheap);
+			assertFalse(set.contains(0, 0, 0, 0));
+			assertTrue(set.add(0, 0, 0, 0));
+			assertFalse(set.add(0, 0, 0, 0));
+			
+			//the last bit of the last pixel, in each form
+			assertTrue(set.add(new Shot(WIDTH - 1, HEIGHT - 1, 7, 2)));
+			assertFalse(set.add(WIDTH - 1, HEIGHT - 1, 2, 7));
+			assertFalse(set.add(Shot.pack((WIDTH * HEIGHT) - 1, 2, 7)));
+			assertTrue(set.contains(Shot.pack((WIDTH * HEIGHT) - 1, 2, 7)));
+			
+			//its neighbours are still free
+			assertFalse(set.contains(WIDTH - 1, HEIGHT - 1, 2, 6));
+			assertFalse(set.contains(WIDTH - 1, HEIGHT - 1, 1, 7));
+			assertFalse(set.contains(WIDTH - 2, HEIGHT - 1, 2, 7));
+			assertTrue(set.add(Shot.pack((WIDTH * HEIGHT) - 1, 2, 6)));
+		}
+	}
+	
+	
+	/**
+	 * Adding every shot makes each one new exactly once, across all
+	 * the words of the set.
+	 */
+	@Test
+	public void testEveryShot() throws Exception{
+		for(boolean offheap : new boolean[]{false, true}){
+			ShotSet set = new ShotSet(WIDTH, HEIGHT, offheap);
+			for(int pass = 0; pass < 2; pass++){
+				for(int index = 0; index < WIDTH * HEIGHT; index++){
+					for(int layer = 0; layer < 3; layer++){
+						for(int bit = 0; bit < 8; bit++){
+							long shot = Shot.pack(index, layer, bit);
+							if(pass == 0)
+								assertTrue(set.add(shot));
+							else
+								assertFalse(set.add(shot));
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The width of the test image.
+	 */
+	private static final int WIDTH = 7;
+	
+	/**
+	 * The height of the test image.
+	 */
+	private static final int HEIGHT = 5;
+	
+}
+//end of class.
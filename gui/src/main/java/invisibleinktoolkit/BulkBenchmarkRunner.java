@@ -30,7 +30,7 @@ import java.io.InputStreamReader;
 import javax.swing.UIManager;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
-import invisibleinktoolkit.util.AFileFilter;
+import invisibleinktoolkit.gui.AFileFilter;
 import java.awt.image.BufferedImage;
 import invisibleinktoolkit.benchmark.LaplaceGraph;
 import invisibleinktoolkit.benchmark.TraditionalLaplaceGraph;
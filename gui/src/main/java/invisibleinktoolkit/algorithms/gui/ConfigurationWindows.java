@@ -0,0 +1,62 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+
+package invisibleinktoolkit.algorithms.gui;
+
+import java.awt.Frame;
+import invisibleinktoolkit.algorithms.BattleSteg;
+import invisibleinktoolkit.filters.Filterable;
+import invisibleinktoolkit.stego.StegoAlgorithm;
+
+
+/**
+ * Opens the right window for setting the options of an algorithm.
+ * <P>
+ * The algorithms themselves know nothing about windows, so they can be
+ * used without any of Swing.  BattleSteg (and Dynamic BattleSteg) have
+ * their own options, algorithms that use a filter can pick which one,
+ * and all the others just set the start and end bits.
+ * <P>
+ * <B>This class will have no effect if instantiated.<\B>
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class ConfigurationWindows{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Pops up a window to alter the configuration of an algorithm.
+	 *
+	 * @param parent The parent frame to display this within.
+	 * @param algorithm The algorithm to configure.
+	 */
+	public static void open(Frame parent, StegoAlgorithm algorithm){
+		if(algorithm instanceof BattleSteg)
+			new BattleStegWindow(parent, (BattleSteg)algorithm);
+		else if(algorithm instanceof Filterable)
+			new StartEndFilterWindow(parent, algorithm);
+		else
+			new StartEndWindow(parent, algorithm);
+		parent.repaint();
+	}
+	
+}
+//end of class.
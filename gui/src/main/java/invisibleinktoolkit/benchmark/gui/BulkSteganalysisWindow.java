@@ -38,8 +38,7 @@ import java.awt.event.ActionEvent;
 import javax.swing.JOptionPane;
 import java.io.File;
 import invisibleinktoolkit.benchmark.StegAnalyser;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import invisibleinktoolkit.benchmark.FeatureFileWriter;
 import java.util.Calendar;
 import java.text.DateFormat;
 import java.util.Date;
@@ -352,17 +351,12 @@ public class BulkSteganalysisWindow extends JDialog implements ActionListener{
 						
 						//CSV file
 						if(mFormatPanel.isCSVSelected()){
-							//now write to csv file...
-							String csvfile = sa.getCSV
-							(new File(mTFPanel.getOutputFolder()), 700);
-							
+							//now write to csv file as it goes...
 							filename1 = "steganalysis-" + datenow + ".csv";
 							filetowrite = new File(mSavePanel.getOutputFolder(),
 									filename1);
-							BufferedWriter bw = new BufferedWriter(new FileWriter
-									(filetowrite));
-							bw.write(csvfile, 0, csvfile.length());
-							bw.close();
+							sa.writeCSV(new File(mTFPanel.getOutputFolder()), 700,
+									new FeatureFileWriter(filetowrite, false));
 						}else{
 							//ARFF file
 							File temp = new File(mMFPanel.getOutputFolder());
@@ -371,15 +365,11 @@ public class BulkSteganalysisWindow extends JDialog implements ActionListener{
 							relation = relation + "_" + temp.getName() 
 							+ "_" + mAPanel.getAlgorithmName() + "_" + datenow;
 							
-							String arfffile = sa.getARFF
-							(new File(mTFPanel.getOutputFolder()), 700, relation);
 							filename1 = relation + ".arff";
 							filetowrite = new File(mSavePanel.getOutputFolder(),
 									filename1);
-							BufferedWriter bw = new BufferedWriter(new FileWriter
-									(filetowrite));
-							bw.write(arfffile, 0, arfffile.length());
-							bw.close();
+							sa.writeARFF(new File(mTFPanel.getOutputFolder()), 700,
+									relation, new FeatureFileWriter(filetowrite, false));
 						}
 					}catch(Exception e2){
 						pane.hide();
@@ -35,6 +35,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import invisibleinktoolkit.stego.StegoAlgorithm;
 import invisibleinktoolkit.algorithms.*;
+import invisibleinktoolkit.algorithms.gui.ConfigurationWindows;
 import invisibleinktoolkit.filters.Filterable;
 import invisibleinktoolkit.filters.Filter;
 
@@ -130,7 +131,7 @@ public class AlgorithmPanel extends JPanel implements ActionListener{
 			}
 		}else if (e.getActionCommand().equalsIgnoreCase("options")){
 			//set up the options for this algorithm...
-			mAlgorithm.openConfigurationWindow(mParent);
+			ConfigurationWindows.open(mParent, mAlgorithm);
 		}else if (e.getActionCommand().equalsIgnoreCase("explain")){
 			JOptionPane.showMessageDialog(this, mAlgorithm.explainMe(),
 					mAlgorithm.getClass().getSimpleName(),
@@ -20,7 +20,6 @@
 
 package invisibleinktoolkit.gui;
 
-import invisibleinktoolkit.util.InputImagesFileFilter;
 import javax.swing.JPanel;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -18,7 +18,7 @@
  *
  */
 
-package invisibleinktoolkit.util;
+package invisibleinktoolkit.gui;
 
 import javax.swing.filechooser.FileFilter;
 import java.io.File;
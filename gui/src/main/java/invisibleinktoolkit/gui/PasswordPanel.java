@@ -27,8 +27,7 @@ import javax.swing.border.TitledBorder;
 import java.awt.Dimension;
 import javax.swing.JLabel;
 import javax.swing.JPasswordField;
-import java.lang.StringBuffer;
-import java.security.MessageDigest;
+import invisibleinktoolkit.util.PasswordSeed;
 
 /**
  * A panel for entering in a password.
@@ -71,12 +70,8 @@ public class PasswordPanel extends JPanel{
 	 * Gets the password currently residing in the password field.
 	 * <P>
 	 * This does some calculations to return the password as a long value.
-	 * The function first gets the password value in the box, converts it
-	 * to a byte string.  This byte string is then digested into a MD5 value.
-	 * The byte string of the digest is converted back into a string, which
-	 * is then reduced to 15 characters.  Then the MD5 string is finally
-	 * converted to a long value.  This computation is done to make the 
-	 * password as unique as possible, and not necessarily short.
+	 * The password value in the box is turned into a seed by
+	 * PasswordSeed.getSeed(), which digests it into an MD5 value.
 	 *
 	 * @return A numerical version of the password.
 	 */
@@ -84,52 +79,12 @@ public class PasswordPanel extends JPanel{
 		String pass = new String(mPasswordField.getPassword());
 		if(pass == "")
 			return 0;
-		try {
-			byte[] passbytes = pass.getBytes();
-			MessageDigest digest = MessageDigest.getInstance("MD5");
-			digest.update(passbytes);
-			byte[] md5sum = digest.digest();
-			String smd5sum = toHexString(md5sum);
-			smd5sum = smd5sum.substring(0,15);
-			return Long.parseLong(smd5sum, 16);
-		} catch (Exception e) {
-			return 0;
-		}
-	}
-	
-	
-	/**
-	 * Converts a byte string to a String.
-	 *
-	 * @param b The bytestring string to convert.
-	 * @return The string as a String.
-	 */
-	private static String toHexString ( byte[] bytestring )
-	{
-		StringBuffer sb = new StringBuffer( bytestring.length * 2 );
-		for ( int i = 0; i < bytestring.length; i++ )
-		{
-			// look up high nibble character
-			sb.append( hexChar [( bytestring[i] & 0xf0 ) >>> 4] );
-			
-			// look up low nibble character
-			sb.append( hexChar [bytestring[i] & 0x0f] );
-		}
-		return sb.toString();
+		return PasswordSeed.getSeed(pass);
 	}
 	
 	
 	//VARIABLES
 	
-	/**
-	 * An array of hexadecimal characters.
-	 */
-	private static char[] hexChar = {
-		'0' , '1' , '2' , '3' ,
-		'4' , '5' , '6' , '7' ,
-		'8' , '9' , 'a' , 'b' ,
-		'c' , 'd' , 'e' , 'f'};
-	
 	/**
 	 * A button for the panel.
 	 */
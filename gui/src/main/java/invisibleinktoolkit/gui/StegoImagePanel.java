@@ -30,7 +30,6 @@ import javax.swing.JTextField;
 import javax.swing.JFileChooser;
 import java.awt.Dimension;
 import java.io.File;
-import invisibleinktoolkit.util.AFileFilter;
 
 /**
  * A panel for picking stego file to be output.
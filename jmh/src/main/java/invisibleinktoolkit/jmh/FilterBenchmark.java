@@ -0,0 +1,107 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.jmh;
+
+import java.awt.image.BufferedImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+import invisibleinktoolkit.filters.Filter;
+import invisibleinktoolkit.filters.FilterMap;
+
+
+/**
+ * Measures how fast each filter works out the values for a whole image.
+ * <P>
+ * A new filter is set up for every run, as the algorithms do, so the 
+ * time includes reading the image into the filter as well as filtering
+ * it.
+ *
+ * @author Kathryn Hempstalk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Makes the image to filter.
+	 */
+	@Setup(Level.Trial)
+	public void setUp(){
+		mImage = SyntheticImages.createCover(size, size, SEED);
+	}
+	
+	
+	/**
+	 * Filters the whole image.
+	 *
+	 * @return The filter values.
+	 * @throws Exception If the image could not be filtered.
+	 */
+	@Benchmark
+	public int[] filter() throws Exception{
+		Filter afilter = (Filter)Class.forName
+		("invisibleinktoolkit.filters." + filter).newInstance();
+		return FilterMap.filterImage(afilter, mImage);
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The seed for the image.
+	 */
+	private static final long SEED = 20051225L;
+	
+	/**
+	 * The filter to benchmark.
+	 */
+	@Param({"Laplace", "Sobel", "Prewitt", "TraditionalLaplace"})
+	public String filter;
+	
+	/**
+	 * The width and height of the image.
+	 */
+	@Param({"256", "1024", "2048"})
+	public int size;
+	
+	/**
+	 * The image to filter.
+	 */
+	private BufferedImage mImage;
+	
+}
+//end of class.
@@ -0,0 +1,71 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.jmh;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the performance benchmarks, reporting the allocation rate as 
+ * well as the number of operations a second.
+ * <P>
+ * This takes the same arguments as the JMH runner, so a regular 
+ * expression picks which benchmarks to run, -p sets the parameters,
+ * and so on.  For example, to only benchmark FilterFirst encoding on 
+ * 1024x1024 covers:
+ * <PRE>
+ *  java -jar diit-jmh.jar "StegoBenchmark.encode" -p algorithm=FilterFirst
+ *       -p size=1024
+ * </PRE>
+ * <B>This class will have no effect if instantiated.<\B>
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class PerformanceRunner{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args The JMH runner arguments.
+	 * @throws Exception If the benchmarks could not be run.
+	 */
+	public static void main(String[] args) throws Exception{
+		CommandLineOptions options = new CommandLineOptions(args);
+		
+		//listing and help are left to the JMH runner itself
+		if(options.shouldHelp() || options.shouldList()
+				|| options.shouldListWithParams()
+				|| options.shouldListProfilers()
+				|| options.shouldListResultFormats()){
+			Main.main(args);
+			return;
+		}
+		new Runner(new OptionsBuilder().parent(options)
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+	
+}
+//end of class.
@@ -0,0 +1,181 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.jmh;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+import invisibleinktoolkit.algorithms.BlindHide;
+import invisibleinktoolkit.benchmark.Benchmarker;
+import invisibleinktoolkit.benchmark.LaplaceGraph;
+import invisibleinktoolkit.benchmark.RSAnalysis;
+import invisibleinktoolkit.benchmark.SamplePairs;
+import invisibleinktoolkit.stego.CoverImage;
+import invisibleinktoolkit.stego.InsertableMessage;
+
+
+/**
+ * Measures how fast each kind of steganalysis, and the image quality
+ * benchmarks, work on a whole image.
+ * <P>
+ * The image being analysed has a message hidden in it by BlindHide,
+ * filling a set part of its lowest bits, and the quality benchmarks 
+ * compare it with the cover it was hidden in.  Everything that can be
+ * run on several threads is run with the number of threads given.
+ *
+ * @author Kathryn Hempstalk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SteganalysisBenchmark{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Makes the cover, and hides a message in it.
+	 *
+	 * @throws Exception If the message could not be hidden.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception{
+		mCover = SyntheticImages.createCover(size, size, SEED);
+		File message = File.createTempFile("diit-message", ".dat");
+		try{
+			SyntheticImages.createMessage(message, size, size, rate, SEED);
+			mStego = new BlindHide().encode(new InsertableMessage
+					(message.getPath()), new CoverImage(mCover), SEED)
+					.getImage();
+		}finally{
+			message.delete();
+		}
+		mBenchmarker = new Benchmarker(true, true, true, true, true, true,
+				true, true);
+		mBenchmarker.setThreads(threads);
+	}
+	
+	
+	/**
+	 * Runs RS analysis on all three colours, overlapping and not.
+	 *
+	 * @return The results of the analysis.
+	 */
+	@Benchmark
+	public double[][][] rsAnalysis(){
+		RSAnalysis rsa = new RSAnalysis(2, 2);
+		rsa.setThreads(threads);
+		return rsa.doAnalysis(mStego);
+	}
+	
+	
+	/**
+	 * Runs sample pairs analysis on all three colours.
+	 *
+	 * @return The estimated length of the message in each colour.
+	 */
+	@Benchmark
+	public double[] samplePairs(){
+		SamplePairs sp = new SamplePairs();
+		sp.setThreads(threads);
+		return sp.doAnalysis(mStego);
+	}
+	
+	
+	/**
+	 * Works out the Laplace graph.
+	 *
+	 * @return The graph.
+	 * @throws Exception If the image could not be filtered.
+	 */
+	@Benchmark
+	public double[][] laplaceGraph() throws Exception{
+		return LaplaceGraph.getGraph(mStego, threads);
+	}
+	
+	
+	/**
+	 * Runs all the image quality benchmarks.
+	 *
+	 * @return The results of the benchmarks.
+	 * @throws Exception If the benchmarks could not be run.
+	 */
+	@Benchmark
+	public String benchmarker() throws Exception{
+		return mBenchmarker.run(mCover, mStego);
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The seed for the cover, message and algorithm.
+	 */
+	private static final long SEED = 20051225L;
+	
+	/**
+	 * The width and height of the image.
+	 */
+	@Param({"256", "1024", "2048"})
+	public int size;
+	
+	/**
+	 * The fraction of the lowest bits of the cover the message fills.
+	 */
+	@Param({"0.01", "0.1"})
+	public double rate;
+	
+	/**
+	 * The number of threads to analyse with.
+	 */
+	@Param({"1", "4"})
+	public int threads;
+	
+	/**
+	 * The cover image.
+	 */
+	private BufferedImage mCover;
+	
+	/**
+	 * The cover with a message hidden in it.
+	 */
+	private BufferedImage mStego;
+	
+	/**
+	 * The image quality benchmarks, all turned on.
+	 */
+	private Benchmarker mBenchmarker;
+	
+}
+//end of class.
@@ -0,0 +1,196 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.jmh;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+import invisibleinktoolkit.filters.Laplace;
+import invisibleinktoolkit.filters.Filterable;
+import invisibleinktoolkit.stego.*;
+
+
+/**
+ * Measures how fast each stego algorithm hides and retrieves a message.
+ * <P>
+ * Every algorithm is run with and without LSB matching, on covers of a
+ * few sizes, with messages that fill a few different fractions of the
+ * cover.  The filtering algorithms use the Laplace filter.  Each 
+ * encode reads the message from disk and hides it in a new cover that
+ * shares the image until it is first changed, just as the command line
+ * does.
+ *
+ * @author Kathryn Hempstalk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StegoBenchmark{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Makes the cover, the message, and a stego image to retrieve it 
+	 * from.
+	 *
+	 * @throws Exception If the message could not be hidden.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception{
+		mCover = SyntheticImages.createCover(size, size, SEED);
+		mMessage = File.createTempFile("diit-message", ".dat");
+		mRetrieved = File.createTempFile("diit-retrieved", ".dat");
+		SyntheticImages.createMessage(mMessage, size, size, rate, SEED);
+		
+		mAlgorithm = createAlgorithm();
+		mStego = this.encode().getImage();
+	}
+	
+	
+	/**
+	 * Removes the message files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown(){
+		mMessage.delete();
+		mRetrieved.delete();
+	}
+	
+	
+	/**
+	 * Hides the message in the cover.
+	 *
+	 * @return The stego image.
+	 * @throws IOException If the message could not be read.
+	 */
+	@Benchmark
+	public StegoImage encode() throws IOException{
+		return mAlgorithm.encode(new InsertableMessage(mMessage.getPath()),
+				new CoverImage(mCover), SEED);
+	}
+	
+	
+	/**
+	 * Retrieves the message from the stego image.
+	 *
+	 * @return The retrieved message.
+	 * @throws Exception If the message could not be retrieved.
+	 */
+	@Benchmark
+	public RetrievedMessage decode() throws Exception{
+		return mAlgorithm.decode(new StegoImage(mStego), SEED, 
+				mRetrieved.getPath());
+	}
+	
+	
+	/**
+	 * Sets up the algorithm being benchmarked.
+	 *
+	 * @return The algorithm, hiding in the lowest bit.
+	 * @throws Exception If the algorithm could not be created.
+	 */
+	private StegoAlgorithm createAlgorithm() throws Exception{
+		StegoAlgorithm stego = (StegoAlgorithm)Class.forName
+		("invisibleinktoolkit.algorithms." + algorithm).newInstance();
+		if(stego instanceof Filterable)
+			((Filterable)stego).setFilter(new Laplace());
+		stego.setStartBits(0);
+		stego.setEndBits(0);
+		stego.setMatch(match);
+		return stego;
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The seed for the cover, message and algorithm.
+	 */
+	private static final long SEED = 20051225L;
+	
+	/**
+	 * The algorithm to benchmark.
+	 */
+	@Param({"BlindHide", "HideSeek", "FilterFirst", "DynamicFilterFirst",
+		"BattleSteg", "DynamicBattleSteg"})
+	public String algorithm;
+	
+	/**
+	 * Whether to use LSB matching.
+	 */
+	@Param({"false", "true"})
+	public boolean match;
+	
+	/**
+	 * The width and height of the cover.
+	 */
+	@Param({"256", "1024"})
+	public int size;
+	
+	/**
+	 * The fraction of the lowest bits of the cover the message fills.
+	 */
+	@Param({"0.01", "0.1"})
+	public double rate;
+	
+	/**
+	 * The cover image.
+	 */
+	private BufferedImage mCover;
+	
+	/**
+	 * The message to hide.
+	 */
+	private File mMessage;
+	
+	/**
+	 * Where retrieved messages are written.
+	 */
+	private File mRetrieved;
+	
+	/**
+	 * The algorithm being benchmarked.
+	 */
+	private StegoAlgorithm mAlgorithm;
+	
+	/**
+	 * The cover with the message hidden in it.
+	 */
+	private BufferedImage mStego;
+	
+}
+//end of class.
@@ -0,0 +1,128 @@
+/*
+ *    Digital Invisible Ink Toolkit
+ *    Copyright (C) 2005  K. Hempstalk	
+ *
+ *    This program is free software; you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation; either version 2 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program; if not, write to the Free Software
+ *    Foundation, Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ */
+package invisibleinktoolkit.jmh;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import invisibleinktoolkit.util.CounterRandom;
+
+
+/**
+ * Makes the cover images and messages for the performance benchmarks.
+ * <P>
+ * Everything is made from a seed, so every run benchmarks exactly the
+ * same data and no pictures or files have to come with the benchmarks.
+ * The covers are not just noise - they are smooth colour gradients,
+ * broken up into blocks with hard edges, with a little noise over the
+ * top, so the filters and steganalysis have something like a real 
+ * picture to work on.
+ * <P>
+ * <B>This class will have no effect if instantiated.<\B>
+ *
+ * @author Kathryn Hempstalk.
+ */
+public class SyntheticImages{
+	
+	//FUNCTIONS
+	
+	/**
+	 * Makes a cover image.
+	 *
+	 * @param width The width of the image.
+	 * @param height The height of the image.
+	 * @param seed The seed for the noise in the image.
+	 * @return A 24 bit colour image.
+	 */
+	public static BufferedImage createCover(int width, int height, long seed){
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_RGB);
+		CounterRandom random = new CounterRandom(seed);
+		int[] row = new int[width];
+		for(int y = 0; y < height; y++){
+			for(int x = 0; x < width; x++){
+				//gradients, with every other block brighter
+				int block = (((x / BLOCK_SIZE) + (y / BLOCK_SIZE)) % 2) * 64;
+				int red = ((x * 160) / width) + block;
+				int green = ((y * 160) / height) + block;
+				int blue = (((x + y) * 80) / (width + height)) + block;
+				
+				//a little noise over the top
+				long noise = random.getLong(((long)y * width) + x);
+				red = clamp(red + (int)(noise & 0xf) - 8);
+				green = clamp(green + (int)((noise >> 8) & 0xf) - 8);
+				blue = clamp(blue + (int)((noise >> 16) & 0xf) - 8);
+				row[x] = (red << 16) | (green << 8) | blue;
+			}
+			image.setRGB(0, y, width, 1, row, 0, width);
+		}
+		return image;
+	}
+	
+	
+	/**
+	 * Makes a message file that fills a set part of a cover image.
+	 *
+	 * @param file The file to write the message to.
+	 * @param width The width of the cover image.
+	 * @param height The height of the cover image.
+	 * @param rate The fraction of the lowest bits of the cover that the
+	 * message should fill.
+	 * @param seed The seed for the contents of the message.
+	 * @throws IOException If the message could not be written.
+	 */
+	public static void createMessage(File file, int width, int height,
+			double rate, long seed) throws IOException{
+		int size = Math.max(1, (int)((((long)width * height * 3) * rate) / 8));
+		byte[] message = new byte[size];
+		CounterRandom random = new CounterRandom(seed);
+		for(int i = 0; i < size; i++)
+			message[i] = (byte)random.getLong(i);
+		
+		FileOutputStream out = new FileOutputStream(file);
+		try{
+			out.write(message);
+		}finally{
+			out.close();
+		}
+	}
+	
+	
+	/**
+	 * Keeps a colour value between 0 and 255.
+	 *
+	 * @param value The colour value.
+	 * @return The value, clamped to a byte.
+	 */
+	private static int clamp(int value){
+		return Math.max(0, Math.min(255, value));
+	}
+	
+	
+	//VARIABLES
+	
+	/**
+	 * The size of the blocks in each cover.
+	 */
+	private static final int BLOCK_SIZE = 32;
+	
+}
+//end of class.